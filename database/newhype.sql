@@ -1179,6 +1179,249 @@ CREATE TABLE IF NOT EXISTS detalle_pedidos_tienda (
         REFERENCES productos(id) ON DELETE RESTRICT
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
+-- ═══════════════════════════════════════════════════════════════
+-- MIGRACIONES DE RENDIMIENTO
+-- Tablas de apoyo (rollups, correlativos, disponibilidad, uso), índices
+-- y particionado. Requieren las tablas anteriores, incluidas las del
+-- storefront; sobre una BD existente ejecutar este bloque en orden.
+-- ═══════════════════════════════════════════════════════════════
+
+-- ═══════════════════════════════════════════════════════════════
+-- ROLLUP DIARIO DE VENTAS (dashboard / reporte de ventas)
+-- Mantenido por VentaService.confirmarPago y NotaCreditoService.crear;
+-- reconstruible con POST /api/v1/reportes/ventas-diarias/reconstruir
+-- ═══════════════════════════════════════════════════════════════
+CREATE TABLE IF NOT EXISTS ventas_diarias (
+    id                      BIGINT          NOT NULL AUTO_INCREMENT,
+    tenant_id               BIGINT          NOT NULL,
+    fecha                   DATE            NOT NULL,
+    tipo_comprobante        ENUM('BOLETA','FACTURA','NOTA_VENTA') NOT NULL,
+    almacen_id              BIGINT          NOT NULL,
+    usuario_id              BIGINT          NOT NULL,
+    cantidad_ventas         INT             NOT NULL DEFAULT 0,
+    subtotal                DECIMAL(12,2)   NOT NULL DEFAULT 0.00,
+    igv                     DECIMAL(12,2)   NOT NULL DEFAULT 0.00,
+    descuento               DECIMAL(12,2)   NOT NULL DEFAULT 0.00,
+    total                   DECIMAL(12,2)   NOT NULL DEFAULT 0.00,
+    cantidad_notas_credito  INT             NOT NULL DEFAULT 0,
+    total_notas_credito     DECIMAL(12,2)   NOT NULL DEFAULT 0.00,
+    updated_at              DATETIME        DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_ventdia_clave (tenant_id, fecha, tipo_comprobante, almacen_id, usuario_id),
+    CONSTRAINT fk_ventdia_tenant FOREIGN KEY (tenant_id) REFERENCES tenants(id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- ═══════════════════════════════════════════════════════════════
+-- TOKENS REVOCADOS (logout) — compartido entre nodos
+-- Usado con app.jwt.revocation.store=jdbc; las filas sólo viven hasta
+-- el exp del token y se purgan periódicamente.
+-- ═══════════════════════════════════════════════════════════════
+CREATE TABLE IF NOT EXISTS tokens_revocados (
+    token_id                VARCHAR(64)     NOT NULL,
+    expira_en               DATETIME        NOT NULL,
+    created_at              DATETIME        NOT NULL,
+    PRIMARY KEY (token_id),
+    INDEX idx_tokrev_expira (expira_en),
+    INDEX idx_tokrev_created (created_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- ═══════════════════════════════════════════════════════════════
+-- GENERADOR DE IDS POR BLOQUES (@TableGenerator, allocationSize = 50)
+-- Detalles de documentos y kardex: permite INSERT en batch (IDENTITY lo impide).
+-- "siguiente" es el techo del próximo bloque; se siembra con MAX(id) + 50
+-- para que el primer bloque empiece justo después de los ids existentes.
+-- ═══════════════════════════════════════════════════════════════
+CREATE TABLE IF NOT EXISTS id_generadores (
+    entidad                 VARCHAR(64)     NOT NULL,
+    siguiente               BIGINT          NOT NULL,
+    PRIMARY KEY (entidad)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+INSERT IGNORE INTO id_generadores (entidad, siguiente)
+SELECT 'detalle_ventas', COALESCE(MAX(id), 0) + 50 FROM detalle_ventas
+UNION ALL SELECT 'pagos_venta', COALESCE(MAX(id), 0) + 50 FROM pagos_venta
+UNION ALL SELECT 'detalle_ordenes_compra', COALESCE(MAX(id), 0) + 50 FROM detalle_ordenes_compra
+UNION ALL SELECT 'detalle_transferencias', COALESCE(MAX(id), 0) + 50 FROM detalle_transferencias
+UNION ALL SELECT 'detalle_recepciones_compra', COALESCE(MAX(id), 0) + 50 FROM detalle_recepciones_compra
+UNION ALL SELECT 'detalle_notas_credito', COALESCE(MAX(id), 0) + 50 FROM detalle_notas_credito
+UNION ALL SELECT 'movimientos_inventario', COALESCE(MAX(id), 0) + 50 FROM movimientos_inventario;
+
+-- ═══════════════════════════════════════════════════════════════
+-- CORRELATIVOS DE DOCUMENTOS INTERNOS (VEN-, OC-, TRF-, NC-, REC-, PED-)
+-- Avanzados por NumeracionService con UPDATE atómico (bloques por nodo);
+-- reemplaza el COUNT(*) + 1 por tenant. Se siembra con el mayor número
+-- ya emitido para continuar la secuencia existente.
+-- ═══════════════════════════════════════════════════════════════
+CREATE TABLE IF NOT EXISTS correlativos_documento (
+    id                      BIGINT          NOT NULL AUTO_INCREMENT,
+    tenant_id               BIGINT          NOT NULL,
+    documento               ENUM('VENTA','ORDEN_COMPRA','TRANSFERENCIA','NOTA_CREDITO','RECEPCION','PEDIDO') NOT NULL,
+    ultimo_numero           BIGINT          NOT NULL DEFAULT 0,
+    updated_at              DATETIME        DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_correl_tenant_doc (tenant_id, documento),
+    CONSTRAINT fk_correl_tenant FOREIGN KEY (tenant_id) REFERENCES tenants(id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+INSERT IGNORE INTO correlativos_documento (tenant_id, documento, ultimo_numero)
+SELECT tenant_id, 'VENTA', MAX(CAST(SUBSTRING_INDEX(codigo_venta, '-', -1) AS UNSIGNED)) FROM ventas GROUP BY tenant_id
+UNION ALL SELECT tenant_id, 'ORDEN_COMPRA', MAX(CAST(SUBSTRING_INDEX(codigo, '-', -1) AS UNSIGNED)) FROM ordenes_compra GROUP BY tenant_id
+UNION ALL SELECT tenant_id, 'TRANSFERENCIA', MAX(CAST(SUBSTRING_INDEX(codigo, '-', -1) AS UNSIGNED)) FROM transferencias GROUP BY tenant_id
+UNION ALL SELECT tenant_id, 'NOTA_CREDITO', MAX(CAST(SUBSTRING_INDEX(codigo, '-', -1) AS UNSIGNED)) FROM notas_credito GROUP BY tenant_id
+UNION ALL SELECT tenant_id, 'RECEPCION', MAX(CAST(SUBSTRING_INDEX(codigo, '-', -1) AS UNSIGNED)) FROM recepciones_compra GROUP BY tenant_id
+UNION ALL SELECT tenant_id, 'PEDIDO', MAX(CAST(SUBSTRING_INDEX(codigo, '-', -1) AS UNSIGNED)) FROM pedidos_tienda GROUP BY tenant_id;
+
+-- ═══════════════════════════════════════════════════════════════
+-- DISPONIBILIDAD POR PRODUCTO (storefront)
+-- Unidades totales en todos los almacenes; mantenida con deltas por
+-- StockMovimientoService y reconciliada cada noche desde stock_almacen.
+-- ═══════════════════════════════════════════════════════════════
+CREATE TABLE IF NOT EXISTS producto_disponibilidad (
+    id                      BIGINT          NOT NULL AUTO_INCREMENT,
+    tenant_id               BIGINT          NOT NULL,
+    producto_id             BIGINT          NOT NULL,
+    unidades                BIGINT          NOT NULL DEFAULT 0,
+    disponible              TINYINT(1)      NOT NULL DEFAULT 0,
+    updated_at              DATETIME        DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_proddisp_tenant_prod (tenant_id, producto_id),
+    CONSTRAINT fk_proddisp_tenant FOREIGN KEY (tenant_id) REFERENCES tenants(id),
+    CONSTRAINT fk_proddisp_producto FOREIGN KEY (producto_id) REFERENCES productos(id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+INSERT IGNORE INTO producto_disponibilidad (tenant_id, producto_id, unidades, disponible)
+SELECT tenant_id, producto_id, COALESCE(SUM(cantidad), 0), COALESCE(SUM(cantidad), 0) > 0
+FROM stock_almacen
+GROUP BY tenant_id, producto_id;
+
+-- ═══════════════════════════════════════════════════════════════
+-- SLUG ÚNICO POR TENANT (detalle de producto del storefront)
+-- Desambigua slugs repetidos existentes y convierte idx_prod_slug en único.
+-- ═══════════════════════════════════════════════════════════════
+UPDATE productos p
+JOIN (SELECT id, ROW_NUMBER() OVER (PARTITION BY tenant_id, slug ORDER BY id) AS rn
+      FROM productos WHERE slug IS NOT NULL) d ON d.id = p.id
+SET p.slug = CONCAT(p.slug, '-', p.id)
+WHERE d.rn > 1;
+
+ALTER TABLE productos
+    DROP INDEX idx_prod_slug,
+    ADD UNIQUE KEY uk_prod_tenant_slug (tenant_id, slug);
+
+-- ═══════════════════════════════════════════════════════════════
+-- KARDEX POR CURSOR
+-- idx_movinv_tenant_prod pasa a cubrir el orden (created_at, id): la
+-- paginación keyset del kardex lee el índice sin ordenar ni contar.
+-- ═══════════════════════════════════════════════════════════════
+ALTER TABLE movimientos_inventario
+    DROP INDEX idx_movinv_tenant_prod,
+    ADD INDEX idx_movinv_tenant_prod (tenant_id, producto_id, created_at, id);
+
+-- ═══════════════════════════════════════════════════════════════
+-- PARTICIONADO MENSUAL (kardex y auditoría)
+-- RANGE COLUMNS(created_at), una partición por mes más pmax como
+-- cola. ParticionService crea los meses siguientes reorganizando pmax
+-- y, según la retención del plan (planes_suscripcion.retencion_meses),
+-- archiva en CSV.gz y elimina las particiones vencidas.
+-- MySQL exige la clave de partición en la PK y no admite claves
+-- foráneas en tablas particionadas: la integridad la valida la app.
+-- ═══════════════════════════════════════════════════════════════
+ALTER TABLE planes_suscripcion
+    ADD COLUMN retencion_meses INT DEFAULT 24 COMMENT 'Kardex y auditoría en línea; 0 = sin límite' AFTER periodo_prueba_dias;
+
+ALTER TABLE movimientos_inventario
+    DROP FOREIGN KEY fk_movinv_tenant,
+    DROP FOREIGN KEY fk_movinv_producto,
+    DROP FOREIGN KEY fk_movinv_almacen,
+    DROP FOREIGN KEY fk_movinv_motivo,
+    DROP FOREIGN KEY fk_movinv_usuario;
+
+ALTER TABLE movimientos_inventario
+    MODIFY created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, created_at);
+
+ALTER TABLE movimientos_inventario
+    PARTITION BY RANGE COLUMNS (created_at) (
+        PARTITION p_historico VALUES LESS THAN ('2026-10-01'),
+        PARTITION p202610 VALUES LESS THAN ('2026-11-01'),
+        PARTITION p202611 VALUES LESS THAN ('2026-12-01'),
+        PARTITION pmax VALUES LESS THAN (MAXVALUE)
+    );
+
+ALTER TABLE auditoria
+    DROP FOREIGN KEY fk_aud_tenant,
+    DROP FOREIGN KEY fk_aud_usuario;
+
+ALTER TABLE auditoria
+    MODIFY created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, created_at);
+
+ALTER TABLE auditoria
+    PARTITION BY RANGE COLUMNS (created_at) (
+        PARTITION p_historico VALUES LESS THAN ('2026-10-01'),
+        PARTITION p202610 VALUES LESS THAN ('2026-11-01'),
+        PARTITION p202611 VALUES LESS THAN ('2026-12-01'),
+        PARTITION pmax VALUES LESS THAN (MAXVALUE)
+    );
+
+ALTER TABLE auditoria_plataforma
+    DROP FOREIGN KEY fk_audplat_uplat,
+    DROP FOREIGN KEY fk_audplat_tenant;
+
+ALTER TABLE auditoria_plataforma
+    MODIFY created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, created_at),
+    ADD INDEX idx_audplat_tenant_fecha (tenant_id, created_at);
+
+ALTER TABLE auditoria_plataforma
+    PARTITION BY RANGE COLUMNS (created_at) (
+        PARTITION p_historico VALUES LESS THAN ('2026-10-01'),
+        PARTITION p202610 VALUES LESS THAN ('2026-11-01'),
+        PARTITION p202611 VALUES LESS THAN ('2026-12-01'),
+        PARTITION pmax VALUES LESS THAN (MAXVALUE)
+    );
+
+-- ═══════════════════════════════════════════════════════════════
+-- USO MENSUAL POR TENANT (cuotas del plan)
+-- Foto del uso frente a los límites del plan, una fila por tenant y
+-- mes; CuotaService la actualiza en cada reconciliación.
+-- ═══════════════════════════════════════════════════════════════
+CREATE TABLE IF NOT EXISTS uso_tenant_mensual (
+    id                      BIGINT          NOT NULL AUTO_INCREMENT,
+    tenant_id               BIGINT          NOT NULL,
+    periodo                 DATE            NOT NULL COMMENT 'Primer día del mes',
+    productos               BIGINT          NOT NULL DEFAULT 0,
+    usuarios                BIGINT          NOT NULL DEFAULT 0,
+    almacenes               BIGINT          NOT NULL DEFAULT 0,
+    ventas                  BIGINT          NOT NULL DEFAULT 0,
+    updated_at              DATETIME        DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_usotenant_periodo (tenant_id, periodo),
+    CONSTRAINT fk_usotenant_tenant FOREIGN KEY (tenant_id) REFERENCES tenants(id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- ═══════════════════════════════════════════════════════════════
+-- MÓDULOS VENDIBLES (@RequiereModulo / HabilitacionModulos)
+-- Códigos que usan los controllers; un código ausente de
+-- modulos_sistema no se restringe. Para no cortar a los tenants
+-- actuales, los módulos se incluyen en todos los planes existentes;
+-- luego se ajustan por plan (modulos_plan) o por tenant (modulos_tenant).
+-- ═══════════════════════════════════════════════════════════════
+INSERT IGNORE INTO modulos_sistema (codigo, nombre, descripcion) VALUES
+    ('VEN', 'Ventas',      'Punto de venta, comprobantes, caja y notas de crédito'),
+    ('INV', 'Inventario',  'Stock, kardex, transferencias y ajustes'),
+    ('COM', 'Compras',     'Órdenes de compra y recepciones'),
+    ('REP', 'Reportes',    'Dashboard y reportes de ventas e inventario');
+
+INSERT IGNORE INTO modulos_plan (plan_id, modulo_id)
+SELECT p.id, m.id
+FROM planes_suscripcion p
+CROSS JOIN modulos_sistema m
+WHERE m.codigo IN ('VEN', 'INV', 'COM', 'REP');
+
 -- ═══════════════════════════════════════════════════════════════
 -- FIN DEL SCRIPT
 -- ═══════════════════════════════════════════════════════════════
@@ -0,0 +1,12 @@
+package com.newhype.backend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita los jobs {@code @Scheduled} (rollups, mantenimiento).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,29 @@
+package com.newhype.backend.config;
+
+import com.newhype.backend.security.ModuleEntitlementInterceptor;
+import com.newhype.backend.security.PermissionInterceptor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Interceptores MVC sobre la API: habilitación de módulos por plan y, después, permisos del rol.
+ */
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    private final ModuleEntitlementInterceptor moduleEntitlementInterceptor;
+    private final PermissionInterceptor permissionInterceptor;
+
+    public WebMvcConfig(ModuleEntitlementInterceptor moduleEntitlementInterceptor,
+                        PermissionInterceptor permissionInterceptor) {
+        this.moduleEntitlementInterceptor = moduleEntitlementInterceptor;
+        this.permissionInterceptor = permissionInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(moduleEntitlementInterceptor).addPathPatterns("/api/v1/**");
+        registry.addInterceptor(permissionInterceptor).addPathPatterns("/api/v1/**");
+    }
+}
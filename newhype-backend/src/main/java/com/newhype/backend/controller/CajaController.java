@@ -2,6 +2,7 @@ package com.newhype.backend.controller;
 
 import com.newhype.backend.dto.ApiResponse;
 import com.newhype.backend.dto.caja.*;
+import com.newhype.backend.security.RequiereModulo;
 import com.newhype.backend.service.CajaService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -12,6 +13,7 @@ import org.springframework.web.bind.annotation.*;
 import java.util.List;
 
 @RestController
+@RequiereModulo(RequiereModulo.VENTAS)
 @RequestMapping("/api/v1/caja/sesiones")
 @Tag(name = "Caja", description = "Sesiones de caja y movimientos")
 public class CajaController {
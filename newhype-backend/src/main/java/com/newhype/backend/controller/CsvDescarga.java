@@ -0,0 +1,56 @@
+package com.newhype.backend.controller;
+
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Respuestas de descarga CSV en streaming (opcionalmente gzip). Los parámetros se validan
+ * antes de empezar a escribir: una vez enviado el primer byte ya no se puede responder 400.
+ */
+final class CsvDescarga {
+
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv", java.nio.charset.StandardCharsets.UTF_8);
+    private static final MediaType GZIP = MediaType.parseMediaType("application/gzip");
+
+    private CsvDescarga() {}
+
+    static ResponseEntity<StreamingResponseBody> descarga(String nombre, boolean comprimir,
+                                                          Consumer<OutputStream> exportador) {
+        StreamingResponseBody body = out -> {
+            if (comprimir) {
+                GZIPOutputStream gzip = new GZIPOutputStream(out, 64 * 1024);
+                exportador.accept(gzip);
+                gzip.finish();
+            } else {
+                exportador.accept(out);
+            }
+        };
+
+        String archivo = nombre + (comprimir ? ".csv.gz" : ".csv");
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(archivo).build().toString())
+                .contentType(comprimir ? GZIP : TEXT_CSV)
+                .body(body);
+    }
+
+    static LocalDate fecha(String valor, String parametro) {
+        if (valor == null || valor.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(valor);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(parametro + " debe tener formato yyyy-MM-dd");
+        }
+    }
+}
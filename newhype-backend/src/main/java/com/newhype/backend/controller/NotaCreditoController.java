@@ -3,6 +3,7 @@ package com.newhype.backend.controller;
 import com.newhype.backend.dto.ApiResponse;
 import com.newhype.backend.dto.notacredito.CrearNotaCreditoRequest;
 import com.newhype.backend.dto.notacredito.NotaCreditoResponse;
+import com.newhype.backend.security.RequiereModulo;
 import com.newhype.backend.service.NotaCreditoService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -15,6 +16,7 @@ import org.springframework.web.bind.annotation.*;
 import java.util.List;
 
 @RestController
+@RequiereModulo(RequiereModulo.VENTAS)
 @RequestMapping("/api/v1/notas-credito")
 @Tag(name = "Notas de Crédito", description = "Gestión de notas de crédito y devoluciones")
 public class NotaCreditoController {
@@ -2,6 +2,10 @@ package com.newhype.backend.controller;
 
 import com.newhype.backend.dto.ApiResponse;
 import com.newhype.backend.dto.compra.*;
+import com.newhype.backend.entity.OrdenCompra.EstadoOrdenCompra;
+import com.newhype.backend.security.RequiereModulo;
+import com.newhype.backend.security.TenantContext;
+import com.newhype.backend.service.ExportacionService;
 import com.newhype.backend.service.OrdenCompraService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -12,18 +16,23 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
+@RequiereModulo(RequiereModulo.COMPRAS)
 @RequestMapping("/api/v1/compras")
 @Tag(name = "Compras", description = "Gestión de órdenes de compra")
 public class OrdenCompraController {
 
     private final OrdenCompraService ordenCompraService;
+    private final ExportacionService exportacionService;
 
-    public OrdenCompraController(OrdenCompraService ordenCompraService) {
+    public OrdenCompraController(OrdenCompraService ordenCompraService, ExportacionService exportacionService) {
         this.ordenCompraService = ordenCompraService;
+        this.exportacionService = exportacionService;
     }
 
     @PostMapping("/ordenes")
@@ -59,6 +68,22 @@ public class OrdenCompraController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/ordenes/exportar")
+    @Operation(summary = "Exportar órdenes de compra con sus líneas a CSV (streaming, fechas yyyy-MM-dd)")
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @RequestParam(required = false) String estado,
+            @RequestParam(required = false) String fechaDesde,
+            @RequestParam(required = false) String fechaHasta,
+            @RequestParam(defaultValue = "false") boolean comprimir) {
+        Long tenantId = TenantContext.getCurrentTenantId();
+        EstadoOrdenCompra estadoEnum = estado != null && !estado.isBlank() ? EstadoOrdenCompra.valueOf(estado) : null;
+        LocalDate desde = CsvDescarga.fecha(fechaDesde, "fechaDesde");
+        LocalDate hasta = CsvDescarga.fecha(fechaHasta, "fechaHasta");
+        exportacionService.verificarCapacidad();
+        return CsvDescarga.descarga("compras_export", comprimir,
+                out -> exportacionService.exportarCompras(tenantId, estadoEnum, desde, hasta, out));
+    }
+
     @GetMapping("/ordenes/{id}")
     @Operation(summary = "Detalle de orden de compra con productos")
     public ResponseEntity<ApiResponse<OrdenCompraResponse>> obtenerPorId(@PathVariable Long id) {
@@ -21,21 +21,27 @@ public class PlatformOperacionesController {
     private final SuscripcionService suscripcionService;
     private final com.newhype.backend.service.TicketSoporteService ticketService;
     private final com.newhype.backend.repository.AuditoriaPlataformaRepository auditoriaRepository;
-    private final com.newhype.backend.repository.TenantRepository tenantRepository;
-    private final com.newhype.backend.repository.UsuarioPlataformaRepository usuarioPlataformaRepository;
+    private final com.newhype.backend.service.CatalogCache catalogCache;
+    private final com.newhype.backend.service.AuditoriaWriter auditoriaWriter;
+    private final com.newhype.backend.security.PasswordHashExecutor passwordHasher;
+    private final com.newhype.backend.security.LoginRateLimiter loginRateLimiter;
 
     public PlatformOperacionesController(PagoSuscripcionService pagoService,
                                           SuscripcionService suscripcionService,
                                           com.newhype.backend.service.TicketSoporteService ticketService,
                                           com.newhype.backend.repository.AuditoriaPlataformaRepository auditoriaRepository,
-                                          com.newhype.backend.repository.TenantRepository tenantRepository,
-                                          com.newhype.backend.repository.UsuarioPlataformaRepository usuarioPlataformaRepository) {
+                                          com.newhype.backend.service.CatalogCache catalogCache,
+                                          com.newhype.backend.service.AuditoriaWriter auditoriaWriter,
+                                          com.newhype.backend.security.PasswordHashExecutor passwordHasher,
+                                          com.newhype.backend.security.LoginRateLimiter loginRateLimiter) {
         this.pagoService = pagoService;
         this.suscripcionService = suscripcionService;
         this.ticketService = ticketService;
         this.auditoriaRepository = auditoriaRepository;
-        this.tenantRepository = tenantRepository;
-        this.usuarioPlataformaRepository = usuarioPlataformaRepository;
+        this.catalogCache = catalogCache;
+        this.auditoriaWriter = auditoriaWriter;
+        this.passwordHasher = passwordHasher;
+        this.loginRateLimiter = loginRateLimiter;
     }
 
     private void requirePlatformScope() {
@@ -123,7 +129,52 @@ public class PlatformOperacionesController {
         return ResponseEntity.ok(ApiResponse.ok("Ticket actualizado", response));
     }
 
+    // ── Caché de catálogos ──
+    @GetMapping("/cache/catalogos")
+    @Operation(summary = "Aciertos, fallos y entradas de la caché de catálogos maestros")
+    public ResponseEntity<ApiResponse<CacheCatalogosResponse>> cacheCatalogos() {
+        requirePlatformScope();
+        CacheCatalogosResponse response = CacheCatalogosResponse.builder()
+                .aciertos(catalogCache.getAciertos())
+                .fallos(catalogCache.getFallos())
+                .entradas(catalogCache.size())
+                .build();
+        return ResponseEntity.ok(ApiResponse.ok(response));
+    }
+
+    // ── Admisión de logins ──
+    @GetMapping("/auth/admision")
+    @Operation(summary = "Pool de hashing de contraseñas (cola, latencia) y rechazos por límite de tasa")
+    public ResponseEntity<ApiResponse<AdmisionLoginResponse>> admisionLogin() {
+        requirePlatformScope();
+        AdmisionLoginResponse response = AdmisionLoginResponse.builder()
+                .hilos(passwordHasher.getHilos())
+                .activos(passwordHasher.getActivos())
+                .enCola(passwordHasher.getEnCola())
+                .capacidadCola(passwordHasher.getCapacidadCola())
+                .completadas(passwordHasher.getCompletadas())
+                .rechazadasPool(passwordHasher.getRechazadas())
+                .latenciaPromedioMs(passwordHasher.getLatenciaPromedioMs())
+                .latenciaMaxMs(passwordHasher.getLatenciaMaxMs())
+                .esperaColaPromedioMs(passwordHasher.getEsperaColaPromedioMs())
+                .cubetasIp(loginRateLimiter.getCubetasIp())
+                .cubetasTenant(loginRateLimiter.getCubetasTenant())
+                .cubetasTienda(loginRateLimiter.getCubetasTienda())
+                .rechazadasIp(loginRateLimiter.getRechazadasIp())
+                .rechazadasTenant(loginRateLimiter.getRechazadasTenant())
+                .rechazadasTienda(loginRateLimiter.getRechazadasTienda())
+                .build();
+        return ResponseEntity.ok(ApiResponse.ok(response));
+    }
+
     // ── Auditoría ──
+    @GetMapping("/auditoria/escritor")
+    @Operation(summary = "Estado de la cola asíncrona de auditoría (pendientes, escritos, descartados)")
+    public ResponseEntity<ApiResponse<EscritorAuditoriaResponse>> escritorAuditoria() {
+        requirePlatformScope();
+        return ResponseEntity.ok(ApiResponse.ok(auditoriaWriter.getEstadisticas()));
+    }
+
     @GetMapping("/auditoria")
     @Operation(summary = "Logs de auditoría global")
     public ResponseEntity<ApiResponse<java.util.List<AuditoriaResponse>>> listarAuditoria(
@@ -138,34 +189,22 @@ public class PlatformOperacionesController {
         java.time.LocalDateTime desde = null;
         java.time.LocalDateTime hasta = null;
         if (fechaDesde != null) desde = java.time.LocalDate.parse(fechaDesde).atStartOfDay();
-        if (fechaHasta != null) hasta = java.time.LocalDate.parse(fechaHasta).atTime(23, 59, 59);
+        if (fechaHasta != null) hasta = java.time.LocalDate.parse(fechaHasta).plusDays(1).atStartOfDay();
 
         var result = auditoriaRepository.buscar(tenantId, accion, desde, hasta,
                 org.springframework.data.domain.PageRequest.of(page, size));
 
-        var data = result.getContent().stream().map(a -> {
-            String nombreUsuario = null;
-            if (a.getUsuarioPlataformaId() != null) {
-                nombreUsuario = usuarioPlataformaRepository.findById(a.getUsuarioPlataformaId())
-                        .map(u -> u.getNombreCompleto()).orElse(null);
-            }
-            String tenantNombre = null;
-            if (a.getTenantId() != null) {
-                tenantNombre = tenantRepository.findById(a.getTenantId())
-                        .map(t -> t.getNombre()).orElse(null);
-            }
-            return AuditoriaResponse.builder()
-                    .id(a.getId())
-                    .usuarioPlataformaId(a.getUsuarioPlataformaId())
-                    .nombreUsuario(nombreUsuario)
-                    .tenantId(a.getTenantId())
-                    .tenantNombre(tenantNombre)
-                    .accion(a.getAccion())
-                    .detalle(a.getDetalle())
-                    .ipAddress(a.getIpAddress())
-                    .createdAt(a.getCreatedAt())
-                    .build();
-        }).toList();
+        var data = result.getContent().stream().map(a -> AuditoriaResponse.builder()
+                .id(a.getId())
+                .usuarioPlataformaId(a.getUsuarioPlataformaId())
+                .nombreUsuario(a.getNombreUsuario())
+                .tenantId(a.getTenantId())
+                .tenantNombre(a.getTenantNombre())
+                .accion(a.getAccion())
+                .detalle(a.getDetalle())
+                .ipAddress(a.getIpAddress())
+                .createdAt(a.getCreatedAt())
+                .build()).toList();
 
         return ResponseEntity.ok(ApiResponse.<java.util.List<AuditoriaResponse>>builder()
                 .success(true)
@@ -4,6 +4,7 @@ import com.newhype.backend.dto.ApiResponse;
 import com.newhype.backend.dto.platform.*;
 import com.newhype.backend.entity.Tenant;
 import com.newhype.backend.security.TenantContext;
+import com.newhype.backend.service.CuotaService;
 import com.newhype.backend.service.PagoSuscripcionService;
 import com.newhype.backend.service.PlatformTenantService;
 import com.newhype.backend.service.SuscripcionService;
@@ -25,13 +26,16 @@ public class PlatformTenantController {
     private final PlatformTenantService tenantService;
     private final SuscripcionService suscripcionService;
     private final PagoSuscripcionService pagoService;
+    private final CuotaService cuotaService;
 
     public PlatformTenantController(PlatformTenantService tenantService,
                                      SuscripcionService suscripcionService,
-                                     PagoSuscripcionService pagoService) {
+                                     PagoSuscripcionService pagoService,
+                                     CuotaService cuotaService) {
         this.tenantService = tenantService;
         this.suscripcionService = suscripcionService;
         this.pagoService = pagoService;
+        this.cuotaService = cuotaService;
     }
 
     private void requirePlatformScope() {
@@ -162,4 +166,12 @@ public class PlatformTenantController {
         List<PagoResponse> pagos = pagoService.historialPagos(id);
         return ResponseEntity.ok(ApiResponse.ok(pagos));
     }
+
+    @GetMapping("/{id}/uso")
+    @Operation(summary = "Uso actual del tenant frente a los límites de su plan")
+    public ResponseEntity<ApiResponse<UsoTenantResponse>> uso(@PathVariable Long id) {
+        requirePlatformScope();
+        tenantService.obtenerPorId(id);
+        return ResponseEntity.ok(ApiResponse.ok(cuotaService.consultar(id)));
+    }
 }
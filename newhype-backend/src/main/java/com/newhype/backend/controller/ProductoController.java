@@ -2,6 +2,7 @@ package com.newhype.backend.controller;
 
 import com.newhype.backend.dto.ApiResponse;
 import com.newhype.backend.dto.producto.*;
+import com.newhype.backend.security.RequierePermiso;
 import com.newhype.backend.service.ProductoService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -74,6 +75,7 @@ public class ProductoController {
     }
 
     @DeleteMapping("/{id}")
+    @RequierePermiso("products.delete")
     @Operation(summary = "Eliminar producto (soft delete)")
     public ResponseEntity<ApiResponse<Void>> eliminar(@PathVariable Long id) {
         productoService.eliminar(id);
@@ -83,6 +85,7 @@ public class ProductoController {
     // ── New endpoints ──
 
     @PatchMapping("/{id}/estado")
+    @RequierePermiso("products.update")
     @Operation(summary = "Cambiar estado de producto")
     public ResponseEntity<ApiResponse<ProductoResponse>> cambiarEstado(
             @PathVariable Long id,
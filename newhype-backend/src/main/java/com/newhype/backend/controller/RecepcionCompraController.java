@@ -3,6 +3,7 @@ package com.newhype.backend.controller;
 import com.newhype.backend.dto.ApiResponse;
 import com.newhype.backend.dto.compra.CrearRecepcionRequest;
 import com.newhype.backend.dto.compra.RecepcionCompraResponse;
+import com.newhype.backend.security.RequiereModulo;
 import com.newhype.backend.service.RecepcionCompraService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -15,6 +16,7 @@ import org.springframework.web.bind.annotation.*;
 import java.util.List;
 
 @RestController
+@RequiereModulo(RequiereModulo.COMPRAS)
 @RequestMapping("/api/v1/compras/recepciones")
 @Tag(name = "Recepciones", description = "Gestión de recepciones de compra")
 public class RecepcionCompraController {
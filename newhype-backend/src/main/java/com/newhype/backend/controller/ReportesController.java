@@ -2,21 +2,29 @@ package com.newhype.backend.controller;
 
 import com.newhype.backend.dto.ApiResponse;
 import com.newhype.backend.dto.reporte.*;
+import com.newhype.backend.security.RequiereModulo;
+import com.newhype.backend.security.TenantContext;
 import com.newhype.backend.service.ReportesService;
+import com.newhype.backend.service.VentaDiariaService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+
 @RestController
+@RequiereModulo(RequiereModulo.REPORTES)
 @RequestMapping("/api/v1/reportes")
 @Tag(name = "Reportes", description = "Reportes y analítica del negocio")
 public class ReportesController {
 
     private final ReportesService reportesService;
+    private final VentaDiariaService ventaDiariaService;
 
-    public ReportesController(ReportesService reportesService) {
+    public ReportesController(ReportesService reportesService, VentaDiariaService ventaDiariaService) {
         this.reportesService = reportesService;
+        this.ventaDiariaService = ventaDiariaService;
     }
 
     @GetMapping("/resumen")
@@ -87,4 +95,16 @@ public class ReportesController {
         return ResponseEntity.ok(ApiResponse.ok(
                 reportesService.productosMasVendidos(fechaDesde, fechaHasta, categoriaId, top)));
     }
+
+    @PostMapping("/ventas-diarias/reconstruir")
+    @Operation(summary = "Reconstruir el rollup diario de ventas desde el historial")
+    public ResponseEntity<ApiResponse<Integer>> reconstruirVentasDiarias(
+            @RequestParam(required = false) String fechaDesde,
+            @RequestParam(required = false) String fechaHasta) {
+        int filas = ventaDiariaService.reconstruir(
+                TenantContext.getCurrentTenantId(),
+                fechaDesde != null ? LocalDate.parse(fechaDesde) : null,
+                fechaHasta != null ? LocalDate.parse(fechaHasta) : null);
+        return ResponseEntity.ok(ApiResponse.ok("Rollup reconstruido", filas));
+    }
 }
@@ -2,6 +2,7 @@ package com.newhype.backend.controller;
 
 import com.newhype.backend.dto.ApiResponse;
 import com.newhype.backend.dto.usuario.*;
+import com.newhype.backend.security.RequierePermiso;
 import com.newhype.backend.service.RolService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -23,6 +24,7 @@ public class RolController {
     }
 
     @PostMapping
+    @RequierePermiso("roles.create")
     @Operation(summary = "Crear rol con permisos JSON")
     public ResponseEntity<ApiResponse<RolResponse>> crear(
             @Valid @RequestBody CrearRolRequest request) {
@@ -38,6 +40,7 @@ public class RolController {
     }
 
     @PutMapping("/{id}")
+    @RequierePermiso("roles.update")
     @Operation(summary = "Actualizar permisos del rol (no roles es_sistema)")
     public ResponseEntity<ApiResponse<RolResponse>> actualizar(
             @PathVariable Long id,
@@ -47,6 +50,7 @@ public class RolController {
     }
 
     @PatchMapping("/{id}/estado")
+    @RequierePermiso("roles.update")
     @Operation(summary = "Desactivar rol (validar sin usuarios asignados, no es_sistema)")
     public ResponseEntity<ApiResponse<RolResponse>> cambiarEstado(@PathVariable Long id) {
         RolResponse response = rolService.cambiarEstado(id);
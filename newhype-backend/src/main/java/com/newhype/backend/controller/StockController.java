@@ -2,30 +2,38 @@ package com.newhype.backend.controller;
 
 import com.newhype.backend.dto.ApiResponse;
 import com.newhype.backend.dto.inventario.AjusteInventarioRequest;
+import com.newhype.backend.dto.stock.KardexCursorResponse;
 import com.newhype.backend.dto.stock.KardexResponse;
 import com.newhype.backend.dto.stock.StockResponse;
+import com.newhype.backend.security.RequiereModulo;
+import com.newhype.backend.security.RequierePermiso;
+import com.newhype.backend.security.TenantContext;
+import com.newhype.backend.service.ExportacionService;
 import com.newhype.backend.service.StockService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
 @RestController
+@RequiereModulo(RequiereModulo.INVENTARIO)
 @RequestMapping("/api/v1/inventario")
 @Tag(name = "Inventario", description = "Gestión de inventario, kardex, alertas, ajustes y exportación")
 public class StockController {
 
     private final StockService stockService;
+    private final ExportacionService exportacionService;
 
-    public StockController(StockService stockService) {
+    public StockController(StockService stockService, ExportacionService exportacionService) {
         this.stockService = stockService;
+        this.exportacionService = exportacionService;
     }
 
     @GetMapping("/stock")
@@ -59,6 +67,20 @@ public class StockController {
         return ResponseEntity.ok(ApiResponse.ok(data));
     }
 
+    @GetMapping("/kardex/cursor")
+    @Operation(summary = "Kardex por cursor con saldo acumulado valorizado (sin COUNT; fechas yyyy-MM-dd)")
+    public ResponseEntity<ApiResponse<KardexCursorResponse>> getKardexCursor(
+            @RequestParam Long productoId,
+            @RequestParam(required = false) Long almacenId,
+            @RequestParam(required = false) String fechaDesde,
+            @RequestParam(required = false) String fechaHasta,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        KardexCursorResponse response = stockService.getKardexCursor(
+                productoId, almacenId, fechaDesde, fechaHasta, cursor, size);
+        return ResponseEntity.ok(ApiResponse.ok(response));
+    }
+
     @GetMapping("/alertas")
     @Operation(summary = "Listar productos con stock bajo mínimo")
     public ResponseEntity<ApiResponse<List<StockResponse>>> getAlertas() {
@@ -67,6 +89,7 @@ public class StockController {
     }
 
     @PostMapping("/ajustes")
+    @RequierePermiso("inventory.update")
     @Operation(summary = "Ajuste manual de inventario (ingreso/egreso + motivo)")
     public ResponseEntity<ApiResponse<KardexResponse>> ajusteInventario(
             @Valid @RequestBody AjusteInventarioRequest request) {
@@ -75,22 +98,29 @@ public class StockController {
     }
 
     @GetMapping("/stock/exportar")
-    @Operation(summary = "Exportar stock a CSV")
-    public ResponseEntity<byte[]> exportarStock(
-            @RequestParam(required = false) Long almacenId) {
-        List<List<String>> rows = stockService.exportarStockCsv(almacenId);
-
-        StringBuilder csv = new StringBuilder();
-        for (List<String> row : rows) {
-            csv.append(String.join(",", row)).append("\n");
-        }
-
-        byte[] content = csv.toString().getBytes(java.nio.charset.StandardCharsets.UTF_8);
+    @Operation(summary = "Exportar stock a CSV (streaming, ?comprimir=true para gzip)")
+    public ResponseEntity<StreamingResponseBody> exportarStock(
+            @RequestParam(required = false) Long almacenId,
+            @RequestParam(defaultValue = "false") boolean comprimir) {
+        Long tenantId = TenantContext.getCurrentTenantId();
+        exportacionService.verificarCapacidad();
+        return CsvDescarga.descarga("stock_export", comprimir,
+                out -> exportacionService.exportarStock(tenantId, almacenId, out));
+    }
 
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=stock_export.csv")
-                .contentType(MediaType.parseMediaType("text/csv"))
-                .contentLength(content.length)
-                .body(content);
+    @GetMapping("/kardex/exportar")
+    @Operation(summary = "Exportar kardex a CSV (streaming, fechas yyyy-MM-dd)")
+    public ResponseEntity<StreamingResponseBody> exportarKardex(
+            @RequestParam(required = false) Long productoId,
+            @RequestParam(required = false) Long almacenId,
+            @RequestParam(required = false) String fechaDesde,
+            @RequestParam(required = false) String fechaHasta,
+            @RequestParam(defaultValue = "false") boolean comprimir) {
+        Long tenantId = TenantContext.getCurrentTenantId();
+        LocalDate desde = CsvDescarga.fecha(fechaDesde, "fechaDesde");
+        LocalDate hasta = CsvDescarga.fecha(fechaHasta, "fechaHasta");
+        exportacionService.verificarCapacidad();
+        return CsvDescarga.descarga("kardex_export", comprimir,
+                out -> exportacionService.exportarKardex(tenantId, productoId, almacenId, desde, hasta, out));
     }
 }
@@ -3,6 +3,7 @@ package com.newhype.backend.controller;
 import com.newhype.backend.dto.ApiResponse;
 import com.newhype.backend.dto.transferencia.CrearTransferenciaRequest;
 import com.newhype.backend.dto.transferencia.TransferenciaResponse;
+import com.newhype.backend.security.RequiereModulo;
 import com.newhype.backend.service.TransferenciaService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -15,6 +16,7 @@ import org.springframework.web.bind.annotation.*;
 import java.util.List;
 
 @RestController
+@RequiereModulo(RequiereModulo.INVENTARIO)
 @RequestMapping("/api/v1/transferencias")
 @Tag(name = "Transferencias", description = "Transferencias de inventario entre almacenes")
 public class TransferenciaController {
@@ -1,81 +1,63 @@
 package com.newhype.backend.controller;
 
-import com.newhype.backend.dto.ApiResponse;
-import com.newhype.backend.dto.configuracion.UbigeoResponse;
-import com.newhype.backend.entity.Departamento;
-import com.newhype.backend.entity.Provincia;
-import com.newhype.backend.entity.Distrito;
-import com.newhype.backend.repository.DepartamentoRepository;
-import com.newhype.backend.repository.ProvinciaRepository;
-import com.newhype.backend.repository.DistritoRepository;
+import com.newhype.backend.service.UbigeoService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-import java.util.stream.Collectors;
+import java.time.Duration;
 
+/**
+ * Las respuestas salen pre-serializadas desde {@link UbigeoService} con ETag fuerte:
+ * un GET con {@code If-None-Match} vigente se responde 304 sin cuerpo.
+ */
 @RestController
 @RequestMapping("/api/v1/ubigeo")
 @Tag(name = "Ubigeo", description = "Datos geográficos del Perú (read-only)")
 public class UbigeoController {
 
-    private final DepartamentoRepository departamentoRepository;
-    private final ProvinciaRepository provinciaRepository;
-    private final DistritoRepository distritoRepository;
+    private static final CacheControl CACHE = CacheControl.maxAge(Duration.ofDays(1))
+            .cachePrivate()
+            .mustRevalidate();
 
-    public UbigeoController(DepartamentoRepository departamentoRepository,
-                            ProvinciaRepository provinciaRepository,
-                            DistritoRepository distritoRepository) {
-        this.departamentoRepository = departamentoRepository;
-        this.provinciaRepository = provinciaRepository;
-        this.distritoRepository = distritoRepository;
+    private final UbigeoService ubigeoService;
+
+    public UbigeoController(UbigeoService ubigeoService) {
+        this.ubigeoService = ubigeoService;
     }
 
     @GetMapping("/departamentos")
     @Operation(summary = "Listar 25 departamentos del Perú")
-    public ResponseEntity<ApiResponse<List<UbigeoResponse>>> listarDepartamentos() {
-        List<UbigeoResponse> departamentos = departamentoRepository.findAllByOrderByNombreAsc()
-                .stream()
-                .map(d -> UbigeoResponse.builder()
-                        .id(d.getId())
-                        .codigo(d.getCodigo())
-                        .nombre(d.getNombre())
-                        .build())
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(ApiResponse.ok(departamentos));
+    public ResponseEntity<byte[]> listarDepartamentos() {
+        return responder(ubigeoService.departamentos());
     }
 
     @GetMapping("/provincias")
     @Operation(summary = "Listar provincias por departamento (?departamentoId=x)")
-    public ResponseEntity<ApiResponse<List<UbigeoResponse>>> listarProvincias(
-            @RequestParam Long departamentoId) {
-        List<UbigeoResponse> provincias = provinciaRepository.findByDepartamentoIdOrderByNombreAsc(departamentoId)
-                .stream()
-                .map(p -> UbigeoResponse.builder()
-                        .id(p.getId())
-                        .codigo(p.getCodigo())
-                        .nombre(p.getNombre())
-                        .parentId(p.getDepartamentoId())
-                        .build())
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(ApiResponse.ok(provincias));
+    public ResponseEntity<byte[]> listarProvincias(@RequestParam Long departamentoId) {
+        return responder(ubigeoService.provincias(departamentoId));
     }
 
     @GetMapping("/distritos")
     @Operation(summary = "Listar distritos por provincia (?provinciaId=x)")
-    public ResponseEntity<ApiResponse<List<UbigeoResponse>>> listarDistritos(
-            @RequestParam Long provinciaId) {
-        List<UbigeoResponse> distritos = distritoRepository.findByProvinciaIdOrderByNombreAsc(provinciaId)
-                .stream()
-                .map(d -> UbigeoResponse.builder()
-                        .id(d.getId())
-                        .codigo(d.getCodigo())
-                        .nombre(d.getNombre())
-                        .parentId(d.getProvinciaId())
-                        .build())
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(ApiResponse.ok(distritos));
+    public ResponseEntity<byte[]> listarDistritos(@RequestParam Long provinciaId) {
+        return responder(ubigeoService.distritos(provinciaId));
+    }
+
+    @GetMapping("/arbol")
+    @Operation(summary = "Jerarquía completa: departamentos → provincias → distritos (campo hijos)")
+    public ResponseEntity<byte[]> arbol() {
+        return responder(ubigeoService.arbol());
+    }
+
+    private ResponseEntity<byte[]> responder(UbigeoService.Respuesta respuesta) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(respuesta.etag())
+                .cacheControl(CACHE)
+                .body(respuesta.cuerpo());
     }
 }
@@ -2,6 +2,7 @@ package com.newhype.backend.controller;
 
 import com.newhype.backend.dto.ApiResponse;
 import com.newhype.backend.dto.usuario.*;
+import com.newhype.backend.security.RequierePermiso;
 import com.newhype.backend.service.UsuarioService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -25,6 +26,7 @@ public class UsuarioController {
     }
 
     @PostMapping
+    @RequierePermiso("users.create")
     @Operation(summary = "Crear usuario (password 8+ chars, mayúsc, minúsc, números)")
     public ResponseEntity<ApiResponse<UsuarioResponse>> crear(
             @Valid @RequestBody CrearUsuarioRequest request) {
@@ -64,6 +66,7 @@ public class UsuarioController {
     }
 
     @PutMapping("/{id}")
+    @RequierePermiso("users.update")
     @Operation(summary = "Actualizar datos de usuario (email único en tenant)")
     public ResponseEntity<ApiResponse<UsuarioResponse>> actualizar(
             @PathVariable Long id,
@@ -73,6 +76,7 @@ public class UsuarioController {
     }
 
     @PatchMapping("/{id}/password")
+    @RequierePermiso("users.update")
     @Operation(summary = "Cambiar contraseña de usuario (solo Admin)")
     public ResponseEntity<ApiResponse<Void>> cambiarPassword(
             @PathVariable Long id,
@@ -82,6 +86,7 @@ public class UsuarioController {
     }
 
     @PatchMapping("/{id}/estado")
+    @RequierePermiso("users.update")
     @Operation(summary = "Activar/desactivar usuario (no puede desactivarse a sí mismo)")
     public ResponseEntity<ApiResponse<UsuarioResponse>> cambiarEstado(@PathVariable Long id) {
         UsuarioResponse response = usuarioService.cambiarEstado(id);
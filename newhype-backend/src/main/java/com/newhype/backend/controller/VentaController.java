@@ -2,7 +2,12 @@ package com.newhype.backend.controller;
 
 import com.newhype.backend.dto.ApiResponse;
 import com.newhype.backend.dto.venta.*;
+import com.newhype.backend.entity.Venta.EstadoVenta;
+import com.newhype.backend.security.RequiereModulo;
+import com.newhype.backend.security.RequierePermiso;
+import com.newhype.backend.security.TenantContext;
 import com.newhype.backend.service.ComprobanteService;
+import com.newhype.backend.service.ExportacionService;
 import com.newhype.backend.service.VentaService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -13,20 +18,26 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
+@RequiereModulo(RequiereModulo.VENTAS)
 @RequestMapping("/api/v1/ventas")
 @Tag(name = "Ventas", description = "Gestión de ventas y POS")
 public class VentaController {
 
     private final VentaService ventaService;
     private final ComprobanteService comprobanteService;
+    private final ExportacionService exportacionService;
 
-    public VentaController(VentaService ventaService, ComprobanteService comprobanteService) {
+    public VentaController(VentaService ventaService, ComprobanteService comprobanteService,
+                           ExportacionService exportacionService) {
         this.ventaService = ventaService;
         this.comprobanteService = comprobanteService;
+        this.exportacionService = exportacionService;
     }
 
     @PostMapping
@@ -62,6 +73,22 @@ public class VentaController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/exportar")
+    @Operation(summary = "Exportar ventas con sus líneas a CSV (streaming, fechas yyyy-MM-dd)")
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @RequestParam(required = false) String estado,
+            @RequestParam(required = false) String fechaDesde,
+            @RequestParam(required = false) String fechaHasta,
+            @RequestParam(defaultValue = "false") boolean comprimir) {
+        Long tenantId = TenantContext.getCurrentTenantId();
+        EstadoVenta estadoEnum = estado != null && !estado.isBlank() ? EstadoVenta.valueOf(estado) : null;
+        LocalDate desde = CsvDescarga.fecha(fechaDesde, "fechaDesde");
+        LocalDate hasta = CsvDescarga.fecha(fechaHasta, "fechaHasta");
+        exportacionService.verificarCapacidad();
+        return CsvDescarga.descarga("ventas_export", comprimir,
+                out -> exportacionService.exportarVentas(tenantId, estadoEnum, desde, hasta, out));
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Detalle de venta con productos, pagos y cliente")
     public ResponseEntity<ApiResponse<VentaResponse>> obtenerPorId(@PathVariable Long id) {
@@ -70,6 +97,7 @@ public class VentaController {
     }
 
     @PatchMapping("/{id}/estado")
+    @RequierePermiso("sales.update")
     @Operation(summary = "Cambiar estado de venta")
     public ResponseEntity<ApiResponse<VentaResponse>> cambiarEstado(
             @PathVariable Long id,
@@ -88,6 +116,7 @@ public class VentaController {
     }
 
     @DeleteMapping("/{id}")
+    @RequierePermiso("sales.delete")
     @Operation(summary = "Eliminar venta PENDIENTE")
     public ResponseEntity<ApiResponse<Void>> eliminar(@PathVariable Long id) {
         ventaService.eliminar(id);
@@ -4,6 +4,8 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Builder;
 import lombok.Data;
 
+import java.util.List;
+
 @Data
 @Builder
 @JsonInclude(JsonInclude.Include.NON_NULL)
@@ -13,4 +15,5 @@ public class UbigeoResponse {
     private String codigo;
     private String nombre;
     private Long parentId; // departamentoId for provincias, provinciaId for distritos
+    private List<UbigeoResponse> hijos; // solo en /ubigeo/arbol
 }
@@ -23,8 +23,7 @@ public class CrearNotaCreditoRequest {
     @NotBlank(message = "La serie es obligatoria")
     private String serie;
 
-    @NotBlank(message = "El número es obligatorio")
-    private String numero;
+    private String numero; // opcional: si no se envía se toma el correlativo de la serie
 
     @NotBlank(message = "El motivo SUNAT es obligatorio")
     private String motivoSunat;
@@ -0,0 +1,29 @@
+package com.newhype.backend.dto.platform;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AdmisionLoginResponse {
+
+    // Pool de hashing de contraseñas
+    private Integer hilos;
+    private Integer activos;
+    private Integer enCola;
+    private Integer capacidadCola;
+    private Long completadas;
+    private Long rechazadasPool;
+    private Double latenciaPromedioMs;
+    private Double latenciaMaxMs;
+    private Double esperaColaPromedioMs;
+
+    // Token buckets
+    private Integer cubetasIp;
+    private Integer cubetasTenant;
+    private Integer cubetasTienda;
+    private Long rechazadasIp;
+    private Long rechazadasTenant;
+    private Long rechazadasTienda;
+}
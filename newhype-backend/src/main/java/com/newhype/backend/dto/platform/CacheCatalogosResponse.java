@@ -0,0 +1,14 @@
+package com.newhype.backend.dto.platform;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CacheCatalogosResponse {
+
+    private Long aciertos;
+    private Long fallos;
+    private Integer entradas;
+}
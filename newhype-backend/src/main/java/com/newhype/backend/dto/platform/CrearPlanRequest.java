@@ -32,6 +32,10 @@ public class CrearPlanRequest {
     private Integer maxVentasMes;
     private Integer periodoPruebaDias;
 
+    // Meses de kardex y auditoría en línea; 0 = sin límite
+    @Min(value = 0, message = "La retención no puede ser negativa")
+    private Integer retencionMeses;
+
     // Module IDs to include in this plan
     private List<Long> moduloIds;
 }
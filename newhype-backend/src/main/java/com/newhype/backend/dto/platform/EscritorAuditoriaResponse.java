@@ -0,0 +1,20 @@
+package com.newhype.backend.dto.platform;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EscritorAuditoriaResponse {
+
+    private Boolean activo;
+    private String saturacion;
+    private Integer capacidad;
+    private Integer pendientes;
+    private Long encolados;
+    private Long escritos;
+    private Long descartados;
+    private Long fallidos;
+    private Long lotes;
+}
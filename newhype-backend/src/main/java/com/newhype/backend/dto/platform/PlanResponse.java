@@ -23,6 +23,7 @@ public class PlanResponse {
     private Integer maxAlmacenes;
     private Integer maxVentasMes;
     private Integer periodoPruebaDias;
+    private Integer retencionMeses;
     private Boolean estado;
     private Long cantidadTenants;
     private List<ModuloResponse> modulos;
@@ -0,0 +1,23 @@
+package com.newhype.backend.dto.platform;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UsoTenantResponse {
+
+    private Long tenantId;
+    private String periodo;
+
+    // Límite 0 = ilimitado
+    private Long productos;
+    private Integer maxProductos;
+    private Long usuarios;
+    private Integer maxUsuarios;
+    private Long almacenes;
+    private Integer maxAlmacenes;
+    private Long ventasMes;
+    private Integer maxVentasMes;
+}
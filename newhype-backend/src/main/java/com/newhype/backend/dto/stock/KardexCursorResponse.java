@@ -0,0 +1,21 @@
+package com.newhype.backend.dto.stock;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class KardexCursorResponse {
+
+    private List<KardexResponse> movimientos;
+    private String siguienteCursor; // null cuando no hay más movimientos
+    private Boolean hayMas;
+    private BigDecimal costoUnitario;
+}
@@ -1,10 +1,12 @@
 package com.newhype.backend.dto.stock;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
@@ -22,4 +24,10 @@ public class KardexResponse {
     private Long almacenId;
     private Long usuarioId;
     private LocalDateTime createdAt;
+
+    // Solo en /kardex/cursor: saldo acumulado del alcance consultado y su valor a costo actual
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long saldo;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private BigDecimal valorSaldo;
 }
@@ -0,0 +1,54 @@
+package com.newhype.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Último número entregado por tenant para los códigos internos de documento
+ * (VEN-, OC-, TRF-, NC-, REC-, PED-). Lo avanza {@code NumeracionService}.
+ */
+@Entity
+@Table(name = "correlativos_documento")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CorrelativoDocumento {
+
+    public enum Documento {
+        VENTA("VEN-%05d"),
+        ORDEN_COMPRA("OC-%05d"),
+        TRANSFERENCIA("TRF-%05d"),
+        NOTA_CREDITO("NC-%05d"),
+        RECEPCION("REC-%05d"),
+        PEDIDO("PED-%06d");
+
+        private final String formato;
+
+        Documento(String formato) {
+            this.formato = formato;
+        }
+
+        public String formatear(long numero) {
+            return String.format(formato, numero);
+        }
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tenant_id", nullable = false)
+    private Long tenantId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "documento", nullable = false)
+    private Documento documento;
+
+    @Column(name = "ultimo_numero", nullable = false)
+    private Long ultimoNumero;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -13,8 +13,12 @@ import java.time.LocalDateTime;
 @Builder
 public class DetalleNotaCredito {
 
+    // Ids por bloques (id_generadores) para que Hibernate pueda agrupar los INSERT en batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "detalle_notas_credito_gen")
+    @TableGenerator(name = "detalle_notas_credito_gen", table = "id_generadores",
+            pkColumnName = "entidad", valueColumnName = "siguiente",
+            pkColumnValue = "detalle_notas_credito", allocationSize = 50)
     private Long id;
 
     @Column(name = "nota_credito_id", nullable = false)
@@ -17,8 +17,12 @@ import java.time.LocalDateTime;
 @Builder
 public class DetalleOrdenCompra {
 
+    // Ids por bloques (id_generadores) para que Hibernate pueda agrupar los INSERT en batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "detalle_ordenes_compra_gen")
+    @TableGenerator(name = "detalle_ordenes_compra_gen", table = "id_generadores",
+            pkColumnName = "entidad", valueColumnName = "siguiente",
+            pkColumnValue = "detalle_ordenes_compra", allocationSize = 50)
     private Long id;
 
     @Column(name = "orden_compra_id", nullable = false)
@@ -16,8 +16,12 @@ import java.time.LocalDateTime;
 @Builder
 public class DetalleRecepcionCompra {
 
+    // Ids por bloques (id_generadores) para que Hibernate pueda agrupar los INSERT en batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "detalle_recepciones_compra_gen")
+    @TableGenerator(name = "detalle_recepciones_compra_gen", table = "id_generadores",
+            pkColumnName = "entidad", valueColumnName = "siguiente",
+            pkColumnValue = "detalle_recepciones_compra", allocationSize = 50)
     private Long id;
 
     @Column(name = "recepcion_id", nullable = false)
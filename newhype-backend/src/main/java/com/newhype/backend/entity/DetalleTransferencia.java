@@ -16,8 +16,12 @@ import java.time.LocalDateTime;
 @Builder
 public class DetalleTransferencia {
 
+    // Ids por bloques (id_generadores) para que Hibernate pueda agrupar los INSERT en batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "detalle_transferencias_gen")
+    @TableGenerator(name = "detalle_transferencias_gen", table = "id_generadores",
+            pkColumnName = "entidad", valueColumnName = "siguiente",
+            pkColumnValue = "detalle_transferencias", allocationSize = 50)
     private Long id;
 
     @Column(name = "transferencia_id", nullable = false)
@@ -13,8 +13,12 @@ import java.time.LocalDateTime;
 @Builder
 public class DetalleVenta {
 
+    // Ids por bloques (id_generadores) para que Hibernate pueda agrupar los INSERT en batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "detalle_ventas_gen")
+    @TableGenerator(name = "detalle_ventas_gen", table = "id_generadores",
+            pkColumnName = "entidad", valueColumnName = "siguiente",
+            pkColumnValue = "detalle_ventas", allocationSize = 50)
     private Long id;
 
     @Column(name = "venta_id", nullable = false)
@@ -16,8 +16,12 @@ public class MovimientoInventario {
         ENTRADA, SALIDA, AJUSTE_INGRESO, AJUSTE_EGRESO
     }
 
+    // Ids por bloques (id_generadores) para que Hibernate pueda agrupar los INSERT en batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "movimientos_inventario_gen")
+    @TableGenerator(name = "movimientos_inventario_gen", table = "id_generadores",
+            pkColumnName = "entidad", valueColumnName = "siguiente",
+            pkColumnValue = "movimientos_inventario", allocationSize = 50)
     private Long id;
 
     @Column(name = "tenant_id", nullable = false)
@@ -13,8 +13,12 @@ import java.time.LocalDateTime;
 @Builder
 public class PagoVenta {
 
+    // Ids por bloques (id_generadores) para que Hibernate pueda agrupar los INSERT en batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "pagos_venta_gen")
+    @TableGenerator(name = "pagos_venta_gen", table = "id_generadores",
+            pkColumnName = "entidad", valueColumnName = "siguiente",
+            pkColumnValue = "pagos_venta", allocationSize = 50)
     private Long id;
 
     @Column(name = "venta_id", nullable = false)
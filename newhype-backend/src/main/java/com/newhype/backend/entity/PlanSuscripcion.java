@@ -44,6 +44,9 @@ public class PlanSuscripcion {
     @Column(name = "periodo_prueba_dias")
     private Integer periodoPruebaDias;
 
+    @Column(name = "retencion_meses")
+    private Integer retencionMeses;
+
     @Column(name = "estado")
     private Boolean estado;
 
@@ -63,6 +66,7 @@ public class PlanSuscripcion {
         if (maxAlmacenes == null) maxAlmacenes = 0;
         if (maxVentasMes == null) maxVentasMes = 0;
         if (periodoPruebaDias == null) periodoPruebaDias = 0;
+        if (retencionMeses == null) retencionMeses = 24;
     }
 
     @PreUpdate
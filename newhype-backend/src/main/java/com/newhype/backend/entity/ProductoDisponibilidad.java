@@ -0,0 +1,37 @@
+package com.newhype.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Proyección desnormalizada del stock total de un producto (todos los almacenes) para el
+ * storefront. La mantiene {@code ProductoDisponibilidadService} en cada movimiento de stock.
+ */
+@Entity
+@Table(name = "producto_disponibilidad")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductoDisponibilidad {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tenant_id", nullable = false)
+    private Long tenantId;
+
+    @Column(name = "producto_id", nullable = false)
+    private Long productoId;
+
+    @Column(name = "unidades", nullable = false)
+    private Long unidades;
+
+    @Column(name = "disponible", nullable = false)
+    private Boolean disponible;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
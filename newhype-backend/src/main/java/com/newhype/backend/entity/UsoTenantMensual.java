@@ -0,0 +1,44 @@
+package com.newhype.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Uso de un tenant frente a las cuotas de su plan, por mes. Lo escribe la reconciliación
+ * periódica de {@code CuotaService}; la verificación en línea usa los contadores en memoria.
+ */
+@Entity
+@Table(name = "uso_tenant_mensual")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UsoTenantMensual {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tenant_id", nullable = false)
+    private Long tenantId;
+
+    @Column(name = "periodo", nullable = false)
+    private LocalDate periodo;
+
+    @Column(name = "productos", nullable = false)
+    private Long productos;
+
+    @Column(name = "usuarios", nullable = false)
+    private Long usuarios;
+
+    @Column(name = "almacenes", nullable = false)
+    private Long almacenes;
+
+    @Column(name = "ventas", nullable = false)
+    private Long ventas;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
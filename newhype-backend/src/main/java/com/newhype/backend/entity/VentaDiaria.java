@@ -0,0 +1,65 @@
+package com.newhype.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Rollup diario de ventas completadas y notas de crédito aplicadas.
+ * Una fila por (tenant, fecha, tipo de comprobante, almacén, usuario); se acumula
+ * en la misma transacción que confirma la venta o emite la nota de crédito.
+ */
+@Entity
+@Table(name = "ventas_diarias")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class VentaDiaria {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tenant_id", nullable = false)
+    private Long tenantId;
+
+    @Column(name = "fecha", nullable = false)
+    private LocalDate fecha;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tipo_comprobante", nullable = false)
+    private Venta.TipoComprobante tipoComprobante;
+
+    @Column(name = "almacen_id", nullable = false)
+    private Long almacenId;
+
+    @Column(name = "usuario_id", nullable = false)
+    private Long usuarioId;
+
+    @Column(name = "cantidad_ventas", nullable = false)
+    private Integer cantidadVentas;
+
+    @Column(name = "subtotal", nullable = false, precision = 12, scale = 2)
+    private BigDecimal subtotal;
+
+    @Column(name = "igv", nullable = false, precision = 12, scale = 2)
+    private BigDecimal igv;
+
+    @Column(name = "descuento", nullable = false, precision = 12, scale = 2)
+    private BigDecimal descuento;
+
+    @Column(name = "total", nullable = false, precision = 12, scale = 2)
+    private BigDecimal total;
+
+    @Column(name = "cantidad_notas_credito", nullable = false)
+    private Integer cantidadNotasCredito;
+
+    @Column(name = "total_notas_credito", nullable = false, precision = 12, scale = 2)
+    private BigDecimal totalNotasCredito;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
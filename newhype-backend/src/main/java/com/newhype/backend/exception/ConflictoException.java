@@ -0,0 +1,15 @@
+package com.newhype.backend.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * La operación choca con un registro creado en paralelo (p. ej. una clave única): 409.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ConflictoException extends RuntimeException {
+
+    public ConflictoException(String message) {
+        super(message);
+    }
+}
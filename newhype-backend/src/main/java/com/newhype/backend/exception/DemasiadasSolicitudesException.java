@@ -0,0 +1,22 @@
+package com.newhype.backend.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Solicitud rechazada por control de admisión (límite de tasa o pool saturado): 429.
+ */
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class DemasiadasSolicitudesException extends RuntimeException {
+
+    private final long reintentarEnSegundos;
+
+    public DemasiadasSolicitudesException(String message, long reintentarEnSegundos) {
+        super(message);
+        this.reintentarEnSegundos = reintentarEnSegundos;
+    }
+
+    public long getReintentarEnSegundos() {
+        return reintentarEnSegundos;
+    }
+}
@@ -0,0 +1,15 @@
+package com.newhype.backend.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * El plan del tenant no incluye el módulo del endpoint solicitado: 403.
+ */
+@ResponseStatus(HttpStatus.FORBIDDEN)
+public class ModuloNoHabilitadoException extends RuntimeException {
+
+    public ModuloNoHabilitadoException(String codigo) {
+        super("El módulo " + codigo + " no está habilitado en su plan");
+    }
+}
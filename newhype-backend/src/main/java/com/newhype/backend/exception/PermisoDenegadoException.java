@@ -0,0 +1,15 @@
+package com.newhype.backend.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * El rol del usuario no concede el permiso que exige el endpoint: 403.
+ */
+@ResponseStatus(HttpStatus.FORBIDDEN)
+public class PermisoDenegadoException extends RuntimeException {
+
+    public PermisoDenegadoException(String permiso) {
+        super("Su rol no tiene el permiso " + permiso);
+    }
+}
@@ -1,7 +1,9 @@
 package com.newhype.backend.repository;
 
 import com.newhype.backend.entity.Almacen;
+import com.newhype.backend.repository.projection.ConteoTenantProjection;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 import java.util.Optional;
@@ -15,4 +17,11 @@ public interface AlmacenRepository extends JpaRepository<Almacen, Long> {
     Optional<Almacen> findByIdAndTenantId(Long id, Long tenantId);
 
     boolean existsByTenantIdAndCodigo(Long tenantId, String codigo);
+
+    long countByTenantIdAndEstadoTrue(Long tenantId);
+
+    // Reconciliación de cuotas: almacenes activos de todos los tenants en una pasada
+    @Query("SELECT a.tenantId AS tenantId, COUNT(a) AS total FROM Almacen a " +
+           "WHERE a.estado = true GROUP BY a.tenantId")
+    List<ConteoTenantProjection> contarActivosPorTenant();
 }
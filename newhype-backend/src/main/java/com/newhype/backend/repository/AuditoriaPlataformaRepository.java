@@ -1,6 +1,7 @@
 package com.newhype.backend.repository;
 
 import com.newhype.backend.entity.AuditoriaPlataforma;
+import com.newhype.backend.repository.projection.AuditoriaPlataformaListadoProjection;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -11,15 +12,27 @@ import java.time.LocalDateTime;
 
 public interface AuditoriaPlataformaRepository extends JpaRepository<AuditoriaPlataforma, Long> {
 
-    @Query("SELECT a FROM AuditoriaPlataforma a WHERE " +
-           "(:tenantId IS NULL OR a.tenantId = :tenantId) AND " +
-           "(:accion IS NULL OR a.accion = :accion) AND " +
-           "(:desde IS NULL OR a.createdAt >= :desde) AND " +
-           "(:hasta IS NULL OR a.createdAt <= :hasta) " +
-           "ORDER BY a.createdAt DESC")
-    Page<AuditoriaPlataforma> buscar(@Param("tenantId") Long tenantId,
-                                      @Param("accion") String accion,
-                                      @Param("desde") LocalDateTime desde,
-                                      @Param("hasta") LocalDateTime hasta,
-                                      Pageable pageable);
+    // Rango semiabierto [desde, hasta) sobre created_at: poda las particiones mensuales.
+    // Usuario y tenant se resuelven en la misma consulta; el COUNT no los necesita.
+    @Query(value = "SELECT a.id AS id, a.usuarioPlataformaId AS usuarioPlataformaId, " +
+                   "u.nombreCompleto AS nombreUsuario, a.tenantId AS tenantId, t.nombre AS tenantNombre, " +
+                   "a.accion AS accion, a.detalle AS detalle, a.ipAddress AS ipAddress, a.createdAt AS createdAt " +
+                   "FROM AuditoriaPlataforma a " +
+                   "LEFT JOIN UsuarioPlataforma u ON u.id = a.usuarioPlataformaId " +
+                   "LEFT JOIN Tenant t ON t.id = a.tenantId " +
+                   "WHERE (:tenantId IS NULL OR a.tenantId = :tenantId) AND " +
+                   "(:accion IS NULL OR a.accion = :accion) AND " +
+                   "(:desde IS NULL OR a.createdAt >= :desde) AND " +
+                   "(:hasta IS NULL OR a.createdAt < :hasta) " +
+                   "ORDER BY a.createdAt DESC, a.id DESC",
+           countQuery = "SELECT COUNT(a) FROM AuditoriaPlataforma a " +
+                        "WHERE (:tenantId IS NULL OR a.tenantId = :tenantId) AND " +
+                        "(:accion IS NULL OR a.accion = :accion) AND " +
+                        "(:desde IS NULL OR a.createdAt >= :desde) AND " +
+                        "(:hasta IS NULL OR a.createdAt < :hasta)")
+    Page<AuditoriaPlataformaListadoProjection> buscar(@Param("tenantId") Long tenantId,
+                                                      @Param("accion") String accion,
+                                                      @Param("desde") LocalDateTime desde,
+                                                      @Param("hasta") LocalDateTime hasta,
+                                                      Pageable pageable);
 }
@@ -2,7 +2,12 @@ package com.newhype.backend.repository;
 
 import com.newhype.backend.entity.ClienteTienda;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 public interface ClienteTiendaRepository extends JpaRepository<ClienteTienda, Long> {
@@ -12,4 +17,10 @@ public interface ClienteTiendaRepository extends JpaRepository<ClienteTienda, Lo
     Optional<ClienteTienda> findByIdAndTenantId(Long id, Long tenantId);
 
     boolean existsByTenantIdAndEmail(Long tenantId, String email);
+
+    // Login storefront: transacción propia y corta, fuera de la verificación del hash
+    @Modifying
+    @Transactional
+    @Query("UPDATE ClienteTienda c SET c.ultimoAcceso = :fecha WHERE c.id = :id")
+    int registrarAcceso(@Param("id") Long id, @Param("fecha") LocalDateTime fecha);
 }
@@ -0,0 +1,8 @@
+package com.newhype.backend.repository;
+
+import com.newhype.backend.entity.CorrelativoDocumento;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+// La reserva de bloques (UPDATE ... LAST_INSERT_ID) la hace NumeracionService en su propio pool
+public interface CorrelativoDocumentoRepository extends JpaRepository<CorrelativoDocumento, Long> {
+}
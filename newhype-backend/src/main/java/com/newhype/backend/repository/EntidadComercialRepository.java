@@ -25,6 +25,8 @@ public interface EntidadComercialRepository extends JpaRepository<EntidadComerci
 
     long countByTenantIdAndTipoEntidad(Long tenantId, TipoEntidad tipoEntidad);
 
+    long countByTenantId(Long tenantId);
+
     long countByTenantIdAndEstadoTrue(Long tenantId);
 
     long countByTenantIdAndCreatedAtAfter(Long tenantId, LocalDateTime fecha);
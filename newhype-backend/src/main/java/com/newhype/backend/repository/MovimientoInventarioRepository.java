@@ -1,10 +1,20 @@
 package com.newhype.backend.repository;
 
 import com.newhype.backend.entity.MovimientoInventario;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * movimientos_inventario está particionada por mes sobre created_at: los filtros de fecha van
+ * como rangos semiabiertos sobre la columna (sin funciones) para que MySQL pode particiones.
+ */
 public interface MovimientoInventarioRepository extends JpaRepository<MovimientoInventario, Long> {
 
     Page<MovimientoInventario> findByTenantIdAndProductoIdOrderByCreatedAtDesc(
@@ -12,4 +22,43 @@ public interface MovimientoInventarioRepository extends JpaRepository<Movimiento
 
     Page<MovimientoInventario> findByTenantIdAndProductoIdAndAlmacenIdOrderByCreatedAtDesc(
             Long tenantId, Long productoId, Long almacenId, Pageable pageable);
+
+    // ── Kardex por cursor (keyset sobre idx_movinv_tenant_prod: tenant, producto, created_at, id) ──
+    // Una variante por alcance y sin parámetros opcionales: el cursor (created_at, id) es un row
+    // constructor y "hasta" entra como cursor inicial, así MySQL hace un range seek sobre el índice.
+
+    @Query("SELECT m FROM MovimientoInventario m " +
+           "WHERE m.tenantId = :tenantId AND m.productoId = :productoId " +
+           "AND m.createdAt >= :desde AND m.createdAt <= :cursorFecha " +
+           "AND (m.createdAt, m.id) < (:cursorFecha, :cursorId) " +
+           "ORDER BY m.createdAt DESC, m.id DESC")
+    List<MovimientoInventario> buscarKardex(@Param("tenantId") Long tenantId,
+                                            @Param("productoId") Long productoId,
+                                            @Param("desde") LocalDateTime desde,
+                                            @Param("cursorFecha") LocalDateTime cursorFecha,
+                                            @Param("cursorId") Long cursorId,
+                                            Limit limit);
+
+    @Query("SELECT m FROM MovimientoInventario m " +
+           "WHERE m.tenantId = :tenantId AND m.productoId = :productoId AND m.almacenId = :almacenId " +
+           "AND m.createdAt >= :desde AND m.createdAt <= :cursorFecha " +
+           "AND (m.createdAt, m.id) < (:cursorFecha, :cursorId) " +
+           "ORDER BY m.createdAt DESC, m.id DESC")
+    List<MovimientoInventario> buscarKardexAlmacen(@Param("tenantId") Long tenantId,
+                                                   @Param("productoId") Long productoId,
+                                                   @Param("almacenId") Long almacenId,
+                                                   @Param("desde") LocalDateTime desde,
+                                                   @Param("cursorFecha") LocalDateTime cursorFecha,
+                                                   @Param("cursorId") Long cursorId,
+                                                   Limit limit);
+
+    // Variación neta de stock desde una fecha (saldo inicial del kardex con fechaHasta en el pasado)
+    @Query("SELECT COALESCE(SUM(m.stockDespues - m.stockAntes), 0) FROM MovimientoInventario m " +
+           "WHERE m.tenantId = :tenantId AND m.productoId = :productoId " +
+           "AND (:almacenId IS NULL OR m.almacenId = :almacenId) " +
+           "AND m.createdAt >= :desde")
+    long sumarVariacionDesde(@Param("tenantId") Long tenantId,
+                             @Param("productoId") Long productoId,
+                             @Param("almacenId") Long almacenId,
+                             @Param("desde") LocalDateTime desde);
 }
@@ -2,18 +2,24 @@ package com.newhype.backend.repository;
 
 import com.newhype.backend.entity.OrdenCompra;
 import com.newhype.backend.entity.OrdenCompra.EstadoOrdenCompra;
+import com.newhype.backend.repository.projection.CompraPorProveedorProjection;
+import com.newhype.backend.repository.projection.TotalesProjection;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.data.jpa.repository.EntityGraph;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 public interface OrdenCompraRepository extends JpaRepository<OrdenCompra, Long> {
 
     Optional<OrdenCompra> findByIdAndTenantId(Long id, Long tenantId);
 
+    @EntityGraph(attributePaths = {"proveedor", "almacenDestino"})
     @Query("SELECT o FROM OrdenCompra o WHERE o.tenantId = :tenantId " +
            "AND (:estado IS NULL OR o.estado = :estado) " +
            "AND (:proveedorId IS NULL OR o.proveedorId = :proveedorId) " +
@@ -30,4 +36,25 @@ public interface OrdenCompraRepository extends JpaRepository<OrdenCompra, Long>
     @Query("SELECT COALESCE(SUM(o.total), 0) FROM OrdenCompra o WHERE o.tenantId = :tenantId AND o.estado = :estado")
     java.math.BigDecimal sumTotalByTenantIdAndEstado(@Param("tenantId") Long tenantId,
                                                       @Param("estado") EstadoOrdenCompra estado);
+
+    @Query("SELECT COUNT(o) AS cantidad, COALESCE(SUM(o.total), 0) AS total " +
+           "FROM OrdenCompra o WHERE o.tenantId = :tenantId AND o.estado = :estado " +
+           "AND o.createdAt BETWEEN :desde AND :hasta")
+    TotalesProjection totalizar(@Param("tenantId") Long tenantId,
+                                @Param("estado") EstadoOrdenCompra estado,
+                                @Param("desde") LocalDateTime desde,
+                                @Param("hasta") LocalDateTime hasta);
+
+    @Query("SELECT o.proveedorId AS proveedorId, p.razonSocial AS proveedorNombre, o.estado AS estado, " +
+           "COUNT(o) AS cantidad, COALESCE(SUM(o.total), 0) AS total " +
+           "FROM OrdenCompra o LEFT JOIN o.proveedor p " +
+           "WHERE o.tenantId = :tenantId AND o.createdAt BETWEEN :desde AND :hasta " +
+           "AND (:proveedorId IS NULL OR o.proveedorId = :proveedorId) " +
+           "AND (:estado IS NULL OR o.estado = :estado) " +
+           "GROUP BY o.proveedorId, p.razonSocial, o.estado")
+    List<CompraPorProveedorProjection> totalizarPorProveedor(@Param("tenantId") Long tenantId,
+                                                             @Param("desde") LocalDateTime desde,
+                                                             @Param("hasta") LocalDateTime hasta,
+                                                             @Param("proveedorId") Long proveedorId,
+                                                             @Param("estado") EstadoOrdenCompra estado);
 }
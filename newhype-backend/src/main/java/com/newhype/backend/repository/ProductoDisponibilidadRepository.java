@@ -0,0 +1,63 @@
+package com.newhype.backend.repository;
+
+import com.newhype.backend.entity.ProductoDisponibilidad;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface ProductoDisponibilidadRepository extends JpaRepository<ProductoDisponibilidad, Long> {
+
+    Optional<ProductoDisponibilidad> findByTenantIdAndProductoId(Long tenantId, Long productoId);
+
+    // ── Mantenimiento incremental (upsert atómico sobre uk_proddisp_tenant_prod) ──
+    // En ON DUPLICATE KEY UPDATE las asignaciones se evalúan en orden: disponible ve las unidades ya sumadas.
+
+    @Modifying
+    @Query(value = "INSERT INTO producto_disponibilidad (tenant_id, producto_id, unidades, disponible, updated_at) " +
+                   "VALUES (:tenantId, :productoId, :delta, :delta > 0, NOW()) " +
+                   "ON DUPLICATE KEY UPDATE unidades = unidades + :delta, disponible = unidades > 0, updated_at = NOW()",
+           nativeQuery = true)
+    int aplicarDelta(@Param("tenantId") Long tenantId,
+                     @Param("productoId") Long productoId,
+                     @Param("delta") long delta);
+
+    // ── Reconstrucción desde stock_almacen (por tenant, en lotes de producto_id) ──
+
+    @Query(value = "SELECT DISTINCT tenant_id FROM productos", nativeQuery = true)
+    List<Long> findTenantIds();
+
+    /** Último producto_id del siguiente lote de {@code lote} productos del tenant después de {@code desde}. */
+    @Query(value = "SELECT MAX(x.id) FROM (SELECT p.id FROM productos p WHERE p.tenant_id = :tenantId AND p.id > :desde " +
+                   "ORDER BY p.id LIMIT :lote) x",
+           nativeQuery = true)
+    Long findFinLote(@Param("tenantId") Long tenantId,
+                     @Param("desde") long desde,
+                     @Param("lote") int lote);
+
+    @Modifying
+    @Query(value = "INSERT INTO producto_disponibilidad (tenant_id, producto_id, unidades, disponible, updated_at) " +
+                   "SELECT s.tenant_id, s.producto_id, COALESCE(SUM(s.cantidad), 0), COALESCE(SUM(s.cantidad), 0) > 0, NOW() " +
+                   "FROM stock_almacen s " +
+                   "WHERE s.tenant_id = :tenantId AND s.producto_id > :desde AND s.producto_id <= :hasta " +
+                   "GROUP BY s.tenant_id, s.producto_id " +
+                   "ON DUPLICATE KEY UPDATE unidades = VALUES(unidades), disponible = VALUES(disponible), updated_at = NOW()",
+           nativeQuery = true)
+    int reconstruir(@Param("tenantId") Long tenantId,
+                    @Param("desde") long desde,
+                    @Param("hasta") long hasta);
+
+    // Productos que ya no tienen filas en stock_almacen: sin unidades
+    @Modifying
+    @Query(value = "UPDATE producto_disponibilidad d SET d.unidades = 0, d.disponible = 0, d.updated_at = NOW() " +
+                   "WHERE d.tenant_id = :tenantId AND d.producto_id > :desde AND d.producto_id <= :hasta " +
+                   "AND (d.unidades <> 0 OR d.disponible <> 0) " +
+                   "AND NOT EXISTS (SELECT 1 FROM stock_almacen s WHERE s.tenant_id = d.tenant_id AND s.producto_id = d.producto_id)",
+           nativeQuery = true)
+    int vaciarHuerfanos(@Param("tenantId") Long tenantId,
+                        @Param("desde") long desde,
+                        @Param("hasta") long hasta);
+}
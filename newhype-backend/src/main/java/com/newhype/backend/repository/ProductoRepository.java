@@ -1,6 +1,10 @@
 package com.newhype.backend.repository;
 
 import com.newhype.backend.entity.Producto;
+import com.newhype.backend.repository.projection.ConteoTenantProjection;
+import com.newhype.backend.repository.projection.ProductoCatalogoProjection;
+import com.newhype.backend.repository.projection.ProductoIndiceProjection;
+import com.newhype.backend.repository.projection.ProductoResumenProjection;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -8,9 +12,12 @@ import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.domain.Specification;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,14 +25,59 @@ public interface ProductoRepository extends JpaRepository<Producto, Long>, JpaSp
 
     Page<Producto> findByTenantIdAndEstadoTrue(Long tenantId, Pageable pageable);
 
+    // Listado con filtros (ProductoService.listar): categoría en el mismo SELECT
+    @Override
+    @EntityGraph(attributePaths = "categoria")
+    Page<Producto> findAll(Specification<Producto> spec, Pageable pageable);
+
     Optional<Producto> findByIdAndTenantId(Long id, Long tenantId);
 
+    List<Producto> findByTenantIdAndIdIn(Long tenantId, Collection<Long> ids);
+
+    // Solo id/sku/nombre para los mappers de detalle (ver ProductoResolver)
+    @Query("SELECT p.id AS id, p.sku AS sku, p.nombre AS nombre FROM Producto p WHERE p.id IN :ids")
+    List<ProductoResumenProjection> findResumenByIdIn(@Param("ids") Collection<Long> ids);
+
     boolean existsByTenantIdAndSku(Long tenantId, String sku);
 
-    @Query("SELECT p FROM Producto p WHERE p.tenantId = :tenantId AND p.estado = true " +
-           "AND (LOWER(p.nombre) LIKE LOWER(CONCAT('%', :q, '%')) " +
-           "OR LOWER(p.sku) LIKE LOWER(CONCAT('%', :q, '%')))")
-    Page<Producto> buscar(@Param("tenantId") Long tenantId, @Param("q") String q, Pageable pageable);
+    // Usa uk_prod_tenant_slug (tenant_id, slug)
+    Optional<Producto> findByTenantIdAndSlugAndEstadoTrue(Long tenantId, String slug);
+
+    @Query("SELECT p.slug FROM Producto p WHERE p.tenantId = :tenantId " +
+           "AND (p.slug = :base OR p.slug LIKE CONCAT(:base, '-%')) " +
+           "AND (:excluirId IS NULL OR p.id <> :excluirId)")
+    List<String> findSlugsConBase(@Param("tenantId") Long tenantId,
+                                  @Param("base") String base,
+                                  @Param("excluirId") Long excluirId);
+
+    long countByTenantIdAndEstadoTrue(Long tenantId);
+
+    // Reconciliación de cuotas: productos activos de todos los tenants en una pasada
+    @Query("SELECT p.tenantId AS tenantId, COUNT(p) AS total FROM Producto p " +
+           "WHERE p.estado = true GROUP BY p.tenantId")
+    List<ConteoTenantProjection> contarActivosPorTenant();
+
+    // Página de resultados del índice de búsqueda: categoría en el mismo SELECT
+    @EntityGraph(attributePaths = "categoria")
+    @Query("SELECT p FROM Producto p WHERE p.tenantId = :tenantId AND p.id IN :ids")
+    List<Producto> findConCategoriaByTenantIdAndIdIn(@Param("tenantId") Long tenantId,
+                                                     @Param("ids") Collection<Long> ids);
+
+    // ── Índice de búsqueda (IndiceProductos) ──
+
+    String SELECT_INDICE = "SELECT p.id AS id, p.tenantId AS tenantId, p.sku AS sku, p.nombre AS nombre, " +
+            "p.codigoBarras AS codigoBarras, p.categoriaId AS categoriaId, " +
+            "c.nombre AS categoriaNombre, m.nombre AS marcaNombre " +
+            "FROM Producto p LEFT JOIN Categoria c ON c.id = p.categoriaId AND c.estado = true " +
+            "LEFT JOIN Marca m ON m.id = p.marcaId AND m.estado = true " +
+            "WHERE p.estado = true ";
+
+    /** Productos activos a indexar; {@code tenantId} null = todos los tenants. */
+    @Query(SELECT_INDICE + "AND (:tenantId IS NULL OR p.tenantId = :tenantId) ORDER BY p.tenantId")
+    List<ProductoIndiceProjection> findParaIndice(@Param("tenantId") Long tenantId);
+
+    @Query(SELECT_INDICE + "AND p.tenantId = :tenantId AND p.id = :id")
+    Optional<ProductoIndiceProjection> findParaIndiceById(@Param("tenantId") Long tenantId, @Param("id") Long id);
 
     @Modifying
     @Query("UPDATE Producto p SET p.enLiquidacion = true, p.porcentajeLiquidacion = :porcentaje, " +
@@ -37,4 +89,31 @@ public interface ProductoRepository extends JpaRepository<Producto, Long>, JpaSp
                           @Param("porcentaje") BigDecimal porcentaje,
                           @Param("fechaInicio") LocalDate fechaInicio,
                           @Param("fechaFin") LocalDate fechaFin);
+
+    // ── Catálogo público (storefront): filtros y disponibilidad resueltos en SQL ──
+
+    @Query(value = "SELECT p.id AS id, p.sku AS sku, p.nombre AS nombre, p.slug AS slug, " +
+                   "p.descripcion AS descripcion, c.nombre AS categoriaNombre, c.slug AS categoriaSlug, " +
+                   "p.imagenUrl AS imagenUrl, p.precioVenta AS precioVenta, p.enLiquidacion AS enLiquidacion, " +
+                   "p.porcentajeLiquidacion AS porcentajeLiquidacion, " +
+                   "COALESCE(d.disponible, false) AS disponible " +
+                   "FROM Producto p LEFT JOIN Categoria c ON c.id = p.categoriaId AND c.estado = true " +
+                   "LEFT JOIN ProductoDisponibilidad d ON d.tenantId = p.tenantId AND d.productoId = p.id " +
+                   "WHERE p.tenantId = :tenantId AND p.estado = true " +
+                   "AND (:categoriaId IS NULL OR p.categoriaId = :categoriaId) " +
+                   "AND (:marcaId IS NULL OR p.marcaId = :marcaId) " +
+                   "AND (:q IS NULL OR LOWER(p.nombre) LIKE LOWER(CONCAT('%', :q, '%')) " +
+                   "OR LOWER(p.sku) LIKE LOWER(CONCAT('%', :q, '%'))) " +
+                   "ORDER BY p.nombre, p.id",
+           countQuery = "SELECT COUNT(p) FROM Producto p " +
+                        "WHERE p.tenantId = :tenantId AND p.estado = true " +
+                        "AND (:categoriaId IS NULL OR p.categoriaId = :categoriaId) " +
+                        "AND (:marcaId IS NULL OR p.marcaId = :marcaId) " +
+                        "AND (:q IS NULL OR LOWER(p.nombre) LIKE LOWER(CONCAT('%', :q, '%')) " +
+                        "OR LOWER(p.sku) LIKE LOWER(CONCAT('%', :q, '%')))")
+    Page<ProductoCatalogoProjection> buscarCatalogo(@Param("tenantId") Long tenantId,
+                                                    @Param("categoriaId") Long categoriaId,
+                                                    @Param("marcaId") Long marcaId,
+                                                    @Param("q") String q,
+                                                    Pageable pageable);
 }
@@ -3,6 +3,7 @@ package com.newhype.backend.repository;
 import com.newhype.backend.entity.Rol;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,4 +16,6 @@ public interface RolRepository extends JpaRepository<Rol, Long> {
     List<Rol> findByTenantId(Long tenantId);
 
     List<Rol> findByTenantIdAndEstadoTrue(Long tenantId);
+
+    List<Rol> findByUpdatedAtGreaterThanEqual(LocalDateTime desde);
 }
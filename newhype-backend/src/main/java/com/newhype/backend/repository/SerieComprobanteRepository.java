@@ -2,7 +2,12 @@ package com.newhype.backend.repository;
 
 import com.newhype.backend.entity.SerieComprobante;
 import com.newhype.backend.entity.SerieComprobante.TipoComprobante;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -16,4 +21,22 @@ public interface SerieComprobanteRepository extends JpaRepository<SerieComproban
     Optional<SerieComprobante> findByIdAndTenantId(Long id, Long tenantId);
 
     boolean existsByTenantIdAndTipoComprobanteAndSerie(Long tenantId, TipoComprobante tipoComprobante, String serie);
+
+    Optional<SerieComprobante> findByTenantIdAndTipoComprobanteAndSerie(Long tenantId, TipoComprobante tipoComprobante, String serie);
+
+    // ── Reserva atómica de correlativos (ver NumeracionService) ──
+    // Sólo avanza si la serie está activa y el bloque completo cabe antes de numero_fin.
+
+    @Modifying
+    @Query(value = "UPDATE series_comprobantes " +
+                   "SET numero_actual = LAST_INSERT_ID(GREATEST(COALESCE(numero_actual, 0), COALESCE(numero_inicio, 1) - 1) + :bloque), " +
+                   "updated_at = NOW() " +
+                   "WHERE id = :id AND estado = 1 " +
+                   "AND GREATEST(COALESCE(numero_actual, 0), COALESCE(numero_inicio, 1) - 1) + :bloque <= COALESCE(numero_fin, 99999999)",
+           nativeQuery = true)
+    int reservar(@Param("id") Long id, @Param("bloque") int bloque);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.flushMode", value = "COMMIT"))
+    @Query(value = "SELECT LAST_INSERT_ID()", nativeQuery = true)
+    long ultimoReservado();
 }
@@ -1,16 +1,110 @@
 package com.newhype.backend.repository;
 
 import com.newhype.backend.entity.StockAlmacen;
+import com.newhype.backend.repository.projection.InventarioPorAlmacenProjection;
+import com.newhype.backend.repository.projection.StockListadoProjection;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface StockAlmacenRepository extends JpaRepository<StockAlmacen, Long> {
 
-    List<StockAlmacen> findByTenantId(Long tenantId);
-
-    List<StockAlmacen> findByTenantIdAndAlmacenId(Long tenantId, Long almacenId);
+    // Listado de /inventario/stock y alertas: una sola consulta con producto y almacén ya unidos
+    @Query("SELECT s.id AS id, s.productoId AS productoId, p.sku AS productoSku, p.nombre AS productoNombre, " +
+           "s.almacenId AS almacenId, a.nombre AS almacenNombre, s.cantidad AS cantidad, s.stockMinimo AS stockMinimo " +
+           "FROM StockAlmacen s LEFT JOIN s.producto p LEFT JOIN s.almacen a " +
+           "WHERE s.tenantId = :tenantId " +
+           "AND (:almacenId IS NULL OR s.almacenId = :almacenId) " +
+           "AND (:soloBajo = false OR s.cantidad <= s.stockMinimo)")
+    List<StockListadoProjection> listarStock(@Param("tenantId") Long tenantId,
+                                             @Param("almacenId") Long almacenId,
+                                             @Param("soloBajo") boolean soloBajo);
 
     Optional<StockAlmacen> findByTenantIdAndProductoIdAndAlmacenId(Long tenantId, Long productoId, Long almacenId);
+
+    @Query("SELECT COALESCE(SUM(s.cantidad), 0) FROM StockAlmacen s " +
+           "WHERE s.tenantId = :tenantId AND s.productoId = :productoId " +
+           "AND (:almacenId IS NULL OR s.almacenId = :almacenId)")
+    long sumarCantidad(@Param("tenantId") Long tenantId,
+                       @Param("productoId") Long productoId,
+                       @Param("almacenId") Long almacenId);
+
+    @Query("SELECT COUNT(s) FROM StockAlmacen s WHERE s.tenantId = :tenantId " +
+           "AND s.stockMinimo > 0 AND s.cantidad <= s.stockMinimo")
+    long countStockBajo(@Param("tenantId") Long tenantId);
+
+    @Query("SELECT s.almacenId AS almacenId, COUNT(s) AS totalItems, " +
+           "SUM(CASE WHEN s.cantidad > 0 THEN 1 ELSE 0 END) AS conStock, " +
+           "SUM(CASE WHEN s.cantidad IS NULL OR s.cantidad = 0 THEN 1 ELSE 0 END) AS sinStock, " +
+           "SUM(CASE WHEN s.stockMinimo > 0 AND s.cantidad <= s.stockMinimo THEN 1 ELSE 0 END) AS stockBajo, " +
+           "SUM(CASE WHEN s.stockMinimo > 0 AND s.cantidad <= s.stockMinimo AND s.cantidad > 0 THEN 1 ELSE 0 END) AS stockBajoConStock, " +
+           "COALESCE(SUM(p.precioCosto * s.cantidad), 0) AS valorizacion " +
+           "FROM StockAlmacen s JOIN Producto p ON p.id = s.productoId " +
+           "WHERE s.tenantId = :tenantId " +
+           "AND (:almacenId IS NULL OR s.almacenId = :almacenId) " +
+           "AND (:categoriaId IS NULL OR p.categoriaId = :categoriaId) " +
+           "GROUP BY s.almacenId")
+    List<InventarioPorAlmacenProjection> resumirPorAlmacen(@Param("tenantId") Long tenantId,
+                                                           @Param("almacenId") Long almacenId,
+                                                           @Param("categoriaId") Long categoriaId);
+
+    /** Bloquea (SELECT ... FOR UPDATE) las filas de un documento en orden fijo para evitar deadlocks. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM StockAlmacen s WHERE s.tenantId = :tenantId AND s.almacenId = :almacenId " +
+           "AND s.productoId IN :productoIds ORDER BY s.productoId")
+    List<StockAlmacen> findParaActualizar(@Param("tenantId") Long tenantId,
+                                          @Param("almacenId") Long almacenId,
+                                          @Param("productoIds") Collection<Long> productoIds);
+
+    // ── Mutaciones atómicas (ver StockMovimientoService) ──
+    // El nuevo saldo queda en LAST_INSERT_ID() de la conexión: se lee sin volver a tocar la fila.
+
+    @Modifying
+    @Query(value = "UPDATE stock_almacen SET cantidad = LAST_INSERT_ID(cantidad - :cantidad), updated_at = NOW() " +
+                   "WHERE tenant_id = :tenantId AND producto_id = :productoId AND almacen_id = :almacenId " +
+                   "AND cantidad >= :cantidad",
+           nativeQuery = true)
+    int descontar(@Param("tenantId") Long tenantId,
+                  @Param("productoId") Long productoId,
+                  @Param("almacenId") Long almacenId,
+                  @Param("cantidad") int cantidad);
+
+    @Modifying
+    @Query(value = "UPDATE stock_almacen SET cantidad = LAST_INSERT_ID(COALESCE(cantidad, 0) + :cantidad), updated_at = NOW() " +
+                   "WHERE tenant_id = :tenantId AND producto_id = :productoId AND almacen_id = :almacenId",
+           nativeQuery = true)
+    int incrementar(@Param("tenantId") Long tenantId,
+                    @Param("productoId") Long productoId,
+                    @Param("almacenId") Long almacenId,
+                    @Param("cantidad") int cantidad);
+
+    /** Crea la fila en cero si no existe; idempotente ante creaciones concurrentes (uk_stock_tenant_prod_alm). */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO stock_almacen (tenant_id, producto_id, almacen_id, cantidad, stock_minimo, created_at, updated_at) " +
+                   "VALUES (:tenantId, :productoId, :almacenId, 0, 0, NOW(), NOW())",
+           nativeQuery = true)
+    int crearSiNoExiste(@Param("tenantId") Long tenantId,
+                        @Param("productoId") Long productoId,
+                        @Param("almacenId") Long almacenId);
+
+    // Sin auto-flush previo: un INSERT pendiente sobrescribiría LAST_INSERT_ID()
+    @QueryHints(@QueryHint(name = "org.hibernate.flushMode", value = "COMMIT"))
+    @Query(value = "SELECT LAST_INSERT_ID()", nativeQuery = true)
+    long ultimoSaldo();
+
+    // COALESCE: una fila con cantidad NULL existe (vacío = sin registro de stock, no stock insuficiente)
+    @Query("SELECT COALESCE(s.cantidad, 0) FROM StockAlmacen s WHERE s.tenantId = :tenantId " +
+           "AND s.productoId = :productoId AND s.almacenId = :almacenId")
+    Optional<Integer> findCantidad(@Param("tenantId") Long tenantId,
+                                   @Param("productoId") Long productoId,
+                                   @Param("almacenId") Long almacenId);
 }
@@ -0,0 +1,30 @@
+package com.newhype.backend.repository;
+
+import com.newhype.backend.entity.TokenRevocado;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface TokenRevocadoRepository extends JpaRepository<TokenRevocado, String> {
+
+    boolean existsByTokenIdAndExpiraEnAfter(String tokenId, LocalDateTime ahora);
+
+    long countByExpiraEnAfter(LocalDateTime ahora);
+
+    @Query("SELECT t.tokenId FROM TokenRevocado t WHERE t.expiraEn > :ahora")
+    List<String> findIdsVigentes(@Param("ahora") LocalDateTime ahora);
+
+    @Query("SELECT t.tokenId FROM TokenRevocado t WHERE t.createdAt >= :desde AND t.expiraEn > :ahora")
+    List<String> findIdsRevocadosDesde(@Param("desde") LocalDateTime desde,
+                                       @Param("ahora") LocalDateTime ahora);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM TokenRevocado t WHERE t.expiraEn <= :ahora")
+    int eliminarExpirados(@Param("ahora") LocalDateTime ahora);
+}
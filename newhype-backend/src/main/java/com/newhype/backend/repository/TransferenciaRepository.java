@@ -7,6 +7,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.data.jpa.repository.EntityGraph;
 
 import java.util.Optional;
 
@@ -14,6 +15,7 @@ public interface TransferenciaRepository extends JpaRepository<Transferencia, Lo
 
     Optional<Transferencia> findByIdAndTenantId(Long id, Long tenantId);
 
+    @EntityGraph(attributePaths = {"almacenOrigen", "almacenDestino"})
     @Query("SELECT t FROM Transferencia t WHERE t.tenantId = :tenantId " +
            "AND (:estado IS NULL OR t.estado = :estado) " +
            "AND (:almacenOrigenId IS NULL OR t.almacenOrigenId = :almacenOrigenId) " +
@@ -0,0 +1,29 @@
+package com.newhype.backend.repository;
+
+import com.newhype.backend.entity.UsoTenantMensual;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface UsoTenantMensualRepository extends JpaRepository<UsoTenantMensual, Long> {
+
+    List<UsoTenantMensual> findByTenantIdOrderByPeriodoDesc(Long tenantId);
+
+    // Upsert sobre uk_usotenant_periodo
+    @Modifying
+    @Query(value = "INSERT INTO uso_tenant_mensual (tenant_id, periodo, productos, usuarios, almacenes, ventas, updated_at) " +
+                   "VALUES (:tenantId, :periodo, :productos, :usuarios, :almacenes, :ventas, NOW()) " +
+                   "ON DUPLICATE KEY UPDATE productos = :productos, usuarios = :usuarios, " +
+                   "almacenes = :almacenes, ventas = :ventas, updated_at = NOW()",
+           nativeQuery = true)
+    int registrar(@Param("tenantId") Long tenantId,
+                  @Param("periodo") LocalDate periodo,
+                  @Param("productos") long productos,
+                  @Param("usuarios") long usuarios,
+                  @Param("almacenes") long almacenes,
+                  @Param("ventas") long ventas);
+}
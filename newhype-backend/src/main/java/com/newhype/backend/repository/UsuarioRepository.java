@@ -1,13 +1,16 @@
 package com.newhype.backend.repository;
 
 import com.newhype.backend.entity.Usuario;
+import com.newhype.backend.repository.projection.ConteoTenantProjection;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface UsuarioRepository extends JpaRepository<Usuario, Long>, JpaSpecificationExecutor<Usuario> {
@@ -20,12 +23,15 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long>, JpaSpec
 
     Optional<Usuario> findByIdAndTenantId(Long id, Long tenantId);
 
+    List<Usuario> findByTenantId(Long tenantId);
+
     boolean existsByTenantIdAndEmail(Long tenantId, String email);
 
     boolean existsByTenantIdAndUsername(Long tenantId, String username);
 
     boolean existsByEmail(String email);
 
+    @EntityGraph(attributePaths = "rol")
     @Query("SELECT u FROM Usuario u WHERE u.tenantId = :tenantId " +
            "AND (:rolId IS NULL OR u.rolId = :rolId) " +
            "AND (:estado IS NULL OR u.estado = :estado) " +
@@ -40,4 +46,11 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long>, JpaSpec
                          Pageable pageable);
 
     long countByTenantIdAndRolId(Long tenantId, Long rolId);
+
+    long countByTenantIdAndEstadoTrue(Long tenantId);
+
+    // Reconciliación de cuotas: usuarios activos de todos los tenants en una pasada
+    @Query("SELECT u.tenantId AS tenantId, COUNT(u) AS total FROM Usuario u " +
+           "WHERE u.estado = true GROUP BY u.tenantId")
+    List<ConteoTenantProjection> contarActivosPorTenant();
 }
@@ -0,0 +1,152 @@
+package com.newhype.backend.repository;
+
+import com.newhype.backend.entity.Venta.TipoComprobante;
+import com.newhype.backend.entity.VentaDiaria;
+import com.newhype.backend.repository.projection.TotalesProjection;
+import com.newhype.backend.repository.projection.VentaPorDiaProjection;
+import com.newhype.backend.repository.projection.VentaPorTipoProjection;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface VentaDiariaRepository extends JpaRepository<VentaDiaria, Long> {
+
+    // ── Acumulación incremental (upsert atómico sobre uk_ventdia_clave) ──
+
+    @Modifying
+    @Query(value = "INSERT INTO ventas_diarias (tenant_id, fecha, tipo_comprobante, almacen_id, usuario_id, " +
+                   "cantidad_ventas, subtotal, igv, descuento, total, cantidad_notas_credito, total_notas_credito, updated_at) " +
+                   "VALUES (:tenantId, :fecha, :tipo, :almacenId, :usuarioId, 1, :subtotal, :igv, :descuento, :total, 0, 0, NOW()) " +
+                   "ON DUPLICATE KEY UPDATE cantidad_ventas = cantidad_ventas + 1, " +
+                   "subtotal = subtotal + :subtotal, igv = igv + :igv, descuento = descuento + :descuento, " +
+                   "total = total + :total, updated_at = NOW()",
+           nativeQuery = true)
+    int acumularVenta(@Param("tenantId") Long tenantId,
+                      @Param("fecha") LocalDate fecha,
+                      @Param("tipo") String tipoComprobante,
+                      @Param("almacenId") Long almacenId,
+                      @Param("usuarioId") Long usuarioId,
+                      @Param("subtotal") BigDecimal subtotal,
+                      @Param("igv") BigDecimal igv,
+                      @Param("descuento") BigDecimal descuento,
+                      @Param("total") BigDecimal total);
+
+    @Modifying
+    @Query(value = "INSERT INTO ventas_diarias (tenant_id, fecha, tipo_comprobante, almacen_id, usuario_id, " +
+                   "cantidad_ventas, subtotal, igv, descuento, total, cantidad_notas_credito, total_notas_credito, updated_at) " +
+                   "VALUES (:tenantId, :fecha, :tipo, :almacenId, :usuarioId, 0, 0, 0, 0, 0, 1, :total, NOW()) " +
+                   "ON DUPLICATE KEY UPDATE cantidad_notas_credito = cantidad_notas_credito + 1, " +
+                   "total_notas_credito = total_notas_credito + :total, updated_at = NOW()",
+           nativeQuery = true)
+    int acumularNotaCredito(@Param("tenantId") Long tenantId,
+                            @Param("fecha") LocalDate fecha,
+                            @Param("tipo") String tipoComprobante,
+                            @Param("almacenId") Long almacenId,
+                            @Param("usuarioId") Long usuarioId,
+                            @Param("total") BigDecimal total);
+
+    // ── Reconstrucción desde el historial (un tenant y un día por transacción) ──
+
+    @Query(value = "SELECT tenant_id FROM ventas WHERE fecha_emision >= :desde AND fecha_emision < :hastaExclusivo " +
+                   "UNION SELECT tenant_id FROM notas_credito WHERE created_at >= :desde AND created_at < :hastaExclusivo " +
+                   "UNION SELECT tenant_id FROM ventas_diarias WHERE fecha >= :desde AND fecha < :hastaExclusivo",
+           nativeQuery = true)
+    List<Long> findTenantsConActividad(@Param("desde") LocalDateTime desde,
+                                       @Param("hastaExclusivo") LocalDateTime hastaExclusivo);
+
+    @Query("SELECT MIN(d.fecha) FROM VentaDiaria d WHERE d.tenantId = :tenantId")
+    LocalDate findPrimeraFecha(@Param("tenantId") Long tenantId);
+
+    @Modifying
+    @Query("DELETE FROM VentaDiaria d WHERE d.tenantId = :tenantId AND d.fecha BETWEEN :desde AND :hasta")
+    int eliminarRango(@Param("tenantId") Long tenantId,
+                      @Param("desde") LocalDate desde,
+                      @Param("hasta") LocalDate hasta);
+
+    @Modifying
+    @Query(value = "INSERT INTO ventas_diarias (tenant_id, fecha, tipo_comprobante, almacen_id, usuario_id, " +
+                   "cantidad_ventas, subtotal, igv, descuento, total, cantidad_notas_credito, total_notas_credito, updated_at) " +
+                   "SELECT src.tenant_id, src.fecha, src.tipo_comprobante, src.almacen_id, src.usuario_id, " +
+                   "src.cantidad, src.subtotal, src.igv, src.descuento, src.total, 0, 0, NOW() FROM (" +
+                   "  SELECT v.tenant_id, CAST(v.fecha_emision AS DATE) AS fecha, v.tipo_comprobante, v.almacen_id, " +
+                   "  v.usuario_id, COUNT(*) AS cantidad, COALESCE(SUM(v.subtotal), 0) AS subtotal, " +
+                   "  COALESCE(SUM(v.igv), 0) AS igv, COALESCE(SUM(v.descuento), 0) AS descuento, " +
+                   "  COALESCE(SUM(v.total), 0) AS total " +
+                   "  FROM ventas v WHERE v.estado = 'COMPLETADA' " +
+                   "  AND v.tenant_id = :tenantId " +
+                   "  AND v.fecha_emision >= :desde AND v.fecha_emision < :hastaExclusivo " +
+                   "  GROUP BY v.tenant_id, CAST(v.fecha_emision AS DATE), v.tipo_comprobante, v.almacen_id, v.usuario_id" +
+                   ") src " +
+                   "ON DUPLICATE KEY UPDATE cantidad_ventas = src.cantidad, subtotal = src.subtotal, igv = src.igv, " +
+                   "descuento = src.descuento, total = src.total, updated_at = NOW()",
+           nativeQuery = true)
+    int reconstruirVentas(@Param("tenantId") Long tenantId,
+                          @Param("desde") LocalDateTime desde,
+                          @Param("hastaExclusivo") LocalDateTime hastaExclusivo);
+
+    @Modifying
+    @Query(value = "INSERT INTO ventas_diarias (tenant_id, fecha, tipo_comprobante, almacen_id, usuario_id, " +
+                   "cantidad_ventas, subtotal, igv, descuento, total, cantidad_notas_credito, total_notas_credito, updated_at) " +
+                   "SELECT src.tenant_id, src.fecha, src.tipo_comprobante, src.almacen_id, src.usuario_id, " +
+                   "0, 0, 0, 0, 0, src.cantidad, src.total, NOW() FROM (" +
+                   "  SELECT nc.tenant_id, CAST(nc.created_at AS DATE) AS fecha, v.tipo_comprobante, v.almacen_id, " +
+                   "  nc.usuario_id, COUNT(*) AS cantidad, COALESCE(SUM(nc.total), 0) AS total " +
+                   "  FROM notas_credito nc JOIN ventas v ON v.id = nc.venta_origen_id " +
+                   "  WHERE nc.estado = 'APLICADA' " +
+                   "  AND nc.tenant_id = :tenantId " +
+                   "  AND nc.created_at >= :desde AND nc.created_at < :hastaExclusivo " +
+                   "  GROUP BY nc.tenant_id, CAST(nc.created_at AS DATE), v.tipo_comprobante, v.almacen_id, nc.usuario_id" +
+                   ") src " +
+                   "ON DUPLICATE KEY UPDATE cantidad_notas_credito = src.cantidad, total_notas_credito = src.total",
+           nativeQuery = true)
+    int reconstruirNotasCredito(@Param("tenantId") Long tenantId,
+                                @Param("desde") LocalDateTime desde,
+                                @Param("hastaExclusivo") LocalDateTime hastaExclusivo);
+
+    // ── Lecturas para dashboard / reportes ──
+
+    @Query("SELECT COALESCE(SUM(d.cantidadVentas), 0) AS cantidad, COALESCE(SUM(d.total), 0) AS total, " +
+           "COALESCE(SUM(d.igv), 0) AS igv, COALESCE(SUM(d.descuento), 0) AS descuento " +
+           "FROM VentaDiaria d WHERE d.tenantId = :tenantId AND d.fecha BETWEEN :desde AND :hasta " +
+           "AND (:usuarioId IS NULL OR d.usuarioId = :usuarioId) " +
+           "AND (:tipoComprobante IS NULL OR d.tipoComprobante = :tipoComprobante)")
+    TotalesProjection totalizarVentas(@Param("tenantId") Long tenantId,
+                                      @Param("desde") LocalDate desde,
+                                      @Param("hasta") LocalDate hasta,
+                                      @Param("usuarioId") Long usuarioId,
+                                      @Param("tipoComprobante") TipoComprobante tipoComprobante);
+
+    @Query("SELECT COALESCE(SUM(d.cantidadNotasCredito), 0) AS cantidad, COALESCE(SUM(d.totalNotasCredito), 0) AS total " +
+           "FROM VentaDiaria d WHERE d.tenantId = :tenantId AND d.fecha BETWEEN :desde AND :hasta")
+    TotalesProjection totalizarNotasCredito(@Param("tenantId") Long tenantId,
+                                            @Param("desde") LocalDate desde,
+                                            @Param("hasta") LocalDate hasta);
+
+    @Query("SELECT d.fecha AS fecha, SUM(d.cantidadVentas) AS cantidad, SUM(d.total) AS total " +
+           "FROM VentaDiaria d WHERE d.tenantId = :tenantId AND d.fecha BETWEEN :desde AND :hasta " +
+           "AND (:usuarioId IS NULL OR d.usuarioId = :usuarioId) " +
+           "AND (:tipoComprobante IS NULL OR d.tipoComprobante = :tipoComprobante) " +
+           "GROUP BY d.fecha HAVING SUM(d.cantidadVentas) > 0 ORDER BY d.fecha")
+    List<VentaPorDiaProjection> totalizarPorDia(@Param("tenantId") Long tenantId,
+                                                @Param("desde") LocalDate desde,
+                                                @Param("hasta") LocalDate hasta,
+                                                @Param("usuarioId") Long usuarioId,
+                                                @Param("tipoComprobante") TipoComprobante tipoComprobante);
+
+    @Query("SELECT d.tipoComprobante AS tipoComprobante, SUM(d.cantidadVentas) AS cantidad, SUM(d.total) AS total " +
+           "FROM VentaDiaria d WHERE d.tenantId = :tenantId AND d.fecha BETWEEN :desde AND :hasta " +
+           "AND (:usuarioId IS NULL OR d.usuarioId = :usuarioId) " +
+           "AND (:tipoComprobante IS NULL OR d.tipoComprobante = :tipoComprobante) " +
+           "GROUP BY d.tipoComprobante HAVING SUM(d.cantidadVentas) > 0")
+    List<VentaPorTipoProjection> totalizarPorTipo(@Param("tenantId") Long tenantId,
+                                                  @Param("desde") LocalDate desde,
+                                                  @Param("hasta") LocalDate hasta,
+                                                  @Param("usuarioId") Long usuarioId,
+                                                  @Param("tipoComprobante") TipoComprobante tipoComprobante);
+}
@@ -2,19 +2,29 @@ package com.newhype.backend.repository;
 
 import com.newhype.backend.entity.Venta;
 import com.newhype.backend.entity.Venta.EstadoVenta;
+import com.newhype.backend.entity.Venta.TipoComprobante;
+import com.newhype.backend.repository.projection.ConteoTenantProjection;
+import com.newhype.backend.repository.projection.ProductoVendidoProjection;
+import com.newhype.backend.repository.projection.TotalesProjection;
+import com.newhype.backend.repository.projection.VentaPorDiaProjection;
+import com.newhype.backend.repository.projection.VentaPorTipoProjection;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.data.jpa.repository.EntityGraph;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 public interface VentaRepository extends JpaRepository<Venta, Long> {
 
     Optional<Venta> findByIdAndTenantId(Long id, Long tenantId);
 
+    // cliente y almacén en el mismo SELECT: el listado no dispara cargas LAZY por fila
+    @EntityGraph(attributePaths = {"cliente", "almacen"})
     @Query("SELECT v FROM Venta v WHERE v.tenantId = :tenantId " +
            "AND (:estado IS NULL OR v.estado = :estado) " +
            "AND (:fechaDesde IS NULL OR v.fechaEmision >= :fechaDesde) " +
@@ -28,4 +38,94 @@ public interface VentaRepository extends JpaRepository<Venta, Long> {
             Pageable pageable);
 
     long countByTenantId(Long tenantId);
+
+    // Cuota mensual de ventas (idx_ventas_fecha)
+    long countByTenantIdAndFechaEmisionGreaterThanEqualAndFechaEmisionLessThan(
+            Long tenantId, LocalDateTime desde, LocalDateTime hasta);
+
+    @Query("SELECT v.tenantId AS tenantId, COUNT(v) AS total FROM Venta v " +
+           "WHERE v.fechaEmision >= :desde AND v.fechaEmision < :hasta GROUP BY v.tenantId")
+    List<ConteoTenantProjection> contarPorTenantEntre(@Param("desde") LocalDateTime desde,
+                                                      @Param("hasta") LocalDateTime hasta);
+
+    // Primer día a reconstruir en el rollup ventas_diarias
+    @Query("SELECT MIN(v.fechaEmision) FROM Venta v WHERE v.tenantId = :tenantId")
+    LocalDateTime findPrimeraFechaEmision(@Param("tenantId") Long tenantId);
+
+    // ── Reportes (agregados en BD, usan idx_ventas_fecha) ──
+
+    @Query("SELECT COUNT(v) AS cantidad, COALESCE(SUM(v.total), 0) AS total, " +
+           "COALESCE(SUM(v.igv), 0) AS igv, COALESCE(SUM(v.descuento), 0) AS descuento " +
+           "FROM Venta v WHERE v.tenantId = :tenantId AND v.estado = :estado " +
+           "AND v.fechaEmision BETWEEN :desde AND :hasta " +
+           "AND (:usuarioId IS NULL OR v.usuarioId = :usuarioId) " +
+           "AND (:clienteId IS NULL OR v.clienteId = :clienteId) " +
+           "AND (:tipoComprobante IS NULL OR v.tipoComprobante = :tipoComprobante)")
+    TotalesProjection totalizar(@Param("tenantId") Long tenantId,
+                                @Param("estado") EstadoVenta estado,
+                                @Param("desde") LocalDateTime desde,
+                                @Param("hasta") LocalDateTime hasta,
+                                @Param("usuarioId") Long usuarioId,
+                                @Param("clienteId") Long clienteId,
+                                @Param("tipoComprobante") TipoComprobante tipoComprobante);
+
+    @Query("SELECT CAST(v.fechaEmision AS LocalDate) AS fecha, COUNT(v) AS cantidad, " +
+           "COALESCE(SUM(v.total), 0) AS total " +
+           "FROM Venta v WHERE v.tenantId = :tenantId AND v.estado = :estado " +
+           "AND v.fechaEmision BETWEEN :desde AND :hasta " +
+           "AND (:usuarioId IS NULL OR v.usuarioId = :usuarioId) " +
+           "AND (:clienteId IS NULL OR v.clienteId = :clienteId) " +
+           "AND (:tipoComprobante IS NULL OR v.tipoComprobante = :tipoComprobante) " +
+           "GROUP BY CAST(v.fechaEmision AS LocalDate) " +
+           "ORDER BY CAST(v.fechaEmision AS LocalDate)")
+    List<VentaPorDiaProjection> totalizarPorDia(@Param("tenantId") Long tenantId,
+                                                @Param("estado") EstadoVenta estado,
+                                                @Param("desde") LocalDateTime desde,
+                                                @Param("hasta") LocalDateTime hasta,
+                                                @Param("usuarioId") Long usuarioId,
+                                                @Param("clienteId") Long clienteId,
+                                                @Param("tipoComprobante") TipoComprobante tipoComprobante);
+
+    @Query("SELECT v.tipoComprobante AS tipoComprobante, COUNT(v) AS cantidad, " +
+           "COALESCE(SUM(v.total), 0) AS total " +
+           "FROM Venta v WHERE v.tenantId = :tenantId AND v.estado = :estado " +
+           "AND v.fechaEmision BETWEEN :desde AND :hasta " +
+           "AND (:usuarioId IS NULL OR v.usuarioId = :usuarioId) " +
+           "AND (:clienteId IS NULL OR v.clienteId = :clienteId) " +
+           "AND (:tipoComprobante IS NULL OR v.tipoComprobante = :tipoComprobante) " +
+           "GROUP BY v.tipoComprobante")
+    List<VentaPorTipoProjection> totalizarPorTipo(@Param("tenantId") Long tenantId,
+                                                  @Param("estado") EstadoVenta estado,
+                                                  @Param("desde") LocalDateTime desde,
+                                                  @Param("hasta") LocalDateTime hasta,
+                                                  @Param("usuarioId") Long usuarioId,
+                                                  @Param("clienteId") Long clienteId,
+                                                  @Param("tipoComprobante") TipoComprobante tipoComprobante);
+
+    @Query("SELECT d.productoId AS productoId, p.sku AS sku, p.nombre AS nombre, c.nombre AS categoriaNombre, " +
+           "SUM(d.cantidad) AS cantidadVendida, COALESCE(SUM(d.subtotal), 0) AS montoTotal " +
+           "FROM DetalleVenta d JOIN Venta v ON v.id = d.ventaId " +
+           "JOIN Producto p ON p.id = d.productoId LEFT JOIN p.categoria c " +
+           "WHERE v.tenantId = :tenantId AND v.estado = :estado " +
+           "AND v.fechaEmision BETWEEN :desde AND :hasta " +
+           "AND (:categoriaId IS NULL OR p.categoriaId = :categoriaId) " +
+           "GROUP BY d.productoId, p.sku, p.nombre, c.nombre " +
+           "ORDER BY SUM(d.cantidad) DESC")
+    List<ProductoVendidoProjection> productosMasVendidos(@Param("tenantId") Long tenantId,
+                                                         @Param("estado") EstadoVenta estado,
+                                                         @Param("desde") LocalDateTime desde,
+                                                         @Param("hasta") LocalDateTime hasta,
+                                                         @Param("categoriaId") Long categoriaId,
+                                                         Pageable pageable);
+
+    @Query("SELECT COALESCE(SUM(d.cantidad), 0) " +
+           "FROM DetalleVenta d JOIN Venta v ON v.id = d.ventaId JOIN Producto p ON p.id = d.productoId " +
+           "WHERE v.tenantId = :tenantId AND v.estado = :estado " +
+           "AND v.fechaEmision BETWEEN :desde AND :hasta " +
+           "AND (:categoriaId IS NULL OR p.categoriaId = :categoriaId)")
+    long sumCantidadVendida(@Param("tenantId") Long tenantId,
+                            @Param("estado") EstadoVenta estado,
+                            @Param("desde") LocalDateTime desde,
+                            @Param("hasta") LocalDateTime hasta,
+                            @Param("categoriaId") Long categoriaId);
 }
@@ -0,0 +1,24 @@
+package com.newhype.backend.repository.projection;
+
+import java.time.LocalDateTime;
+
+public interface AuditoriaPlataformaListadoProjection {
+
+    Long getId();
+
+    Long getUsuarioPlataformaId();
+
+    String getNombreUsuario();
+
+    Long getTenantId();
+
+    String getTenantNombre();
+
+    String getAccion();
+
+    String getDetalle();
+
+    String getIpAddress();
+
+    LocalDateTime getCreatedAt();
+}
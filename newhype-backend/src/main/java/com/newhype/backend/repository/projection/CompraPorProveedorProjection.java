@@ -0,0 +1,21 @@
+package com.newhype.backend.repository.projection;
+
+import com.newhype.backend.entity.OrdenCompra.EstadoOrdenCompra;
+
+import java.math.BigDecimal;
+
+/**
+ * Órdenes de compra agrupadas por (proveedor, estado).
+ */
+public interface CompraPorProveedorProjection {
+
+    Long getProveedorId();
+
+    String getProveedorNombre();
+
+    EstadoOrdenCompra getEstado();
+
+    Long getCantidad();
+
+    BigDecimal getTotal();
+}
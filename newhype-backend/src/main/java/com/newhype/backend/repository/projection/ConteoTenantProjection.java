@@ -0,0 +1,8 @@
+package com.newhype.backend.repository.projection;
+
+public interface ConteoTenantProjection {
+
+    Long getTenantId();
+
+    Long getTotal();
+}
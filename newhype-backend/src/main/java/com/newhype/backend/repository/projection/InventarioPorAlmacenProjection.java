@@ -0,0 +1,22 @@
+package com.newhype.backend.repository.projection;
+
+import java.math.BigDecimal;
+
+public interface InventarioPorAlmacenProjection {
+
+    Long getAlmacenId();
+
+    Long getTotalItems();
+
+    Long getConStock();
+
+    Long getSinStock();
+
+    /** Ítems en o bajo el mínimo (incluye los que están en cero). */
+    Long getStockBajo();
+
+    /** Ítems en o bajo el mínimo que todavía tienen unidades. */
+    Long getStockBajoConStock();
+
+    BigDecimal getValorizacion();
+}
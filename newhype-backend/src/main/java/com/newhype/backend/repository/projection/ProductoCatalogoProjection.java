@@ -0,0 +1,30 @@
+package com.newhype.backend.repository.projection;
+
+import java.math.BigDecimal;
+
+public interface ProductoCatalogoProjection {
+
+    Long getId();
+
+    String getSku();
+
+    String getNombre();
+
+    String getSlug();
+
+    String getDescripcion();
+
+    String getCategoriaNombre();
+
+    String getCategoriaSlug();
+
+    String getImagenUrl();
+
+    BigDecimal getPrecioVenta();
+
+    Boolean getEnLiquidacion();
+
+    BigDecimal getPorcentajeLiquidacion();
+
+    Boolean getDisponible();
+}
@@ -0,0 +1,21 @@
+package com.newhype.backend.repository.projection;
+
+/** Campos de búsqueda de un producto activo para {@code IndiceProductos}. */
+public interface ProductoIndiceProjection {
+
+    Long getId();
+
+    Long getTenantId();
+
+    String getSku();
+
+    String getNombre();
+
+    String getCodigoBarras();
+
+    Long getCategoriaId();
+
+    String getCategoriaNombre();
+
+    String getMarcaNombre();
+}
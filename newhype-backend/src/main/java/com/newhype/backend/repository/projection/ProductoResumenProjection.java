@@ -0,0 +1,10 @@
+package com.newhype.backend.repository.projection;
+
+public interface ProductoResumenProjection {
+
+    Long getId();
+
+    String getSku();
+
+    String getNombre();
+}
@@ -0,0 +1,18 @@
+package com.newhype.backend.repository.projection;
+
+import java.math.BigDecimal;
+
+public interface ProductoVendidoProjection {
+
+    Long getProductoId();
+
+    String getSku();
+
+    String getNombre();
+
+    String getCategoriaNombre();
+
+    Long getCantidadVendida();
+
+    BigDecimal getMontoTotal();
+}
@@ -0,0 +1,20 @@
+package com.newhype.backend.repository.projection;
+
+public interface StockListadoProjection {
+
+    Long getId();
+
+    Long getProductoId();
+
+    String getProductoSku();
+
+    String getProductoNombre();
+
+    Long getAlmacenId();
+
+    String getAlmacenNombre();
+
+    Integer getCantidad();
+
+    Integer getStockMinimo();
+}
@@ -0,0 +1,18 @@
+package com.newhype.backend.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Conteo y sumas de un conjunto de documentos (ventas, compras, notas de crédito).
+ * Las consultas que no calculan igv/descuento simplemente no los seleccionan.
+ */
+public interface TotalesProjection {
+
+    Long getCantidad();
+
+    BigDecimal getTotal();
+
+    BigDecimal getIgv();
+
+    BigDecimal getDescuento();
+}
@@ -0,0 +1,13 @@
+package com.newhype.backend.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public interface VentaPorDiaProjection {
+
+    LocalDate getFecha();
+
+    Long getCantidad();
+
+    BigDecimal getTotal();
+}
@@ -0,0 +1,14 @@
+package com.newhype.backend.repository.projection;
+
+import com.newhype.backend.entity.Venta.TipoComprobante;
+
+import java.math.BigDecimal;
+
+public interface VentaPorTipoProjection {
+
+    TipoComprobante getTipoComprobante();
+
+    Long getCantidad();
+
+    BigDecimal getTotal();
+}
@@ -0,0 +1,4 @@
+/**
+ * Proyecciones de solo lectura para consultas agregadas (reportes, listados).
+ */
+package com.newhype.backend.repository.projection;
@@ -0,0 +1,86 @@
+package com.newhype.backend.security;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Revocaciones en memoria del proceso, con expiración por rueda de tiempo (hashed timing wheel):
+ * cada entrada se cuelga de la ranura de su minuto de expiración y el tick sólo recorre
+ * las ranuras vencidas, en vez de barrer todo el mapa.
+ */
+@Component
+@ConditionalOnProperty(name = "app.jwt.revocation.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryTokenRevocationStore implements TokenRevocationStore {
+
+    private static final long TICK_MS = 60_000;
+    private static final int SLOTS = 1024;
+
+    private record Entrada(String tokenId, long expiresAtMs) {}
+
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private final List<ConcurrentLinkedQueue<Entrada>> wheel;
+    private long lastTick = System.currentTimeMillis() / TICK_MS;
+
+    public InMemoryTokenRevocationStore() {
+        List<ConcurrentLinkedQueue<Entrada>> slots = new ArrayList<>(SLOTS);
+        for (int i = 0; i < SLOTS; i++) {
+            slots.add(new ConcurrentLinkedQueue<>());
+        }
+        wheel = List.copyOf(slots);
+    }
+
+    @Override
+    public void revoke(String tokenId, Instant expiresAt) {
+        long expiresAtMs = expiresAt.toEpochMilli();
+        if (expiresAtMs <= System.currentTimeMillis()) {
+            return;
+        }
+        revoked.merge(tokenId, expiresAtMs, Math::max);
+        wheel.get(slotOf(expiresAtMs / TICK_MS)).add(new Entrada(tokenId, expiresAtMs));
+    }
+
+    @Override
+    public boolean isRevoked(String tokenId) {
+        Long expiresAtMs = revoked.get(tokenId);
+        return expiresAtMs != null && expiresAtMs > System.currentTimeMillis();
+    }
+
+    int size() {
+        return revoked.size();
+    }
+
+    // ── Avance de la rueda ──
+
+    @Scheduled(fixedRate = TICK_MS)
+    synchronized void tick() {
+        long now = System.currentTimeMillis();
+        long currentTick = now / TICK_MS;
+        // Una vuelta completa basta aunque se hayan perdido ticks: las ranuras se reutilizan
+        long from = Math.max(lastTick, currentTick - SLOTS + 1);
+        for (long t = from; t <= currentTick; t++) {
+            Iterator<Entrada> it = wheel.get(slotOf(t)).iterator();
+            while (it.hasNext()) {
+                Entrada e = it.next();
+                // Las entradas de vueltas futuras comparten ranura y se quedan
+                if (e.expiresAtMs() <= now) {
+                    revoked.remove(e.tokenId(), e.expiresAtMs());
+                    it.remove();
+                }
+            }
+        }
+        lastTick = currentTick;
+    }
+
+    private static int slotOf(long tick) {
+        return (int) (tick % SLOTS);
+    }
+}
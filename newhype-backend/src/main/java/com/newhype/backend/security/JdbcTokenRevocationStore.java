@@ -0,0 +1,124 @@
+package com.newhype.backend.security;
+
+import com.newhype.backend.entity.TokenRevocado;
+import com.newhype.backend.repository.TokenRevocadoRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Revocaciones compartidas entre nodos en la tabla {@code tokens_revocados}, con un filtro
+ * de Bloom local delante: un token nunca revocado se descarta sin tocar la base de datos.
+ * Sólo los positivos del filtro (revocados reales o ~1% de falsos positivos) consultan la tabla.
+ *
+ * <p>Las revocaciones hechas en otros nodos se incorporan al filtro cada
+ * {@code app.jwt.revocation.sync-interval-ms}; ese es el retardo máximo de propagación.
+ * El filtro se reconstruye periódicamente para soltar los tokens ya expirados; mientras se
+ * carga, cada revocación se agrega a ambos filtros para que ninguna se pierda en el cambio.
+ */
+@Component
+@ConditionalOnProperty(name = "app.jwt.revocation.store", havingValue = "jdbc")
+public class JdbcTokenRevocationStore implements TokenRevocationStore {
+
+    private static final Logger log = LoggerFactory.getLogger(JdbcTokenRevocationStore.class);
+
+    // Margen contra desfase de relojes entre nodos al leer created_at
+    private static final long SYNC_OVERLAP_SECONDS = 60;
+
+    private final TokenRevocadoRepository tokenRevocadoRepository;
+
+    @Value("${app.jwt.revocation.bloom-capacity:100000}")
+    private int bloomCapacity;
+
+    private volatile RevocationBloomFilter bloom;
+    // Filtro en construcción (null fuera de rebuild): también recibe las revocaciones nuevas
+    private volatile RevocationBloomFilter reconstruyendo;
+    private volatile LocalDateTime lastSync;
+
+    public JdbcTokenRevocationStore(TokenRevocadoRepository tokenRevocadoRepository) {
+        this.tokenRevocadoRepository = tokenRevocadoRepository;
+    }
+
+    @PostConstruct
+    void init() {
+        rebuild();
+    }
+
+    @Override
+    public void revoke(String tokenId, Instant expiresAt) {
+        LocalDateTime expiraEn = LocalDateTime.ofInstant(expiresAt, ZoneId.systemDefault());
+        if (!expiraEn.isAfter(LocalDateTime.now())) {
+            return;
+        }
+        tokenRevocadoRepository.save(TokenRevocado.builder()
+                .tokenId(tokenId)
+                .expiraEn(expiraEn)
+                .build());
+        agregar(tokenId);
+    }
+
+    @Override
+    public boolean isRevoked(String tokenId) {
+        if (!bloom.mightContain(tokenId)) {
+            return false;
+        }
+        return tokenRevocadoRepository.existsByTokenIdAndExpiraEnAfter(tokenId, LocalDateTime.now());
+    }
+
+    // ── Sincronización entre nodos ──
+
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.sync-interval-ms:5000}")
+    void sync() {
+        LocalDateTime now = LocalDateTime.now();
+        List<String> ids = tokenRevocadoRepository.findIdsRevocadosDesde(
+                lastSync.minusSeconds(SYNC_OVERLAP_SECONDS), now);
+        ids.forEach(this::agregar);
+        lastSync = now;
+    }
+
+    // Tras guardar la fila: si aún no hay filtro en construcción, su carga ya verá la fila
+    private void agregar(String tokenId) {
+        bloom.add(tokenId);
+        RevocationBloomFilter nuevo = reconstruyendo;
+        if (nuevo != null) {
+            nuevo.add(tokenId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.purge-interval-ms:3600000}",
+               initialDelayString = "${app.jwt.revocation.purge-interval-ms:3600000}")
+    void purgeAndRebuild() {
+        int eliminados = tokenRevocadoRepository.eliminarExpirados(LocalDateTime.now());
+        if (eliminados > 0) {
+            log.info("Tokens revocados expirados eliminados: {}", eliminados);
+        }
+        rebuild();
+    }
+
+    private synchronized void rebuild() {
+        LocalDateTime now = LocalDateTime.now();
+        long vigentes = tokenRevocadoRepository.countByExpiraEnAfter(now);
+        RevocationBloomFilter fresh = new RevocationBloomFilter((int) Math.max(bloomCapacity, vigentes * 2));
+        if (bloom == null) {
+            bloom = fresh;
+        }
+        // Desde aquí revoke y sync escriben en ambos filtros; la carga ve lo guardado antes
+        reconstruyendo = fresh;
+        try {
+            tokenRevocadoRepository.findIdsVigentes(now).forEach(fresh::add);
+            bloom = fresh;
+            lastSync = now;
+        } finally {
+            reconstruyendo = null;
+        }
+    }
+}
@@ -32,21 +32,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         String token = extractToken(request);
 
-        if (StringUtils.hasText(token) && jwtUtil.validateToken(token) && !tokenBlacklist.isBlacklisted(token)) {
-            String type = jwtUtil.extractType(token);
+        JwtClaims claims = StringUtils.hasText(token) ? jwtUtil.verify(token).orElse(null) : null;
 
+        if (claims != null && !tokenBlacklist.isBlacklisted(claims)) {
             // Only accept access tokens, not refresh tokens
-            if ("access".equals(type)) {
-                Long userId = jwtUtil.extractUserId(token);
-                Long tenantId = jwtUtil.extractTenantId(token);
-                String role = jwtUtil.extractRole(token);
-                String scope = jwtUtil.extractScope(token);
+            if (claims.isAccessToken()) {
+                String role = claims.role();
 
                 JwtUserDetails userDetails = JwtUserDetails.builder()
-                        .userId(userId)
-                        .tenantId(tenantId)
+                        .userId(claims.userId())
+                        .tenantId(claims.tenantId())
                         .role(role)
-                        .scope(scope)
+                        .rolId(claims.rolId())
+                        .scope(claims.scope())
                         .build();
 
                 var authorities = List.of(new SimpleGrantedAuthority("ROLE_" + (role != null ? role : "USER")));
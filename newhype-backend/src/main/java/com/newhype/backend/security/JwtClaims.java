@@ -0,0 +1,30 @@
+package com.newhype.backend.security;
+
+import java.time.Instant;
+
+/**
+ * Claims de un JWT ya verificado (firma + expiración).
+ * {@code tokenId} es el {@code jti} del token, o su SHA-256 si fue emitido sin {@code jti};
+ * es la clave con la que se registra y consulta la revocación.
+ */
+public record JwtClaims(String tokenId,
+                        Long userId,
+                        Long tenantId,
+                        String role,
+                        Long rolId,
+                        String scope,
+                        String type,
+                        Instant expiresAt) {
+
+    public boolean isAccessToken() {
+        return "access".equals(type);
+    }
+
+    public boolean isRefreshToken() {
+        return "refresh".equals(type);
+    }
+
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && !now.isBefore(expiresAt);
+    }
+}
@@ -14,5 +14,6 @@ public class JwtUserDetails {
     private Long userId;
     private Long tenantId;
     private String role;
+    private Long rolId;
     private String scope;
 }
@@ -2,12 +2,16 @@ package com.newhype.backend.security;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
 
 @Component
 public class JwtUtil {
@@ -21,36 +25,53 @@ public class JwtUtil {
     @Value("${app.jwt.refresh-expiration-ms}")
     private long refreshExpirationMs;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+    @Value("${app.jwt.verified-cache-size:10000}")
+    private int verifiedCacheSize;
+
+    // Clave y parser se construyen una sola vez (ambos son thread-safe)
+    private SecretKey signingKey;
+    private JwtParser parser;
+    private VerifiedTokenCache verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser().verifyWith(signingKey).build();
+        verifiedTokens = new VerifiedTokenCache(verifiedCacheSize);
     }
 
     // ── Generate access token (tenant user) ──
     public String generateAccessToken(Long userId, Long tenantId, String role) {
-        return buildToken(userId, tenantId, role, "tenant", "access", jwtExpirationMs);
+        return generateAccessToken(userId, tenantId, null, role);
+    }
+
+    public String generateAccessToken(Long userId, Long tenantId, Long rolId, String role) {
+        return buildToken(userId, tenantId, rolId, role, "tenant", "access", jwtExpirationMs);
     }
 
     // ── Generate access token (platform superadmin) ──
     public String generatePlatformAccessToken(Long userId) {
-        return buildToken(userId, null, "SUPERADMIN", "platform", "access", jwtExpirationMs);
+        return buildToken(userId, null, null, "SUPERADMIN", "platform", "access", jwtExpirationMs);
     }
 
     // ── Generate refresh token ──
     public String generateRefreshToken(Long userId, Long tenantId, String scope) {
-        return buildToken(userId, tenantId, null, scope, "refresh", refreshExpirationMs);
+        return buildToken(userId, tenantId, null, null, scope, "refresh", refreshExpirationMs);
     }
 
-    private String buildToken(Long userId, Long tenantId, String role, String scope, String type, long expirationMs) {
+    private String buildToken(Long userId, Long tenantId, Long rolId, String role, String scope, String type,
+                              long expirationMs) {
         Date now = new Date();
         Date expiry = new Date(now.getTime() + expirationMs);
 
         var builder = Jwts.builder()
+                .id(UUID.randomUUID().toString())
                 .subject(String.valueOf(userId))
                 .claim("scope", scope)
                 .claim("type", type)
                 .issuedAt(now)
                 .expiration(expiry)
-                .signWith(getSigningKey());
+                .signWith(signingKey);
 
         if (tenantId != null) {
             builder.claim("tenantId", tenantId);
@@ -58,40 +79,41 @@ public class JwtUtil {
         if (role != null) {
             builder.claim("role", role);
         }
+        if (rolId != null) {
+            builder.claim("rolId", rolId);
+        }
 
         return builder.compact();
     }
 
-    // ── Validation ──
-    public boolean validateToken(String token) {
+    // ── Verification ──
+
+    /**
+     * Verifica firma y expiración una sola vez y devuelve los claims tipados.
+     * Los tokens ya verificados se sirven desde caché hasta su {@code exp}.
+     */
+    public Optional<JwtClaims> verify(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        Instant now = Instant.now();
+        String key = VerifiedTokenCache.keyOf(token);
+        JwtClaims cached = verifiedTokens.get(key, now);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
         try {
-            parseClaims(token);
-            return true;
+            JwtClaims claims = toJwtClaims(parser.parseSignedClaims(token).getPayload(), key);
+            verifiedTokens.put(key, claims);
+            return Optional.of(claims);
         } catch (JwtException | IllegalArgumentException e) {
-            return false;
+            return Optional.empty();
         }
     }
 
-    // ── Extraction ──
-    public Long extractUserId(String token) {
-        return Long.valueOf(parseClaims(token).getSubject());
-    }
-
-    public Long extractTenantId(String token) {
-        Object tenantId = parseClaims(token).get("tenantId");
-        return tenantId != null ? ((Number) tenantId).longValue() : null;
-    }
-
-    public String extractRole(String token) {
-        return (String) parseClaims(token).get("role");
-    }
-
-    public String extractScope(String token) {
-        return (String) parseClaims(token).get("scope");
-    }
-
-    public String extractType(String token) {
-        return (String) parseClaims(token).get("type");
+    public boolean validateToken(String token) {
+        return verify(token).isPresent();
     }
 
     public long getJwtExpirationMs() {
@@ -102,11 +124,17 @@ public class JwtUtil {
         return refreshExpirationMs;
     }
 
-    private Claims parseClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    private JwtClaims toJwtClaims(Claims claims, String tokenHash) {
+        Object tenantId = claims.get("tenantId");
+        Object rolId = claims.get("rolId");
+        return new JwtClaims(
+                claims.getId() != null ? claims.getId() : tokenHash,
+                Long.valueOf(claims.getSubject()),
+                tenantId != null ? ((Number) tenantId).longValue() : null,
+                claims.get("role", String.class),
+                rolId != null ? ((Number) rolId).longValue() : null,
+                claims.get("scope", String.class),
+                claims.get("type", String.class),
+                claims.getExpiration() != null ? claims.getExpiration().toInstant() : null);
     }
 }
@@ -0,0 +1,192 @@
+package com.newhype.backend.security;
+
+import com.newhype.backend.exception.DemasiadasSolicitudesException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admisión de logins y registros con token buckets por IP y por tenant, delante del
+ * {@link PasswordHashExecutor}: lo que excede la tasa se rechaza con 429 antes de tocar BCrypt
+ * ni la base de datos. Cada cubeta admite ráfagas de {@code capacidad} y se recarga a
+ * {@code por-minuto} fichas por minuto. El personal del tenant y los clientes de su tienda tienen
+ * cubetas separadas: un pico de registros en el storefront no bloquea el login del personal.
+ *
+ * <p>La IP es {@code getRemoteAddr()}, ya corregida por {@code server.forward-headers-strategy}
+ * (sólo se confía en {@code X-Forwarded-For} de proxies internos). Las cubetas sin uso desde hace
+ * más de su tiempo de llenado se purgan cada minuto; al llegar al tope de IPs se descarta la más
+ * antigua de una muestra, sin recorrer el mapa en el request.
+ */
+@Component
+public class LoginRateLimiter {
+
+    private static final String MENSAJE = "Demasiados intentos, reintente en unos segundos";
+    private static final long NANOS_MINUTO = TimeUnit.MINUTES.toNanos(1);
+    private static final int MUESTRA_DESALOJO = 8;
+
+    private static final class Cubeta {
+        private double fichas;
+        // Se lee sin candado al purgar y desalojar: basta una lectura aproximada
+        private volatile long ultimaRecarga;
+
+        private Cubeta(double fichas, long ahora) {
+            this.fichas = fichas;
+            this.ultimaRecarga = ahora;
+        }
+    }
+
+    private record Limite(double capacidad, double fichasPorNano, long nanosLlenado) {
+        static Limite of(int capacidad, int porMinuto) {
+            double fichasPorNano = (double) porMinuto / NANOS_MINUTO;
+            return new Limite(capacidad, fichasPorNano, (long) Math.ceil(capacidad / fichasPorNano));
+        }
+    }
+
+    private final Map<String, Cubeta> porIp = new ConcurrentHashMap<>();
+    private final Map<Long, Cubeta> porTenant = new ConcurrentHashMap<>();
+    private final Map<Long, Cubeta> porTienda = new ConcurrentHashMap<>();
+    private final Limite limiteIp;
+    private final Limite limiteTenant;
+    private final Limite limiteTienda;
+    private final int maxCubetas;
+
+    private final LongAdder rechazadasIp = new LongAdder();
+    private final LongAdder rechazadasTenant = new LongAdder();
+    private final LongAdder rechazadasTienda = new LongAdder();
+
+    public LoginRateLimiter(@Value("${app.auth.limite.ip.capacidad:10}") int capacidadIp,
+                            @Value("${app.auth.limite.ip.por-minuto:20}") int porMinutoIp,
+                            @Value("${app.auth.limite.tenant.capacidad:100}") int capacidadTenant,
+                            @Value("${app.auth.limite.tenant.por-minuto:300}") int porMinutoTenant,
+                            @Value("${app.auth.limite.tienda.capacidad:200}") int capacidadTienda,
+                            @Value("${app.auth.limite.tienda.por-minuto:600}") int porMinutoTienda,
+                            @Value("${app.auth.limite.max-cubetas:100000}") int maxCubetas) {
+        this.limiteIp = Limite.of(capacidadIp, porMinutoIp);
+        this.limiteTenant = Limite.of(capacidadTenant, porMinutoTenant);
+        this.limiteTienda = Limite.of(capacidadTienda, porMinutoTienda);
+        this.maxCubetas = maxCubetas;
+    }
+
+    /** Consume una ficha de la IP del request en curso. */
+    public void admitirIp() {
+        ServletRequestAttributes attrs = RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes a
+                ? a : null;
+        if (attrs == null) {
+            return;
+        }
+        if (porIp.size() >= maxCubetas) {
+            desalojarAntigua(porIp);
+        }
+        if (!consumir(porIp, attrs.getRequest().getRemoteAddr(), limiteIp)) {
+            rechazadasIp.increment();
+            throw new DemasiadasSolicitudesException(MENSAJE, segundosParaFicha(limiteIp));
+        }
+    }
+
+    /** Consume una ficha del tenant destino de un login del personal. */
+    public void admitirTenant(Long tenantId) {
+        if (tenantId == null) {
+            return;
+        }
+        if (!consumir(porTenant, tenantId, limiteTenant)) {
+            rechazadasTenant.increment();
+            throw new DemasiadasSolicitudesException(MENSAJE, segundosParaFicha(limiteTenant));
+        }
+    }
+
+    /** Consume una ficha de la tienda destino de un login o registro de cliente (storefront). */
+    public void admitirTienda(Long tenantId) {
+        if (tenantId == null) {
+            return;
+        }
+        if (!consumir(porTienda, tenantId, limiteTienda)) {
+            rechazadasTienda.increment();
+            throw new DemasiadasSolicitudesException(MENSAJE, segundosParaFicha(limiteTienda));
+        }
+    }
+
+    private static <K> boolean consumir(Map<K, Cubeta> cubetas, K clave, Limite limite) {
+        long ahora = System.nanoTime();
+        Cubeta c = cubetas.computeIfAbsent(clave, k -> new Cubeta(limite.capacidad(), ahora));
+        synchronized (c) {
+            recargar(c, limite, ahora);
+            if (c.fichas >= 1) {
+                c.fichas -= 1;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private static void recargar(Cubeta c, Limite limite, long ahora) {
+        long transcurrido = ahora - c.ultimaRecarga;
+        if (transcurrido > 0) {
+            c.fichas = Math.min(limite.capacidad(), c.fichas + transcurrido * limite.fichasPorNano());
+            c.ultimaRecarga = ahora;
+        }
+    }
+
+    private static long segundosParaFicha(Limite limite) {
+        return Math.max(1, (long) Math.ceil(1 / limite.fichasPorNano() / 1_000_000_000L));
+    }
+
+    // Sin uso durante su tiempo de llenado la cubeta está llena, que equivale a no tenerla
+    @Scheduled(fixedDelay = 60_000)
+    void purgar() {
+        long ahora = System.nanoTime();
+        porIp.values().removeIf(c -> ahora - c.ultimaRecarga >= limiteIp.nanosLlenado());
+        porTenant.values().removeIf(c -> ahora - c.ultimaRecarga >= limiteTenant.nanosLlenado());
+        porTienda.values().removeIf(c -> ahora - c.ultimaRecarga >= limiteTienda.nanosLlenado());
+    }
+
+    // Tope alcanzado: fuera la cubeta menos reciente de unas pocas, costo fijo en el request
+    private static <K> void desalojarAntigua(Map<K, Cubeta> cubetas) {
+        K candidata = null;
+        long masAntigua = Long.MAX_VALUE;
+        int vistas = 0;
+        for (Map.Entry<K, Cubeta> e : cubetas.entrySet()) {
+            long t = e.getValue().ultimaRecarga;
+            if (candidata == null || t - masAntigua < 0) {
+                candidata = e.getKey();
+                masAntigua = t;
+            }
+            if (++vistas == MUESTRA_DESALOJO) {
+                break;
+            }
+        }
+        if (candidata != null) {
+            cubetas.remove(candidata);
+        }
+    }
+
+    public int getCubetasIp() {
+        return porIp.size();
+    }
+
+    public int getCubetasTenant() {
+        return porTenant.size();
+    }
+
+    public int getCubetasTienda() {
+        return porTienda.size();
+    }
+
+    public long getRechazadasIp() {
+        return rechazadasIp.sum();
+    }
+
+    public long getRechazadasTenant() {
+        return rechazadasTenant.sum();
+    }
+
+    public long getRechazadasTienda() {
+        return rechazadasTienda.sum();
+    }
+}
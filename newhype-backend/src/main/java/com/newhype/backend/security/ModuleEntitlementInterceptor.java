@@ -0,0 +1,55 @@
+package com.newhype.backend.security;
+
+import com.newhype.backend.exception.ModuloNoHabilitadoException;
+import com.newhype.backend.service.HabilitacionModulos;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Comprueba {@link RequiereModulo} en cada request de scope tenant contra el bitset cacheado de
+ * {@link HabilitacionModulos}. El módulo de cada handler se resuelve una sola vez; plataforma y
+ * storefront no se restringen.
+ */
+@Component
+public class ModuleEntitlementInterceptor implements HandlerInterceptor {
+
+    private static final String SIN_MODULO = "";
+
+    private final HabilitacionModulos habilitacionModulos;
+    private final Map<Method, String> moduloPorHandler = new ConcurrentHashMap<>();
+
+    public ModuleEntitlementInterceptor(HabilitacionModulos habilitacionModulos) {
+        this.habilitacionModulos = habilitacionModulos;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod hm) || !TenantContext.isTenantScope()) {
+            return true;
+        }
+        String codigo = moduloPorHandler.computeIfAbsent(hm.getMethod(), m -> resolver(hm));
+        if (codigo.isEmpty()) {
+            return true;
+        }
+        if (!habilitacionModulos.habilitado(TenantContext.getCurrentTenantId(), codigo)) {
+            throw new ModuloNoHabilitadoException(codigo);
+        }
+        return true;
+    }
+
+    private static String resolver(HandlerMethod hm) {
+        RequiereModulo anotacion = AnnotatedElementUtils.findMergedAnnotation(hm.getMethod(), RequiereModulo.class);
+        if (anotacion == null) {
+            anotacion = AnnotatedElementUtils.findMergedAnnotation(hm.getBeanType(), RequiereModulo.class);
+        }
+        return anotacion != null ? anotacion.value() : SIN_MODULO;
+    }
+}
@@ -0,0 +1,146 @@
+package com.newhype.backend.security;
+
+import com.newhype.backend.exception.DemasiadasSolicitudesException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * BCrypt fuera de los hilos de Tomcat: las verificaciones y hashes de contraseña corren en un
+ * pool fijo ({@code app.auth.hash.hilos}, por defecto uno por núcleo) con cola acotada. Con la
+ * cola llena o si la espera supera {@code app.auth.hash.espera-max-ms} se responde 429 en vez de
+ * acumular requests: una ráfaga de logins no puede quitarle CPU ni hilos a las ventas del POS.
+ */
+@Component
+public class PasswordHashExecutor implements DisposableBean {
+
+    private static final String MENSAJE_SATURADO = "Servicio de autenticación saturado, reintente en unos segundos";
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor pool;
+    private final int capacidadCola;
+    private final long esperaMaxMs;
+
+    private final LongAdder completadas = new LongAdder();
+    private final LongAdder rechazadas = new LongAdder();
+    private final LongAdder nanosHash = new LongAdder();
+    private final LongAdder nanosCola = new LongAdder();
+    private final AtomicLong maxNanosHash = new AtomicLong();
+
+    public PasswordHashExecutor(PasswordEncoder passwordEncoder,
+                                @Value("${app.auth.hash.hilos:0}") int hilos,
+                                @Value("${app.auth.hash.cola:64}") int capacidadCola,
+                                @Value("${app.auth.hash.espera-max-ms:3000}") long esperaMaxMs) {
+        this.passwordEncoder = passwordEncoder;
+        this.capacidadCola = capacidadCola;
+        this.esperaMaxMs = esperaMaxMs;
+        int n = hilos > 0 ? hilos : Runtime.getRuntime().availableProcessors();
+        AtomicInteger secuencia = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(n, n, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadCola),
+                r -> {
+                    Thread t = new Thread(r, "password-hash-" + secuencia.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public boolean matches(CharSequence raw, String hash) {
+        return ejecutar(() -> passwordEncoder.matches(raw, hash));
+    }
+
+    public String encode(CharSequence raw) {
+        return ejecutar(() -> passwordEncoder.encode(raw));
+    }
+
+    private <T> T ejecutar(Callable<T> tarea) {
+        long encolado = System.nanoTime();
+        Future<T> futuro;
+        try {
+            futuro = pool.submit(() -> {
+                long inicio = System.nanoTime();
+                nanosCola.add(inicio - encolado);
+                try {
+                    return tarea.call();
+                } finally {
+                    long duracion = System.nanoTime() - inicio;
+                    nanosHash.add(duracion);
+                    maxNanosHash.accumulateAndGet(duracion, Math::max);
+                    completadas.increment();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rechazadas.increment();
+            throw new DemasiadasSolicitudesException(MENSAJE_SATURADO, 1);
+        }
+
+        try {
+            return futuro.get(esperaMaxMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            futuro.cancel(true);
+            rechazadas.increment();
+            throw new DemasiadasSolicitudesException(MENSAJE_SATURADO, 1);
+        } catch (InterruptedException e) {
+            futuro.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Verificación de contraseña interrumpida", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IllegalStateException("Error al procesar la contraseña", e.getCause());
+        }
+    }
+
+    // ── Métricas ──
+
+    public int getHilos() {
+        return pool.getMaximumPoolSize();
+    }
+
+    public int getActivos() {
+        return pool.getActiveCount();
+    }
+
+    public int getEnCola() {
+        return pool.getQueue().size();
+    }
+
+    public int getCapacidadCola() {
+        return capacidadCola;
+    }
+
+    public long getCompletadas() {
+        return completadas.sum();
+    }
+
+    public long getRechazadas() {
+        return rechazadas.sum();
+    }
+
+    public double getLatenciaPromedioMs() {
+        long n = completadas.sum();
+        return n == 0 ? 0 : nanosHash.sum() / 1_000_000.0 / n;
+    }
+
+    public double getLatenciaMaxMs() {
+        return maxNanosHash.get() / 1_000_000.0;
+    }
+
+    public double getEsperaColaPromedioMs() {
+        long n = completadas.sum();
+        return n == 0 ? 0 : nanosCola.sum() / 1_000_000.0 / n;
+    }
+
+    @Override
+    public void destroy() {
+        pool.shutdown();
+    }
+}
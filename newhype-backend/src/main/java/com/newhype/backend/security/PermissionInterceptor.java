@@ -0,0 +1,56 @@
+package com.newhype.backend.security;
+
+import com.newhype.backend.exception.PermisoDenegadoException;
+import com.newhype.backend.service.PermisosRoles;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Evalúa {@link RequierePermiso} contra el bitmap del rol (tenant + rolId del token) que compila
+ * {@link PermisosRoles}. El requisito de cada handler se resuelve e interna una sola vez.
+ */
+@Component
+public class PermissionInterceptor implements HandlerInterceptor {
+
+    private final PermisosRoles permisosRoles;
+    private final Map<Method, Optional<PermisosRoles.Requisito>> requisitoPorHandler = new ConcurrentHashMap<>();
+
+    public PermissionInterceptor(PermisosRoles permisosRoles) {
+        this.permisosRoles = permisosRoles;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod hm) || !TenantContext.isTenantScope()) {
+            return true;
+        }
+        PermisosRoles.Requisito requisito = requisitoPorHandler
+                .computeIfAbsent(hm.getMethod(), m -> resolver(hm))
+                .orElse(null);
+        if (requisito == null) {
+            return true;
+        }
+        if (!permisosRoles.permite(TenantContext.getCurrentTenantId(), TenantContext.getCurrentRolId(),
+                TenantContext.getCurrentRole(), requisito)) {
+            throw new PermisoDenegadoException(requisito.permiso());
+        }
+        return true;
+    }
+
+    private Optional<PermisosRoles.Requisito> resolver(HandlerMethod hm) {
+        RequierePermiso anotacion = AnnotatedElementUtils.findMergedAnnotation(hm.getMethod(), RequierePermiso.class);
+        if (anotacion == null) {
+            anotacion = AnnotatedElementUtils.findMergedAnnotation(hm.getBeanType(), RequierePermiso.class);
+        }
+        return Optional.ofNullable(anotacion).map(a -> permisosRoles.requisito(a.value()));
+    }
+}
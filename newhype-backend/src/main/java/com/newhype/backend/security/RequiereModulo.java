@@ -0,0 +1,22 @@
+package com.newhype.backend.security;
+
+import java.lang.annotation.*;
+
+/**
+ * Marca un controller (o un handler) como parte de un módulo vendible. El
+ * {@link ModuleEntitlementInterceptor} rechaza con 403 los requests de tenants que no lo tienen
+ * habilitado. El valor es el {@code codigo} de {@code modulos_sistema}; mientras el código no esté
+ * registrado allí, el endpoint queda libre para todos.
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RequiereModulo {
+
+    String VENTAS = "VEN";
+    String INVENTARIO = "INV";
+    String COMPRAS = "COM";
+    String REPORTES = "REP";
+
+    String value();
+}
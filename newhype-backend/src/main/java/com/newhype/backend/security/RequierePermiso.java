@@ -0,0 +1,16 @@
+package com.newhype.backend.security;
+
+import java.lang.annotation.*;
+
+/**
+ * Permiso fino requerido por un handler (o por todo un controller), con los nombres que guarda
+ * {@code roles.permisos}, p. ej. {@code "sales.update"}. Lo evalúa el {@link PermissionInterceptor}
+ * contra el bitmap cacheado del rol del token; sólo aplica a requests de scope tenant.
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RequierePermiso {
+
+    String value();
+}
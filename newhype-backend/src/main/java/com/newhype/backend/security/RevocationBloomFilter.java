@@ -0,0 +1,67 @@
+package com.newhype.backend.security;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom concurrente sobre identificadores de token. {@link #mightContain} no asigna
+ * memoria: el hash se calcula recorriendo los caracteres (FNV-1a 64 bits) y las k posiciones
+ * se derivan por doble hashing. No admite borrado: se reconstruye entero para purgar.
+ */
+class RevocationBloomFilter {
+
+    private static final int HASHES = 7;
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+
+    /** ~10 bits por elemento esperado: ≈1% de falsos positivos con 7 hashes. */
+    RevocationBloomFilter(int expectedEntries) {
+        long words = Math.max(1, ((long) Math.max(expectedEntries, 1024) * 10 + 63) / 64);
+        this.bits = new AtomicLongArray((int) Math.min(words, Integer.MAX_VALUE));
+        this.bitCount = (long) bits.length() * 64;
+    }
+
+    void add(String tokenId) {
+        long h = hash(tokenId);
+        int h1 = (int) h;
+        int h2 = (int) (h >>> 32);
+        for (int i = 0; i < HASHES; i++) {
+            long bit = index(h1 + i * h2);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long prev;
+            do {
+                prev = bits.get(word);
+                if ((prev & mask) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(word, prev, prev | mask));
+        }
+    }
+
+    boolean mightContain(String tokenId) {
+        long h = hash(tokenId);
+        int h1 = (int) h;
+        int h2 = (int) (h >>> 32);
+        for (int i = 0; i < HASHES; i++) {
+            long bit = index(h1 + i * h2);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long index(int combined) {
+        return (combined & 0x7fffffffL) % bitCount;
+    }
+
+    private static long hash(String s) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < s.length(); i++) {
+            h ^= s.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+}
@@ -30,6 +30,11 @@ public final class TenantContext {
         return user != null ? user.getRole() : null;
     }
 
+    public static Long getCurrentRolId() {
+        JwtUserDetails user = getCurrentUser();
+        return user != null ? user.getRolId() : null;
+    }
+
     public static String getCurrentScope() {
         JwtUserDetails user = getCurrentUser();
         return user != null ? user.getScope() : null;
@@ -2,19 +2,31 @@ package com.newhype.backend.security;
 
 import org.springframework.stereotype.Component;
 
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-
+/**
+ * Fachada de revocación de tokens (logout). Resuelve el {@code tokenId} y el {@code exp}
+ * del token y delega en el {@link TokenRevocationStore} configurado.
+ */
 @Component
 public class TokenBlacklist {
 
-    private final Set<String> blacklistedTokens = ConcurrentHashMap.newKeySet();
+    private final JwtUtil jwtUtil;
+    private final TokenRevocationStore revocationStore;
+
+    public TokenBlacklist(JwtUtil jwtUtil, TokenRevocationStore revocationStore) {
+        this.jwtUtil = jwtUtil;
+        this.revocationStore = revocationStore;
+    }
 
     public void blacklist(String token) {
-        blacklistedTokens.add(token);
+        // Un token inválido o expirado ya es rechazado: no hace falta registrarlo
+        jwtUtil.verify(token).ifPresent(claims -> {
+            if (claims.expiresAt() != null) {
+                revocationStore.revoke(claims.tokenId(), claims.expiresAt());
+            }
+        });
     }
 
-    public boolean isBlacklisted(String token) {
-        return blacklistedTokens.contains(token);
+    public boolean isBlacklisted(JwtClaims claims) {
+        return revocationStore.isRevoked(claims.tokenId());
     }
 }
@@ -0,0 +1,23 @@
+package com.newhype.backend.security;
+
+import java.time.Instant;
+
+/**
+ * Almacén de tokens revocados (logout). Las entradas se indexan por {@link JwtClaims#tokenId()}
+ * y sólo necesitan vivir hasta el {@code exp} del token: pasado ese instante el token ya es
+ * rechazado por la verificación de firma/expiración.
+ *
+ * <p>Implementaciones: {@link InMemoryTokenRevocationStore} (un solo nodo) y
+ * {@link JdbcTokenRevocationStore} (compartido entre nodos). Se elige con
+ * {@code app.jwt.revocation.store}.
+ */
+public interface TokenRevocationStore {
+
+    void revoke(String tokenId, Instant expiresAt);
+
+    /**
+     * Se invoca en cada request autenticado: no debe asignar memoria ni hacer I/O
+     * en el caso común de un token que nunca fue revocado.
+     */
+    boolean isRevoked(String tokenId);
+}
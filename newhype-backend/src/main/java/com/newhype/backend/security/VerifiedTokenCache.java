@@ -0,0 +1,95 @@
+package com.newhype.backend.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caché acotada de tokens ya verificados, indexada por SHA-256 del token (no se retiene
+ * el token en claro). Cada entrada deja de ser válida en el {@code exp} del token.
+ * La revocación (logout) no se cachea aquí: se consulta aparte en cada request.
+ *
+ * <p>Lecturas sin candado global: al superar el tope se revisa una muestra de entradas y se
+ * descartan las vencidas o, si no hay, la de acceso más antiguo (LRU aproximado).
+ */
+class VerifiedTokenCache {
+
+    private static final int MUESTRA_DESALOJO = 16;
+
+    private static final class Entrada {
+        private final JwtClaims claims;
+        private volatile long ultimoAcceso;
+
+        private Entrada(JwtClaims claims, long ahora) {
+            this.claims = claims;
+            this.ultimoAcceso = ahora;
+        }
+    }
+
+    private final Map<String, Entrada> entries = new ConcurrentHashMap<>();
+    private final int maxEntries;
+
+    VerifiedTokenCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    JwtClaims get(String key, Instant now) {
+        Entrada e = entries.get(key);
+        if (e == null) {
+            return null;
+        }
+        if (e.claims.isExpired(now)) {
+            entries.remove(key, e);
+            return null;
+        }
+        e.ultimoAcceso = System.nanoTime();
+        return e.claims;
+    }
+
+    void put(String key, JwtClaims claims) {
+        entries.put(key, new Entrada(claims, System.nanoTime()));
+        if (entries.size() > maxEntries) {
+            desalojar(Instant.now());
+        }
+    }
+
+    private void desalojar(Instant now) {
+        String candidata = null;
+        long masAntiguo = 0;
+        int vistas = 0;
+        boolean vencidas = false;
+        for (Map.Entry<String, Entrada> e : entries.entrySet()) {
+            Entrada entrada = e.getValue();
+            if (entrada.claims.isExpired(now)) {
+                entries.remove(e.getKey(), entrada);
+                vencidas = true;
+            } else if (candidata == null || entrada.ultimoAcceso - masAntiguo < 0) {
+                candidata = e.getKey();
+                masAntiguo = entrada.ultimoAcceso;
+            }
+            if (++vistas == MUESTRA_DESALOJO) {
+                break;
+            }
+        }
+        if (!vencidas && candidata != null) {
+            entries.remove(candidata);
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    static String keyOf(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
@@ -14,9 +14,11 @@ import java.util.stream.Collectors;
 public abstract class AbstractCatalogService<T extends CatalogBaseEntity> {
 
     protected final CatalogBaseRepository<T> repository;
+    private final CatalogCache catalogCache;
 
-    protected AbstractCatalogService(CatalogBaseRepository<T> repository) {
+    protected AbstractCatalogService(CatalogBaseRepository<T> repository, CatalogCache catalogCache) {
         this.repository = repository;
+        this.catalogCache = catalogCache;
     }
 
     // ── Template methods (subclass must implement) ──
@@ -29,15 +31,24 @@ public abstract class AbstractCatalogService<T extends CatalogBaseEntity> {
 
     protected abstract String catalogDisplayName();
 
+    /** Hook tras actualizar o dar de baja un registro del tenant (p. ej. reindexar productos). */
+    protected void alModificar(Long tenantId) {
+    }
+
     // ── Concrete CRUD ──
 
     @Transactional(readOnly = true)
     public List<CatalogResponse> listar() {
-        Long tenantId = TenantContext.getCurrentTenantId();
-        return repository.findByTenantIdAndEstadoTrue(tenantId)
+        return listarPorTenant(TenantContext.getCurrentTenantId());
+    }
+
+    /** Registros activos del tenant, servidos desde {@link CatalogCache}. */
+    @Transactional(readOnly = true)
+    public List<CatalogResponse> listarPorTenant(Long tenantId) {
+        return catalogCache.obtener(getClass(), tenantId, () -> repository.findByTenantIdAndEstadoTrue(tenantId)
                 .stream()
                 .map(this::toResponse)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 
     @Transactional
@@ -55,6 +66,7 @@ public abstract class AbstractCatalogService<T extends CatalogBaseEntity> {
         mapSpecificFields(request, entity);
 
         entity = repository.save(entity);
+        catalogCache.invalidar(getClass(), tenantId);
         return toResponse(entity);
     }
 
@@ -68,6 +80,8 @@ public abstract class AbstractCatalogService<T extends CatalogBaseEntity> {
         mapSpecificFields(request, entity);
 
         entity = repository.save(entity);
+        catalogCache.invalidar(getClass(), tenantId);
+        alModificar(tenantId);
         return toResponse(entity);
     }
 
@@ -79,6 +93,8 @@ public abstract class AbstractCatalogService<T extends CatalogBaseEntity> {
 
         entity.setEstado(false);
         repository.save(entity);
+        catalogCache.invalidar(getClass(), tenantId);
+        alModificar(tenantId);
     }
 
     // ── Mapper ──
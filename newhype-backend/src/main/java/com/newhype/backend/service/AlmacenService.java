@@ -15,9 +15,11 @@ import java.util.stream.Collectors;
 public class AlmacenService {
 
     private final AlmacenRepository almacenRepository;
+    private final CuotaService cuotaService;
 
-    public AlmacenService(AlmacenRepository almacenRepository) {
+    public AlmacenService(AlmacenRepository almacenRepository, CuotaService cuotaService) {
         this.almacenRepository = almacenRepository;
+        this.cuotaService = cuotaService;
     }
 
     @Transactional(readOnly = true)
@@ -34,6 +36,7 @@ public class AlmacenService {
         if (almacenRepository.existsByTenantIdAndCodigo(tenantId, request.getCodigo())) {
             throw new IllegalArgumentException("Ya existe un almacén con código " + request.getCodigo());
         }
+        cuotaService.reservar(tenantId, CuotaService.Recurso.ALMACENES);
 
         Almacen almacen = Almacen.builder()
                 .tenantId(tenantId)
@@ -75,6 +78,8 @@ public class AlmacenService {
         Almacen almacen = almacenRepository.findByIdAndTenantId(id, tenantId)
                 .orElseThrow(() -> new ResourceNotFoundException("Almacén", id));
 
+        cuotaService.cambiarEstado(tenantId, CuotaService.Recurso.ALMACENES,
+                almacen.getEstado(), !almacen.getEstado());
         almacen.setEstado(!almacen.getEstado());
         almacen = almacenRepository.save(almacen);
         return toResponse(almacen);
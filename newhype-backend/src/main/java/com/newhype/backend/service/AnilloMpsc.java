@@ -0,0 +1,88 @@
+package com.newhype.backend.service;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Buffer circular acotado, sin locks, para varios productores y un único consumidor.
+ * Cada celda lleva un número de secuencia: el productor reserva posición con un CAS sobre
+ * {@code cola} y publica el elemento avanzando la secuencia de su celda; el consumidor sólo
+ * lee celdas ya publicadas. {@link #ofrecer} nunca bloquea: con el anillo lleno devuelve false.
+ *
+ * <p>{@link #drenar} y {@link #sacar} sólo deben llamarse desde el hilo consumidor.
+ */
+public class AnilloMpsc<T> {
+
+    private final int mascara;
+    private final int capacidad;
+    private final AtomicReferenceArray<T> celdas;
+    private final AtomicLongArray secuencias;
+    private final AtomicLong cola = new AtomicLong();
+    private volatile long cabeza;
+
+    public AnilloMpsc(int capacidadMinima) {
+        if (capacidadMinima < 2) {
+            throw new IllegalArgumentException("La capacidad del anillo debe ser al menos 2");
+        }
+        this.capacidad = Integer.highestOneBit(capacidadMinima - 1) << 1;
+        this.mascara = capacidad - 1;
+        this.celdas = new AtomicReferenceArray<>(capacidad);
+        this.secuencias = new AtomicLongArray(capacidad);
+        for (int i = 0; i < capacidad; i++) {
+            secuencias.set(i, i);
+        }
+    }
+
+    public boolean ofrecer(T elemento) {
+        while (true) {
+            long pos = cola.get();
+            int idx = (int) (pos & mascara);
+            long dif = secuencias.get(idx) - pos;
+            if (dif == 0) {
+                if (cola.compareAndSet(pos, pos + 1)) {
+                    celdas.lazySet(idx, elemento);
+                    secuencias.set(idx, pos + 1);
+                    return true;
+                }
+            } else if (dif < 0) {
+                return false;
+            }
+            // dif > 0: otro productor tomó la posición, reintentar
+        }
+    }
+
+    public T sacar() {
+        long pos = cabeza;
+        int idx = (int) (pos & mascara);
+        if (secuencias.get(idx) != pos + 1) {
+            return null;
+        }
+        T elemento = celdas.get(idx);
+        celdas.lazySet(idx, null);
+        secuencias.set(idx, pos + capacidad);
+        cabeza = pos + 1;
+        return elemento;
+    }
+
+    /** Mueve hasta {@code max} elementos publicados a {@code destino}; devuelve cuántos movió. */
+    public int drenar(List<T> destino, int max) {
+        int n = 0;
+        T elemento;
+        while (n < max && (elemento = sacar()) != null) {
+            destino.add(elemento);
+            n++;
+        }
+        return n;
+    }
+
+    /** Tamaño aproximado (reservados menos consumidos). */
+    public int tamanio() {
+        return (int) Math.max(0, Math.min(capacidad, cola.get() - cabeza));
+    }
+
+    public int getCapacidad() {
+        return capacidad;
+    }
+}
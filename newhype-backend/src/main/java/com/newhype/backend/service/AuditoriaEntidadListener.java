@@ -0,0 +1,136 @@
+package com.newhype.backend.service;
+
+import com.newhype.backend.entity.*;
+import com.newhype.backend.security.TenantContext;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.servlet.http.HttpServletRequest;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.*;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Auditoría automática de mutaciones a nivel tenant: cada INSERT/UPDATE/DELETE confirmado de una
+ * entidad con {@code tenantId} genera un evento en {@code auditoria} (CREAR / ACTUALIZAR / ELIMINAR,
+ * con los campos modificados, nunca sus valores). Se engancha a los eventos post-commit de Hibernate,
+ * así que un rollback no deja rastro, y sólo encola: la escritura la hace el {@link AuditoriaWriter}.
+ *
+ * <p>Se omiten las operaciones de plataforma (ya auditadas aparte) y las tablas derivadas o de alto
+ * volumen que tienen su propio rastro (kardex, rollups, correlativos, stock).
+ */
+@Component
+public class AuditoriaEntidadListener implements PostCommitInsertEventListener,
+        PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private static final Set<Class<?>> EXCLUIDAS = Set.of(
+            AuditoriaPlataforma.class,
+            MovimientoInventario.class,
+            StockAlmacen.class,
+            ProductoDisponibilidad.class,
+            VentaDiaria.class,
+            CorrelativoDocumento.class,
+            SerieComprobante.class);
+
+    private static final String PROPIEDAD_TENANT = "tenantId";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final AuditoriaWriter auditoriaWriter;
+
+    // Índice de la propiedad tenantId por entidad (-1 = no auditable)
+    private final Map<String, Integer> indiceTenant = new ConcurrentHashMap<>();
+
+    public AuditoriaEntidadListener(EntityManagerFactory entityManagerFactory, AuditoriaWriter auditoriaWriter) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.auditoriaWriter = auditoriaWriter;
+    }
+
+    @PostConstruct
+    void registrar() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getEventListenerRegistry();
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        auditar("CREAR", event.getPersister(), event.getId(), event.getState(), null);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        int[] sucias = event.getDirtyProperties();
+        if (sucias == null || sucias.length == 0) {
+            return;
+        }
+        String[] nombres = event.getPersister().getPropertyNames();
+        StringJoiner campos = new StringJoiner(", ", "campos: ", "");
+        for (int i : sucias) {
+            campos.add(nombres[i]);
+        }
+        auditar("ACTUALIZAR", event.getPersister(), event.getId(), event.getState(), campos.toString());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        auditar("ELIMINAR", event.getPersister(), event.getId(), event.getDeletedState(), null);
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return indice(persister) >= 0;
+    }
+
+    private void auditar(String accion, EntityPersister persister, Object id, Object[] estado, String detalle) {
+        int idx = indice(persister);
+        if (idx < 0 || estado == null || TenantContext.isPlatformScope()) {
+            return;
+        }
+        if (!(estado[idx] instanceof Long tenantId)) {
+            return;
+        }
+        HttpServletRequest request = RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes a
+                ? a.getRequest() : null;
+        auditoriaWriter.registrar(AuditoriaEvento.tenant(
+                tenantId,
+                TenantContext.isTenantScope() ? TenantContext.getCurrentUserId() : null,
+                accion,
+                persister.getMappedClass().getSimpleName(),
+                id instanceof Long l ? l : null,
+                detalle,
+                request != null ? request.getRemoteAddr() : null,
+                request != null ? request.getHeader("User-Agent") : null));
+    }
+
+    private int indice(EntityPersister persister) {
+        return indiceTenant.computeIfAbsent(persister.getEntityName(), nombre -> {
+            if (EXCLUIDAS.contains(persister.getMappedClass())) {
+                return -1;
+            }
+            return Arrays.asList(persister.getPropertyNames()).indexOf(PROPIEDAD_TENANT);
+        });
+    }
+}
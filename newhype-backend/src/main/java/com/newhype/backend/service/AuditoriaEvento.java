@@ -0,0 +1,33 @@
+package com.newhype.backend.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento de auditoría en tránsito hacia {@code auditoria} (tenant) o {@code auditoria_plataforma}.
+ * Inmutable: se arma en el hilo del request y lo persiste el {@link AuditoriaWriter}.
+ */
+public record AuditoriaEvento(Destino destino,
+                              Long tenantId,
+                              Long usuarioId,
+                              String accion,
+                              String entidad,
+                              Long entidadId,
+                              String detalle,
+                              String ipAddress,
+                              String userAgent,
+                              LocalDateTime createdAt) {
+
+    public enum Destino { TENANT, PLATAFORMA }
+
+    public static AuditoriaEvento plataforma(Long usuarioPlataformaId, Long tenantId, String accion,
+                                             String detalle, String ipAddress, String userAgent) {
+        return new AuditoriaEvento(Destino.PLATAFORMA, tenantId, usuarioPlataformaId, accion, null, null,
+                detalle, ipAddress, userAgent, LocalDateTime.now());
+    }
+
+    public static AuditoriaEvento tenant(Long tenantId, Long usuarioId, String accion, String entidad,
+                                         Long entidadId, String detalle, String ipAddress, String userAgent) {
+        return new AuditoriaEvento(Destino.TENANT, tenantId, usuarioId, accion, entidad, entidadId,
+                detalle, ipAddress, userAgent, LocalDateTime.now());
+    }
+}
@@ -1,36 +1,34 @@
 package com.newhype.backend.service;
 
-import com.newhype.backend.entity.AuditoriaPlataforma;
-import com.newhype.backend.repository.AuditoriaPlataformaRepository;
 import com.newhype.backend.security.TenantContext;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+/**
+ * Auditoría de operaciones de plataforma. El evento se arma en el hilo del request y se
+ * entrega al {@link AuditoriaWriter} al confirmar la transacción del llamador: no agrega
+ * un INSERT ni alarga la transacción.
+ */
 @Service
 public class AuditoriaPlataformaService {
 
-    private final AuditoriaPlataformaRepository auditoriaRepository;
+    private final AuditoriaWriter auditoriaWriter;
 
-    public AuditoriaPlataformaService(AuditoriaPlataformaRepository auditoriaRepository) {
-        this.auditoriaRepository = auditoriaRepository;
+    public AuditoriaPlataformaService(AuditoriaWriter auditoriaWriter) {
+        this.auditoriaWriter = auditoriaWriter;
     }
 
-    @Transactional
     public void registrar(String accion, String detalle, Long tenantId, HttpServletRequest request) {
         Long userId = TenantContext.getCurrentUserId();
-        AuditoriaPlataforma log = AuditoriaPlataforma.builder()
-                .usuarioPlataformaId(userId)
-                .tenantId(tenantId)
-                .accion(accion)
-                .detalle(detalle)
-                .ipAddress(request != null ? request.getRemoteAddr() : null)
-                .userAgent(request != null ? request.getHeader("User-Agent") : null)
-                .build();
-        auditoriaRepository.save(log);
+        auditoriaWriter.registrarTrasCommit(AuditoriaEvento.plataforma(
+                userId,
+                tenantId,
+                accion,
+                detalle,
+                request != null ? request.getRemoteAddr() : null,
+                request != null ? request.getHeader("User-Agent") : null));
     }
 
-    @Transactional
     public void registrar(String accion, String detalle, Long tenantId) {
         registrar(accion, detalle, tenantId, null);
     }
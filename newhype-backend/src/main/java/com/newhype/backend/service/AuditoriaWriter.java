@@ -0,0 +1,256 @@
+package com.newhype.backend.service;
+
+import com.newhype.backend.dto.platform.EscritorAuditoriaResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Escritura asíncrona de auditoría. Los productores (requests) encolan en un {@link AnilloMpsc}
+ * acotado sin tocar la base de datos; un único hilo escritor vacía el anillo en lotes y los
+ * persiste con INSERT multi-fila (batch reescrito por el driver) cada
+ * {@code app.auditoria.intervalo-ms} o al juntar {@code app.auditoria.lote-max} eventos.
+ *
+ * <p>Con el anillo lleno se aplica {@code app.auditoria.saturacion}:
+ * <ul>
+ *   <li>{@code DESCARTAR}: se pierde el evento y se cuenta como descartado (nunca frena al request).</li>
+ *   <li>{@code ESPERAR}: se reintenta hasta {@code app.auditoria.espera-max-ms} y luego se descarta.</li>
+ *   <li>{@code SINCRONO}: el propio request inserta el evento (sin pérdida, con el costo de un round trip).</li>
+ * </ul>
+ * Los eventos de plataforma (acciones de administradores) nunca se descartan: si tras la política
+ * no entran al anillo se insertan en línea. {@code DESCARTAR}/{@code ESPERAR} sólo pierden eventos
+ * de entidades de tenant.
+ * Al apagar la aplicación el escritor se detiene después del servidor web y vacía lo pendiente.
+ */
+@Component
+public class AuditoriaWriter implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditoriaWriter.class);
+
+    public enum Saturacion { DESCARTAR, ESPERAR, SINCRONO }
+
+    private static final String INSERT_TENANT = "INSERT INTO auditoria "
+            + "(tenant_id, usuario_id, accion, entidad, entidad_id, detalle, ip_address, user_agent, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_PLATAFORMA = "INSERT INTO auditoria_plataforma "
+            + "(usuario_plataforma_id, tenant_id, accion, detalle, ip_address, user_agent, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AnilloMpsc<AuditoriaEvento> anillo;
+    private final int loteMax;
+    private final long intervaloNanos;
+    private final Saturacion saturacion;
+    private final long esperaMaxNanos;
+
+    private final AtomicLong encolados = new AtomicLong();
+    private final AtomicLong escritos = new AtomicLong();
+    private final AtomicLong descartados = new AtomicLong();
+    private final AtomicLong fallidos = new AtomicLong();
+    private final AtomicLong lotes = new AtomicLong();
+
+    private volatile boolean activo;
+    private volatile Thread hilo;
+
+    public AuditoriaWriter(JdbcTemplate jdbcTemplate,
+                           @Value("${app.auditoria.capacidad:8192}") int capacidad,
+                           @Value("${app.auditoria.lote-max:500}") int loteMax,
+                           @Value("${app.auditoria.intervalo-ms:200}") long intervaloMs,
+                           @Value("${app.auditoria.saturacion:DESCARTAR}") Saturacion saturacion,
+                           @Value("${app.auditoria.espera-max-ms:5}") long esperaMaxMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.anillo = new AnilloMpsc<>(capacidad);
+        this.loteMax = loteMax;
+        this.intervaloNanos = TimeUnit.MILLISECONDS.toNanos(intervaloMs);
+        this.saturacion = saturacion;
+        this.esperaMaxNanos = TimeUnit.MILLISECONDS.toNanos(esperaMaxMs);
+    }
+
+    // ── Productores ──
+
+    public void registrar(AuditoriaEvento evento) {
+        if (!activo) {
+            // Antes del arranque o tras el apagado no hay escritor: se persiste en línea
+            escribir(List.of(evento));
+            return;
+        }
+        if (anillo.ofrecer(evento) || (saturacion == Saturacion.ESPERAR && esperar(evento))) {
+            encolados.incrementAndGet();
+            if (anillo.tamanio() >= loteMax) {
+                LockSupport.unpark(hilo);
+            }
+            return;
+        }
+        if (saturacion == Saturacion.SINCRONO || evento.destino() == AuditoriaEvento.Destino.PLATAFORMA) {
+            escribir(List.of(evento));
+        } else {
+            long n = descartados.incrementAndGet();
+            if (Long.bitCount(n) == 1) {
+                log.warn("Cola de auditoría llena ({}): {} eventos descartados", anillo.getCapacidad(), n);
+            }
+        }
+    }
+
+    /** Encola al confirmar la transacción en curso (un rollback no deja rastro), o ya si no hay. */
+    public void registrarTrasCommit(AuditoriaEvento evento) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    registrar(evento);
+                }
+            });
+        } else {
+            registrar(evento);
+        }
+    }
+
+    private boolean esperar(AuditoriaEvento evento) {
+        long limite = System.nanoTime() + esperaMaxNanos;
+        do {
+            LockSupport.unpark(hilo);
+            LockSupport.parkNanos(50_000);
+            if (anillo.ofrecer(evento)) {
+                return true;
+            }
+        } while (System.nanoTime() < limite);
+        return false;
+    }
+
+    // ── Escritor ──
+
+    private void bucle() {
+        List<AuditoriaEvento> lote = new ArrayList<>(loteMax);
+        long inicioLote = 0;
+        while (activo) {
+            boolean vacio = lote.isEmpty();
+            int n = anillo.drenar(lote, loteMax - lote.size());
+            if (vacio && n > 0) {
+                inicioLote = System.nanoTime();
+            }
+            long transcurrido = System.nanoTime() - inicioLote;
+            if (lote.size() >= loteMax || (!lote.isEmpty() && transcurrido >= intervaloNanos)) {
+                escribir(lote);
+                lote.clear();
+            } else if (n == 0) {
+                LockSupport.parkNanos(this, lote.isEmpty() ? intervaloNanos : intervaloNanos - transcurrido);
+            }
+        }
+        anillo.drenar(lote, Integer.MAX_VALUE);
+        escribir(lote);
+    }
+
+    private void escribir(List<AuditoriaEvento> eventos) {
+        if (eventos.isEmpty()) {
+            return;
+        }
+        List<AuditoriaEvento> tenant = new ArrayList<>();
+        List<AuditoriaEvento> plataforma = new ArrayList<>();
+        for (AuditoriaEvento e : eventos) {
+            (e.destino() == AuditoriaEvento.Destino.TENANT ? tenant : plataforma).add(e);
+        }
+        insertar(INSERT_TENANT, tenant, true);
+        insertar(INSERT_PLATAFORMA, plataforma, false);
+        lotes.incrementAndGet();
+    }
+
+    private void insertar(String sql, List<AuditoriaEvento> eventos, boolean esTenant) {
+        if (eventos.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(sql, eventos, eventos.size(), (ps, e) -> {
+                int i = 1;
+                if (esTenant) {
+                    ps.setObject(i++, e.tenantId());
+                    ps.setObject(i++, e.usuarioId());
+                    ps.setString(i++, e.accion());
+                    ps.setString(i++, e.entidad());
+                    ps.setObject(i++, e.entidadId());
+                } else {
+                    ps.setObject(i++, e.usuarioId());
+                    ps.setObject(i++, e.tenantId());
+                    ps.setString(i++, e.accion());
+                }
+                ps.setString(i++, e.detalle());
+                ps.setString(i++, e.ipAddress());
+                ps.setString(i++, e.userAgent());
+                ps.setObject(i, e.createdAt());
+            });
+            escritos.addAndGet(eventos.size());
+        } catch (RuntimeException ex) {
+            fallidos.addAndGet(eventos.size());
+            log.error("No se pudieron escribir {} eventos de auditoría: {}", eventos.size(), ex.getMessage());
+        }
+    }
+
+    public EscritorAuditoriaResponse getEstadisticas() {
+        return EscritorAuditoriaResponse.builder()
+                .activo(activo)
+                .saturacion(saturacion.name())
+                .capacidad(anillo.getCapacidad())
+                .pendientes(anillo.tamanio())
+                .encolados(encolados.get())
+                .escritos(escritos.get())
+                .descartados(descartados.get())
+                .fallidos(fallidos.get())
+                .lotes(lotes.get())
+                .build();
+    }
+
+    // ── Ciclo de vida ──
+
+    @Override
+    public void start() {
+        activo = true;
+        Thread t = new Thread(this::bucle, "auditoria-writer");
+        t.setDaemon(true);
+        hilo = t;
+        t.start();
+    }
+
+    @Override
+    public void stop() {
+        activo = false;
+        Thread t = hilo;
+        if (t == null) {
+            return;
+        }
+        LockSupport.unpark(t);
+        try {
+            t.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!t.isAlive()) {
+            // Eventos encolados mientras el escritor terminaba
+            List<AuditoriaEvento> resto = new ArrayList<>();
+            anillo.drenar(resto, Integer.MAX_VALUE);
+            escribir(resto);
+        } else {
+            log.warn("El escritor de auditoría no terminó a tiempo; {} eventos pendientes", anillo.tamanio());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return activo;
+    }
+
+    // Fase baja: arranca antes y se detiene después del servidor web (que deja de aceptar requests)
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+}
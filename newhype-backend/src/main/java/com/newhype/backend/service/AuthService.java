@@ -3,13 +3,16 @@ package com.newhype.backend.service;
 import com.newhype.backend.dto.auth.*;
 import com.newhype.backend.entity.*;
 import com.newhype.backend.repository.*;
+import com.newhype.backend.security.JwtClaims;
 import com.newhype.backend.security.JwtUtil;
+import com.newhype.backend.security.LoginRateLimiter;
+import com.newhype.backend.security.PasswordHashExecutor;
 import com.newhype.backend.security.TenantContext;
 import com.newhype.backend.security.TokenBlacklist;
 import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 
@@ -21,33 +24,48 @@ public class AuthService {
     private final UsuarioRepository usuarioRepository;
     private final UsuarioPlataformaRepository usuarioPlataformaRepository;
     private final ClienteTiendaRepository clienteTiendaRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashExecutor passwordHasher;
     private final JwtUtil jwtUtil;
     private final TokenBlacklist tokenBlacklist;
+    private final LoginRateLimiter loginRateLimiter;
+    private final TransactionTemplate transaccion;
 
     public AuthService(TenantRepository tenantRepository,
                        RolRepository rolRepository,
                        UsuarioRepository usuarioRepository,
                        UsuarioPlataformaRepository usuarioPlataformaRepository,
                        ClienteTiendaRepository clienteTiendaRepository,
-                       PasswordEncoder passwordEncoder,
+                       PasswordHashExecutor passwordHasher,
                        JwtUtil jwtUtil,
-                       TokenBlacklist tokenBlacklist) {
+                       TokenBlacklist tokenBlacklist,
+                       LoginRateLimiter loginRateLimiter,
+                       PlatformTransactionManager transactionManager) {
         this.tenantRepository = tenantRepository;
         this.rolRepository = rolRepository;
         this.usuarioRepository = usuarioRepository;
         this.usuarioPlataformaRepository = usuarioPlataformaRepository;
         this.clienteTiendaRepository = clienteTiendaRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHasher = passwordHasher;
         this.jwtUtil = jwtUtil;
         this.tokenBlacklist = tokenBlacklist;
+        this.loginRateLimiter = loginRateLimiter;
+        this.transaccion = new TransactionTemplate(transactionManager);
     }
 
-    @Transactional
+    /**
+     * El hash (hasta {@code espera-max-ms} en cola) se calcula antes de abrir la transacción:
+     * una ráfaga de registros no retiene conexiones del pool mientras espera al hasher.
+     */
     public AuthResponse register(RegisterRequest request) {
+        loginRateLimiter.admitirIp();
         if (usuarioRepository.existsByEmail(request.getEmail())) {
             throw new IllegalArgumentException("El email ya está registrado");
         }
+        String passwordHash = passwordHasher.encode(request.getPassword());
+        return transaccion.execute(status -> crearCuenta(request, passwordHash));
+    }
+
+    private AuthResponse crearCuenta(RegisterRequest request, String passwordHash) {
 
         String nombreTienda = request.getNombreTienda() != null
                 ? request.getNombreTienda()
@@ -95,13 +113,13 @@ public class AuthService {
                 .rolId(rol.getId())
                 .email(request.getEmail())
                 .username(username)
-                .passwordHash(passwordEncoder.encode(request.getPassword()))
+                .passwordHash(passwordHash)
                 .nombre(request.getNombre())
                 .apellido(request.getApellido())
                 .build();
         usuario = usuarioRepository.save(usuario);
 
-        String accessToken = jwtUtil.generateAccessToken(usuario.getId(), tenant.getId(), rol.getNombre());
+        String accessToken = jwtUtil.generateAccessToken(usuario.getId(), tenant.getId(), rol.getId(), rol.getNombre());
         String refreshToken = jwtUtil.generateRefreshToken(usuario.getId(), tenant.getId(), "tenant");
 
         UserInfoResponse userInfo = UserInfoResponse.builder()
@@ -120,10 +138,12 @@ public class AuthService {
     }
 
     public AuthResponse login(LoginRequest request) {
+        loginRateLimiter.admitirIp();
         Usuario usuario = usuarioRepository.findByEmail(request.getEmail())
                 .orElseThrow(() -> new BadCredentialsException("Credenciales inválidas"));
+        loginRateLimiter.admitirTenant(usuario.getTenantId());
 
-        if (!passwordEncoder.matches(request.getPassword(), usuario.getPasswordHash())) {
+        if (!passwordHasher.matches(request.getPassword(), usuario.getPasswordHash())) {
             throw new BadCredentialsException("Credenciales inválidas");
         }
 
@@ -138,7 +158,7 @@ public class AuthService {
         Rol rol = rolRepository.findById(usuario.getRolId()).orElse(null);
         if (rol != null) rolNombre = rol.getNombre();
 
-        String accessToken = jwtUtil.generateAccessToken(usuario.getId(), tenant.getId(), rolNombre);
+        String accessToken = jwtUtil.generateAccessToken(usuario.getId(), tenant.getId(), usuario.getRolId(), rolNombre);
         String refreshToken = jwtUtil.generateRefreshToken(usuario.getId(), tenant.getId(), "tenant");
 
         UserInfoResponse userInfo = UserInfoResponse.builder()
@@ -157,11 +177,12 @@ public class AuthService {
     }
 
     public AuthResponse platformLogin(PlatformLoginRequest request) {
+        loginRateLimiter.admitirIp();
         UsuarioPlataforma user = usuarioPlataformaRepository.findByEmail(request.getEmailOrUsername())
                 .or(() -> usuarioPlataformaRepository.findByUsername(request.getEmailOrUsername()))
                 .orElseThrow(() -> new BadCredentialsException("Credenciales inválidas"));
 
-        if (!passwordEncoder.matches(request.getPassword(), user.getPasswordHash())) {
+        if (!passwordHasher.matches(request.getPassword(), user.getPasswordHash())) {
             throw new BadCredentialsException("Credenciales inválidas");
         }
 
@@ -187,18 +208,16 @@ public class AuthService {
     public AuthResponse refresh(RefreshRequest request) {
         String token = request.getRefreshToken();
 
-        if (!jwtUtil.validateToken(token)) {
-            throw new BadCredentialsException("Refresh token inválido");
-        }
+        JwtClaims claims = jwtUtil.verify(token)
+                .orElseThrow(() -> new BadCredentialsException("Refresh token inválido"));
 
-        String type = jwtUtil.extractType(token);
-        if (!"refresh".equals(type)) {
+        if (!claims.isRefreshToken()) {
             throw new BadCredentialsException("Token no es de tipo refresh");
         }
 
-        Long userId = jwtUtil.extractUserId(token);
-        Long tenantId = jwtUtil.extractTenantId(token);
-        String scope = jwtUtil.extractScope(token);
+        Long userId = claims.userId();
+        Long tenantId = claims.tenantId();
+        String scope = claims.scope();
 
         String accessToken;
         if ("platform".equals(scope)) {
@@ -209,7 +228,7 @@ public class AuthService {
             String rolNombre = "USER";
             Rol rol = rolRepository.findById(usuario.getRolId()).orElse(null);
             if (rol != null) rolNombre = rol.getNombre();
-            accessToken = jwtUtil.generateAccessToken(userId, tenantId, rolNombre);
+            accessToken = jwtUtil.generateAccessToken(userId, tenantId, usuario.getRolId(), rolNombre);
         }
 
         String newRefreshToken = jwtUtil.generateRefreshToken(userId, tenantId, scope);
@@ -275,8 +294,13 @@ public class AuthService {
         return usuarioRepository.existsByEmail(email);
     }
 
-    @Transactional
+    /**
+     * Sin transacción envolvente: la verificación del hash no retiene una conexión del pool;
+     * el último acceso se graba después en su propio UPDATE corto.
+     */
     public AuthResponse storefrontLogin(StorefrontLoginRequest request) {
+        loginRateLimiter.admitirIp();
+        loginRateLimiter.admitirTienda(request.getTenantId());
         ClienteTienda cliente = clienteTiendaRepository
                 .findByTenantIdAndEmail(request.getTenantId(), request.getEmail())
                 .orElseThrow(() -> new BadCredentialsException("Credenciales inválidas"));
@@ -285,7 +309,7 @@ public class AuthService {
             throw new BadCredentialsException("Cliente sin contraseña configurada");
         }
 
-        if (!passwordEncoder.matches(request.getPassword(), cliente.getPasswordHash())) {
+        if (!passwordHasher.matches(request.getPassword(), cliente.getPasswordHash())) {
             throw new BadCredentialsException("Credenciales inválidas");
         }
 
@@ -293,8 +317,7 @@ public class AuthService {
             throw new BadCredentialsException("Cliente deshabilitado");
         }
 
-        cliente.setUltimoAcceso(LocalDateTime.now());
-        clienteTiendaRepository.save(cliente);
+        clienteTiendaRepository.registrarAcceso(cliente.getId(), LocalDateTime.now());
 
         String accessToken = jwtUtil.generateAccessToken(cliente.getId(), request.getTenantId(), "CLIENTE");
         String refreshToken = jwtUtil.generateRefreshToken(cliente.getId(), request.getTenantId(), "storefront");
@@ -0,0 +1,112 @@
+package com.newhype.backend.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Mapa de caché con guarda de generación, compartido por las cachés en memoria de la app.
+ *
+ * <p>Cada descarte avanza la generación; una carga que empezó antes no se publica. La comprobación
+ * se hace dentro de {@link Map#compute} (bajo el candado de la entrada), así una invalidación no puede
+ * colarse entre comprobar y publicar. El mapa de respaldo debe hacer {@code compute} atómico:
+ * {@link ConcurrentHashMap} (por defecto) o {@code Collections.synchronizedMap} para un LRU.
+ *
+ * <p>{@link #invalidar} descarta ahora y de nuevo al terminar la transacción en curso: una lectura
+ * concurrente a la escritura no deja cacheado el estado previo al commit.
+ */
+final class CacheGeneracional<K, V> {
+
+    private final Map<K, V> entradas;
+    private final AtomicLong generacion = new AtomicLong();
+
+    CacheGeneracional() {
+        this(new ConcurrentHashMap<>());
+    }
+
+    CacheGeneracional(Map<K, V> entradas) {
+        this.entradas = entradas;
+    }
+
+    V get(K clave) {
+        return entradas.get(clave);
+    }
+
+    /** Valor cacheado o cargado; un {@code null} de {@code cargar} se devuelve sin cachear. */
+    V obtener(K clave, Function<? super K, ? extends V> cargar) {
+        V valor = entradas.get(clave);
+        if (valor != null) {
+            return valor;
+        }
+        long gen = generacion.get();
+        V cargado = cargar.apply(clave);
+        if (cargado == null) {
+            return null;
+        }
+        V publicado = entradas.compute(clave, (k, actual) ->
+                actual != null ? actual : generacion.get() == gen ? cargado : null);
+        return publicado != null ? publicado : cargado;
+    }
+
+    /**
+     * Relee la entrada aunque esté cacheada y reemplaza la foto, salvo que una invalidación
+     * posterior al inicio de la carga ya la haya descartado.
+     */
+    V recargar(K clave, Function<? super K, ? extends V> cargar) {
+        long gen = generacion.incrementAndGet();
+        V cargado = cargar.apply(clave);
+        entradas.compute(clave, (k, actual) -> generacion.get() == gen ? cargado : actual);
+        return cargado;
+    }
+
+    /** Generación actual, para una carga masiva que luego se publica con {@link #reemplazar}. */
+    long generacion() {
+        return generacion.get();
+    }
+
+    /**
+     * Deja en la caché exactamente las claves de {@code nuevos} (cargados en la generación {@code gen}).
+     * Una entrada invalidada durante la carga no se repone: se cargará de nuevo bajo demanda.
+     */
+    void reemplazar(long gen, Map<K, V> nuevos) {
+        entradas.keySet().retainAll(nuevos.keySet());
+        nuevos.forEach((clave, valor) ->
+                entradas.compute(clave, (k, actual) -> generacion.get() == gen ? valor : actual));
+    }
+
+    void descartar(K clave) {
+        generacion.incrementAndGet();
+        entradas.remove(clave);
+    }
+
+    void descartarTodo() {
+        generacion.incrementAndGet();
+        entradas.clear();
+    }
+
+    /** Descarta la entrada ahora y de nuevo al terminar la transacción en curso. */
+    void invalidar(K clave) {
+        alTerminar(() -> descartar(clave));
+    }
+
+    int size() {
+        return entradas.size();
+    }
+
+    /** Ejecuta {@code descartar} ahora y, si hay transacción activa, otra vez en {@code afterCompletion}. */
+    static void alTerminar(Runnable descartar) {
+        descartar.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    descartar.run();
+                }
+            });
+        }
+    }
+}
@@ -15,9 +15,12 @@ import java.util.stream.Collectors;
 public class CajaRegistradoraService {
 
     private final CajaRegistradoraRepository cajaRegistradoraRepository;
+    private final ConfiguracionTenantCache configuracionTenantCache;
 
-    public CajaRegistradoraService(CajaRegistradoraRepository cajaRegistradoraRepository) {
+    public CajaRegistradoraService(CajaRegistradoraRepository cajaRegistradoraRepository,
+                                   ConfiguracionTenantCache configuracionTenantCache) {
         this.cajaRegistradoraRepository = cajaRegistradoraRepository;
+        this.configuracionTenantCache = configuracionTenantCache;
     }
 
     @Transactional(readOnly = true)
@@ -39,6 +42,7 @@ public class CajaRegistradoraService {
                 .build();
 
         caja = cajaRegistradoraRepository.save(caja);
+        configuracionTenantCache.invalidar(tenantId);
         return toResponse(caja);
     }
 
@@ -54,6 +58,7 @@ public class CajaRegistradoraService {
         caja.setUbicacion(request.getUbicacion());
 
         caja = cajaRegistradoraRepository.save(caja);
+        configuracionTenantCache.invalidar(tenantId);
         return toResponse(caja);
     }
 
@@ -66,6 +71,7 @@ public class CajaRegistradoraService {
 
         caja.setEstado(!caja.getEstado());
         caja = cajaRegistradoraRepository.save(caja);
+        configuracionTenantCache.invalidar(tenantId);
         return toResponse(caja);
     }
 
@@ -6,7 +6,6 @@ import com.newhype.backend.entity.MovimientoCaja.TipoMovimientoCaja;
 import com.newhype.backend.entity.SesionCaja;
 import com.newhype.backend.entity.SesionCaja.EstadoSesion;
 import com.newhype.backend.exception.ResourceNotFoundException;
-import com.newhype.backend.repository.CajaRegistradoraRepository;
 import com.newhype.backend.repository.MovimientoCajaRepository;
 import com.newhype.backend.repository.SesionCajaRepository;
 import com.newhype.backend.security.TenantContext;
@@ -23,14 +22,14 @@ public class CajaService {
 
     private final SesionCajaRepository sesionCajaRepository;
     private final MovimientoCajaRepository movimientoCajaRepository;
-    private final CajaRegistradoraRepository cajaRegistradoraRepository;
+    private final ConfiguracionTenantCache configuracionTenantCache;
 
     public CajaService(SesionCajaRepository sesionCajaRepository,
                        MovimientoCajaRepository movimientoCajaRepository,
-                       CajaRegistradoraRepository cajaRegistradoraRepository) {
+                       ConfiguracionTenantCache configuracionTenantCache) {
         this.sesionCajaRepository = sesionCajaRepository;
         this.movimientoCajaRepository = movimientoCajaRepository;
-        this.cajaRegistradoraRepository = cajaRegistradoraRepository;
+        this.configuracionTenantCache = configuracionTenantCache;
     }
 
     @Transactional
@@ -38,9 +37,11 @@ public class CajaService {
         Long tenantId = TenantContext.getCurrentTenantId();
         Long usuarioId = TenantContext.getCurrentUserId();
 
-        // Validar que la caja registradora existe
-        cajaRegistradoraRepository.findByIdAndTenantId(request.getCajaRegistradoraId(), tenantId)
-                .orElseThrow(() -> new ResourceNotFoundException("Caja registradora", request.getCajaRegistradoraId()));
+        // Validar que la caja registradora existe y está activa
+        Long cajaId = request.getCajaRegistradoraId();
+        if (!configuracionTenantCache.obtener(tenantId, c -> c.cajaActiva(cajaId)).cajaActiva(cajaId)) {
+            throw new ResourceNotFoundException("Caja registradora", cajaId);
+        }
 
         // Validar que el usuario no tenga una sesión abierta
         sesionCajaRepository.findByTenantIdAndUsuarioIdAndEstado(tenantId, usuarioId, EstadoSesion.ABIERTA)
@@ -0,0 +1,54 @@
+package com.newhype.backend.service;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+/**
+ * Candado entre nodos con {@code GET_LOCK} de MySQL para los jobs que no deben correr en paralelo
+ * (mantenimiento de particiones, reconstrucción de rollups). No espera: si otro nodo lo tiene, la
+ * corrida se omite. El candado vive en una conexión que se retiene hasta terminar el trabajo y se
+ * libera solo si la conexión se cae.
+ */
+@Component
+public class CandadoDistribuido {
+
+    private final JdbcTemplate jdbc;
+
+    public CandadoDistribuido(DataSource dataSource) {
+        this.jdbc = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Ejecuta {@code trabajo} con el candado {@code nombre} tomado.
+     *
+     * @return {@code false} si otro nodo lo tenía y no se ejecutó nada
+     * @throws org.springframework.dao.DataAccessException si no se pudo consultar o liberar el candado
+     */
+    public boolean ejecutar(String nombre, Runnable trabajo) {
+        Boolean ejecutado = jdbc.execute((ConnectionCallback<Boolean>) con -> {
+            try (PreparedStatement ps = con.prepareStatement("SELECT GET_LOCK(?, 0)")) {
+                ps.setString(1, nombre);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (!rs.next() || rs.getInt(1) != 1) {
+                        return false;
+                    }
+                }
+            }
+            try {
+                trabajo.run();
+            } finally {
+                try (PreparedStatement ps = con.prepareStatement("DO RELEASE_LOCK(?)")) {
+                    ps.setString(1, nombre);
+                    ps.execute();
+                }
+            }
+            return true;
+        });
+        return Boolean.TRUE.equals(ejecutado);
+    }
+}
@@ -0,0 +1,78 @@
+package com.newhype.backend.service;
+
+import com.newhype.backend.dto.catalog.CatalogResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caché read-through de los catálogos maestros activos (categorías, tallas, colores...),
+ * una entrada por (tipo de catálogo, tenant). LRU acotado entre todos los tenants.
+ * Las listas cacheadas son inmutables y se comparten entre requests: no modificar sus elementos.
+ * Cada {@code app.catalogos.cache.refresco-ms} se descarta todo para recoger cambios de otros nodos.
+ */
+@Component
+public class CatalogCache {
+
+    private record Clave(Class<?> tipo, Long tenantId) {}
+
+    private final CacheGeneracional<Clave, List<CatalogResponse>> entries;
+
+    private final AtomicLong aciertos = new AtomicLong();
+    private final AtomicLong fallos = new AtomicLong();
+
+    public CatalogCache(@Value("${app.catalogos.cache.max-entradas:2000}") int maxEntradas) {
+        // LRU sincronizado: get/compute/remove toman el mismo candado
+        this.entries = new CacheGeneracional<>(Collections.synchronizedMap(
+                new LinkedHashMap<>(Math.min(maxEntradas, 1024), 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<Clave, List<CatalogResponse>> eldest) {
+                        return size() > maxEntradas;
+                    }
+                }));
+    }
+
+    public List<CatalogResponse> obtener(Class<?> tipo, Long tenantId, Supplier<List<CatalogResponse>> cargar) {
+        Clave clave = new Clave(tipo, tenantId);
+        List<CatalogResponse> cached = entries.get(clave);
+        if (cached != null) {
+            aciertos.incrementAndGet();
+            return cached;
+        }
+        fallos.incrementAndGet();
+        return entries.obtener(clave, k -> List.copyOf(cargar.get()));
+    }
+
+    /**
+     * Descarta la entrada ahora y, si hay transacción activa, de nuevo tras el commit:
+     * así una lectura concurrente no deja cacheado el estado previo a la escritura.
+     */
+    public void invalidar(Class<?> tipo, Long tenantId) {
+        entries.invalidar(new Clave(tipo, tenantId));
+    }
+
+    @Scheduled(fixedDelayString = "${app.catalogos.cache.refresco-ms:300000}",
+               initialDelayString = "${app.catalogos.cache.refresco-ms:300000}")
+    public void recargar() {
+        entries.descartarTodo();
+    }
+
+    public long getAciertos() {
+        return aciertos.get();
+    }
+
+    public long getFallos() {
+        return fallos.get();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+}
@@ -9,8 +9,13 @@ import org.springframework.stereotype.Service;
 @Service
 public class CategoriaService extends AbstractCatalogService<Categoria> {
 
-    public CategoriaService(CategoriaRepository categoriaRepository) {
-        super(categoriaRepository);
+    // Nombre indexado en la búsqueda de productos
+    private final IndiceProductos indiceProductos;
+
+    public CategoriaService(CategoriaRepository categoriaRepository, CatalogCache catalogCache,
+                            IndiceProductos indiceProductos) {
+        super(categoriaRepository, catalogCache);
+        this.indiceProductos = indiceProductos;
     }
 
     @Override
@@ -39,6 +44,11 @@ public class CategoriaService extends AbstractCatalogService<Categoria> {
         response.setDescripcion(entity.getDescripcion());
     }
 
+    @Override
+    protected void alModificar(Long tenantId) {
+        indiceProductos.invalidar(tenantId);
+    }
+
     @Override
     protected String catalogDisplayName() {
         return "categoría";
@@ -9,8 +9,8 @@ import org.springframework.stereotype.Service;
 @Service
 public class ColorService extends AbstractCatalogService<Color> {
 
-    public ColorService(ColorRepository colorRepository) {
-        super(colorRepository);
+    public ColorService(ColorRepository colorRepository, CatalogCache catalogCache) {
+        super(colorRepository, catalogCache);
     }
 
     @Override
@@ -3,6 +3,7 @@ package com.newhype.backend.service;
 import com.newhype.backend.dto.venta.DetalleVentaResponse;
 import com.newhype.backend.dto.venta.PagoVentaResponse;
 import com.newhype.backend.dto.venta.VentaResponse;
+import com.newhype.backend.security.TenantContext;
 import org.springframework.stereotype.Service;
 
 import java.time.format.DateTimeFormatter;
@@ -12,7 +13,14 @@ public class ComprobanteService {
 
     private static final DateTimeFormatter FMT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
 
+    private final ConfiguracionTenantCache configuracionTenantCache;
+
+    public ComprobanteService(ConfiguracionTenantCache configuracionTenantCache) {
+        this.configuracionTenantCache = configuracionTenantCache;
+    }
+
     public String generarHtml(VentaResponse venta) {
+        ConfiguracionTenant config = configuracionTenantCache.obtener(TenantContext.getCurrentTenantId());
         StringBuilder sb = new StringBuilder();
 
         sb.append("<!DOCTYPE html><html><head><meta charset='UTF-8'>");
@@ -25,8 +33,15 @@ public class ComprobanteService {
         sb.append("</style></head><body>");
 
         // Header
-        sb.append("<div class='center bold'>NEW HYPE</div>");
-        sb.append("<div class='center'>Sistema de Ventas</div>");
+        sb.append("<div class='center bold'>").append(config.nombreEmpresa() != null ? config.nombreEmpresa() : "NEW HYPE").append("</div>");
+        if (config.ruc() != null) {
+            sb.append("<div class='center'>RUC ").append(config.ruc()).append("</div>");
+        }
+        if (config.direccion() != null) {
+            sb.append("<div class='center'>").append(config.direccion()).append("</div>");
+        } else {
+            sb.append("<div class='center'>Sistema de Ventas</div>");
+        }
         sb.append("<div class='line'></div>");
 
         // Tipo comprobante + código
@@ -84,7 +99,7 @@ public class ComprobanteService {
             sb.append("<tr><td>Subtotal:</td><td class='right'>S/ ").append(venta.getSubtotal()).append("</td></tr>");
         }
         if (venta.getIgv() != null) {
-            sb.append("<tr><td>IGV (18%):</td><td class='right'>S/ ").append(venta.getIgv()).append("</td></tr>");
+            sb.append("<tr><td>").append(config.etiquetaIgv()).append(":</td><td class='right'>S/ ").append(venta.getIgv()).append("</td></tr>");
         }
         if (venta.getDescuento() != null && venta.getDescuento().signum() > 0) {
             sb.append("<tr><td>Descuento:</td><td class='right'>-S/ ").append(venta.getDescuento()).append("</td></tr>");
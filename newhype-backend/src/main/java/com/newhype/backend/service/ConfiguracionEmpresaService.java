@@ -12,9 +12,12 @@ import org.springframework.transaction.annotation.Transactional;
 public class ConfiguracionEmpresaService {
 
     private final ConfiguracionEmpresaRepository configuracionEmpresaRepository;
+    private final ConfiguracionTenantCache configuracionTenantCache;
 
-    public ConfiguracionEmpresaService(ConfiguracionEmpresaRepository configuracionEmpresaRepository) {
+    public ConfiguracionEmpresaService(ConfiguracionEmpresaRepository configuracionEmpresaRepository,
+                                       ConfiguracionTenantCache configuracionTenantCache) {
         this.configuracionEmpresaRepository = configuracionEmpresaRepository;
+        this.configuracionTenantCache = configuracionTenantCache;
     }
 
     @Transactional(readOnly = true)
@@ -58,6 +61,7 @@ public class ConfiguracionEmpresaService {
         }
 
         config = configuracionEmpresaRepository.save(config);
+        configuracionTenantCache.invalidar(tenantId);
         return toResponse(config);
     }
 
@@ -0,0 +1,69 @@
+package com.newhype.backend.service;
+
+import com.newhype.backend.entity.ConfiguracionEmpresa.ServidorSunat;
+import com.newhype.backend.entity.SerieComprobante.TipoComprobante;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+/**
+ * Foto inmutable de la configuración de un tenant que usan venta, compra, storefront y los
+ * comprobantes: datos de empresa, IGV, servidor SUNAT, series, métodos de pago y cajas activos.
+ * {@code version} crece con cada carga; la mantiene {@link ConfiguracionTenantCache}.
+ */
+public record ConfiguracionTenant(long version,
+                                  Long tenantId,
+                                  String ruc,
+                                  String razonSocial,
+                                  String nombreComercial,
+                                  String direccion,
+                                  String moneda,
+                                  boolean igvActivo,
+                                  BigDecimal igvPorcentaje,
+                                  ServidorSunat sunatServidor,
+                                  List<Serie> series,
+                                  List<MetodoPago> metodosPago,
+                                  List<Caja> cajas) {
+
+    public record Serie(Long id, TipoComprobante tipo, String serie) {}
+
+    public record MetodoPago(Long id, String codigo, String nombre, boolean requiereReferencia, boolean predeterminado) {}
+
+    public record Caja(Long id, String codigo, String nombre) {}
+
+    private static final BigDecimal CIEN = BigDecimal.valueOf(100);
+
+    /** IGV de una base imponible con la tasa del tenant (0 si el IGV está desactivado). */
+    public BigDecimal calcularIgv(BigDecimal base) {
+        if (!igvActivo) {
+            return BigDecimal.ZERO.setScale(2);
+        }
+        return base.multiply(igvPorcentaje).divide(CIEN, 2, RoundingMode.HALF_UP);
+    }
+
+    /** Etiqueta para comprobantes, p. ej. {@code "IGV (18%)"}. */
+    public String etiquetaIgv() {
+        return "IGV (" + (igvActivo ? igvPorcentaje.stripTrailingZeros().toPlainString() : "0") + "%)";
+    }
+
+    /** Nombre a imprimir en la cabecera de los documentos. */
+    public String nombreEmpresa() {
+        if (nombreComercial != null && !nombreComercial.isBlank()) {
+            return nombreComercial;
+        }
+        return razonSocial;
+    }
+
+    public boolean serieActiva(TipoComprobante tipo, String serie) {
+        return series.stream().anyMatch(s -> s.tipo() == tipo && s.serie().equalsIgnoreCase(serie));
+    }
+
+    public boolean metodoPagoActivo(Long id) {
+        return metodosPago.stream().anyMatch(m -> m.id().equals(id));
+    }
+
+    public boolean cajaActiva(Long id) {
+        return cajas.stream().anyMatch(c -> c.id().equals(id));
+    }
+}
@@ -0,0 +1,117 @@
+package com.newhype.backend.service;
+
+import com.newhype.backend.entity.CajaRegistradora;
+import com.newhype.backend.entity.ConfiguracionEmpresa;
+import com.newhype.backend.entity.MetodoPago;
+import com.newhype.backend.entity.SerieComprobante;
+import com.newhype.backend.repository.CajaRegistradoraRepository;
+import com.newhype.backend.repository.ConfiguracionEmpresaRepository;
+import com.newhype.backend.repository.MetodoPagoRepository;
+import com.newhype.backend.repository.SerieComprobanteRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Caché de {@link ConfiguracionTenant} por tenant: se carga bajo demanda (4 consultas) y las
+ * lecturas de checkout no vuelven a la base. Las escrituras de configuración, series, métodos de
+ * pago y cajas descartan la foto al confirmarse; la siguiente lectura publica una nueva versión
+ * completa, nunca una mezcla. La recarga de {@code app.configuracion.refresco-ms} recoge cambios
+ * hechos en otros nodos; una validación que falla contra la foto la relee antes de rechazar.
+ */
+@Component
+public class ConfiguracionTenantCache {
+
+    // Valores por defecto de un tenant que aún no guardó su configuración (como la tabla)
+    private static final BigDecimal IGV_PORCENTAJE_DEFECTO = new BigDecimal("18.00");
+    private static final String MONEDA_DEFECTO = "PEN";
+
+    private final ConfiguracionEmpresaRepository configuracionEmpresaRepository;
+    private final SerieComprobanteRepository serieComprobanteRepository;
+    private final MetodoPagoRepository metodoPagoRepository;
+    private final CajaRegistradoraRepository cajaRegistradoraRepository;
+
+    private final CacheGeneracional<Long, ConfiguracionTenant> porTenant = new CacheGeneracional<>();
+    private final AtomicLong version = new AtomicLong();
+
+    public ConfiguracionTenantCache(ConfiguracionEmpresaRepository configuracionEmpresaRepository,
+                                    SerieComprobanteRepository serieComprobanteRepository,
+                                    MetodoPagoRepository metodoPagoRepository,
+                                    CajaRegistradoraRepository cajaRegistradoraRepository) {
+        this.configuracionEmpresaRepository = configuracionEmpresaRepository;
+        this.serieComprobanteRepository = serieComprobanteRepository;
+        this.metodoPagoRepository = metodoPagoRepository;
+        this.cajaRegistradoraRepository = cajaRegistradoraRepository;
+    }
+
+    public ConfiguracionTenant obtener(Long tenantId) {
+        return porTenant.obtener(tenantId, this::cargar);
+    }
+
+    /**
+     * Foto que cumple {@code requisito}. Si la cacheada no lo cumple se relee una vez de la base:
+     * otro nodo pudo crear o reactivar la serie, método de pago o caja y esta foto tener hasta
+     * {@code refresco-ms} de antigüedad. El llamador vuelve a validar contra la foto devuelta.
+     */
+    public ConfiguracionTenant obtener(Long tenantId, Predicate<ConfiguracionTenant> requisito) {
+        ConfiguracionTenant c = obtener(tenantId);
+        if (requisito.test(c)) {
+            return c;
+        }
+        return porTenant.recargar(tenantId, this::cargar);
+    }
+
+    private ConfiguracionTenant cargar(Long tenantId) {
+        ConfiguracionEmpresa e = configuracionEmpresaRepository.findByTenantId(tenantId).orElse(null);
+        return new ConfiguracionTenant(
+                version.incrementAndGet(),
+                tenantId,
+                e != null ? e.getRuc() : null,
+                e != null ? e.getRazonSocial() : null,
+                e != null ? e.getNombreComercial() : null,
+                e != null ? e.getDireccion() : null,
+                e != null && e.getMoneda() != null ? e.getMoneda() : MONEDA_DEFECTO,
+                e == null || !Boolean.FALSE.equals(e.getIgvActivo()),
+                e != null && e.getIgvPorcentaje() != null ? e.getIgvPorcentaje() : IGV_PORCENTAJE_DEFECTO,
+                e != null ? e.getSunatServidor() : null,
+                serieComprobanteRepository.findByTenantId(tenantId).stream()
+                        .filter(s -> Boolean.TRUE.equals(s.getEstado()))
+                        .map(ConfiguracionTenantCache::toSerie)
+                        .toList(),
+                metodoPagoRepository.findByTenantIdAndEstadoTrue(tenantId).stream()
+                        .map(ConfiguracionTenantCache::toMetodoPago)
+                        .toList(),
+                cajaRegistradoraRepository.findByTenantIdAndEstadoTrue(tenantId).stream()
+                        .map(ConfiguracionTenantCache::toCaja)
+                        .toList());
+    }
+
+    // ── Invalidación ──
+
+    /** Descarta la foto del tenant ahora y de nuevo al terminar la transacción. */
+    public void invalidar(Long tenantId) {
+        porTenant.invalidar(tenantId);
+    }
+
+    @Scheduled(fixedDelayString = "${app.configuracion.refresco-ms:600000}",
+               initialDelayString = "${app.configuracion.refresco-ms:600000}")
+    public void recargar() {
+        porTenant.descartarTodo();
+    }
+
+    private static ConfiguracionTenant.Serie toSerie(SerieComprobante s) {
+        return new ConfiguracionTenant.Serie(s.getId(), s.getTipoComprobante(), s.getSerie());
+    }
+
+    private static ConfiguracionTenant.MetodoPago toMetodoPago(MetodoPago m) {
+        return new ConfiguracionTenant.MetodoPago(m.getId(), m.getCodigo(), m.getNombre(),
+                Boolean.TRUE.equals(m.getRequiereReferencia()), Boolean.TRUE.equals(m.getPredeterminado()));
+    }
+
+    private static ConfiguracionTenant.Caja toCaja(CajaRegistradora c) {
+        return new ConfiguracionTenant.Caja(c.getId(), c.getCodigo(), c.getNombre());
+    }
+}
@@ -0,0 +1,77 @@
+package com.newhype.backend.service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Escritor CSV RFC 4180 sobre un {@link OutputStream}: separador coma, fin de línea CRLF,
+ * comillas dobles en campos con coma, comillas o saltos de línea. No retiene filas en memoria.
+ */
+public class CsvWriter implements Flushable {
+
+    private final Writer writer;
+    private boolean inicioFila = true;
+
+    public CsvWriter(OutputStream out) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+    }
+
+    public CsvWriter fila(Object... campos) {
+        for (Object campo : campos) {
+            campo(campo);
+        }
+        return finFila();
+    }
+
+    public CsvWriter campo(Object valor) {
+        try {
+            if (!inicioFila) {
+                writer.write(',');
+            }
+            inicioFila = false;
+            if (valor == null) {
+                return this;
+            }
+            String s = valor instanceof Enum<?> e ? e.name() : valor.toString();
+            if (requiereComillas(s)) {
+                writer.write('"');
+                writer.write(s.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(s);
+            }
+            return this;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public CsvWriter finFila() {
+        try {
+            writer.write("\r\n");
+            inicioFila = true;
+            return this;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void flush() {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean requiereComillas(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == ',' || c == '"' || c == '\r' || c == '\n') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,334 @@
+package com.newhype.backend.service;
+
+import com.newhype.backend.dto.platform.UsoTenantResponse;
+import com.newhype.backend.entity.PlanSuscripcion;
+import com.newhype.backend.entity.Suscripcion;
+import com.newhype.backend.repository.*;
+import com.newhype.backend.repository.projection.ConteoTenantProjection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Cuotas del plan (productos, usuarios y almacenes activos; ventas del mes) sin COUNT en línea.
+ * Cada tenant tiene contadores {@link LongAdder} en memoria, cargados de la base la primera vez
+ * que se usan: lo confirmado y, aparte, las reservas de transacciones aún en curso.
+ * {@link #reservar} comprueba el límite contra ambos en O(1); la reserva pasa a confirmada con el
+ * commit o se descarta si la transacción no confirma. La reconciliación periódica corrige la deriva
+ * de lo confirmado (otros nodos, cambios por SQL), refresca los límites y guarda la foto del mes en
+ * {@code uso_tenant_mensual}.
+ *
+ * <p>Límite efectivo = override de la suscripción activa o, si es NULL, el del plan; 0 = ilimitado.
+ * Sin suscripción activa no se limita. En varios nodos el límite es aproximado entre reconciliaciones.
+ */
+@Service
+public class CuotaService {
+
+    private static final Logger log = LoggerFactory.getLogger(CuotaService.class);
+
+    public enum Recurso {
+        PRODUCTOS("productos activos"),
+        USUARIOS("usuarios activos"),
+        ALMACENES("almacenes activos"),
+        VENTAS_MES("ventas en el mes");
+
+        private final String etiqueta;
+
+        Recurso(String etiqueta) {
+            this.etiqueta = etiqueta;
+        }
+    }
+
+    private static final int N = Recurso.values().length;
+
+    private static final class Uso {
+        private final LongAdder[] contadores = new LongAdder[N];
+        // Reservas de transacciones sin terminar: la reconciliación no las toca
+        private final LongAdder[] pendientes = new LongAdder[N];
+        private volatile int[] limites;
+        private volatile YearMonth mesVentas;
+
+        private Uso(long[] conteos, int[] limites, YearMonth mes) {
+            for (int i = 0; i < N; i++) {
+                contadores[i] = new LongAdder();
+                contadores[i].add(conteos[i]);
+                pendientes[i] = new LongAdder();
+            }
+            this.limites = limites;
+            this.mesVentas = mes;
+        }
+    }
+
+    private final ProductoRepository productoRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final AlmacenRepository almacenRepository;
+    private final VentaRepository ventaRepository;
+    private final SuscripcionRepository suscripcionRepository;
+    private final PlanSuscripcionRepository planRepository;
+    private final UsoTenantMensualRepository usoTenantMensualRepository;
+
+    private final Map<Long, Uso> usos = new ConcurrentHashMap<>();
+
+    public CuotaService(ProductoRepository productoRepository,
+                        UsuarioRepository usuarioRepository,
+                        AlmacenRepository almacenRepository,
+                        VentaRepository ventaRepository,
+                        SuscripcionRepository suscripcionRepository,
+                        PlanSuscripcionRepository planRepository,
+                        UsoTenantMensualRepository usoTenantMensualRepository) {
+        this.productoRepository = productoRepository;
+        this.usuarioRepository = usuarioRepository;
+        this.almacenRepository = almacenRepository;
+        this.ventaRepository = ventaRepository;
+        this.suscripcionRepository = suscripcionRepository;
+        this.planRepository = planRepository;
+        this.usoTenantMensualRepository = usoTenantMensualRepository;
+    }
+
+    // ── Verificación en línea ──
+
+    /** Consume una unidad de la cuota o lanza si el plan ya está al límite. */
+    public void reservar(Long tenantId, Recurso recurso) {
+        Uso uso = uso(tenantId);
+        LongAdder contador = contador(uso, recurso);
+        LongAdder pendiente = uso.pendientes[recurso.ordinal()];
+        int limite = uso.limites[recurso.ordinal()];
+        pendiente.increment();
+        if (limite > 0 && contador.sum() + pendiente.sum() > limite) {
+            pendiente.decrement();
+            throw new IllegalArgumentException(
+                    "Límite del plan alcanzado: máximo " + limite + " " + recurso.etiqueta);
+        }
+        alTerminar(() -> {
+            contador.increment();
+            pendiente.decrement();
+        }, pendiente::decrement);
+    }
+
+    /** Devuelve una unidad (baja o desactivación) cuando la transacción confirma. */
+    public void liberar(Long tenantId, Recurso recurso) {
+        LongAdder contador = contador(uso(tenantId), recurso);
+        alTerminar(contador::decrement, () -> { });
+    }
+
+    /** Reserva o libera según la transición de estado activo de la entidad. */
+    public void cambiarEstado(Long tenantId, Recurso recurso, Boolean antes, Boolean despues) {
+        boolean activoAntes = Boolean.TRUE.equals(antes);
+        boolean activoDespues = Boolean.TRUE.equals(despues);
+        if (!activoAntes && activoDespues) {
+            reservar(tenantId, recurso);
+        } else if (activoAntes && !activoDespues) {
+            liberar(tenantId, recurso);
+        }
+    }
+
+    /** Recarga los límites del tenant tras el commit (cambio de plan u overrides). */
+    public void invalidarLimites(Long tenantId) {
+        trasCommit(() -> {
+            Uso uso = usos.get(tenantId);
+            if (uso != null) {
+                uso.limites = cargarLimites(tenantId);
+            }
+        });
+    }
+
+    /** Recarga los límites de todos los tenants en memoria tras el commit (edición de un plan). */
+    public void invalidarLimitesTodos() {
+        trasCommit(() -> {
+            Map<Long, int[]> vigentes = limitesVigentes();
+            usos.forEach((tenantId, uso) -> uso.limites = vigentes.getOrDefault(tenantId, new int[N]));
+        });
+    }
+
+    public UsoTenantResponse consultar(Long tenantId) {
+        Uso uso = uso(tenantId);
+        int[] limites = uso.limites;
+        return UsoTenantResponse.builder()
+                .tenantId(tenantId)
+                .periodo(uso.mesVentas.toString())
+                .productos(contador(uso, Recurso.PRODUCTOS).sum())
+                .maxProductos(limites[Recurso.PRODUCTOS.ordinal()])
+                .usuarios(contador(uso, Recurso.USUARIOS).sum())
+                .maxUsuarios(limites[Recurso.USUARIOS.ordinal()])
+                .almacenes(contador(uso, Recurso.ALMACENES).sum())
+                .maxAlmacenes(limites[Recurso.ALMACENES.ordinal()])
+                .ventasMes(contador(uso, Recurso.VENTAS_MES).sum())
+                .maxVentasMes(limites[Recurso.VENTAS_MES.ordinal()])
+                .build();
+    }
+
+    // Las consultas van fuera del mapa: computeIfAbsent bloquearía el bin durante cuatro COUNT
+    private Uso uso(Long tenantId) {
+        Uso uso = usos.get(tenantId);
+        if (uso != null) {
+            return uso;
+        }
+        YearMonth mes = YearMonth.now();
+        long[] conteos = new long[N];
+        conteos[Recurso.PRODUCTOS.ordinal()] = productoRepository.countByTenantIdAndEstadoTrue(tenantId);
+        conteos[Recurso.USUARIOS.ordinal()] = usuarioRepository.countByTenantIdAndEstadoTrue(tenantId);
+        conteos[Recurso.ALMACENES.ordinal()] = almacenRepository.countByTenantIdAndEstadoTrue(tenantId);
+        conteos[Recurso.VENTAS_MES.ordinal()] = ventaRepository
+                .countByTenantIdAndFechaEmisionGreaterThanEqualAndFechaEmisionLessThan(
+                        tenantId, mes.atDay(1).atStartOfDay(), mes.plusMonths(1).atDay(1).atStartOfDay());
+        Uso nuevo = new Uso(conteos, cargarLimites(tenantId), mes);
+        Uso previo = usos.putIfAbsent(tenantId, nuevo);
+        return previo != null ? previo : nuevo;
+    }
+
+    private static LongAdder contador(Uso uso, Recurso recurso) {
+        if (recurso == Recurso.VENTAS_MES) {
+            YearMonth actual = YearMonth.now();
+            if (!actual.equals(uso.mesVentas)) {
+                synchronized (uso) {
+                    if (!actual.equals(uso.mesVentas)) {
+                        uso.contadores[recurso.ordinal()].reset();
+                        uso.mesVentas = actual;
+                    }
+                }
+            }
+        }
+        return uso.contadores[recurso.ordinal()];
+    }
+
+    private static void trasCommit(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+
+    private static void alTerminar(Runnable confirmada, Runnable revertida) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        confirmada.run();
+                    } else {
+                        revertida.run();
+                    }
+                }
+            });
+        } else {
+            confirmada.run();
+        }
+    }
+
+    // ── Límites ──
+
+    private int[] cargarLimites(Long tenantId) {
+        return suscripcionRepository.findByTenantIdAndEstado(tenantId, Suscripcion.EstadoSuscripcion.ACTIVA)
+                .map(s -> limites(s, planRepository.findById(s.getPlanId()).orElse(null)))
+                .orElseGet(() -> new int[N]);
+    }
+
+    private Map<Long, int[]> limitesVigentes() {
+        Map<Long, PlanSuscripcion> planes = planRepository.findAll().stream()
+                .collect(Collectors.toMap(PlanSuscripcion::getId, Function.identity()));
+        Map<Long, int[]> limites = new HashMap<>();
+        for (Suscripcion s : suscripcionRepository.findByEstado(Suscripcion.EstadoSuscripcion.ACTIVA)) {
+            limites.put(s.getTenantId(), limites(s, planes.get(s.getPlanId())));
+        }
+        return limites;
+    }
+
+    private static int[] limites(Suscripcion s, PlanSuscripcion plan) {
+        int[] l = new int[N];
+        l[Recurso.PRODUCTOS.ordinal()] = efectivo(s.getOverrideMaxProductos(), plan != null ? plan.getMaxProductos() : null);
+        l[Recurso.USUARIOS.ordinal()] = efectivo(s.getOverrideMaxUsuarios(), plan != null ? plan.getMaxUsuarios() : null);
+        l[Recurso.ALMACENES.ordinal()] = efectivo(s.getOverrideMaxAlmacenes(), plan != null ? plan.getMaxAlmacenes() : null);
+        l[Recurso.VENTAS_MES.ordinal()] = efectivo(s.getOverrideMaxVentasMes(), plan != null ? plan.getMaxVentasMes() : null);
+        return l;
+    }
+
+    private static int efectivo(Integer override, Integer delPlan) {
+        Integer v = override != null ? override : delPlan;
+        return v != null && v > 0 ? v : 0;
+    }
+
+    // ── Reconciliación ──
+
+    /**
+     * Recalcula todos los conteos con una consulta agrupada por recurso y lleva lo confirmado en
+     * memoria al valor real sumando la diferencia contra lo que tenía al empezar: los commits que
+     * llegan durante la consulta se conservan (uno que cae entre la foto y la consulta puede contarse
+     * dos veces hasta la siguiente pasada, siempre por exceso) y las reservas pendientes no se tocan.
+     * Refresca los límites y registra el uso del mes de cada tenant.
+     */
+    @Scheduled(cron = "${app.cuotas.reconciliacion-cron:0 */10 * * * *}")
+    @Transactional
+    public void reconciliar() {
+        YearMonth mes = YearMonth.now();
+        Map<Long, long[]> previos = new HashMap<>();
+        usos.forEach((tenantId, uso) -> {
+            long[] v = new long[N];
+            for (Recurso r : Recurso.values()) {
+                v[r.ordinal()] = contador(uso, r).sum();
+            }
+            previos.put(tenantId, v);
+        });
+        Map<Long, Long> productos = mapa(productoRepository.contarActivosPorTenant());
+        Map<Long, Long> usuarios = mapa(usuarioRepository.contarActivosPorTenant());
+        Map<Long, Long> almacenes = mapa(almacenRepository.contarActivosPorTenant());
+        Map<Long, Long> ventas = mapa(ventaRepository.contarPorTenantEntre(
+                mes.atDay(1).atStartOfDay(), mes.plusMonths(1).atDay(1).atStartOfDay()));
+        Map<Long, int[]> limites = limitesVigentes();
+
+        Set<Long> tenants = new HashSet<>(usos.keySet());
+        tenants.addAll(productos.keySet());
+        tenants.addAll(usuarios.keySet());
+        tenants.addAll(almacenes.keySet());
+        tenants.addAll(ventas.keySet());
+
+        LocalDate periodo = mes.atDay(1);
+        for (Long tenantId : tenants) {
+            long[] reales = {
+                    productos.getOrDefault(tenantId, 0L),
+                    usuarios.getOrDefault(tenantId, 0L),
+                    almacenes.getOrDefault(tenantId, 0L),
+                    ventas.getOrDefault(tenantId, 0L)};
+            Uso uso = usos.get(tenantId);
+            if (uso != null) {
+                // Sin foto previa el Uso se cargó durante la reconciliación: ya está al día
+                long[] previo = previos.get(tenantId);
+                if (previo != null) {
+                    for (Recurso r : Recurso.values()) {
+                        contador(uso, r).add(reales[r.ordinal()] - previo[r.ordinal()]);
+                    }
+                }
+                uso.limites = limites.getOrDefault(tenantId, new int[N]);
+            }
+            usoTenantMensualRepository.registrar(tenantId, periodo,
+                    reales[Recurso.PRODUCTOS.ordinal()], reales[Recurso.USUARIOS.ordinal()],
+                    reales[Recurso.ALMACENES.ordinal()], reales[Recurso.VENTAS_MES.ordinal()]);
+        }
+        log.debug("Cuotas reconciliadas para {} tenants", tenants.size());
+    }
+
+    private static Map<Long, Long> mapa(List<ConteoTenantProjection> conteos) {
+        Map<Long, Long> m = new HashMap<>();
+        for (ConteoTenantProjection c : conteos) {
+            m.put(c.getTenantId(), c.getTotal());
+        }
+        return m;
+    }
+}
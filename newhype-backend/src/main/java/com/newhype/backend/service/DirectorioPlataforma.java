@@ -0,0 +1,128 @@
+package com.newhype.backend.service;
+
+import com.newhype.backend.entity.Cupon;
+import com.newhype.backend.entity.Tenant;
+import com.newhype.backend.entity.UsuarioPlataforma;
+import com.newhype.backend.repository.CuponRepository;
+import com.newhype.backend.repository.TenantRepository;
+import com.newhype.backend.repository.UsuarioPlataformaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Directorio en memoria de los nombres que muestran las pantallas de plataforma: tenant
+ * (nombre, subdominio, estado), usuario de plataforma (nombre completo) y cupón (código).
+ * Evita un {@code findById} por fila en pagos, tickets y similares.
+ *
+ * <p>Un id desconocido se carga bajo demanda. Los cambios de tenants hechos en este nodo invalidan
+ * su entrada al confirmarse ({@link #invalidarTenant}); los nombres de usuarios y códigos de cupón
+ * no se editan. Los cambios de otros nodos se recogen en la recarga completa de
+ * {@code app.plataforma.directorio.refresco-ms}.
+ */
+@Component
+public class DirectorioPlataforma {
+
+    private static final Logger log = LoggerFactory.getLogger(DirectorioPlataforma.class);
+
+    public record TenantInfo(Long id, String nombre, String subdominio, Tenant.EstadoTenant estado) {}
+
+    private final TenantRepository tenantRepository;
+    private final UsuarioPlataformaRepository usuarioPlataformaRepository;
+    private final CuponRepository cuponRepository;
+
+    private final CacheGeneracional<Long, TenantInfo> tenants = new CacheGeneracional<>();
+    private final CacheGeneracional<Long, String> usuarios = new CacheGeneracional<>();
+    private final CacheGeneracional<Long, String> cupones = new CacheGeneracional<>();
+
+    public DirectorioPlataforma(TenantRepository tenantRepository,
+                                UsuarioPlataformaRepository usuarioPlataformaRepository,
+                                CuponRepository cuponRepository) {
+        this.tenantRepository = tenantRepository;
+        this.usuarioPlataformaRepository = usuarioPlataformaRepository;
+        this.cuponRepository = cuponRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarAlIniciar() {
+        recargar();
+    }
+
+    @Scheduled(fixedDelayString = "${app.plataforma.directorio.refresco-ms:300000}",
+               initialDelayString = "${app.plataforma.directorio.refresco-ms:300000}")
+    public void recargar() {
+        reemplazar(tenants, tenantRepository::findAll, Tenant::getId, DirectorioPlataforma::toInfo);
+        reemplazar(usuarios, usuarioPlataformaRepository::findAll,
+                UsuarioPlataforma::getId, UsuarioPlataforma::getNombreCompleto);
+        reemplazar(cupones, cuponRepository::findAll, Cupon::getId, Cupon::getCodigo);
+        log.debug("Directorio de plataforma recargado: {} tenants, {} usuarios, {} cupones",
+                tenants.size(), usuarios.size(), cupones.size());
+    }
+
+    // ── Consultas ──
+
+    public Optional<TenantInfo> tenant(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(tenants.obtener(id, k ->
+                tenantRepository.findById(k).map(DirectorioPlataforma::toInfo).orElse(null)));
+    }
+
+    public String nombreTenant(Long id) {
+        return tenant(id).map(TenantInfo::nombre).orElse(null);
+    }
+
+    public String nombreUsuario(Long id) {
+        return buscar(usuarios, id, k -> usuarioPlataformaRepository.findById(k)
+                .map(UsuarioPlataforma::getNombreCompleto));
+    }
+
+    public String codigoCupon(Long id) {
+        return buscar(cupones, id, k -> cuponRepository.findById(k).map(Cupon::getCodigo));
+    }
+
+    // ── Invalidación ──
+
+    /** Descarta la entrada ahora y de nuevo tras el commit, para no recachear el estado previo. */
+    public void invalidarTenant(Long id) {
+        if (id != null) {
+            tenants.invalidar(id);
+        }
+    }
+
+    private static String buscar(CacheGeneracional<Long, String> cache, Long id,
+                                 Function<Long, Optional<String>> cargar) {
+        if (id == null) {
+            return null;
+        }
+        return cache.obtener(id, k -> cargar.apply(k).orElse(null));
+    }
+
+    // La generación se toma antes de leer: un tenant invalidado durante la carga no se repone
+    private static <E, V> void reemplazar(CacheGeneracional<Long, V> cache, Supplier<Iterable<E>> entidades,
+                                          Function<E, Long> id, Function<E, V> valor) {
+        long gen = cache.generacion();
+        Map<Long, V> nuevos = new HashMap<>();
+        for (E e : entidades.get()) {
+            V v = valor.apply(e);
+            if (v != null) {
+                nuevos.put(id.apply(e), v);
+            }
+        }
+        cache.reemplazar(gen, nuevos);
+    }
+
+    private static TenantInfo toInfo(Tenant t) {
+        return new TenantInfo(t.getId(), t.getNombre(), t.getSubdominio(), t.getEstado());
+    }
+}
@@ -21,9 +21,12 @@ import java.util.Optional;
 public class EntidadComercialService {
 
     private final EntidadComercialRepository entidadRepository;
+    private final UbigeoService ubigeoService;
 
-    public EntidadComercialService(EntidadComercialRepository entidadRepository) {
+    public EntidadComercialService(EntidadComercialRepository entidadRepository,
+                                   UbigeoService ubigeoService) {
         this.entidadRepository = entidadRepository;
+        this.ubigeoService = ubigeoService;
     }
 
     @Transactional
@@ -31,6 +34,7 @@ public class EntidadComercialService {
         Long tenantId = TenantContext.getCurrentTenantId();
 
         validarDocumento(request.getTipoDocumento(), request.getNumeroDocumento());
+        validarUbigeo(request);
 
         if (entidadRepository.existsByTenantIdAndTipoDocumentoAndNumeroDocumento(
                 tenantId, request.getTipoDocumento(), request.getNumeroDocumento())) {
@@ -94,6 +98,8 @@ public class EntidadComercialService {
         EntidadComercial entidad = entidadRepository.findByIdAndTenantId(id, tenantId)
                 .orElseThrow(() -> new ResourceNotFoundException("Entidad comercial", id));
 
+        validarUbigeo(request);
+
         // No se puede cambiar tipo_documento ni numero_documento
         entidad.setNombres(request.getNombres());
         entidad.setApellidos(request.getApellidos());
@@ -166,6 +172,16 @@ public class EntidadComercialService {
         }
     }
 
+    // Ubigeo en memoria: valida ids sin consultar la BD
+    private void validarUbigeo(EntidadRequest request) {
+        if (request.getDepartamentoId() != null && ubigeoService.departamento(request.getDepartamentoId()).isEmpty())
+            throw new IllegalArgumentException("Departamento no válido: " + request.getDepartamentoId());
+        if (request.getProvinciaId() != null && ubigeoService.provincia(request.getProvinciaId()).isEmpty())
+            throw new IllegalArgumentException("Provincia no válida: " + request.getProvinciaId());
+        if (request.getDistritoId() != null && ubigeoService.distrito(request.getDistritoId()).isEmpty())
+            throw new IllegalArgumentException("Distrito no válido: " + request.getDistritoId());
+    }
+
     private EntidadResponse toResponse(EntidadComercial e) {
         return EntidadResponse.builder()
                 .id(e.getId())
@@ -0,0 +1,235 @@
+package com.newhype.backend.service;
+
+import com.newhype.backend.entity.OrdenCompra.EstadoOrdenCompra;
+import com.newhype.backend.entity.Venta.EstadoVenta;
+import com.newhype.backend.exception.DemasiadasSolicitudesException;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.io.OutputStream;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Exportaciones CSV en streaming: cada método recorre un cursor de solo avance y escribe
+ * fila por fila en el {@link OutputStream} de la respuesta, con memoria constante.
+ * El tenant se recibe como parámetro porque se ejecuta fuera del hilo del request.
+ *
+ * <p>Las descargas usan un pool propio y pequeño ({@code app.exportaciones.max-conexiones}), nunca el
+ * del resto de la aplicación: un cliente lento no puede dejar sin conexiones al checkout. En MySQL el
+ * streaming se pide por sentencia ({@code fetchSize = Integer.MIN_VALUE}), sin {@code useCursorFetch}
+ * en la URL. Cada exportación se corta al superar {@code app.exportaciones.duracion-max-segundos}.
+ */
+@Service
+public class ExportacionService implements DisposableBean {
+
+    private final HikariDataSource dataSource;
+    private final JdbcTemplate jdbc;
+    private final int maxConexiones;
+    private final long duracionMaxSegundos;
+
+    public ExportacionService(@Value("${spring.datasource.url}") String url,
+                              @Value("${spring.datasource.username:}") String username,
+                              @Value("${spring.datasource.password:}") String password,
+                              @Value("${app.exportaciones.max-conexiones:2}") int maxConexiones,
+                              @Value("${app.exportaciones.duracion-max-segundos:300}") long duracionMaxSegundos) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("exportaciones");
+        config.setJdbcUrl(url);
+        config.setUsername(username);
+        config.setPassword(password);
+        config.setMaximumPoolSize(maxConexiones);
+        config.setMinimumIdle(0);
+        config.setReadOnly(true);
+        config.setConnectionTimeout(3000);
+        config.setIdleTimeout(60_000);
+        // Sin conexión de prueba al arrancar: el pool se abre con la primera descarga
+        config.setInitializationFailTimeout(-1);
+        this.dataSource = new HikariDataSource(config);
+        this.maxConexiones = maxConexiones;
+        this.duracionMaxSegundos = duracionMaxSegundos;
+
+        this.jdbc = new JdbcTemplate(dataSource);
+        // Connector/J solo hace streaming fila a fila con Integer.MIN_VALUE; otros drivers lo rechazan
+        jdbc.setFetchSize(url.startsWith("jdbc:mysql:") ? Integer.MIN_VALUE : 500);
+        jdbc.setQueryTimeout((int) duracionMaxSegundos);
+    }
+
+    /**
+     * Se llama en el hilo del request, antes de empezar la respuesta: con el pool de exportaciones
+     * ocupado se responde 429 en vez de dejar la descarga esperando una conexión.
+     */
+    public void verificarCapacidad() {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        if (pool != null && pool.getActiveConnections() >= maxConexiones) {
+            throw new DemasiadasSolicitudesException(
+                    "Hay demasiadas exportaciones en curso, intente nuevamente en unos segundos", 10);
+        }
+    }
+
+    public void exportarStock(Long tenantId, Long almacenId, OutputStream out) {
+        CsvWriter csv = new CsvWriter(out);
+        csv.fila("Producto ID", "SKU", "Producto", "Almacén ID", "Almacén", "Cantidad", "Stock Mínimo", "Stock Bajo");
+
+        Consulta q = new Consulta("SELECT s.producto_id, p.sku, p.nombre, s.almacen_id, a.nombre, " +
+                "s.cantidad, s.stock_minimo " +
+                "FROM stock_almacen s LEFT JOIN productos p ON p.id = s.producto_id " +
+                "LEFT JOIN almacenes a ON a.id = s.almacen_id " +
+                "WHERE s.tenant_id = ?", tenantId);
+        q.y("s.almacen_id = ?", almacenId);
+        q.orden("s.almacen_id, s.producto_id");
+
+        recorrer(q, rs -> {
+            Integer cantidad = rs.getObject(6, Integer.class);
+            Integer minimo = rs.getObject(7, Integer.class);
+            csv.fila(rs.getObject(1, Long.class), rs.getString(2), rs.getString(3),
+                    rs.getObject(4, Long.class), rs.getString(5), cantidad, minimo,
+                    cantidad != null && minimo != null && cantidad <= minimo ? "SI" : "NO");
+        });
+        csv.flush();
+    }
+
+    public void exportarKardex(Long tenantId, Long productoId, Long almacenId,
+                               LocalDate desde, LocalDate hasta, OutputStream out) {
+        CsvWriter csv = new CsvWriter(out);
+        csv.fila("Fecha", "Producto ID", "SKU", "Producto", "Almacén ID", "Almacén", "Tipo",
+                "Cantidad", "Stock Antes", "Stock Después", "Documento", "Usuario ID");
+
+        // Rangos semiabiertos sobre created_at: MySQL poda las particiones mensuales
+        Consulta q = new Consulta("SELECT m.created_at, m.producto_id, p.sku, p.nombre, m.almacen_id, a.nombre, " +
+                "m.tipo, m.cantidad, m.stock_antes, m.stock_despues, m.documento_referencia, m.usuario_id " +
+                "FROM movimientos_inventario m LEFT JOIN productos p ON p.id = m.producto_id " +
+                "LEFT JOIN almacenes a ON a.id = m.almacen_id " +
+                "WHERE m.tenant_id = ?", tenantId);
+        q.y("m.producto_id = ?", productoId);
+        q.y("m.almacen_id = ?", almacenId);
+        q.y("m.created_at >= ?", desde != null ? desde.atStartOfDay() : null);
+        q.y("m.created_at < ?", hasta != null ? hasta.plusDays(1).atStartOfDay() : null);
+        q.orden("m.created_at, m.id");
+
+        recorrer(q, rs -> csv.fila(
+                rs.getObject(1, LocalDateTime.class), rs.getObject(2, Long.class), rs.getString(3), rs.getString(4),
+                rs.getObject(5, Long.class), rs.getString(6), rs.getString(7), rs.getObject(8, Integer.class),
+                rs.getObject(9, Integer.class), rs.getObject(10, Integer.class), rs.getString(11),
+                rs.getObject(12, Long.class)));
+        csv.flush();
+    }
+
+    public void exportarVentas(Long tenantId, EstadoVenta estado, LocalDate desde, LocalDate hasta, OutputStream out) {
+        CsvWriter csv = new CsvWriter(out);
+        csv.fila("Código", "Fecha", "Comprobante", "Serie", "Número", "Cliente Documento", "Cliente",
+                "Estado", "Producto ID", "Producto", "Cantidad", "Precio Unitario", "Descuento", "Subtotal",
+                "Total Venta");
+
+        Consulta q = new Consulta("SELECT v.codigo_venta, v.fecha_emision, v.tipo_comprobante, v.serie, v.numero, " +
+                "c.numero_documento, c.razon_social, c.nombres, c.apellidos, v.estado, " +
+                "d.producto_id, d.nombre_producto, d.cantidad, d.precio_unitario, d.descuento, d.subtotal, v.total " +
+                "FROM ventas v JOIN detalle_ventas d ON d.venta_id = v.id " +
+                "LEFT JOIN entidades_comerciales c ON c.id = v.cliente_id " +
+                "WHERE v.tenant_id = ?", tenantId);
+        q.y("v.estado = ?", estado != null ? estado.name() : null);
+        q.y("v.fecha_emision >= ?", desde != null ? desde.atStartOfDay() : null);
+        q.y("v.fecha_emision < ?", hasta != null ? hasta.plusDays(1).atStartOfDay() : null);
+        q.orden("v.fecha_emision, v.id, d.id");
+
+        recorrer(q, rs -> csv.fila(
+                rs.getString(1), rs.getObject(2, LocalDateTime.class), rs.getString(3), rs.getString(4),
+                rs.getString(5), rs.getString(6), nombreEntidad(rs.getString(7), rs.getString(8), rs.getString(9)),
+                rs.getString(10), rs.getObject(11, Long.class), rs.getString(12), rs.getObject(13, Integer.class),
+                rs.getBigDecimal(14), rs.getBigDecimal(15), rs.getBigDecimal(16), rs.getBigDecimal(17)));
+        csv.flush();
+    }
+
+    public void exportarCompras(Long tenantId, EstadoOrdenCompra estado, LocalDate desde, LocalDate hasta,
+                                OutputStream out) {
+        CsvWriter csv = new CsvWriter(out);
+        csv.fila("Código", "Fecha", "Proveedor Documento", "Proveedor", "Estado", "Producto ID", "SKU",
+                "Producto", "Cant. Ordenada", "Cant. Recibida", "Precio Unitario", "Descuento", "Subtotal",
+                "IGV", "Total");
+
+        Consulta q = new Consulta("SELECT o.codigo, o.fecha_emision, pv.numero_documento, pv.razon_social, " +
+                "pv.nombres, pv.apellidos, o.estado, d.producto_id, p.sku, p.nombre, " +
+                "d.cantidad_ordenada, d.cantidad_recibida, d.precio_unitario, d.descuento, d.subtotal, d.igv, d.total " +
+                "FROM ordenes_compra o JOIN detalle_ordenes_compra d ON d.orden_compra_id = o.id " +
+                "LEFT JOIN entidades_comerciales pv ON pv.id = o.proveedor_id " +
+                "LEFT JOIN productos p ON p.id = d.producto_id " +
+                "WHERE o.tenant_id = ?", tenantId);
+        q.y("o.estado = ?", estado != null ? estado.name() : null);
+        q.y("o.fecha_emision >= ?", desde);
+        q.y("o.fecha_emision <= ?", hasta);
+        q.orden("o.fecha_emision, o.id, d.id");
+
+        recorrer(q, rs -> csv.fila(
+                rs.getString(1), rs.getObject(2, LocalDate.class), rs.getString(3),
+                nombreEntidad(rs.getString(4), rs.getString(5), rs.getString(6)),
+                rs.getString(7), rs.getObject(8, Long.class), rs.getString(9), rs.getString(10),
+                rs.getObject(11, Integer.class), rs.getObject(12, Integer.class), rs.getBigDecimal(13),
+                rs.getBigDecimal(14), rs.getBigDecimal(15), rs.getBigDecimal(16), rs.getBigDecimal(17)));
+        csv.flush();
+    }
+
+    // ── Ejecución ──
+
+    /** SQL con filtros opcionales: solo se agregan los predicados con valor (sin {@code ? IS NULL OR}). */
+    private static final class Consulta {
+        private final StringBuilder sql;
+        private final List<Object> args = new ArrayList<>();
+
+        Consulta(String base, Long tenantId) {
+            this.sql = new StringBuilder(base);
+            args.add(tenantId);
+        }
+
+        void y(String predicado, Object valor) {
+            if (valor != null) {
+                sql.append(" AND ").append(predicado);
+                args.add(valor);
+            }
+        }
+
+        void orden(String columnas) {
+            sql.append(" ORDER BY ").append(columnas);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Fila {
+        void escribir(ResultSet rs) throws SQLException;
+    }
+
+    private void recorrer(Consulta q, Fila fila) {
+        long limite = System.nanoTime() + duracionMaxSegundos * 1_000_000_000L;
+        jdbc.query(q.sql.toString(), (RowCallbackHandler) rs -> {
+            if (System.nanoTime() > limite) {
+                throw new IllegalStateException("La exportación superó " + duracionMaxSegundos +
+                        " s y se interrumpió; acote el rango de fechas");
+            }
+            fila.escribir(rs);
+        }, q.args.toArray());
+    }
+
+    private static String nombreEntidad(String razonSocial, String nombres, String apellidos) {
+        if (razonSocial != null) {
+            return razonSocial;
+        }
+        if (nombres == null && apellidos == null) {
+            return null;
+        }
+        return ((nombres != null ? nombres : "") + " " + (apellidos != null ? apellidos : "")).trim();
+    }
+
+    @Override
+    public void destroy() {
+        dataSource.close();
+    }
+}
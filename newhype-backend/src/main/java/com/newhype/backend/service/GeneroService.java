@@ -9,8 +9,8 @@ import org.springframework.stereotype.Service;
 @Service
 public class GeneroService extends AbstractCatalogService<Genero> {
 
-    public GeneroService(GeneroRepository generoRepository) {
-        super(generoRepository);
+    public GeneroService(GeneroRepository generoRepository, CatalogCache catalogCache) {
+        super(generoRepository, catalogCache);
     }
 
     @Override
@@ -0,0 +1,145 @@
+package com.newhype.backend.service;
+
+import com.newhype.backend.entity.ModuloPlan;
+import com.newhype.backend.entity.ModuloSistema;
+import com.newhype.backend.entity.ModuloTenant;
+import com.newhype.backend.entity.Suscripcion;
+import com.newhype.backend.repository.ModuloPlanRepository;
+import com.newhype.backend.repository.ModuloSistemaRepository;
+import com.newhype.backend.repository.ModuloTenantRepository;
+import com.newhype.backend.repository.SuscripcionRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Módulos habilitados por tenant compilados a un bitset inmutable: plan de la suscripción más
+ * reciente y, encima, los overrides de {@code modulos_tenant}. Cada módulo activo de
+ * {@code modulos_sistema} ocupa un bit; la comprobación en un request es un lookup en mapa y un AND.
+ *
+ * <p>Reglas: un código que no está registrado en {@code modulos_sistema} no se restringe, y un tenant
+ * sin ninguna suscripción (registro propio) tampoco. Los cambios hechos en este nodo invalidan al
+ * confirmarse; la recarga de {@code app.modulos.refresco-ms} recoge los de otros nodos.
+ */
+@Component
+public class HabilitacionModulos {
+
+    private record Catalogo(Map<String, Integer> bitPorCodigo, Map<Long, Integer> bitPorModulo) {}
+
+    /** Bitset inmutable de un tenant; {@code restringido = false} si no tiene suscripción. */
+    private record Habilitacion(long[] bits, boolean restringido) {
+        boolean tiene(int bit) {
+            int palabra = bit >>> 6;
+            return palabra < bits.length && (bits[palabra] & (1L << bit)) != 0;
+        }
+    }
+
+    private final ModuloSistemaRepository moduloSistemaRepository;
+    private final ModuloPlanRepository moduloPlanRepository;
+    private final ModuloTenantRepository moduloTenantRepository;
+    private final SuscripcionRepository suscripcionRepository;
+
+    // Una sola entrada: el catálogo de módulos activos
+    private static final String CATALOGO = "modulos";
+
+    private final CacheGeneracional<String, Catalogo> catalogo = new CacheGeneracional<>();
+    private final CacheGeneracional<Long, Habilitacion> porTenant = new CacheGeneracional<>();
+
+    public HabilitacionModulos(ModuloSistemaRepository moduloSistemaRepository,
+                               ModuloPlanRepository moduloPlanRepository,
+                               ModuloTenantRepository moduloTenantRepository,
+                               SuscripcionRepository suscripcionRepository) {
+        this.moduloSistemaRepository = moduloSistemaRepository;
+        this.moduloPlanRepository = moduloPlanRepository;
+        this.moduloTenantRepository = moduloTenantRepository;
+        this.suscripcionRepository = suscripcionRepository;
+    }
+
+    // ── Consultas ──
+
+    /** ¿El tenant tiene habilitado el módulo con este código? */
+    public boolean habilitado(Long tenantId, String codigo) {
+        Integer bit = catalogo().bitPorCodigo().get(codigo);
+        if (bit == null) {
+            return true;
+        }
+        Habilitacion h = habilitacion(tenantId);
+        return !h.restringido() || h.tiene(bit);
+    }
+
+    /** Estado efectivo (plan + overrides) de un módulo, tal como se muestra en plataforma. */
+    public boolean activo(Long tenantId, Long moduloId) {
+        Integer bit = catalogo().bitPorModulo().get(moduloId);
+        return bit != null && habilitacion(tenantId).tiene(bit);
+    }
+
+    private Habilitacion habilitacion(Long tenantId) {
+        return porTenant.obtener(tenantId, id -> compilar(id, catalogo()));
+    }
+
+    private Habilitacion compilar(Long tenantId, Catalogo cat) {
+        Suscripcion suscripcion = suscripcionRepository.findFirstByTenantIdOrderByCreatedAtDesc(tenantId).orElse(null);
+        long[] bits = new long[(cat.bitPorModulo().size() + 63) >>> 6];
+        if (suscripcion != null) {
+            for (ModuloPlan mp : moduloPlanRepository.findByPlanId(suscripcion.getPlanId())) {
+                marcar(bits, cat.bitPorModulo().get(mp.getModuloId()), true);
+            }
+        }
+        for (ModuloTenant mt : moduloTenantRepository.findByTenantId(tenantId)) {
+            marcar(bits, cat.bitPorModulo().get(mt.getModuloId()), Boolean.TRUE.equals(mt.getActivo()));
+        }
+        return new Habilitacion(bits, suscripcion != null);
+    }
+
+    private static void marcar(long[] bits, Integer bit, boolean valor) {
+        if (bit == null) {
+            return;
+        }
+        if (valor) {
+            bits[bit >>> 6] |= 1L << bit;
+        } else {
+            bits[bit >>> 6] &= ~(1L << bit);
+        }
+    }
+
+    private Catalogo catalogo() {
+        return catalogo.obtener(CATALOGO, k -> cargarCatalogo());
+    }
+
+    private Catalogo cargarCatalogo() {
+        List<ModuloSistema> modulos = moduloSistemaRepository.findByEstadoTrueOrderByCodigoAsc();
+        Map<String, Integer> porCodigo = new HashMap<>();
+        Map<Long, Integer> porModulo = new HashMap<>();
+        for (int i = 0; i < modulos.size(); i++) {
+            porCodigo.put(modulos.get(i).getCodigo(), i);
+            porModulo.put(modulos.get(i).getId(), i);
+        }
+        return new Catalogo(Map.copyOf(porCodigo), Map.copyOf(porModulo));
+    }
+
+    // ── Invalidación ──
+
+    /** Descarta el bitset del tenant ahora y de nuevo tras el commit (cambio de plan u overrides). */
+    public void invalidarTenant(Long tenantId) {
+        porTenant.invalidar(tenantId);
+    }
+
+    /** Descarta catálogo y todos los bitsets (módulos de un plan o del sistema modificados). */
+    public void invalidarTodos() {
+        CacheGeneracional.alTerminar(this::descartarTodo);
+    }
+
+    @Scheduled(fixedDelayString = "${app.modulos.refresco-ms:300000}",
+               initialDelayString = "${app.modulos.refresco-ms:300000}")
+    public void recargar() {
+        descartarTodo();
+    }
+
+    private void descartarTodo() {
+        catalogo.descartarTodo();
+        porTenant.descartarTodo();
+    }
+}
@@ -0,0 +1,441 @@
+package com.newhype.backend.service;
+
+import com.newhype.backend.repository.ProductoRepository;
+import com.newhype.backend.repository.projection.ProductoIndiceProjection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Índice invertido en memoria de los productos activos de cada tenant para la búsqueda del POS y
+ * del back-office: nombre, SKU, código de barras, marca y categoría. Los textos se pliegan sin
+ * tildes ni mayúsculas ({@code "niño"} = {@code "nino"}); cada palabra de la consulta debe coincidir
+ * como prefijo de algún término, y los SKU se indexan también por sus sufijos para encontrar
+ * fragmentos internos del código.
+ *
+ * <p>Cada tenant tiene un segmento inmutable (diccionario ordenado de términos → postings) más un
+ * pequeño mapa de cambios escritos después; al superar {@link #MAX_CAMBIOS} se compacta en un
+ * segmento nuevo. Las búsquedas no bloquean ni van a la base. Se construye al iniciar, las escrituras
+ * de {@link ProductoService} se aplican tras el commit y la recarga de
+ * {@code app.productos.busqueda.refresco-ms} recoge los cambios de otros nodos.
+ */
+@Component
+public class IndiceProductos {
+
+    private static final Logger log = LoggerFactory.getLogger(IndiceProductos.class);
+
+    // Campos indexados: bits de la máscara guardada en cada posting
+    private static final int NOMBRE = 1;
+    private static final int SKU = 1 << 1;
+    private static final int BARRAS = 1 << 2;
+    private static final int CODIGO_PARCIAL = 1 << 3;
+    private static final int MARCA = 1 << 4;
+    private static final int CATEGORIA = 1 << 5;
+
+    // Relevancia de cada campo (mismo orden que los bits); una coincidencia exacta vale el doble
+    private static final float[] PESOS = {10f, 12f, 12f, 3f, 4f, 3f};
+    private static final float[] PESO_MASCARA = new float[1 << PESOS.length];
+
+    static {
+        for (int mascara = 1; mascara < PESO_MASCARA.length; mascara++) {
+            for (int bit = 0; bit < PESOS.length; bit++) {
+                if ((mascara & (1 << bit)) != 0) {
+                    PESO_MASCARA[mascara] = Math.max(PESO_MASCARA[mascara], PESOS[bit]);
+                }
+            }
+        }
+    }
+
+    private static final int MIN_SUFIJO = 2;
+    private static final int MAX_CAMBIOS = 256;
+
+    private static final Pattern MARCAS_DIACRITICAS = Pattern.compile("\\p{M}");
+    private static final Pattern SEPARADORES = Pattern.compile("[^a-z0-9]+");
+
+    /** Página de ids ordenada por relevancia y el total de coincidencias. */
+    public record Resultado(List<Long> ids, int total) {}
+
+    /** Producto indexado: términos únicos y, en paralelo, la máscara de campos de cada uno. */
+    private record Doc(long id, String orden, Long categoriaId, String[] terminos, byte[] campos) {}
+
+    private static final Doc ELIMINADO = new Doc(-1, "", null, new String[0], new byte[0]);
+
+    /** Segmento inmutable: términos ordenados y, por término, ordinales de doc con su máscara. */
+    private record Segmento(Doc[] docs, String[] terminos, int[][] postings, byte[][] campos) {}
+
+    /** Foto publicada de un tenant: segmento más cambios posteriores ({@link #ELIMINADO} = baja). */
+    private record Indice(Segmento segmento, Map<Long, Doc> cambios) {}
+
+    private record Candidato(Doc doc, float puntaje) {}
+
+    private static final Comparator<Candidato> RELEVANCIA = Comparator
+            .comparingDouble(Candidato::puntaje).reversed()
+            .thenComparing(c -> c.doc().orden())
+            .thenComparingLong(c -> c.doc().id());
+
+    private final ProductoRepository productoRepository;
+
+    private final Map<Long, Indice> porTenant = new ConcurrentHashMap<>();
+
+    // Versión por tenant: cada escritura o invalidación la avanza y una construcción iniciada antes
+    // no se publica; se compara dentro de compute para que nada se cuele entre la verificación y el put
+    private final Map<Long, Long> versiones = new ConcurrentHashMap<>();
+
+    public IndiceProductos(ProductoRepository productoRepository) {
+        this.productoRepository = productoRepository;
+    }
+
+    // ── Consultas ──
+
+    /**
+     * Productos activos del tenant que coinciden con todas las palabras de {@code q}, por relevancia
+     * (luego nombre e id). {@code categoriaId} null = todas las categorías.
+     */
+    public Resultado buscar(Long tenantId, String q, Long categoriaId, int desde, int limite) {
+        String[] consulta = tokens(q).toArray(String[]::new);
+        if (consulta.length == 0 || limite <= 0) {
+            return new Resultado(List.of(), 0);
+        }
+        Indice indice = indice(tenantId);
+        Segmento seg = indice.segmento();
+        int n = seg.docs().length;
+
+        // aciertos[d] = palabras de la consulta ya cubiertas por el doc d (en orden)
+        int[] aciertos = new int[n];
+        float[] puntaje = new float[n];
+        float[] mejor = new float[n];
+        for (int k = 0; k < consulta.length; k++) {
+            String token = consulta[k];
+            for (int t = primerTermino(seg.terminos(), token);
+                 t < seg.terminos().length && seg.terminos()[t].startsWith(token); t++) {
+                boolean exacto = seg.terminos()[t].length() == token.length();
+                int[] docs = seg.postings()[t];
+                byte[] campos = seg.campos()[t];
+                for (int i = 0; i < docs.length; i++) {
+                    int d = docs[i];
+                    float s = peso(campos[i], exacto);
+                    if (aciertos[d] == k) {
+                        aciertos[d] = k + 1;
+                        puntaje[d] += s;
+                        mejor[d] = s;
+                    } else if (aciertos[d] == k + 1 && s > mejor[d]) {
+                        puntaje[d] += s - mejor[d];
+                        mejor[d] = s;
+                    }
+                }
+            }
+        }
+
+        // Top (desde + limite) con un heap acotado: no se ordena todo el catálogo
+        int tope = desde + limite;
+        PriorityQueue<Candidato> top = new PriorityQueue<>(Math.min(tope, 1024) + 1, RELEVANCIA.reversed());
+        int total = 0;
+        for (int d = 0; d < n; d++) {
+            Doc doc = seg.docs()[d];
+            if (aciertos[d] == consulta.length && !indice.cambios().containsKey(doc.id())
+                    && (categoriaId == null || categoriaId.equals(doc.categoriaId()))) {
+                total++;
+                ofrecer(top, new Candidato(doc, puntaje[d]), tope);
+            }
+        }
+        for (Doc doc : indice.cambios().values()) {
+            if (doc == ELIMINADO || (categoriaId != null && !categoriaId.equals(doc.categoriaId()))) {
+                continue;
+            }
+            float s = puntuar(doc, consulta);
+            if (s > 0) {
+                total++;
+                ofrecer(top, new Candidato(doc, s), tope);
+            }
+        }
+
+        List<Candidato> ordenados = new ArrayList<>(top);
+        ordenados.sort(RELEVANCIA);
+        List<Long> ids = ordenados.stream()
+                .skip(desde)
+                .map(c -> c.doc().id())
+                .toList();
+        return new Resultado(ids, total);
+    }
+
+    private static void ofrecer(PriorityQueue<Candidato> top, Candidato c, int tope) {
+        if (top.size() < tope) {
+            top.add(c);
+        } else if (RELEVANCIA.compare(c, top.peek()) < 0) {
+            top.poll();
+            top.add(c);
+        }
+    }
+
+    /** Puntaje de un doc suelto (cambios recientes); 0 si alguna palabra no coincide. */
+    private static float puntuar(Doc doc, String[] consulta) {
+        float total = 0;
+        for (String token : consulta) {
+            float mejor = 0;
+            for (int j = 0; j < doc.terminos().length; j++) {
+                String termino = doc.terminos()[j];
+                if (termino.startsWith(token)) {
+                    mejor = Math.max(mejor, peso(doc.campos()[j], termino.length() == token.length()));
+                }
+            }
+            if (mejor == 0) {
+                return 0;
+            }
+            total += mejor;
+        }
+        return total;
+    }
+
+    private static float peso(byte campos, boolean exacto) {
+        float p = PESO_MASCARA[campos];
+        return exacto ? p * 2 : p;
+    }
+
+    private static int primerTermino(String[] terminos, String prefijo) {
+        int i = Arrays.binarySearch(terminos, prefijo);
+        return i >= 0 ? i : -i - 1;
+    }
+
+    private Indice indice(Long tenantId) {
+        Indice indice = porTenant.get(tenantId);
+        if (indice != null) {
+            return indice;
+        }
+        long version = version(tenantId);
+        Indice nuevo = new Indice(construir(productoRepository.findParaIndice(tenantId).stream()
+                .map(IndiceProductos::documento)
+                .toList()), Map.of());
+        Indice publicado = porTenant.compute(tenantId,
+                (id, actual) -> actual == null && version(id) == version ? nuevo : actual);
+        return publicado != null ? publicado : nuevo;
+    }
+
+    private long version(Long tenantId) {
+        return versiones.getOrDefault(tenantId, 0L);
+    }
+
+    private void avanzar(Long tenantId) {
+        versiones.merge(tenantId, 1L, Long::sum);
+    }
+
+    // ── Escrituras ──
+
+    /**
+     * Relee el producto dentro de la transacción actual y lo aplica al índice tras el commit
+     * (un rollback no lo toca). Un producto inactivo o inexistente sale del índice.
+     */
+    public void reindexar(Long tenantId, Long productoId) {
+        Doc doc = productoRepository.findParaIndiceById(tenantId, productoId)
+                .map(IndiceProductos::documento)
+                .orElse(ELIMINADO);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    aplicar(tenantId, productoId, doc);
+                }
+            });
+        } else {
+            aplicar(tenantId, productoId, doc);
+        }
+    }
+
+    private void aplicar(Long tenantId, Long productoId, Doc doc) {
+        avanzar(tenantId);
+        porTenant.computeIfPresent(tenantId, (id, indice) -> {
+            Map<Long, Doc> cambios = new HashMap<>(indice.cambios());
+            cambios.put(productoId, doc);
+            if (cambios.size() > MAX_CAMBIOS) {
+                return new Indice(compactar(indice.segmento(), cambios), Map.of());
+            }
+            return new Indice(indice.segmento(), Map.copyOf(cambios));
+        });
+    }
+
+    private static Segmento compactar(Segmento segmento, Map<Long, Doc> cambios) {
+        List<Doc> docs = new ArrayList<>(segmento.docs().length + cambios.size());
+        for (Doc doc : segmento.docs()) {
+            if (!cambios.containsKey(doc.id())) {
+                docs.add(doc);
+            }
+        }
+        for (Doc doc : cambios.values()) {
+            if (doc != ELIMINADO) {
+                docs.add(doc);
+            }
+        }
+        return construir(docs);
+    }
+
+    /** Descarta el índice del tenant ahora y tras la transacción (categoría o marca renombrada). */
+    public void invalidar(Long tenantId) {
+        Runnable descartar = () -> {
+            avanzar(tenantId);
+            porTenant.remove(tenantId);
+        };
+        descartar.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    descartar.run();
+                }
+            });
+        }
+    }
+
+    // ── Carga completa ──
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarAlIniciar() {
+        recargar();
+    }
+
+    /**
+     * Reconstruye todos los tenants en una pasada. Un tenant escrito mientras tanto conserva su índice
+     * (ya tiene esos cambios aplicados); el resto se publica igual.
+     */
+    @Scheduled(fixedDelayString = "${app.productos.busqueda.refresco-ms:600000}",
+               initialDelayString = "${app.productos.busqueda.refresco-ms:600000}")
+    public void recargar() {
+        Map<Long, Long> vistas = new HashMap<>(versiones);
+        Map<Long, List<Doc>> docsPorTenant = new HashMap<>();
+        for (ProductoIndiceProjection p : productoRepository.findParaIndice(null)) {
+            docsPorTenant.computeIfAbsent(p.getTenantId(), k -> new ArrayList<>()).add(documento(p));
+        }
+        int productos = 0;
+        for (Map.Entry<Long, List<Doc>> e : docsPorTenant.entrySet()) {
+            Indice nuevo = new Indice(construir(e.getValue()), Map.of());
+            long vista = vistas.getOrDefault(e.getKey(), 0L);
+            porTenant.compute(e.getKey(), (id, actual) -> version(id) == vista ? nuevo : actual);
+            productos += e.getValue().size();
+        }
+        // Tenants que se quedaron sin productos activos
+        for (Long tenantId : porTenant.keySet()) {
+            if (!docsPorTenant.containsKey(tenantId)) {
+                long vista = vistas.getOrDefault(tenantId, 0L);
+                porTenant.computeIfPresent(tenantId, (id, actual) -> version(id) == vista ? null : actual);
+            }
+        }
+        log.debug("Índice de productos recargado: {} tenants, {} productos", docsPorTenant.size(), productos);
+    }
+
+    // ── Construcción ──
+
+    private static Doc documento(ProductoIndiceProjection p) {
+        Map<String, Integer> terminos = new HashMap<>();
+        for (String t : tokens(p.getNombre())) {
+            terminos.merge(t, NOMBRE, (a, b) -> a | b);
+        }
+        for (String t : tokens(p.getMarcaNombre())) {
+            terminos.merge(t, MARCA, (a, b) -> a | b);
+        }
+        for (String t : tokens(p.getCategoriaNombre())) {
+            terminos.merge(t, CATEGORIA, (a, b) -> a | b);
+        }
+        // SKU: completo, por partes ("POL-001" → "pol", "001") y por sufijos para fragmentos internos
+        String sku = compactar(p.getSku());
+        if (!sku.isEmpty()) {
+            terminos.merge(sku, SKU, (a, b) -> a | b);
+            for (String t : tokens(p.getSku())) {
+                terminos.merge(t, SKU, (a, b) -> a | b);
+            }
+            for (int i = 1; i <= sku.length() - MIN_SUFIJO; i++) {
+                terminos.merge(sku.substring(i), CODIGO_PARCIAL, (a, b) -> a | b);
+            }
+        }
+        String barras = compactar(p.getCodigoBarras());
+        if (!barras.isEmpty()) {
+            terminos.merge(barras, BARRAS, (a, b) -> a | b);
+        }
+
+        String[] lista = new String[terminos.size()];
+        byte[] campos = new byte[terminos.size()];
+        int i = 0;
+        for (Map.Entry<String, Integer> e : terminos.entrySet()) {
+            lista[i] = e.getKey();
+            campos[i++] = e.getValue().byteValue();
+        }
+        return new Doc(p.getId(), normalizar(p.getNombre()), p.getCategoriaId(), lista, campos);
+    }
+
+    private static Segmento construir(Collection<Doc> coleccion) {
+        Doc[] docs = coleccion.toArray(Doc[]::new);
+
+        // Primera pasada: tamaño de cada posting; luego diccionario ordenado
+        Map<String, int[]> conteo = new HashMap<>();
+        for (Doc doc : docs) {
+            for (String t : doc.terminos()) {
+                conteo.computeIfAbsent(t, k -> new int[2])[0]++;
+            }
+        }
+        String[] terminos = conteo.keySet().toArray(String[]::new);
+        Arrays.sort(terminos);
+        int[][] postings = new int[terminos.length][];
+        byte[][] campos = new byte[terminos.length][];
+        for (int t = 0; t < terminos.length; t++) {
+            int[] c = conteo.get(terminos[t]);
+            postings[t] = new int[c[0]];
+            campos[t] = new byte[c[0]];
+            c[0] = 0;
+            c[1] = t;
+        }
+
+        // Segunda pasada: ordinales en orden creciente dentro de cada posting
+        for (int d = 0; d < docs.length; d++) {
+            Doc doc = docs[d];
+            for (int j = 0; j < doc.terminos().length; j++) {
+                int[] c = conteo.get(doc.terminos()[j]);
+                postings[c[1]][c[0]] = d;
+                campos[c[1]][c[0]++] = doc.campos()[j];
+            }
+        }
+        return new Segmento(docs, terminos, postings, campos);
+    }
+
+    // ── Normalización ──
+
+    /** Minúsculas sin tildes: "Niño Ñandú" → "nino nandu". */
+    private static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        return MARCAS_DIACRITICAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> tokens(String texto) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String t : SEPARADORES.split(normalizar(texto))) {
+            if (!t.isEmpty()) {
+                tokens.add(t);
+            }
+        }
+        return tokens;
+    }
+
+    private static String compactar(String codigo) {
+        return SEPARADORES.matcher(normalizar(codigo)).replaceAll("");
+    }
+}
@@ -9,8 +9,13 @@ import org.springframework.stereotype.Service;
 @Service
 public class MarcaService extends AbstractCatalogService<Marca> {
 
-    public MarcaService(MarcaRepository marcaRepository) {
-        super(marcaRepository);
+    // Nombre indexado en la búsqueda de productos
+    private final IndiceProductos indiceProductos;
+
+    public MarcaService(MarcaRepository marcaRepository, CatalogCache catalogCache,
+                        IndiceProductos indiceProductos) {
+        super(marcaRepository, catalogCache);
+        this.indiceProductos = indiceProductos;
     }
 
     @Override
@@ -30,6 +35,11 @@ public class MarcaService extends AbstractCatalogService<Marca> {
         response.setLogoUrl(entity.getLogoUrl());
     }
 
+    @Override
+    protected void alModificar(Long tenantId) {
+        indiceProductos.invalidar(tenantId);
+    }
+
     @Override
     protected String catalogDisplayName() {
         return "marca";
@@ -9,8 +9,8 @@ import org.springframework.stereotype.Service;
 @Service
 public class MaterialService extends AbstractCatalogService<Material> {
 
-    public MaterialService(MaterialRepository materialRepository) {
-        super(materialRepository);
+    public MaterialService(MaterialRepository materialRepository, CatalogCache catalogCache) {
+        super(materialRepository, catalogCache);
     }
 
     @Override
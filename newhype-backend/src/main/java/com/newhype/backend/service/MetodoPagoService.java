@@ -15,9 +15,12 @@ import java.util.stream.Collectors;
 public class MetodoPagoService {
 
     private final MetodoPagoRepository metodoPagoRepository;
+    private final ConfiguracionTenantCache configuracionTenantCache;
 
-    public MetodoPagoService(MetodoPagoRepository metodoPagoRepository) {
+    public MetodoPagoService(MetodoPagoRepository metodoPagoRepository,
+                             ConfiguracionTenantCache configuracionTenantCache) {
         this.metodoPagoRepository = metodoPagoRepository;
+        this.configuracionTenantCache = configuracionTenantCache;
     }
 
     @Transactional(readOnly = true)
@@ -42,6 +45,7 @@ public class MetodoPagoService {
                 .build();
 
         metodo = metodoPagoRepository.save(metodo);
+        configuracionTenantCache.invalidar(tenantId);
         return toResponse(metodo);
     }
 
@@ -60,6 +64,7 @@ public class MetodoPagoService {
         if (request.getPredeterminado() != null) metodo.setPredeterminado(request.getPredeterminado());
 
         metodo = metodoPagoRepository.save(metodo);
+        configuracionTenantCache.invalidar(tenantId);
         return toResponse(metodo);
     }
 
@@ -72,6 +77,7 @@ public class MetodoPagoService {
 
         metodo.setEstado(!metodo.getEstado());
         metodo = metodoPagoRepository.save(metodo);
+        configuracionTenantCache.invalidar(tenantId);
         return toResponse(metodo);
     }
 
@@ -18,7 +18,10 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,21 +31,27 @@ public class NotaCreditoService {
     private final DetalleNotaCreditoRepository detalleNotaCreditoRepository;
     private final VentaRepository ventaRepository;
     private final DetalleVentaRepository detalleVentaRepository;
-    private final StockAlmacenRepository stockAlmacenRepository;
+    private final StockMovimientoService stockMovimientoService;
     private final MovimientoInventarioRepository movimientoInventarioRepository;
+    private final VentaDiariaService ventaDiariaService;
+    private final NumeracionService numeracionService;
 
     public NotaCreditoService(NotaCreditoRepository notaCreditoRepository,
                               DetalleNotaCreditoRepository detalleNotaCreditoRepository,
                               VentaRepository ventaRepository,
                               DetalleVentaRepository detalleVentaRepository,
-                              StockAlmacenRepository stockAlmacenRepository,
-                              MovimientoInventarioRepository movimientoInventarioRepository) {
+                              StockMovimientoService stockMovimientoService,
+                              MovimientoInventarioRepository movimientoInventarioRepository,
+                              VentaDiariaService ventaDiariaService,
+                              NumeracionService numeracionService) {
         this.notaCreditoRepository = notaCreditoRepository;
         this.detalleNotaCreditoRepository = detalleNotaCreditoRepository;
         this.ventaRepository = ventaRepository;
         this.detalleVentaRepository = detalleVentaRepository;
-        this.stockAlmacenRepository = stockAlmacenRepository;
+        this.stockMovimientoService = stockMovimientoService;
         this.movimientoInventarioRepository = movimientoInventarioRepository;
+        this.ventaDiariaService = ventaDiariaService;
+        this.numeracionService = numeracionService;
     }
 
     @Transactional
@@ -59,8 +68,14 @@ public class NotaCreditoService {
         }
 
         // Generar código
-        long count = notaCreditoRepository.countByTenantId(tenantId) + 1;
-        String codigo = String.format("NC-%05d", count);
+        String codigo = numeracionService.siguienteCodigo(tenantId, CorrelativoDocumento.Documento.NOTA_CREDITO);
+
+        // Sin número explícito: correlativo de la serie SUNAT de notas de crédito
+        String numero = request.getNumero();
+        if (numero == null || numero.isBlank()) {
+            numero = numeracionService.siguienteNumeroSerie(tenantId,
+                    SerieComprobante.TipoComprobante.NOTA_CREDITO, request.getSerie());
+        }
 
         MetodoDevolucion metodoDevolucion = MetodoDevolucion.VALE;
         if (request.getMetodoDevolucion() != null) {
@@ -72,7 +87,7 @@ public class NotaCreditoService {
                 .codigo(codigo)
                 .ventaOrigenId(request.getVentaOrigenId())
                 .serie(request.getSerie())
-                .numero(request.getNumero())
+                .numero(numero)
                 .motivoSunat(request.getMotivoSunat())
                 .tipo(TipoNotaCredito.valueOf(request.getTipo()))
                 .descripcion(request.getDescripcion())
@@ -85,10 +100,19 @@ public class NotaCreditoService {
         // Procesar items y devolver stock
         BigDecimal subtotalTotal = BigDecimal.ZERO;
 
+        // Una sola lectura de los detalles de venta referenciados
+        Map<Long, DetalleVenta> detallesVenta = detalleVentaRepository.findAllById(
+                        request.getItems().stream().map(CrearNotaCreditoRequest.ItemDevolucion::getDetalleVentaId).toList())
+                .stream()
+                .collect(Collectors.toMap(DetalleVenta::getId, Function.identity()));
+
+        List<DetalleNotaCredito> detalles = new ArrayList<>(request.getItems().size());
         for (CrearNotaCreditoRequest.ItemDevolucion item : request.getItems()) {
             // Validar detalle de venta original
-            DetalleVenta dvOriginal = detalleVentaRepository.findById(item.getDetalleVentaId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Detalle de venta", item.getDetalleVentaId()));
+            DetalleVenta dvOriginal = detallesVenta.get(item.getDetalleVentaId());
+            if (dvOriginal == null) {
+                throw new ResourceNotFoundException("Detalle de venta", item.getDetalleVentaId());
+            }
 
             if (!dvOriginal.getVentaId().equals(venta.getId())) {
                 throw new IllegalArgumentException("El detalle " + item.getDetalleVentaId() +
@@ -103,57 +127,49 @@ public class NotaCreditoService {
             BigDecimal subtotalItem = dvOriginal.getPrecioUnitario()
                     .multiply(BigDecimal.valueOf(item.getCantidad()));
 
-            DetalleNotaCredito detalle = DetalleNotaCredito.builder()
+            detalles.add(DetalleNotaCredito.builder()
                     .notaCreditoId(nc.getId())
                     .productoId(item.getProductoId())
                     .detalleVentaId(item.getDetalleVentaId())
                     .cantidad(item.getCantidad())
                     .precioUnitario(dvOriginal.getPrecioUnitario())
                     .subtotal(subtotalItem)
-                    .build();
-            detalleNotaCreditoRepository.save(detalle);
+                    .build());
 
             subtotalTotal = subtotalTotal.add(subtotalItem);
+        }
+        detalleNotaCreditoRepository.saveAll(detalles);
 
-            // Devolver stock
-            StockAlmacen sa = stockAlmacenRepository
-                    .findByTenantIdAndProductoIdAndAlmacenId(tenantId, item.getProductoId(), venta.getAlmacenId())
-                    .orElse(null);
-
-            int stockAntes;
-            if (sa == null) {
-                sa = StockAlmacen.builder()
-                        .tenantId(tenantId)
-                        .productoId(item.getProductoId())
-                        .almacenId(venta.getAlmacenId())
-                        .cantidad(0)
-                        .stockMinimo(0)
-                        .build();
-                stockAntes = 0;
-            } else {
-                stockAntes = sa.getCantidad();
-            }
+        // Devolver stock
+        List<StockMovimientoService.CambioStock> cambios = stockMovimientoService.incrementarLote(
+                tenantId, venta.getAlmacenId(),
+                detalles.stream()
+                        .map(d -> new StockMovimientoService.LineaStock(d.getProductoId(), d.getCantidad()))
+                        .toList());
 
-            sa.setCantidad(sa.getCantidad() + item.getCantidad());
-            stockAlmacenRepository.save(sa);
+        List<MovimientoInventario> movimientos = new ArrayList<>(detalles.size());
+        for (int i = 0; i < detalles.size(); i++) {
+            DetalleNotaCredito detalle = detalles.get(i);
 
             // Kardex de entrada
-            MovimientoInventario mov = MovimientoInventario.builder()
+            movimientos.add(MovimientoInventario.builder()
                     .tenantId(tenantId)
-                    .productoId(item.getProductoId())
+                    .productoId(detalle.getProductoId())
                     .almacenId(venta.getAlmacenId())
                     .tipo(TipoMovimiento.ENTRADA)
-                    .cantidad(item.getCantidad())
-                    .stockAntes(stockAntes)
-                    .stockDespues(sa.getCantidad())
+                    .cantidad(detalle.getCantidad())
+                    .stockAntes(cambios.get(i).antes())
+                    .stockDespues(cambios.get(i).despues())
                     .documentoReferencia(codigo)
                     .usuarioId(usuarioId)
-                    .build();
-            movimientoInventarioRepository.save(mov);
+                    .build());
         }
+        movimientoInventarioRepository.saveAll(movimientos);
 
         // Calcular totales
-        BigDecimal igv = subtotalTotal.multiply(new BigDecimal("0.18")).setScale(2, RoundingMode.HALF_UP);
+        // IGV con la tasa efectiva de la venta original (no la configuración actual del tenant):
+        // la nota revierte exactamente el impuesto que se cobró
+        BigDecimal igv = igvDeVenta(venta, subtotalTotal);
         nc.setSubtotal(subtotalTotal);
         nc.setIgv(igv);
         nc.setTotal(subtotalTotal.add(igv));
@@ -161,9 +177,17 @@ public class NotaCreditoService {
         nc.setFechaReembolso(LocalDateTime.now());
 
         nc = notaCreditoRepository.save(nc);
+        ventaDiariaService.registrarNotaCredito(nc, venta);
         return toResponseCompleto(nc);
     }
 
+    private static BigDecimal igvDeVenta(Venta venta, BigDecimal base) {
+        if (venta.getSubtotal() == null || venta.getSubtotal().signum() == 0 || venta.getIgv() == null) {
+            return BigDecimal.ZERO.setScale(2);
+        }
+        return base.multiply(venta.getIgv()).divide(venta.getSubtotal(), 2, RoundingMode.HALF_UP);
+    }
+
     @Transactional(readOnly = true)
     public Page<NotaCreditoResponse> listar(Long ventaOrigenId, String estado, Pageable pageable) {
         Long tenantId = TenantContext.getCurrentTenantId();
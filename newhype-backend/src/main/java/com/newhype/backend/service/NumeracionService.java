@@ -0,0 +1,222 @@
+package com.newhype.backend.service;
+
+import com.newhype.backend.entity.CorrelativoDocumento.Documento;
+import com.newhype.backend.entity.SerieComprobante;
+import com.newhype.backend.entity.SerieComprobante.TipoComprobante;
+import com.newhype.backend.repository.SerieComprobanteRepository;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
+
+/**
+ * Numeración de documentos por tenant sin COUNT ni lecturas previas: cada reserva es un UPDATE
+ * atómico que avanza el contador y deja el nuevo techo en {@code LAST_INSERT_ID()}.
+ *
+ * <p>Cada nodo reserva bloques de números y los reparte desde memoria, así los tenants con
+ * mucho volumen de POS no se serializan sobre una misma fila. Los bloques se reservan en
+ * autocommit sobre un pool propio y pequeño ({@code app.numeracion.pool-conexiones}): el hilo
+ * que pide un bloque ya tiene una conexión del pool principal tomada por su transacción, y si
+ * pidiera otra al mismo pool, bajo carga todos los hilos quedarían esperando una segunda conexión.
+ * Un número entregado no se reutiliza aunque el documento haga rollback, y los sobrantes de un
+ * bloque se pierden al reiniciar el nodo.
+ *
+ * <ul>
+ *   <li>Códigos internos ({@code VEN-00001}, {@code OC-00001}...): tabla {@code correlativos_documento},
+ *       bloques de {@code app.numeracion.bloque}.</li>
+ *   <li>Series SUNAT: {@code series_comprobantes.numero_actual}, respetando {@code numero_fin}.
+ *       Con {@code app.numeracion.bloque-series = 1} (por defecto) el número se reserva dentro de la
+ *       transacción del documento, por lo que la serie queda correlativa y sin huecos.</li>
+ * </ul>
+ */
+@Service
+public class NumeracionService implements DisposableBean {
+
+    // Reserva atómica: el nuevo techo queda en LAST_INSERT_ID() de la misma conexión
+    private static final String RESERVAR_DOCUMENTO =
+            "UPDATE correlativos_documento " +
+            "SET ultimo_numero = LAST_INSERT_ID(ultimo_numero + ?), updated_at = NOW() " +
+            "WHERE tenant_id = ? AND documento = ?";
+    // Primer documento de este tipo en el tenant: INSERT IGNORE tolera la carrera entre nodos
+    private static final String CREAR_DOCUMENTO =
+            "INSERT IGNORE INTO correlativos_documento (tenant_id, documento, ultimo_numero, updated_at) " +
+            "VALUES (?, ?, 0, NOW())";
+    // Igual que SerieComprobanteRepository.reservar: solo si la serie está activa y el bloque cabe
+    private static final String RESERVAR_SERIE =
+            "UPDATE series_comprobantes " +
+            "SET numero_actual = LAST_INSERT_ID(GREATEST(COALESCE(numero_actual, 0), COALESCE(numero_inicio, 1) - 1) + ?), " +
+            "updated_at = NOW() " +
+            "WHERE id = ? AND estado = 1 " +
+            "AND GREATEST(COALESCE(numero_actual, 0), COALESCE(numero_inicio, 1) - 1) + ? <= COALESCE(numero_fin, 99999999)";
+
+    private final SerieComprobanteRepository serieComprobanteRepository;
+    private final HikariDataSource poolBloques;
+    private final JdbcTemplate jdbcBloques;
+
+    @Value("${app.numeracion.bloque:20}")
+    private int bloqueDocumentos;
+
+    @Value("${app.numeracion.bloque-series:1}")
+    private int bloqueSeries;
+
+    private final Map<String, Bloque> bloques = new ConcurrentHashMap<>();
+
+    public NumeracionService(SerieComprobanteRepository serieComprobanteRepository,
+                             @Value("${spring.datasource.url}") String url,
+                             @Value("${spring.datasource.username:}") String username,
+                             @Value("${spring.datasource.password:}") String password,
+                             @Value("${app.numeracion.pool-conexiones:2}") int poolConexiones) {
+        this.serieComprobanteRepository = serieComprobanteRepository;
+
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("numeracion");
+        config.setJdbcUrl(url);
+        config.setUsername(username);
+        config.setPassword(password);
+        config.setMaximumPoolSize(poolConexiones);
+        config.setMinimumIdle(1);
+        config.setAutoCommit(true);
+        config.setConnectionTimeout(5000);
+        config.setInitializationFailTimeout(-1);
+        this.poolBloques = new HikariDataSource(config);
+        this.jdbcBloques = new JdbcTemplate(poolBloques);
+    }
+
+    // ── Códigos internos ──
+
+    public String siguienteCodigo(Long tenantId, Documento documento) {
+        long numero = siguiente("doc:" + tenantId + ":" + documento.name(), bloqueDocumentos,
+                bloque -> reservarDocumento(tenantId, documento, bloque));
+        return documento.formatear(numero);
+    }
+
+    private Rango reservarDocumento(Long tenantId, Documento documento, int bloque) {
+        return jdbcBloques.execute((Connection con) -> {
+            if (actualizar(con, RESERVAR_DOCUMENTO, bloque, tenantId, documento.name()) == 0) {
+                actualizar(con, CREAR_DOCUMENTO, tenantId, documento.name());
+                actualizar(con, RESERVAR_DOCUMENTO, bloque, tenantId, documento.name());
+            }
+            long techo = ultimoReservado(con);
+            return new Rango(techo - bloque + 1, techo);
+        });
+    }
+
+    // ── Series SUNAT ──
+
+    /**
+     * Siguiente número (8 dígitos) de la serie activa {@code serie} del tipo indicado.
+     *
+     * @throws IllegalArgumentException si la serie no existe, está inactiva o llegó a su número final
+     */
+    @Transactional
+    public String siguienteNumeroSerie(Long tenantId, TipoComprobante tipo, String serie) {
+        SerieComprobante sc = serieComprobanteRepository
+                .findByTenantIdAndTipoComprobanteAndSerie(tenantId, tipo, serie.toUpperCase())
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "No existe la serie " + serie + " para " + tipo));
+        if (!Boolean.TRUE.equals(sc.getEstado())) {
+            throw new IllegalArgumentException("La serie " + sc.getSerie() + " está inactiva");
+        }
+
+        long numero;
+        if (bloqueSeries <= 1) {
+            numero = reservarSerie(sc, 1).desde();
+        } else {
+            numero = siguiente("serie:" + sc.getId(), bloqueSeries, bloque -> reservarBloqueSerie(sc, bloque));
+        }
+        return String.format("%08d", numero);
+    }
+
+    /** Descarta los números reservados en memoria de una serie (tras editarla o desactivarla). */
+    public void descartarBloquesSerie(Long serieId) {
+        bloques.remove("serie:" + serieId);
+    }
+
+    /** Un número dentro de la transacción del documento: bloquea la fila de la serie hasta el commit. */
+    private Rango reservarSerie(SerieComprobante sc, int bloque) {
+        int concedido = bloque;
+        if (serieComprobanteRepository.reservar(sc.getId(), concedido) == 0) {
+            // Cerca de numero_fin puede no caber un bloque completo: se reserva de a uno
+            concedido = 1;
+            if (bloque == 1 || serieComprobanteRepository.reservar(sc.getId(), concedido) == 0) {
+                throw new IllegalArgumentException("La serie " + sc.getSerie()
+                        + " alcanzó su número final (" + sc.getNumeroFin() + ") o está inactiva");
+            }
+        }
+        long techo = serieComprobanteRepository.ultimoReservado();
+        return new Rango(techo - concedido + 1, techo);
+    }
+
+    /** Bloque de la serie en el pool de numeración (autocommit), fuera de la transacción del documento. */
+    private Rango reservarBloqueSerie(SerieComprobante sc, int bloque) {
+        return jdbcBloques.execute((Connection con) -> {
+            int concedido = bloque;
+            if (actualizar(con, RESERVAR_SERIE, concedido, sc.getId(), concedido) == 0) {
+                // Cerca de numero_fin puede no caber un bloque completo: se reserva de a uno
+                concedido = 1;
+                if (actualizar(con, RESERVAR_SERIE, concedido, sc.getId(), concedido) == 0) {
+                    throw new IllegalArgumentException("La serie " + sc.getSerie()
+                            + " alcanzó su número final (" + sc.getNumeroFin() + ") o está inactiva");
+                }
+            }
+            long techo = ultimoReservado(con);
+            return new Rango(techo - concedido + 1, techo);
+        });
+    }
+
+    // ── SQL del pool de numeración ──
+
+    private static int actualizar(Connection con, String sql, Object... args) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
+            for (int i = 0; i < args.length; i++) {
+                ps.setObject(i + 1, args[i]);
+            }
+            return ps.executeUpdate();
+        }
+    }
+
+    private static long ultimoReservado(Connection con) throws SQLException {
+        try (Statement st = con.createStatement(); ResultSet rs = st.executeQuery("SELECT LAST_INSERT_ID()")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    // ── Bloques en memoria ──
+
+    private record Rango(long desde, long hasta) {}
+
+    private static final class Bloque {
+        private long siguiente = 1;
+        private long fin = 0;
+    }
+
+    private long siguiente(String clave, int tamanoBloque, IntFunction<Rango> reservar) {
+        Bloque b = bloques.computeIfAbsent(clave, k -> new Bloque());
+        synchronized (b) {
+            if (b.siguiente > b.fin) {
+                Rango r = reservar.apply(Math.max(tamanoBloque, 1));
+                b.siguiente = r.desde();
+                b.fin = r.hasta();
+            }
+            return b.siguiente++;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        poolBloques.close();
+    }
+}
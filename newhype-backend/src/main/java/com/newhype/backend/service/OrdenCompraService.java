@@ -1,14 +1,13 @@
 package com.newhype.backend.service;
 
 import com.newhype.backend.dto.compra.*;
+import com.newhype.backend.entity.CorrelativoDocumento;
 import com.newhype.backend.entity.DetalleOrdenCompra;
 import com.newhype.backend.entity.OrdenCompra;
 import com.newhype.backend.entity.OrdenCompra.EstadoOrdenCompra;
-import com.newhype.backend.entity.Producto;
 import com.newhype.backend.exception.ResourceNotFoundException;
 import com.newhype.backend.repository.DetalleOrdenCompraRepository;
 import com.newhype.backend.repository.OrdenCompraRepository;
-import com.newhype.backend.repository.ProductoRepository;
 import com.newhype.backend.security.TenantContext;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -16,27 +15,32 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 public class OrdenCompraService {
 
-    private static final BigDecimal IGV_RATE = new BigDecimal("0.18");
-
     private final OrdenCompraRepository ordenCompraRepository;
     private final DetalleOrdenCompraRepository detalleOrdenCompraRepository;
-    private final ProductoRepository productoRepository;
+    private final ProductoResolver productoResolver;
+    private final NumeracionService numeracionService;
+    private final ConfiguracionTenantCache configuracionTenantCache;
 
     public OrdenCompraService(OrdenCompraRepository ordenCompraRepository,
                               DetalleOrdenCompraRepository detalleOrdenCompraRepository,
-                              ProductoRepository productoRepository) {
+                              ProductoResolver productoResolver,
+                              NumeracionService numeracionService,
+                              ConfiguracionTenantCache configuracionTenantCache) {
         this.ordenCompraRepository = ordenCompraRepository;
         this.detalleOrdenCompraRepository = detalleOrdenCompraRepository;
-        this.productoRepository = productoRepository;
+        this.productoResolver = productoResolver;
+        this.numeracionService = numeracionService;
+        this.configuracionTenantCache = configuracionTenantCache;
     }
 
     @Transactional
@@ -44,8 +48,8 @@ public class OrdenCompraService {
         Long tenantId = TenantContext.getCurrentTenantId();
         Long usuarioId = TenantContext.getCurrentUserId();
 
-        long count = ordenCompraRepository.countByTenantId(tenantId);
-        String codigo = String.format("OC-%05d", count + 1);
+        ConfiguracionTenant config = configuracionTenantCache.obtener(tenantId);
+        String codigo = numeracionService.siguienteCodigo(tenantId, CorrelativoDocumento.Documento.ORDEN_COMPRA);
 
         OrdenCompra oc = OrdenCompra.builder()
                 .tenantId(tenantId)
@@ -64,15 +68,16 @@ public class OrdenCompraService {
         BigDecimal subtotalOC = BigDecimal.ZERO;
         BigDecimal descuentoOC = BigDecimal.ZERO;
 
+        List<DetalleOrdenCompra> detalles = new ArrayList<>(request.getItems().size());
         for (CrearOrdenCompraRequest.ItemOrdenCompra item : request.getItems()) {
             BigDecimal desc = item.getDescuento() != null ? item.getDescuento() : BigDecimal.ZERO;
             BigDecimal subtotalItem = item.getPrecioUnitario()
                     .multiply(BigDecimal.valueOf(item.getCantidadOrdenada()))
                     .subtract(desc);
-            BigDecimal igvItem = subtotalItem.multiply(IGV_RATE).setScale(2, RoundingMode.HALF_UP);
+            BigDecimal igvItem = config.calcularIgv(subtotalItem);
             BigDecimal totalItem = subtotalItem.add(igvItem);
 
-            DetalleOrdenCompra detalle = DetalleOrdenCompra.builder()
+            detalles.add(DetalleOrdenCompra.builder()
                     .ordenCompraId(oc.getId())
                     .productoId(item.getProductoId())
                     .cantidadOrdenada(item.getCantidadOrdenada())
@@ -82,14 +87,14 @@ public class OrdenCompraService {
                     .igv(igvItem)
                     .total(totalItem)
                     .observaciones(item.getObservaciones())
-                    .build();
-            detalleOrdenCompraRepository.save(detalle);
+                    .build());
 
             subtotalOC = subtotalOC.add(subtotalItem);
             descuentoOC = descuentoOC.add(desc);
         }
+        detalleOrdenCompraRepository.saveAll(detalles);
 
-        BigDecimal igvOC = subtotalOC.multiply(IGV_RATE).setScale(2, RoundingMode.HALF_UP);
+        BigDecimal igvOC = config.calcularIgv(subtotalOC);
         oc.setSubtotal(subtotalOC);
         oc.setDescuento(descuentoOC);
         oc.setIgv(igvOC);
@@ -134,6 +139,7 @@ public class OrdenCompraService {
         oc.setCondicionesPago(request.getCondicionesPago());
         oc.setFormaPago(request.getFormaPago());
         oc.setObservaciones(request.getObservaciones());
+        ConfiguracionTenant config = configuracionTenantCache.obtener(tenantId);
 
         // Delete old details and recreate
         detalleOrdenCompraRepository.deleteByOrdenCompraId(oc.getId());
@@ -141,12 +147,13 @@ public class OrdenCompraService {
         BigDecimal subtotalOC = BigDecimal.ZERO;
         BigDecimal descuentoOC = BigDecimal.ZERO;
 
+        List<DetalleOrdenCompra> detalles = new ArrayList<>(request.getItems().size());
         for (CrearOrdenCompraRequest.ItemOrdenCompra item : request.getItems()) {
             BigDecimal desc = item.getDescuento() != null ? item.getDescuento() : BigDecimal.ZERO;
             BigDecimal subtotalItem = item.getPrecioUnitario()
                     .multiply(BigDecimal.valueOf(item.getCantidadOrdenada()))
                     .subtract(desc);
-            BigDecimal igvItem = subtotalItem.multiply(IGV_RATE).setScale(2, RoundingMode.HALF_UP);
+            BigDecimal igvItem = config.calcularIgv(subtotalItem);
             BigDecimal totalItem = subtotalItem.add(igvItem);
 
             detalleOrdenCompraRepository.save(DetalleOrdenCompra.builder()
@@ -165,7 +172,7 @@ public class OrdenCompraService {
             descuentoOC = descuentoOC.add(desc);
         }
 
-        BigDecimal igvOC = subtotalOC.multiply(IGV_RATE).setScale(2, RoundingMode.HALF_UP);
+        BigDecimal igvOC = config.calcularIgv(subtotalOC);
         oc.setSubtotal(subtotalOC);
         oc.setDescuento(descuentoOC);
         oc.setIgv(igvOC);
@@ -206,6 +213,7 @@ public class OrdenCompraService {
     @Transactional(readOnly = true)
     public String generarHtmlOC(Long id) {
         OrdenCompraResponse oc = obtenerPorId(id);
+        ConfiguracionTenant config = configuracionTenantCache.obtener(TenantContext.getCurrentTenantId());
 
         StringBuilder sb = new StringBuilder();
         sb.append("<!DOCTYPE html><html><head><meta charset='UTF-8'>");
@@ -216,6 +224,13 @@ public class OrdenCompraService {
         sb.append("th{background:#f5f5f5;} .right{text-align:right;} .bold{font-weight:bold;}");
         sb.append("h2{text-align:center;}</style></head><body>");
 
+        if (config.nombreEmpresa() != null) {
+            sb.append("<p class='bold'>").append(config.nombreEmpresa());
+            if (config.ruc() != null) {
+                sb.append(" — RUC ").append(config.ruc());
+            }
+            sb.append("</p>");
+        }
         sb.append("<h2>ORDEN DE COMPRA</h2>");
         sb.append("<p class='bold'>").append(oc.getCodigo()).append("</p>");
         sb.append("<table><tr><td>Proveedor:</td><td>").append(oc.getProveedorNombre() != null ? oc.getProveedorNombre() : oc.getProveedorId()).append("</td>");
@@ -242,7 +257,7 @@ public class OrdenCompraService {
         sb.append("</table>");
 
         sb.append("<table><tr><td>Subtotal:</td><td class='right'>S/ ").append(oc.getSubtotal()).append("</td></tr>");
-        sb.append("<tr><td>IGV (18%):</td><td class='right'>S/ ").append(oc.getIgv()).append("</td></tr>");
+        sb.append("<tr><td>").append(config.etiquetaIgv()).append(":</td><td class='right'>S/ ").append(oc.getIgv()).append("</td></tr>");
         sb.append("<tr class='bold'><td>TOTAL:</td><td class='right'>S/ ").append(oc.getTotal()).append("</td></tr></table>");
 
         sb.append("</body></html>");
@@ -310,22 +325,21 @@ public class OrdenCompraService {
     private OrdenCompraResponse toResponseCompleto(OrdenCompra oc) {
         OrdenCompraResponse response = toResponseBasico(oc);
         List<DetalleOrdenCompra> detalles = detalleOrdenCompraRepository.findByOrdenCompraId(oc.getId());
-        response.setDetalles(detalles.stream().map(d -> {
-            Producto prod = productoRepository.findById(d.getProductoId()).orElse(null);
-            return DetalleOrdenCompraResponse.builder()
-                    .id(d.getId())
-                    .productoId(d.getProductoId())
-                    .productoNombre(prod != null ? prod.getNombre() : null)
-                    .cantidadOrdenada(d.getCantidadOrdenada())
-                    .cantidadRecibida(d.getCantidadRecibida())
-                    .precioUnitario(d.getPrecioUnitario())
-                    .descuento(d.getDescuento())
-                    .subtotal(d.getSubtotal())
-                    .igv(d.getIgv())
-                    .total(d.getTotal())
-                    .observaciones(d.getObservaciones())
-                    .build();
-        }).collect(Collectors.toList()));
+        Map<Long, String> nombres = productoResolver.nombres(
+                detalles.stream().map(DetalleOrdenCompra::getProductoId).toList());
+        response.setDetalles(detalles.stream().map(d -> DetalleOrdenCompraResponse.builder()
+                .id(d.getId())
+                .productoId(d.getProductoId())
+                .productoNombre(nombres.get(d.getProductoId()))
+                .cantidadOrdenada(d.getCantidadOrdenada())
+                .cantidadRecibida(d.getCantidadRecibida())
+                .precioUnitario(d.getPrecioUnitario())
+                .descuento(d.getDescuento())
+                .subtotal(d.getSubtotal())
+                .igv(d.getIgv())
+                .total(d.getTotal())
+                .observaciones(d.getObservaciones())
+                .build()).collect(Collectors.toList()));
         return response;
     }
 }
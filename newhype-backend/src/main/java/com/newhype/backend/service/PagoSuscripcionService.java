@@ -26,19 +26,22 @@ public class PagoSuscripcionService {
     private final PlanSuscripcionRepository planRepository;
     private final CuponRepository cuponRepository;
     private final AuditoriaPlataformaService auditoriaService;
+    private final DirectorioPlataforma directorio;
 
     public PagoSuscripcionService(PagoSuscripcionRepository pagoRepository,
                                     SuscripcionRepository suscripcionRepository,
                                     TenantRepository tenantRepository,
                                     PlanSuscripcionRepository planRepository,
                                     CuponRepository cuponRepository,
-                                    AuditoriaPlataformaService auditoriaService) {
+                                    AuditoriaPlataformaService auditoriaService,
+                                    DirectorioPlataforma directorio) {
         this.pagoRepository = pagoRepository;
         this.suscripcionRepository = suscripcionRepository;
         this.tenantRepository = tenantRepository;
         this.planRepository = planRepository;
         this.cuponRepository = cuponRepository;
         this.auditoriaService = auditoriaService;
+        this.directorio = directorio;
     }
 
     // ── POST /platform/pagos ──
@@ -122,31 +125,19 @@ public class PagoSuscripcionService {
         PagoSuscripcion pago = pagoRepository.findById(pagoId)
                 .orElseThrow(() -> new ResourceNotFoundException("Pago", pagoId));
 
-        Tenant tenant = tenantRepository.findById(pago.getTenantId()).orElse(null);
-        String cuponCodigo = null;
-        if (pago.getCuponId() != null) {
-            cuponCodigo = cuponRepository.findById(pago.getCuponId()).map(Cupon::getCodigo).orElse(null);
-        }
-
-        return toPagoResponse(pago, tenant != null ? tenant.getNombre() : null, cuponCodigo);
+        return toPagoResponse(pago, directorio.nombreTenant(pago.getTenantId()),
+                directorio.codigoCupon(pago.getCuponId()));
     }
 
     // ── GET /platform/tenants/{id}/pagos ──
     @Transactional(readOnly = true)
     public List<PagoResponse> historialPagos(Long tenantId) {
-        tenantRepository.findById(tenantId)
-                .orElseThrow(() -> new ResourceNotFoundException("Tenant", tenantId));
+        String tenantNombre = directorio.tenant(tenantId)
+                .orElseThrow(() -> new ResourceNotFoundException("Tenant", tenantId))
+                .nombre();
 
-        Tenant tenant = tenantRepository.findById(tenantId).orElse(null);
         return pagoRepository.findByTenantIdOrderByFechaPagoDesc(tenantId).stream()
-                .map(p -> {
-                    String cuponCodigo = null;
-                    if (p.getCuponId() != null) {
-                        cuponCodigo = cuponRepository.findById(p.getCuponId())
-                                .map(Cupon::getCodigo).orElse(null);
-                    }
-                    return toPagoResponse(p, tenant != null ? tenant.getNombre() : null, cuponCodigo);
-                })
+                .map(p -> toPagoResponse(p, tenantNombre, directorio.codigoCupon(p.getCuponId())))
                 .collect(Collectors.toList());
     }
 
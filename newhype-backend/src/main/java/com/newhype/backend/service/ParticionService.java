@@ -0,0 +1,375 @@
+package com.newhype.backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSetMetaData;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Mantenimiento de las tablas particionadas por mes sobre {@code created_at}
+ * (kardex y auditoría, ver {@code database/newhype.sql}).
+ *
+ * <p>Crea por adelantado las particiones de los próximos meses partiendo la cola {@code pmax},
+ * y aplica la retención: una partición vencida para todos sus tenants se archiva completa en
+ * CSV.gz y se elimina con {@code DROP PARTITION}; si aún tiene tenants con retención vigente,
+ * sólo se archivan y borran las filas de los tenants vencidos. La retención de cada tenant es
+ * la de su plan activo ({@code retencion_meses}, 0 = sin límite).
+ *
+ * <p>Cada archivo lleva la marca de tiempo de la corrida y nunca reemplaza a uno existente; el
+ * borrado por tenant se limita a los ids volcados en ese archivo, así una corrida interrumpida
+ * no pierde filas en la siguiente. Todo el mantenimiento corre bajo {@code GET_LOCK}: con varios
+ * nodos sólo uno reorganiza, archiva y borra a la vez.
+ *
+ * <p>Una tabla sin particionar (p. ej. en desarrollo) se omite sin error.
+ */
+@Service
+public class ParticionService {
+
+    private static final Logger log = LoggerFactory.getLogger(ParticionService.class);
+
+    private static final DateTimeFormatter NOMBRE_MES = DateTimeFormatter.ofPattern("'p'yyyyMM");
+    private static final DateTimeFormatter MARCA_CORRIDA = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    private static final String CANDADO = "newhype.particiones";
+    private static final String PARTICION_COLA = "pmax";
+    private static final int LOTE_BORRADO = 5000;
+    private static final int LOTE_ARCHIVO = 5000;
+
+    /** Tabla particionada y si su retención depende del plan de cada tenant. */
+    private record Tabla(String nombre, boolean porTenant) {}
+
+    /** Partición y su límite superior exclusivo ({@code null} = MAXVALUE). */
+    private record Particion(String nombre, LocalDate limite) {}
+
+    /** Archivo escrito, filas volcadas y mayor id incluido ({@code null} si no hubo filas). */
+    private record Archivo(Path ruta, long filas, Long maxId) {}
+
+    private static final List<Tabla> TABLAS = List.of(
+            new Tabla("movimientos_inventario", true),
+            new Tabla("auditoria", true),
+            new Tabla("auditoria_plataforma", false));
+
+    private final JdbcTemplate jdbc;
+    private final CandadoDistribuido candado;
+
+    @Value("${app.particiones.meses-adelante:3}")
+    private int mesesAdelante;
+
+    @Value("${app.particiones.retencion-defecto-meses:24}")
+    private int retencionDefecto;
+
+    @Value("${app.particiones.retencion-plataforma-meses:36}")
+    private int retencionPlataforma;
+
+    @Value("${app.particiones.archivo-dir:./archivo/particiones}")
+    private String archivoDir;
+
+    public ParticionService(DataSource dataSource, CandadoDistribuido candado) {
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.candado = candado;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void alIniciar() {
+        conCandado("inicio", this::crearParticionesFuturas);
+    }
+
+    @Scheduled(cron = "${app.particiones.cron:0 15 2 * * *}")
+    public void mantener() {
+        conCandado("mantenimiento", () -> {
+            crearParticionesFuturas();
+            aplicarRetencion();
+        });
+    }
+
+    /** Ejecuta el trabajo sólo si este nodo obtiene el candado; si otro nodo lo tiene, se omite la corrida. */
+    private void conCandado(String tarea, Runnable trabajo) {
+        try {
+            if (!candado.ejecutar(CANDADO, trabajo)) {
+                log.info("Particiones ({}): otro nodo tiene el candado, se omite", tarea);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Particiones ({}) interrumpido: {}", tarea, e.getMessage());
+        }
+    }
+
+    // ── Particiones futuras ──
+
+    public void crearParticionesFuturas() {
+        LocalDate objetivo = LocalDate.now().withDayOfMonth(1).plusMonths(mesesAdelante + 1L);
+        for (Tabla tabla : TABLAS) {
+            try {
+                crearParticiones(tabla.nombre(), objetivo);
+            } catch (DataAccessException e) {
+                log.warn("No se pudieron crear particiones de {}: {}", tabla.nombre(), e.getMessage());
+            }
+        }
+    }
+
+    private void crearParticiones(String tabla, LocalDate objetivo) {
+        List<Particion> particiones = particiones(tabla);
+        if (particiones.isEmpty()) {
+            return;
+        }
+        LocalDate ultimo = particiones.stream()
+                .map(Particion::limite)
+                .filter(Objects::nonNull)
+                .max(Comparator.naturalOrder())
+                .orElse(LocalDate.now().withDayOfMonth(1));
+        if (!ultimo.isBefore(objetivo)) {
+            return;
+        }
+
+        StringJoiner nuevas = new StringJoiner(", ");
+        for (LocalDate mes = ultimo; mes.isBefore(objetivo); mes = mes.plusMonths(1)) {
+            nuevas.add("PARTITION " + NOMBRE_MES.format(mes) + " VALUES LESS THAN ('" + mes.plusMonths(1) + "')");
+        }
+        boolean tieneCola = particiones.stream().anyMatch(p -> p.limite() == null);
+        if (tieneCola) {
+            nuevas.add("PARTITION " + PARTICION_COLA + " VALUES LESS THAN (MAXVALUE)");
+            jdbc.execute("ALTER TABLE " + tabla + " REORGANIZE PARTITION " + PARTICION_COLA
+                    + " INTO (" + nuevas + ")");
+        } else {
+            jdbc.execute("ALTER TABLE " + tabla + " ADD PARTITION (" + nuevas + ")");
+        }
+        log.info("Particiones de {} creadas hasta {}", tabla, objetivo);
+    }
+
+    // ── Retención ──
+
+    public void aplicarRetencion() {
+        LocalDate mesActual = LocalDate.now().withDayOfMonth(1);
+        Map<Long, LocalDate> cortes = null;
+        for (Tabla tabla : TABLAS) {
+            try {
+                List<Particion> particiones = particiones(tabla.nombre());
+                if (particiones.isEmpty()) {
+                    continue;
+                }
+                if (!tabla.porTenant()) {
+                    if (retencionPlataforma > 0) {
+                        LocalDate corte = mesActual.minusMonths(retencionPlataforma);
+                        for (Particion p : particiones) {
+                            if (p.limite() != null && !p.limite().isAfter(corte)) {
+                                archivarYEliminar(tabla.nombre(), p);
+                            }
+                        }
+                    }
+                    continue;
+                }
+                if (cortes == null) {
+                    cortes = cortesPorTenant(mesActual);
+                }
+                for (Particion p : particiones) {
+                    if (p.limite() != null && !p.limite().isAfter(mesActual)) {
+                        depurar(tabla.nombre(), p, cortes, mesActual);
+                    }
+                }
+            } catch (DataAccessException | UncheckedIOException e) {
+                log.error("Retención de {} interrumpida: {}", tabla.nombre(), e.getMessage(), e);
+            }
+        }
+    }
+
+    private void depurar(String tabla, Particion p, Map<Long, LocalDate> cortes, LocalDate mesActual) {
+        List<Long> tenants = jdbc.queryForList(
+                "SELECT DISTINCT tenant_id FROM " + tabla + " PARTITION (" + p.nombre() + ")", Long.class);
+        List<Long> vencidos = new ArrayList<>();
+        boolean hayVigentes = false;
+        for (Long tenantId : tenants) {
+            LocalDate corte = cortes.getOrDefault(tenantId, corteDefecto(mesActual));
+            if (corte != null && !p.limite().isAfter(corte)) {
+                vencidos.add(tenantId);
+            } else {
+                hayVigentes = true;
+            }
+        }
+
+        if (tenants.isEmpty()) {
+            LocalDate corte = corteDefecto(mesActual);
+            if (corte != null && !p.limite().isAfter(corte)) {
+                jdbc.execute("ALTER TABLE " + tabla + " DROP PARTITION " + p.nombre());
+                log.info("Retención {}: partición vacía {} eliminada", tabla, p.nombre());
+            }
+            return;
+        }
+        if (!hayVigentes) {
+            archivarYEliminar(tabla, p);
+            return;
+        }
+        for (Long tenantId : vencidos) {
+            Archivo archivo = archivar(tabla, p, tenantId);
+            if (archivo.maxId() == null) {
+                continue;
+            }
+            // Sólo lo que quedó en el archivo: ids hasta el mayor volcado
+            int borradas = 0;
+            int lote;
+            do {
+                lote = jdbc.update("DELETE FROM " + tabla + " PARTITION (" + p.nombre() + ") "
+                        + "WHERE tenant_id = ? AND id <= ? LIMIT " + LOTE_BORRADO, tenantId, archivo.maxId());
+                borradas += lote;
+            } while (lote == LOTE_BORRADO);
+            log.info("Retención {}: {} filas del tenant {} archivadas en {}, {} eliminadas de {}",
+                    tabla, archivo.filas(), tenantId, archivo.ruta(), borradas, p.nombre());
+        }
+    }
+
+    private void archivarYEliminar(String tabla, Particion p) {
+        Archivo archivo = archivar(tabla, p, null);
+        jdbc.execute("ALTER TABLE " + tabla + " DROP PARTITION " + p.nombre());
+        log.info("Retención {}: partición {} archivada en {} ({} filas) y eliminada",
+                tabla, p.nombre(), archivo.ruta(), archivo.filas());
+    }
+
+    /**
+     * Vuelca la partición (o sólo las filas de un tenant) a
+     * {@code <dir>/<tabla>/<tabla>_<partición>[_tenantN]_<yyyyMMddTHHmmss>.csv.gz}. Se escribe a un
+     * temporal y se renombra al terminar sin reemplazar nada: cada corrida deja su propio archivo.
+     *
+     * <p>Se lee por páginas de {@value #LOTE_ARCHIVO} filas con cursor: sin {@code useCursorFetch},
+     * Connector/J cargaría en memoria la partición entera con un único SELECT. La partición completa
+     * se recorre por {@code id} (cabeza de la PK); la de un tenant por {@code (created_at, id)}, que
+     * cubre el índice {@code (tenant_id, created_at)}.
+     */
+    private Archivo archivar(String tabla, Particion p, Long tenantId) {
+        try {
+            Path dir = Path.of(archivoDir, tabla);
+            Files.createDirectories(dir);
+            String base = tabla + "_" + p.nombre() + (tenantId != null ? "_tenant" + tenantId : "")
+                    + "_" + MARCA_CORRIDA.format(LocalDateTime.now());
+            Path destino = dir.resolve(base + ".csv.gz");
+            Path temporal = dir.resolve(base + ".csv.gz.tmp");
+            long[] filas = {0};
+            Long[] maxId = {null};
+            // Última fila volcada (created_at, id): punto de partida de la página siguiente
+            Object[] cursor = {null, null};
+            boolean[] encabezado = {false};
+
+            String desde = "SELECT * FROM " + tabla + " PARTITION (" + p.nombre() + ") WHERE "
+                    + (tenantId != null ? "tenant_id = ? AND " : "");
+            String orden = (tenantId != null ? " ORDER BY created_at, id" : " ORDER BY id") + " LIMIT " + LOTE_ARCHIVO;
+
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temporal), 64 * 1024)) {
+                CsvWriter csv = new CsvWriter(out);
+                int leidas;
+                do {
+                    List<Object> args = new ArrayList<>();
+                    if (tenantId != null) {
+                        args.add(tenantId);
+                    }
+                    String sql;
+                    if (cursor[1] == null) {
+                        sql = desde + "1 = 1" + orden;
+                    } else if (tenantId == null) {
+                        sql = desde + "id > ?" + orden;
+                        args.add(cursor[1]);
+                    } else {
+                        sql = desde + "(created_at > ? OR (created_at = ? AND id > ?))" + orden;
+                        args.add(cursor[0]);
+                        args.add(cursor[0]);
+                        args.add(cursor[1]);
+                    }
+                    leidas = jdbc.query(sql, rs -> {
+                        ResultSetMetaData meta = rs.getMetaData();
+                        int columnas = meta.getColumnCount();
+                        int columnaId = 0;
+                        int columnaFecha = 0;
+                        for (int i = 1; i <= columnas; i++) {
+                            String columna = meta.getColumnLabel(i);
+                            if (!encabezado[0]) {
+                                csv.campo(columna);
+                            }
+                            if ("id".equalsIgnoreCase(columna)) {
+                                columnaId = i;
+                            } else if ("created_at".equalsIgnoreCase(columna)) {
+                                columnaFecha = i;
+                            }
+                        }
+                        if (!encabezado[0]) {
+                            csv.finFila();
+                            encabezado[0] = true;
+                        }
+                        int n = 0;
+                        while (rs.next()) {
+                            for (int i = 1; i <= columnas; i++) {
+                                csv.campo(rs.getObject(i));
+                            }
+                            csv.finFila();
+                            n++;
+                            long id = rs.getLong(columnaId);
+                            if (maxId[0] == null || id > maxId[0]) {
+                                maxId[0] = id;
+                            }
+                            cursor[0] = rs.getObject(columnaFecha, LocalDateTime.class);
+                            cursor[1] = id;
+                        }
+                        return n;
+                    }, args.toArray());
+                    filas[0] += leidas;
+                } while (leidas == LOTE_ARCHIVO);
+                csv.flush();
+            }
+            // Sin REPLACE_EXISTING: si el nombre ya existe falla y no se borra nada
+            Files.move(temporal, destino, StandardCopyOption.ATOMIC_MOVE);
+            return new Archivo(destino, filas[0], maxId[0]);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo archivar " + tabla + "." + p.nombre(), e);
+        }
+    }
+
+    /** Primer día del mes desde el que se conservan datos de cada tenant; {@code null} = sin límite. */
+    private Map<Long, LocalDate> cortesPorTenant(LocalDate mesActual) {
+        Map<Long, LocalDate> cortes = new HashMap<>();
+        jdbc.query("SELECT t.id, p.retencion_meses FROM tenants t "
+                + "LEFT JOIN suscripciones s ON s.tenant_id = t.id AND s.estado = 'ACTIVA' "
+                + "LEFT JOIN planes_suscripcion p ON p.id = s.plan_id", rs -> {
+            long tenantId = rs.getLong(1);
+            int meses = rs.getObject(2) != null ? rs.getInt(2) : retencionDefecto;
+            LocalDate corte = meses > 0 ? mesActual.minusMonths(meses) : null;
+            // Con varias suscripciones activas prevalece la retención más larga
+            if (!cortes.containsKey(tenantId) || corte == null
+                    || (cortes.get(tenantId) != null && corte.isBefore(cortes.get(tenantId)))) {
+                cortes.put(tenantId, corte);
+            }
+        });
+        return cortes;
+    }
+
+    private LocalDate corteDefecto(LocalDate mesActual) {
+        return retencionDefecto > 0 ? mesActual.minusMonths(retencionDefecto) : null;
+    }
+
+    private List<Particion> particiones(String tabla) {
+        return jdbc.query("SELECT PARTITION_NAME, PARTITION_DESCRIPTION FROM information_schema.PARTITIONS "
+                        + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL "
+                        + "ORDER BY PARTITION_ORDINAL_POSITION",
+                (rs, i) -> new Particion(rs.getString(1), limite(rs.getString(2))), tabla);
+    }
+
+    // PARTITION_DESCRIPTION de RANGE COLUMNS: 'yyyy-MM-dd HH:mm:ss' entre comillas, o MAXVALUE
+    private static LocalDate limite(String descripcion) {
+        if (descripcion == null || descripcion.equalsIgnoreCase("MAXVALUE")) {
+            return null;
+        }
+        return LocalDate.parse(descripcion.replace("'", "").substring(0, 10));
+    }
+}
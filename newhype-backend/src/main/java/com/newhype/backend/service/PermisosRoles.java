@@ -0,0 +1,209 @@
+package com.newhype.backend.service;
+
+import com.newhype.backend.entity.Rol;
+import com.newhype.backend.repository.RolRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Permisos de cada rol compilados desde el JSON de {@code roles.permisos} a un bitmap inmutable,
+ * cacheado por (tenant, rol). Sólo se internan los nombres que exige algún {@code @RequierePermiso}
+ * (el resto del JSON se ignora al compilar), así que comprobar un permiso en un request es un lookup
+ * en mapa y un AND, sin I/O, y el índice global no crece con datos de los tenants.
+ *
+ * <p>Formatos aceptados: {@code ["sales.create", "users.read"]}; {@code "*"} o {@code {"all": true}}
+ * conceden todo, y un permiso sin punto ({@code "sales"}) concede todas sus acciones ({@code sales.*}).
+ * Un rol inactivo no concede nada. Se invalida al actualizar o cambiar el estado del rol, y cada
+ * {@code app.permisos.verificacion-ms} se recompilan los roles con {@code updated_at} reciente para
+ * recoger cambios hechos en otros nodos.
+ */
+@Component
+public class PermisosRoles {
+
+    private static final Logger log = LoggerFactory.getLogger(PermisosRoles.class);
+
+    private static final String TODOS = "*";
+
+    /** Permiso requerido ya internado: la acción exacta y su módulo (prefijo antes del punto). */
+    public record Requisito(String permiso, int exacto, int modulo) {}
+
+    private record Clave(Long tenantId, Long rolId) {}
+
+    private record ClaveNombre(Long tenantId, String nombre) {}
+
+    private record Bitmap(long[] bits, boolean todos) {
+        static final Bitmap VACIO = new Bitmap(new long[0], false);
+
+        boolean tiene(int id) {
+            int palabra = id >>> 6;
+            return palabra < bits.length && (bits[palabra] & (1L << id)) != 0;
+        }
+    }
+
+    private final RolRepository rolRepository;
+    private final JsonMapper jsonMapper;
+
+    private final Map<String, Integer> indices = new ConcurrentHashMap<>();
+    private final AtomicInteger siguienteIndice = new AtomicInteger();
+
+    private final CacheGeneracional<Clave, Bitmap> porRol = new CacheGeneracional<>();
+    // Tokens emitidos antes del claim rolId: rol resuelto por nombre
+    private final Map<ClaveNombre, Long> rolPorNombre = new ConcurrentHashMap<>();
+
+    private final long margenSegundos;
+    // Última verificación de updated_at y versión vista de cada rol dentro de la ventana
+    private volatile LocalDateTime verificadoHasta = LocalDateTime.now();
+    private Map<Long, LocalDateTime> vistos = Map.of();
+
+    public PermisosRoles(RolRepository rolRepository, JsonMapper jsonMapper,
+                         @Value("${app.permisos.margen-segundos:120}") long margenSegundos) {
+        this.rolRepository = rolRepository;
+        this.jsonMapper = jsonMapper;
+        this.margenSegundos = margenSegundos;
+    }
+
+    // ── Consultas ──
+
+    /** Interna el permiso (y su módulo) que exige un handler; los bitmaps ya compilados se descartan. */
+    public Requisito requisito(String permiso) {
+        int punto = permiso.indexOf('.');
+        int exacto = internar(permiso);
+        return new Requisito(permiso, exacto, punto > 0 ? internar(permiso.substring(0, punto)) : exacto);
+    }
+
+    /** ¿El rol concede el permiso? {@code rolId} puede ser null en tokens antiguos. */
+    public boolean permite(Long tenantId, Long rolId, String rolNombre, Requisito requisito) {
+        if (tenantId == null) {
+            return false;
+        }
+        if (rolId == null) {
+            rolId = rolPorNombre(tenantId, rolNombre);
+            if (rolId == null) {
+                return false;
+            }
+        }
+        Bitmap b = bitmap(tenantId, rolId);
+        return b.todos() || b.tiene(requisito.exacto()) || b.tiene(requisito.modulo());
+    }
+
+    private Long rolPorNombre(Long tenantId, String nombre) {
+        if (nombre == null) {
+            return null;
+        }
+        ClaveNombre clave = new ClaveNombre(tenantId, nombre);
+        Long rolId = rolPorNombre.get(clave);
+        if (rolId == null) {
+            rolId = rolRepository.findByTenantIdAndNombre(tenantId, nombre).map(Rol::getId).orElse(null);
+            if (rolId != null) {
+                rolPorNombre.put(clave, rolId);
+            }
+        }
+        return rolId;
+    }
+
+    private Bitmap bitmap(Long tenantId, Long rolId) {
+        return porRol.obtener(new Clave(tenantId, rolId), clave ->
+                rolRepository.findByIdAndTenantId(rolId, tenantId)
+                        .filter(rol -> Boolean.TRUE.equals(rol.getEstado()))
+                        .map(this::compilar)
+                        .orElse(Bitmap.VACIO));
+    }
+
+    // ── Compilación ──
+
+    private Bitmap compilar(Rol rol) {
+        String json = rol.getPermisos();
+        if (json == null || json.isBlank()) {
+            return Bitmap.VACIO;
+        }
+        JsonNode raiz;
+        try {
+            raiz = jsonMapper.readTree(json);
+        } catch (JacksonException e) {
+            log.warn("Permisos no legibles en rol {} (tenant {}): {}", rol.getId(), rol.getTenantId(), e.getOriginalMessage());
+            return Bitmap.VACIO;
+        }
+        if (raiz.isObject()) {
+            return raiz.path("all").asBoolean(false) ? new Bitmap(new long[0], true) : Bitmap.VACIO;
+        }
+        if (!raiz.isArray()) {
+            return Bitmap.VACIO;
+        }
+        long[] bits = new long[0];
+        for (JsonNode nodo : raiz) {
+            String permiso = nodo.asString("");
+            if (permiso.isBlank()) {
+                continue;
+            }
+            if (TODOS.equals(permiso)) {
+                return new Bitmap(new long[0], true);
+            }
+            Integer id = indices.get(permiso);
+            if (id == null) {
+                // Ningún handler lo exige: no ocupa índice
+                continue;
+            }
+            int palabra = id >>> 6;
+            if (palabra >= bits.length) {
+                bits = Arrays.copyOf(bits, palabra + 1);
+            }
+            bits[palabra] |= 1L << id;
+        }
+        return new Bitmap(bits, false);
+    }
+
+    private int internar(String permiso) {
+        Integer id = indices.get(permiso);
+        if (id != null) {
+            return id;
+        }
+        id = indices.computeIfAbsent(permiso, p -> siguienteIndice.getAndIncrement());
+        // Un nombre nuevo (primer request a ese handler): los bitmaps compilados sin él se recompilan
+        porRol.descartarTodo();
+        return id;
+    }
+
+    // ── Invalidación ──
+
+    /** Descarta el bitmap del rol ahora y de nuevo tras el commit. */
+    public void invalidarRol(Long tenantId, Long rolId) {
+        CacheGeneracional.alTerminar(() -> descartar(tenantId, rolId));
+    }
+
+    /**
+     * Descarta los roles modificados en otros nodos: los que tienen {@code updated_at} dentro de la
+     * ventana (última verificación menos el margen) y una versión distinta a la ya vista.
+     */
+    @Scheduled(fixedDelayString = "${app.permisos.verificacion-ms:15000}",
+               initialDelayString = "${app.permisos.verificacion-ms:15000}")
+    public void verificarCambios() {
+        LocalDateTime inicio = LocalDateTime.now();
+        Map<Long, LocalDateTime> recientes = new HashMap<>();
+        for (Rol rol : rolRepository.findByUpdatedAtGreaterThanEqual(verificadoHasta.minusSeconds(margenSegundos))) {
+            recientes.put(rol.getId(), rol.getUpdatedAt());
+            if (!rol.getUpdatedAt().equals(vistos.get(rol.getId()))) {
+                descartar(rol.getTenantId(), rol.getId());
+            }
+        }
+        vistos = recientes;
+        verificadoHasta = inicio;
+    }
+
+    private void descartar(Long tenantId, Long rolId) {
+        porRol.descartar(new Clave(tenantId, rolId));
+        rolPorNombre.values().removeIf(rolId::equals);
+    }
+}
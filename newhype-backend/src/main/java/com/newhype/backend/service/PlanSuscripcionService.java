@@ -17,15 +17,21 @@ public class PlanSuscripcionService {
     private final ModuloPlanRepository moduloPlanRepository;
     private final ModuloSistemaRepository moduloSistemaRepository;
     private final SuscripcionRepository suscripcionRepository;
+    private final CuotaService cuotaService;
+    private final HabilitacionModulos habilitacionModulos;
 
     public PlanSuscripcionService(PlanSuscripcionRepository planRepository,
                                    ModuloPlanRepository moduloPlanRepository,
                                    ModuloSistemaRepository moduloSistemaRepository,
-                                   SuscripcionRepository suscripcionRepository) {
+                                   SuscripcionRepository suscripcionRepository,
+                                   CuotaService cuotaService,
+                                   HabilitacionModulos habilitacionModulos) {
         this.planRepository = planRepository;
         this.moduloPlanRepository = moduloPlanRepository;
         this.moduloSistemaRepository = moduloSistemaRepository;
         this.suscripcionRepository = suscripcionRepository;
+        this.cuotaService = cuotaService;
+        this.habilitacionModulos = habilitacionModulos;
     }
 
     // ── POST /platform/planes ──
@@ -45,6 +51,7 @@ public class PlanSuscripcionService {
                 .maxAlmacenes(request.getMaxAlmacenes())
                 .maxVentasMes(request.getMaxVentasMes())
                 .periodoPruebaDias(request.getPeriodoPruebaDias())
+                .retencionMeses(request.getRetencionMeses())
                 .build();
         plan = planRepository.save(plan);
 
@@ -88,8 +95,10 @@ public class PlanSuscripcionService {
         if (request.getMaxAlmacenes() != null) plan.setMaxAlmacenes(request.getMaxAlmacenes());
         if (request.getMaxVentasMes() != null) plan.setMaxVentasMes(request.getMaxVentasMes());
         if (request.getPeriodoPruebaDias() != null) plan.setPeriodoPruebaDias(request.getPeriodoPruebaDias());
+        if (request.getRetencionMeses() != null) plan.setRetencionMeses(request.getRetencionMeses());
 
         plan = planRepository.save(plan);
+        cuotaService.invalidarLimitesTodos();
 
         // Update modules if provided
         if (request.getModuloIds() != null) {
@@ -101,6 +110,7 @@ public class PlanSuscripcionService {
                         .build();
                 moduloPlanRepository.save(mp);
             }
+            habilitacionModulos.invalidarTodos();
         }
 
         return toResponse(plan);
@@ -145,6 +155,7 @@ public class PlanSuscripcionService {
                 .maxAlmacenes(plan.getMaxAlmacenes())
                 .maxVentasMes(plan.getMaxVentasMes())
                 .periodoPruebaDias(plan.getPeriodoPruebaDias())
+                .retencionMeses(plan.getRetencionMeses())
                 .estado(plan.getEstado())
                 .cantidadTenants(cantidadTenants)
                 .modulos(modulosResponse)
@@ -5,11 +5,11 @@ import com.newhype.backend.dto.platform.*;
 import com.newhype.backend.entity.*;
 import com.newhype.backend.exception.ResourceNotFoundException;
 import com.newhype.backend.repository.*;
+import com.newhype.backend.security.PasswordHashExecutor;
 import com.newhype.backend.security.TenantContext;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -26,32 +26,38 @@ public class PlatformTenantService {
     private final RolRepository rolRepository;
     private final SuscripcionRepository suscripcionRepository;
     private final PlanSuscripcionRepository planRepository;
-    private final ModuloPlanRepository moduloPlanRepository;
     private final ModuloTenantRepository moduloTenantRepository;
     private final ModuloSistemaRepository moduloSistemaRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashExecutor passwordHasher;
     private final AuditoriaPlataformaService auditoriaService;
+    private final DirectorioPlataforma directorio;
+    private final CuotaService cuotaService;
+    private final HabilitacionModulos habilitacionModulos;
 
     public PlatformTenantService(TenantRepository tenantRepository,
                                   UsuarioRepository usuarioRepository,
                                   RolRepository rolRepository,
                                   SuscripcionRepository suscripcionRepository,
                                   PlanSuscripcionRepository planRepository,
-                                  ModuloPlanRepository moduloPlanRepository,
                                   ModuloTenantRepository moduloTenantRepository,
                                   ModuloSistemaRepository moduloSistemaRepository,
-                                  PasswordEncoder passwordEncoder,
-                                  AuditoriaPlataformaService auditoriaService) {
+                                  PasswordHashExecutor passwordHasher,
+                                  AuditoriaPlataformaService auditoriaService,
+                                  DirectorioPlataforma directorio,
+                                  CuotaService cuotaService,
+                                  HabilitacionModulos habilitacionModulos) {
         this.tenantRepository = tenantRepository;
         this.usuarioRepository = usuarioRepository;
         this.rolRepository = rolRepository;
         this.suscripcionRepository = suscripcionRepository;
         this.planRepository = planRepository;
-        this.moduloPlanRepository = moduloPlanRepository;
         this.moduloTenantRepository = moduloTenantRepository;
         this.moduloSistemaRepository = moduloSistemaRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHasher = passwordHasher;
         this.auditoriaService = auditoriaService;
+        this.directorio = directorio;
+        this.cuotaService = cuotaService;
+        this.habilitacionModulos = habilitacionModulos;
     }
 
     // ── POST /platform/tenants ──
@@ -94,7 +100,7 @@ public class PlatformTenantService {
                 .rolId(rol.getId())
                 .email(request.getEmail())
                 .username(username)
-                .passwordHash(passwordEncoder.encode(request.getAdminPassword()))
+                .passwordHash(passwordHasher.encode(request.getAdminPassword()))
                 .nombre(request.getPropietarioNombre().split(" ")[0])
                 .apellido(request.getPropietarioNombre().contains(" ")
                         ? request.getPropietarioNombre().substring(request.getPropietarioNombre().indexOf(" ") + 1)
@@ -164,6 +170,7 @@ public class PlatformTenantService {
         if (request.getDireccion() != null) tenant.setDireccion(request.getDireccion());
 
         tenant = tenantRepository.save(tenant);
+        directorio.invalidarTenant(tenant.getId());
 
         // Update subscription overrides if present
         suscripcionRepository.findFirstByTenantIdOrderByCreatedAtDesc(id).ifPresent(sub -> {
@@ -184,7 +191,10 @@ public class PlatformTenantService {
                 sub.setOverrideMaxVentasMes(request.getOverrideMaxVentasMes());
                 changed = true;
             }
-            if (changed) suscripcionRepository.save(sub);
+            if (changed) {
+                suscripcionRepository.save(sub);
+                cuotaService.invalidarLimites(id);
+            }
         });
 
         auditoriaService.registrar("ACTUALIZAR_TENANT",
@@ -213,6 +223,7 @@ public class PlatformTenantService {
         }
 
         tenant = tenantRepository.save(tenant);
+        directorio.invalidarTenant(tenant.getId());
 
         auditoriaService.registrar("CAMBIAR_ESTADO_TENANT",
                 "Tenant " + tenant.getNombre() + " → " + nuevoEstado, tenant.getId(), httpRequest);
@@ -229,6 +240,7 @@ public class PlatformTenantService {
         tenant.setEstado(Tenant.EstadoTenant.ELIMINADA);
         tenant.setDeletedAt(LocalDateTime.now());
         tenantRepository.save(tenant);
+        directorio.invalidarTenant(tenant.getId());
 
         auditoriaService.registrar("ELIMINAR_TENANT",
                 "Tenant eliminado (soft): " + tenant.getNombre(), tenant.getId(), httpRequest);
@@ -240,38 +252,16 @@ public class PlatformTenantService {
         tenantRepository.findById(tenantId)
                 .orElseThrow(() -> new ResourceNotFoundException("Tenant", tenantId));
 
-        // Get all system modules
-        List<ModuloSistema> todosModulos = moduloSistemaRepository.findByEstadoTrueOrderByCodigoAsc();
-
-        // Get plan modules (from tenant's subscription)
-        Suscripcion suscripcion = suscripcionRepository.findFirstByTenantIdOrderByCreatedAtDesc(tenantId).orElse(null);
-
-        List<Long> modulosPlanIds = List.of();
-        if (suscripcion != null) {
-            modulosPlanIds = moduloPlanRepository.findByPlanId(suscripcion.getPlanId())
-                    .stream().map(ModuloPlan::getModuloId).collect(Collectors.toList());
-        }
-
-        // Get tenant overrides
-        List<ModuloTenant> overrides = moduloTenantRepository.findByTenantId(tenantId);
-        var overrideMap = overrides.stream()
-                .collect(Collectors.toMap(ModuloTenant::getModuloId, ModuloTenant::getActivo));
-
-        // Merge: plan modules + overrides
-        List<Long> finalPlanIds = modulosPlanIds;
-        return todosModulos.stream().map(modulo -> {
-            boolean activoPorPlan = finalPlanIds.contains(modulo.getId());
-            Boolean override = overrideMap.get(modulo.getId());
-            boolean activo = override != null ? override : activoPorPlan;
-
-            return ModuloResponse.builder()
-                    .id(modulo.getId())
-                    .codigo(modulo.getCodigo())
-                    .nombre(modulo.getNombre())
-                    .descripcion(modulo.getDescripcion())
-                    .activo(activo)
-                    .build();
-        }).collect(Collectors.toList());
+        // Plan + overrides, compilados en el bitset cacheado del tenant
+        return moduloSistemaRepository.findByEstadoTrueOrderByCodigoAsc().stream()
+                .map(modulo -> ModuloResponse.builder()
+                        .id(modulo.getId())
+                        .codigo(modulo.getCodigo())
+                        .nombre(modulo.getNombre())
+                        .descripcion(modulo.getDescripcion())
+                        .activo(habilitacionModulos.activo(tenantId, modulo.getId()))
+                        .build())
+                .collect(Collectors.toList());
     }
 
     // ── PUT /platform/tenants/{id}/modulos ──
@@ -293,6 +283,7 @@ public class PlatformTenantService {
                     .build();
             moduloTenantRepository.save(mt);
         }
+        habilitacionModulos.invalidarTenant(tenantId);
 
         auditoriaService.registrar("ACTUALIZAR_MODULOS_TENANT",
                 "Módulos actualizados para tenant id=" + tenantId, tenantId, httpRequest);
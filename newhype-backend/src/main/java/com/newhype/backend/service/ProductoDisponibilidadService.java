@@ -0,0 +1,102 @@
+package com.newhype.backend.service;
+
+import com.newhype.backend.repository.ProductoDisponibilidadRepository;
+import com.newhype.backend.repository.StockAlmacenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Mantiene {@code producto_disponibilidad} (unidades totales y flag en stock por producto), que es
+ * lo único que lee el storefront para decidir si un producto está disponible.
+ * Los deltas se aplican dentro de la transacción del movimiento de stock ({@link StockMovimientoService}).
+ * La reconstrucción recorre cada tenant en lotes de productos, una transacción corta por lote.
+ */
+@Service
+public class ProductoDisponibilidadService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductoDisponibilidadService.class);
+    private static final int LOTE_PRODUCTOS = 500;
+
+    private final ProductoDisponibilidadRepository productoDisponibilidadRepository;
+    private final StockAlmacenRepository stockAlmacenRepository;
+    private final TransactionTemplate transaccion;
+
+    public ProductoDisponibilidadService(ProductoDisponibilidadRepository productoDisponibilidadRepository,
+                                         StockAlmacenRepository stockAlmacenRepository,
+                                         PlatformTransactionManager transactionManager) {
+        this.productoDisponibilidadRepository = productoDisponibilidadRepository;
+        this.stockAlmacenRepository = stockAlmacenRepository;
+        this.transaccion = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Suma los deltas de unidades por producto. Se aplican en orden de productoId para que dos
+     * documentos concurrentes con los mismos productos tomen los bloqueos en el mismo orden.
+     */
+    @Transactional
+    public void aplicar(Long tenantId, Map<Long, Integer> deltasPorProducto) {
+        new TreeMap<>(deltasPorProducto).forEach((productoId, delta) -> {
+            if (delta != 0) {
+                productoDisponibilidadRepository.aplicarDelta(tenantId, productoId, delta);
+            }
+        });
+    }
+
+    @Transactional
+    public void aplicar(Long tenantId, Long productoId, int delta) {
+        if (delta != 0) {
+            productoDisponibilidadRepository.aplicarDelta(tenantId, productoId, delta);
+        }
+    }
+
+    /**
+     * Re-deriva la proyección desde {@code stock_almacen} y deja en cero los productos sin filas de
+     * stock. {@code tenantId} null = todos los tenants, uno tras otro.
+     */
+    public int reconstruir(Long tenantId) {
+        List<Long> tenants = tenantId != null ? List.of(tenantId) : productoDisponibilidadRepository.findTenantIds();
+        int filas = 0;
+        for (Long t : tenants) {
+            long desde = 0;
+            Long hasta;
+            while ((hasta = productoDisponibilidadRepository.findFinLote(t, desde, LOTE_PRODUCTOS)) != null) {
+                filas += reconstruirLote(t, desde, hasta);
+                desde = hasta;
+            }
+        }
+        return filas;
+    }
+
+    private int reconstruirLote(Long tenantId, long desde, long hasta) {
+        Integer filas = transaccion.execute(status ->
+                productoDisponibilidadRepository.reconstruir(tenantId, desde, hasta)
+                        + productoDisponibilidadRepository.vaciarHuerfanos(tenantId, desde, hasta));
+        return filas != null ? filas : 0;
+    }
+
+    // Backfill inicial: si la proyección está vacía pero ya hay stock, se deriva completa
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillInicial() {
+        if (productoDisponibilidadRepository.count() == 0 && stockAlmacenRepository.count() > 0) {
+            int filas = reconstruir(null);
+            log.info("producto_disponibilidad reconstruida desde stock_almacen: {} filas", filas);
+        }
+    }
+
+    // Reconciliación nocturna (corrige cambios de stock hechos fuera de la aplicación)
+    @Scheduled(cron = "${app.storefront.disponibilidad.cron:0 45 3 * * *}")
+    public void reconciliar() {
+        reconstruir(null);
+    }
+}
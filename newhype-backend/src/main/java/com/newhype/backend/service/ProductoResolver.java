@@ -0,0 +1,39 @@
+package com.newhype.backend.service;
+
+import com.newhype.backend.repository.ProductoRepository;
+import com.newhype.backend.repository.projection.ProductoResumenProjection;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Resuelve id → (sku, nombre) de productos para los mappers de detalle de documentos.
+ * Una consulta por cada bloque de {@value #BLOQUE} ids en lugar de un findById por línea.
+ */
+@Component
+public class ProductoResolver {
+
+    private static final int BLOQUE = 500;
+
+    private final ProductoRepository productoRepository;
+
+    public ProductoResolver(ProductoRepository productoRepository) {
+        this.productoRepository = productoRepository;
+    }
+
+    public Map<Long, ProductoResumenProjection> resumen(Collection<Long> productoIds) {
+        List<Long> ids = productoIds.stream().filter(Objects::nonNull).distinct().toList();
+        Map<Long, ProductoResumenProjection> resultado = new HashMap<>(ids.size() * 2);
+        for (int i = 0; i < ids.size(); i += BLOQUE) {
+            productoRepository.findResumenByIdIn(ids.subList(i, Math.min(i + BLOQUE, ids.size())))
+                    .forEach(p -> resultado.put(p.getId(), p));
+        }
+        return resultado;
+    }
+
+    public Map<Long, String> nombres(Collection<Long> productoIds) {
+        Map<Long, String> nombres = new HashMap<>();
+        resumen(productoIds).forEach((id, p) -> nombres.put(id, p.getNombre()));
+        return nombres;
+    }
+}
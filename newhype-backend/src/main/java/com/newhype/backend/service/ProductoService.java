@@ -3,19 +3,27 @@ package com.newhype.backend.service;
 import com.newhype.backend.dto.producto.*;
 import com.newhype.backend.entity.ImagenProducto;
 import com.newhype.backend.entity.Producto;
+import com.newhype.backend.exception.ConflictoException;
 import com.newhype.backend.exception.ResourceNotFoundException;
 import com.newhype.backend.repository.ImagenProductoRepository;
 import com.newhype.backend.repository.ProductoRepository;
 import com.newhype.backend.security.TenantContext;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.text.Normalizer;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,11 +31,17 @@ public class ProductoService {
 
     private final ProductoRepository productoRepository;
     private final ImagenProductoRepository imagenProductoRepository;
+    private final CuotaService cuotaService;
+    private final IndiceProductos indiceProductos;
 
     public ProductoService(ProductoRepository productoRepository,
-                           ImagenProductoRepository imagenProductoRepository) {
+                           ImagenProductoRepository imagenProductoRepository,
+                           CuotaService cuotaService,
+                           IndiceProductos indiceProductos) {
         this.productoRepository = productoRepository;
         this.imagenProductoRepository = imagenProductoRepository;
+        this.cuotaService = cuotaService;
+        this.indiceProductos = indiceProductos;
     }
 
     @Transactional
@@ -37,11 +51,9 @@ public class ProductoService {
         if (productoRepository.existsByTenantIdAndSku(tenantId, request.getSku())) {
             throw new IllegalArgumentException("Ya existe un producto con SKU: " + request.getSku());
         }
+        cuotaService.reservar(tenantId, CuotaService.Recurso.PRODUCTOS);
 
-        String slug = request.getNombre().toLowerCase()
-                .replaceAll("[^a-z0-9]", "-")
-                .replaceAll("-+", "-")
-                .replaceAll("^-|-$", "");
+        String slug = slugUnico(tenantId, request.getNombre(), null);
 
         Producto producto = Producto.builder()
                 .tenantId(tenantId)
@@ -64,7 +76,8 @@ public class ProductoService {
                 .controlaInventario(request.getControlaInventario())
                 .build();
 
-        producto = productoRepository.save(producto);
+        producto = guardarConSlug(producto);
+        indiceProductos.reindexar(tenantId, producto.getId());
         return toResponse(producto);
     }
 
@@ -99,12 +112,11 @@ public class ProductoService {
         Producto producto = productoRepository.findByIdAndTenantId(id, tenantId)
                 .orElseThrow(() -> new ResourceNotFoundException("Producto", id));
 
+        if (!request.getNombre().equals(producto.getNombre()) || producto.getSlug() == null) {
+            producto.setSlug(slugUnico(tenantId, request.getNombre(), producto.getId()));
+        }
         producto.setSku(request.getSku());
         producto.setNombre(request.getNombre());
-        producto.setSlug(request.getNombre().toLowerCase()
-                .replaceAll("[^a-z0-9]", "-")
-                .replaceAll("-+", "-")
-                .replaceAll("^-|-$", ""));
         producto.setDescripcion(request.getDescripcion());
         producto.setCategoriaId(request.getCategoriaId());
         producto.setTallaId(request.getTallaId());
@@ -120,7 +132,8 @@ public class ProductoService {
         producto.setStockMinimo(request.getStockMinimo());
         producto.setControlaInventario(request.getControlaInventario());
 
-        producto = productoRepository.save(producto);
+        producto = guardarConSlug(producto);
+        indiceProductos.reindexar(tenantId, producto.getId());
         return toResponse(producto);
     }
 
@@ -129,8 +142,10 @@ public class ProductoService {
         Long tenantId = TenantContext.getCurrentTenantId();
         Producto producto = productoRepository.findByIdAndTenantId(id, tenantId)
                 .orElseThrow(() -> new ResourceNotFoundException("Producto", id));
+        cuotaService.cambiarEstado(tenantId, CuotaService.Recurso.PRODUCTOS, producto.getEstado(), false);
         producto.setEstado(false);
         productoRepository.save(producto);
+        indiceProductos.reindexar(tenantId, id);
     }
 
     // ── New endpoints ──
@@ -140,16 +155,31 @@ public class ProductoService {
         Long tenantId = TenantContext.getCurrentTenantId();
         Producto producto = productoRepository.findByIdAndTenantId(id, tenantId)
                 .orElseThrow(() -> new ResourceNotFoundException("Producto", id));
+        cuotaService.cambiarEstado(tenantId, CuotaService.Recurso.PRODUCTOS, producto.getEstado(), request.getEstado());
         producto.setEstado(request.getEstado());
         producto = productoRepository.save(producto);
+        indiceProductos.reindexar(tenantId, id);
         return toResponse(producto);
     }
 
+    /** Búsqueda del POS: página por relevancia desde {@link IndiceProductos}, luego un SELECT por ids. */
     @Transactional(readOnly = true)
     public Page<ProductoResponse> buscar(String q, int page, int size) {
         Long tenantId = TenantContext.getCurrentTenantId();
-        Pageable pageable = PageRequest.of(page, size, Sort.by("nombre").ascending());
-        return productoRepository.buscar(tenantId, q, pageable).map(this::toResponse);
+        Pageable pageable = PageRequest.of(page, size);
+        IndiceProductos.Resultado resultado = indiceProductos.buscar(tenantId, q, null, page * size, size);
+        if (resultado.ids().isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, resultado.total());
+        }
+        Map<Long, Producto> porId = productoRepository.findConCategoriaByTenantIdAndIdIn(tenantId, resultado.ids())
+                .stream()
+                .collect(Collectors.toMap(Producto::getId, Function.identity()));
+        List<ProductoResponse> contenido = resultado.ids().stream()
+                .map(porId::get)
+                .filter(Objects::nonNull)
+                .map(this::toResponse)
+                .toList();
+        return new PageImpl<>(contenido, pageable, resultado.total());
     }
 
     @Transactional
@@ -206,6 +236,51 @@ public class ProductoService {
         imagenProductoRepository.delete(imagen);
     }
 
+    // ── Slug ──
+
+    /**
+     * Slug del nombre (sin tildes) único dentro del tenant: si ya existe se agrega el
+     * primer sufijo libre ({@code -2}, {@code -3}...). {@code excluirId} es el propio producto al actualizar.
+     */
+    private String slugUnico(Long tenantId, String nombre, Long excluirId) {
+        String base = Normalizer.normalize(nombre, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase()
+                .replaceAll("[^a-z0-9]", "-")
+                .replaceAll("-+", "-")
+                .replaceAll("^-|-$", "");
+        if (base.isEmpty()) {
+            base = "producto";
+        }
+
+        Set<String> usados = new HashSet<>(productoRepository.findSlugsConBase(tenantId, base, excluirId));
+        if (!usados.contains(base)) {
+            return base;
+        }
+        int sufijo = 2;
+        while (usados.contains(base + "-" + sufijo)) {
+            sufijo++;
+        }
+        return base + "-" + sufijo;
+    }
+
+    /**
+     * Guarda forzando el flush: si otro request tomó el mismo slug entre {@link #slugUnico} y el
+     * INSERT/UPDATE, uk_prod_tenant_slug lo rechaza aquí y se responde 409 en lugar de un 500 al commit.
+     * No se reintenta en la misma transacción: la sesión queda inservible tras el error.
+     */
+    private Producto guardarConSlug(Producto producto) {
+        try {
+            return productoRepository.saveAndFlush(producto);
+        } catch (DataIntegrityViolationException e) {
+            if (e.getMessage() != null && e.getMessage().contains("uk_prod_tenant_slug")) {
+                throw new ConflictoException("Otro producto acaba de registrarse con el slug '"
+                        + producto.getSlug() + "'; vuelva a intentar");
+            }
+            throw e;
+        }
+    }
+
     // ── Specifications ──
 
     private Specification<Producto> tenantIdEquals(Long tenantId) {
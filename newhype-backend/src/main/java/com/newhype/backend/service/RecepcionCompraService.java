@@ -16,7 +16,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,24 +29,27 @@ public class RecepcionCompraService {
     private final DetalleRecepcionCompraRepository detalleRecepcionCompraRepository;
     private final OrdenCompraRepository ordenCompraRepository;
     private final DetalleOrdenCompraRepository detalleOrdenCompraRepository;
-    private final StockAlmacenRepository stockAlmacenRepository;
+    private final StockMovimientoService stockMovimientoService;
     private final MovimientoInventarioRepository movimientoInventarioRepository;
-    private final ProductoRepository productoRepository;
+    private final NumeracionService numeracionService;
+    private final ProductoResolver productoResolver;
 
     public RecepcionCompraService(RecepcionCompraRepository recepcionCompraRepository,
                                   DetalleRecepcionCompraRepository detalleRecepcionCompraRepository,
                                   OrdenCompraRepository ordenCompraRepository,
                                   DetalleOrdenCompraRepository detalleOrdenCompraRepository,
-                                  StockAlmacenRepository stockAlmacenRepository,
+                                  StockMovimientoService stockMovimientoService,
                                   MovimientoInventarioRepository movimientoInventarioRepository,
-                                  ProductoRepository productoRepository) {
+                                  NumeracionService numeracionService,
+                                  ProductoResolver productoResolver) {
         this.recepcionCompraRepository = recepcionCompraRepository;
         this.detalleRecepcionCompraRepository = detalleRecepcionCompraRepository;
         this.ordenCompraRepository = ordenCompraRepository;
         this.detalleOrdenCompraRepository = detalleOrdenCompraRepository;
-        this.stockAlmacenRepository = stockAlmacenRepository;
+        this.stockMovimientoService = stockMovimientoService;
         this.movimientoInventarioRepository = movimientoInventarioRepository;
-        this.productoRepository = productoRepository;
+        this.numeracionService = numeracionService;
+        this.productoResolver = productoResolver;
     }
 
     @Transactional
@@ -61,8 +67,7 @@ public class RecepcionCompraService {
                     "Solo se pueden recibir OC en estado CONFIRMADA, EN_RECEPCION o PARCIAL. Estado actual: " + oc.getEstado());
         }
 
-        long countRec = recepcionCompraRepository.countByTenantIdAndOrdenCompraId(tenantId, oc.getId());
-        String codigo = String.format("REC-%05d", countRec + 1);
+        String codigo = numeracionService.siguienteCodigo(tenantId, CorrelativoDocumento.Documento.RECEPCION);
 
         RecepcionCompra rec = RecepcionCompra.builder()
                 .tenantId(tenantId)
@@ -76,11 +81,20 @@ public class RecepcionCompraService {
                 .build();
         rec = recepcionCompraRepository.save(rec);
 
+        // Una sola lectura de los detalles de OC referenciados
+        Map<Long, DetalleOrdenCompra> detallesOc = detalleOrdenCompraRepository.findAllById(
+                        request.getItems().stream().map(CrearRecepcionRequest.ItemRecepcion::getDetalleOrdenCompraId).toList())
+                .stream()
+                .collect(Collectors.toMap(DetalleOrdenCompra::getId, Function.identity()));
+
+        List<DetalleRecepcionCompra> detallesRecepcion = new ArrayList<>(request.getItems().size());
         for (CrearRecepcionRequest.ItemRecepcion item : request.getItems()) {
             // Validate detail belongs to this OC
-            DetalleOrdenCompra doc = detalleOrdenCompraRepository.findById(item.getDetalleOrdenCompraId())
-                    .orElseThrow(() -> new IllegalArgumentException(
-                            "DetalleOrdenCompra no encontrado: " + item.getDetalleOrdenCompraId()));
+            DetalleOrdenCompra doc = detallesOc.get(item.getDetalleOrdenCompraId());
+            if (doc == null) {
+                throw new IllegalArgumentException(
+                        "DetalleOrdenCompra no encontrado: " + item.getDetalleOrdenCompraId());
+            }
 
             if (!doc.getOrdenCompraId().equals(oc.getId())) {
                 throw new IllegalArgumentException(
@@ -97,7 +111,7 @@ public class RecepcionCompraService {
 
             int rechazada = item.getCantidadRechazada() != null ? item.getCantidadRechazada() : 0;
 
-            DetalleRecepcionCompra drc = DetalleRecepcionCompra.builder()
+            detallesRecepcion.add(DetalleRecepcionCompra.builder()
                     .recepcionId(rec.getId())
                     .detalleOrdenCompraId(item.getDetalleOrdenCompraId())
                     .productoId(item.getProductoId())
@@ -106,13 +120,13 @@ public class RecepcionCompraService {
                     .cantidadRechazada(rechazada)
                     .motivoRechazo(item.getMotivoRechazo())
                     .observaciones(item.getObservaciones())
-                    .build();
-            detalleRecepcionCompraRepository.save(drc);
+                    .build());
 
             // Update cantidadRecibida on OC detail
             doc.setCantidadRecibida(yaRecibido + item.getCantidadRecibida());
-            detalleOrdenCompraRepository.save(doc);
         }
+        detalleRecepcionCompraRepository.saveAll(detallesRecepcion);
+        detalleOrdenCompraRepository.saveAll(detallesOc.values());
 
         // Update OC estado to EN_RECEPCION if it was CONFIRMADA
         if (oc.getEstado() == EstadoOrdenCompra.CONFIRMADA) {
@@ -130,8 +144,16 @@ public class RecepcionCompraService {
         if (estado != null && !estado.isEmpty()) {
             estadoEnum = EstadoRecepcion.valueOf(estado);
         }
-        return recepcionCompraRepository.buscar(tenantId, ordenCompraId, estadoEnum, pageable)
-                .map(this::toResponseBasico);
+        Page<RecepcionCompra> page = recepcionCompraRepository.buscar(tenantId, ordenCompraId, estadoEnum, pageable);
+
+        // Códigos de OC de toda la página en una sola consulta
+        Map<Long, String> codigosOc = ordenCompraRepository.findAllById(page.getContent().stream()
+                        .map(RecepcionCompra::getOrdenCompraId)
+                        .distinct()
+                        .toList())
+                .stream()
+                .collect(Collectors.toMap(OrdenCompra::getId, OrdenCompra::getCodigo));
+        return page.map(rec -> toResponseBasico(rec, codigosOc.get(rec.getOrdenCompraId())));
     }
 
     @Transactional(readOnly = true)
@@ -157,41 +179,33 @@ public class RecepcionCompraService {
         List<DetalleRecepcionCompra> detalles = detalleRecepcionCompraRepository.findByRecepcionId(rec.getId());
 
         // Increment stock for each accepted item
-        for (DetalleRecepcionCompra drc : detalles) {
-            if (drc.getCantidadAceptada() > 0) {
-                StockAlmacen sa = stockAlmacenRepository
-                        .findByTenantIdAndProductoIdAndAlmacenId(tenantId, drc.getProductoId(), rec.getAlmacenId())
-                        .orElse(null);
-
-                if (sa == null) {
-                    sa = StockAlmacen.builder()
-                            .tenantId(tenantId)
-                            .productoId(drc.getProductoId())
-                            .almacenId(rec.getAlmacenId())
-                            .cantidad(0)
-                            .stockMinimo(0)
-                            .build();
-                    sa = stockAlmacenRepository.save(sa);
-                }
-
-                int stockAntes = sa.getCantidad();
-                sa.setCantidad(sa.getCantidad() + drc.getCantidadAceptada());
-                stockAlmacenRepository.save(sa);
-
-                // Kardex ENTRADA
-                movimientoInventarioRepository.save(MovimientoInventario.builder()
-                        .tenantId(tenantId)
-                        .productoId(drc.getProductoId())
-                        .almacenId(rec.getAlmacenId())
-                        .tipo(TipoMovimiento.ENTRADA)
-                        .cantidad(drc.getCantidadAceptada())
-                        .stockAntes(stockAntes)
-                        .stockDespues(sa.getCantidad())
-                        .documentoReferencia(rec.getCodigo())
-                        .usuarioId(usuarioId)
-                        .build());
-            }
+        List<DetalleRecepcionCompra> aceptados = detalles.stream()
+                .filter(drc -> drc.getCantidadAceptada() > 0)
+                .toList();
+        List<StockMovimientoService.CambioStock> cambios = stockMovimientoService.incrementarLote(
+                tenantId, rec.getAlmacenId(),
+                aceptados.stream()
+                        .map(drc -> new StockMovimientoService.LineaStock(drc.getProductoId(), drc.getCantidadAceptada()))
+                        .toList());
+
+        List<MovimientoInventario> movimientos = new ArrayList<>(aceptados.size());
+        for (int i = 0; i < aceptados.size(); i++) {
+            DetalleRecepcionCompra drc = aceptados.get(i);
+
+            // Kardex ENTRADA
+            movimientos.add(MovimientoInventario.builder()
+                    .tenantId(tenantId)
+                    .productoId(drc.getProductoId())
+                    .almacenId(rec.getAlmacenId())
+                    .tipo(TipoMovimiento.ENTRADA)
+                    .cantidad(drc.getCantidadAceptada())
+                    .stockAntes(cambios.get(i).antes())
+                    .stockDespues(cambios.get(i).despues())
+                    .documentoReferencia(rec.getCodigo())
+                    .usuarioId(usuarioId)
+                    .build());
         }
+        movimientoInventarioRepository.saveAll(movimientos);
 
         rec.setEstado(EstadoRecepcion.CONFIRMADA);
         rec = recepcionCompraRepository.save(rec);
@@ -224,13 +238,12 @@ public class RecepcionCompraService {
         return toResponseCompleto(rec);
     }
 
-    private RecepcionCompraResponse toResponseBasico(RecepcionCompra rec) {
-        OrdenCompra oc = ordenCompraRepository.findById(rec.getOrdenCompraId()).orElse(null);
+    private RecepcionCompraResponse toResponseBasico(RecepcionCompra rec, String ordenCompraCodigo) {
         return RecepcionCompraResponse.builder()
                 .id(rec.getId())
                 .codigo(rec.getCodigo())
                 .ordenCompraId(rec.getOrdenCompraId())
-                .ordenCompraCodigo(oc != null ? oc.getCodigo() : null)
+                .ordenCompraCodigo(ordenCompraCodigo)
                 .almacenId(rec.getAlmacenId())
                 .recibidoPorId(rec.getRecibidoPorId())
                 .fechaRecepcion(rec.getFechaRecepcion())
@@ -243,22 +256,24 @@ public class RecepcionCompraService {
     }
 
     private RecepcionCompraResponse toResponseCompleto(RecepcionCompra rec) {
-        RecepcionCompraResponse response = toResponseBasico(rec);
+        String ordenCompraCodigo = ordenCompraRepository.findById(rec.getOrdenCompraId())
+                .map(OrdenCompra::getCodigo)
+                .orElse(null);
+        RecepcionCompraResponse response = toResponseBasico(rec, ordenCompraCodigo);
         List<DetalleRecepcionCompra> detalles = detalleRecepcionCompraRepository.findByRecepcionId(rec.getId());
-        response.setDetalles(detalles.stream().map(d -> {
-            Producto prod = productoRepository.findById(d.getProductoId()).orElse(null);
-            return DetalleRecepcionResponse.builder()
-                    .id(d.getId())
-                    .detalleOrdenCompraId(d.getDetalleOrdenCompraId())
-                    .productoId(d.getProductoId())
-                    .productoNombre(prod != null ? prod.getNombre() : null)
-                    .cantidadRecibida(d.getCantidadRecibida())
-                    .cantidadAceptada(d.getCantidadAceptada())
-                    .cantidadRechazada(d.getCantidadRechazada())
-                    .motivoRechazo(d.getMotivoRechazo())
-                    .observaciones(d.getObservaciones())
-                    .build();
-        }).collect(Collectors.toList()));
+        Map<Long, String> nombres = productoResolver.nombres(
+                detalles.stream().map(DetalleRecepcionCompra::getProductoId).toList());
+        response.setDetalles(detalles.stream().map(d -> DetalleRecepcionResponse.builder()
+                .id(d.getId())
+                .detalleOrdenCompraId(d.getDetalleOrdenCompraId())
+                .productoId(d.getProductoId())
+                .productoNombre(nombres.get(d.getProductoId()))
+                .cantidadRecibida(d.getCantidadRecibida())
+                .cantidadAceptada(d.getCantidadAceptada())
+                .cantidadRechazada(d.getCantidadRechazada())
+                .motivoRechazo(d.getMotivoRechazo())
+                .observaciones(d.getObservaciones())
+                .build()).collect(Collectors.toList()));
         return response;
     }
 }
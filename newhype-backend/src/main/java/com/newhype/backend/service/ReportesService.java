@@ -3,7 +3,13 @@ package com.newhype.backend.service;
 import com.newhype.backend.dto.reporte.*;
 import com.newhype.backend.entity.*;
 import com.newhype.backend.repository.*;
+import com.newhype.backend.repository.projection.CompraPorProveedorProjection;
+import com.newhype.backend.repository.projection.InventarioPorAlmacenProjection;
+import com.newhype.backend.repository.projection.TotalesProjection;
+import com.newhype.backend.repository.projection.VentaPorDiaProjection;
+import com.newhype.backend.repository.projection.VentaPorTipoProjection;
 import com.newhype.backend.security.TenantContext;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,39 +26,36 @@ import java.util.stream.Collectors;
 public class ReportesService {
 
     private final VentaRepository ventaRepository;
-    private final DetalleVentaRepository detalleVentaRepository;
     private final OrdenCompraRepository ordenCompraRepository;
     private final SesionCajaRepository sesionCajaRepository;
     private final StockAlmacenRepository stockAlmacenRepository;
     private final ProductoRepository productoRepository;
-    private final NotaCreditoRepository notaCreditoRepository;
     private final EntidadComercialRepository entidadComercialRepository;
     private final AlmacenRepository almacenRepository;
     private final UsuarioRepository usuarioRepository;
     private final CajaRegistradoraRepository cajaRegistradoraRepository;
+    private final VentaDiariaRepository ventaDiariaRepository;
 
     public ReportesService(VentaRepository ventaRepository,
-                           DetalleVentaRepository detalleVentaRepository,
                            OrdenCompraRepository ordenCompraRepository,
                            SesionCajaRepository sesionCajaRepository,
                            StockAlmacenRepository stockAlmacenRepository,
                            ProductoRepository productoRepository,
-                           NotaCreditoRepository notaCreditoRepository,
                            EntidadComercialRepository entidadComercialRepository,
                            AlmacenRepository almacenRepository,
                            UsuarioRepository usuarioRepository,
-                           CajaRegistradoraRepository cajaRegistradoraRepository) {
+                           CajaRegistradoraRepository cajaRegistradoraRepository,
+                           VentaDiariaRepository ventaDiariaRepository) {
         this.ventaRepository = ventaRepository;
-        this.detalleVentaRepository = detalleVentaRepository;
         this.ordenCompraRepository = ordenCompraRepository;
         this.sesionCajaRepository = sesionCajaRepository;
         this.stockAlmacenRepository = stockAlmacenRepository;
         this.productoRepository = productoRepository;
-        this.notaCreditoRepository = notaCreditoRepository;
         this.entidadComercialRepository = entidadComercialRepository;
         this.almacenRepository = almacenRepository;
         this.usuarioRepository = usuarioRepository;
         this.cajaRegistradoraRepository = cajaRegistradoraRepository;
+        this.ventaDiariaRepository = ventaDiariaRepository;
     }
 
     // ═══════════════════════════════════════════════════════════════
@@ -61,76 +64,34 @@ public class ReportesService {
     @Transactional(readOnly = true)
     public ResumenDashboardResponse resumen() {
         Long tenantId = TenantContext.getCurrentTenantId();
-        LocalDateTime hoyInicio = LocalDate.now().atStartOfDay();
-        LocalDateTime hoyFin = LocalDate.now().atTime(LocalTime.MAX);
-        LocalDateTime mesInicio = LocalDate.now().withDayOfMonth(1).atStartOfDay();
-
-        // Ventas hoy
-        List<Venta> ventasHoy = ventaRepository.findAll().stream()
-                .filter(v -> v.getTenantId().equals(tenantId)
-                        && v.getEstado() == Venta.EstadoVenta.COMPLETADA
-                        && v.getFechaEmision() != null
-                        && !v.getFechaEmision().isBefore(hoyInicio)
-                        && !v.getFechaEmision().isAfter(hoyFin))
-                .collect(Collectors.toList());
-        BigDecimal totalVentasHoy = ventasHoy.stream()
-                .map(Venta::getTotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        LocalDate hoy = LocalDate.now();
+        LocalDate mesInicio = hoy.withDayOfMonth(1);
 
-        // Ventas mes
-        List<Venta> ventasMes = ventaRepository.findAll().stream()
-                .filter(v -> v.getTenantId().equals(tenantId)
-                        && v.getEstado() == Venta.EstadoVenta.COMPLETADA
-                        && v.getFechaEmision() != null
-                        && !v.getFechaEmision().isBefore(mesInicio))
-                .collect(Collectors.toList());
-        BigDecimal totalVentasMes = ventasMes.stream()
-                .map(Venta::getTotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // Ventas hoy / mes (rollup ventas_diarias)
+        TotalesProjection ventasHoy = ventaDiariaRepository.totalizarVentas(tenantId, hoy, hoy, null, null);
+        TotalesProjection ventasMes = ventaDiariaRepository.totalizarVentas(tenantId, mesInicio, hoy, null, null);
 
         // Stock bajo
-        List<StockAlmacen> stocks = stockAlmacenRepository.findByTenantId(tenantId);
-        long stockBajo = stocks.stream()
-                .filter(s -> s.getCantidad() != null && s.getStockMinimo() != null
-                        && s.getCantidad() <= s.getStockMinimo() && s.getStockMinimo() > 0)
-                .count();
+        long stockBajo = stockAlmacenRepository.countStockBajo(tenantId);
 
         // Compras pendientes
         long comprasPendientes = ordenCompraRepository.countByTenantIdAndEstado(
                 tenantId, OrdenCompra.EstadoOrdenCompra.PENDIENTE);
 
         // Notas crédito mes
-        List<NotaCredito> ncMes = notaCreditoRepository.findAll().stream()
-                .filter(nc -> nc.getTenantId().equals(tenantId)
-                        && nc.getEstado() == NotaCredito.EstadoNotaCredito.APLICADA
-                        && nc.getCreatedAt() != null
-                        && !nc.getCreatedAt().isBefore(mesInicio))
-                .collect(Collectors.toList());
-        BigDecimal totalNcMes = ncMes.stream()
-                .map(NotaCredito::getTotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        // Productos activos
-        long productosActivos = productoRepository.findAll().stream()
-                .filter(p -> p.getTenantId().equals(tenantId) && Boolean.TRUE.equals(p.getEstado()))
-                .count();
-
-        // Clientes
-        long clientes = entidadComercialRepository.findAll().stream()
-                .filter(e -> e.getTenantId().equals(tenantId))
-                .count();
+        TotalesProjection ncMes = ventaDiariaRepository.totalizarNotasCredito(tenantId, mesInicio, hoy);
 
         return ResumenDashboardResponse.builder()
-                .ventasHoy(ventasHoy.size())
-                .totalVentasHoy(totalVentasHoy)
-                .ventasMes(ventasMes.size())
-                .totalVentasMes(totalVentasMes)
+                .ventasHoy(ventasHoy.getCantidad())
+                .totalVentasHoy(ventasHoy.getTotal())
+                .ventasMes(ventasMes.getCantidad())
+                .totalVentasMes(ventasMes.getTotal())
                 .productosStockBajo(stockBajo)
                 .comprasPendientes(comprasPendientes)
-                .notasCreditoMes(ncMes.size())
-                .totalNotasCreditoMes(totalNcMes)
-                .productosActivos(productosActivos)
-                .clientesRegistrados(clientes)
+                .notasCreditoMes(ncMes.getCantidad())
+                .totalNotasCreditoMes(ncMes.getTotal())
+                .productosActivos(productoRepository.countByTenantIdAndEstadoTrue(tenantId))
+                .clientesRegistrados(entidadComercialRepository.countByTenantId(tenantId))
                 .build();
     }
 
@@ -147,55 +108,52 @@ public class ReportesService {
                 ? LocalDate.parse(fechaDesde).atStartOfDay() : LocalDate.now().withDayOfMonth(1).atStartOfDay();
         LocalDateTime hasta = fechaHasta != null
                 ? LocalDate.parse(fechaHasta).atTime(LocalTime.MAX) : LocalDateTime.now();
-
-        List<Venta> ventas = ventaRepository.findAll().stream()
-                .filter(v -> v.getTenantId().equals(tenantId)
-                        && v.getEstado() == Venta.EstadoVenta.COMPLETADA
-                        && v.getFechaEmision() != null
-                        && !v.getFechaEmision().isBefore(desde)
-                        && !v.getFechaEmision().isAfter(hasta))
-                .filter(v -> usuarioId == null || usuarioId.equals(v.getUsuarioId()))
-                .filter(v -> clienteId == null || clienteId.equals(v.getClienteId()))
-                .filter(v -> tipoComprobante == null || v.getTipoComprobante().name().equals(tipoComprobante))
-                .collect(Collectors.toList());
-
-        BigDecimal montoTotal = ventas.stream().map(Venta::getTotal).reduce(BigDecimal.ZERO, BigDecimal::add);
-        BigDecimal montoIgv = ventas.stream().map(Venta::getIgv).reduce(BigDecimal.ZERO, BigDecimal::add);
-        BigDecimal montoDesc = ventas.stream().map(Venta::getDescuento).reduce(BigDecimal.ZERO, BigDecimal::add);
-        BigDecimal ticketPromedio = ventas.isEmpty() ? BigDecimal.ZERO
-                : montoTotal.divide(BigDecimal.valueOf(ventas.size()), 2, RoundingMode.HALF_UP);
+        Venta.TipoComprobante tipo = tipoComprobante != null
+                ? Venta.TipoComprobante.valueOf(tipoComprobante) : null;
+        Venta.EstadoVenta completada = Venta.EstadoVenta.COMPLETADA;
+
+        // El rollup no tiene dimensión cliente: ese filtro va contra ventas
+        boolean usarRollup = clienteId == null;
+        LocalDate diaDesde = desde.toLocalDate();
+        LocalDate diaHasta = hasta.toLocalDate();
+
+        TotalesProjection totales = usarRollup
+                ? ventaDiariaRepository.totalizarVentas(tenantId, diaDesde, diaHasta, usuarioId, tipo)
+                : ventaRepository.totalizar(tenantId, completada, desde, hasta, usuarioId, clienteId, tipo);
+        BigDecimal montoTotal = totales.getTotal();
+        BigDecimal ticketPromedio = totales.getCantidad() == 0 ? BigDecimal.ZERO
+                : montoTotal.divide(BigDecimal.valueOf(totales.getCantidad()), 2, RoundingMode.HALF_UP);
 
         // Agrupar por día
         DateTimeFormatter fmt = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-        Map<String, List<Venta>> porDia = ventas.stream()
-                .collect(Collectors.groupingBy(v -> v.getFechaEmision().format(fmt),
-                        TreeMap::new, Collectors.toList()));
-
-        List<ReporteVentasResponse.VentaPorDia> ventasPorDia = porDia.entrySet().stream()
-                .map(e -> ReporteVentasResponse.VentaPorDia.builder()
-                        .fecha(e.getKey())
-                        .cantidad(e.getValue().size())
-                        .total(e.getValue().stream().map(Venta::getTotal).reduce(BigDecimal.ZERO, BigDecimal::add))
+        List<VentaPorDiaProjection> porDia = usarRollup
+                ? ventaDiariaRepository.totalizarPorDia(tenantId, diaDesde, diaHasta, usuarioId, tipo)
+                : ventaRepository.totalizarPorDia(tenantId, completada, desde, hasta, usuarioId, clienteId, tipo);
+        List<ReporteVentasResponse.VentaPorDia> ventasPorDia = porDia.stream()
+                .map(d -> ReporteVentasResponse.VentaPorDia.builder()
+                        .fecha(d.getFecha().format(fmt))
+                        .cantidad(d.getCantidad())
+                        .total(d.getTotal())
                         .build())
                 .collect(Collectors.toList());
 
         // Agrupar por tipo comprobante
-        Map<String, List<Venta>> porTipo = ventas.stream()
-                .collect(Collectors.groupingBy(v -> v.getTipoComprobante().name()));
-
-        List<ReporteVentasResponse.VentaPorTipo> ventasPorTipo = porTipo.entrySet().stream()
-                .map(e -> ReporteVentasResponse.VentaPorTipo.builder()
-                        .tipoComprobante(e.getKey())
-                        .cantidad(e.getValue().size())
-                        .total(e.getValue().stream().map(Venta::getTotal).reduce(BigDecimal.ZERO, BigDecimal::add))
+        List<VentaPorTipoProjection> porTipo = usarRollup
+                ? ventaDiariaRepository.totalizarPorTipo(tenantId, diaDesde, diaHasta, usuarioId, tipo)
+                : ventaRepository.totalizarPorTipo(tenantId, completada, desde, hasta, usuarioId, clienteId, tipo);
+        List<ReporteVentasResponse.VentaPorTipo> ventasPorTipo = porTipo.stream()
+                .map(t -> ReporteVentasResponse.VentaPorTipo.builder()
+                        .tipoComprobante(t.getTipoComprobante().name())
+                        .cantidad(t.getCantidad())
+                        .total(t.getTotal())
                         .build())
                 .collect(Collectors.toList());
 
         return ReporteVentasResponse.builder()
-                .totalVentas(ventas.size())
+                .totalVentas(totales.getCantidad())
                 .montoTotal(montoTotal)
-                .montoIgv(montoIgv)
-                .montoDescuentos(montoDesc)
+                .montoIgv(totales.getIgv())
+                .montoDescuentos(totales.getDescuento())
                 .ticketPromedio(ticketPromedio)
                 .ventasPorDia(ventasPorDia)
                 .ventasPorTipo(ventasPorTipo)
@@ -209,78 +167,38 @@ public class ReportesService {
     public ReporteInventarioResponse reporteInventario(Long almacenId, Long categoriaId) {
         Long tenantId = TenantContext.getCurrentTenantId();
 
-        List<StockAlmacen> stocks = almacenId != null
-                ? stockAlmacenRepository.findByTenantIdAndAlmacenId(tenantId, almacenId)
-                : stockAlmacenRepository.findByTenantId(tenantId);
-
-        // Join with products for categoriaId filter and valorizacion
-        Map<Long, Producto> productosMap = productoRepository.findAll().stream()
-                .filter(p -> p.getTenantId().equals(tenantId))
-                .collect(Collectors.toMap(Producto::getId, p -> p));
-
-        if (categoriaId != null) {
-            stocks = stocks.stream()
-                    .filter(s -> {
-                        Producto p = productosMap.get(s.getProductoId());
-                        return p != null && categoriaId.equals(p.getCategoriaId());
-                    })
-                    .collect(Collectors.toList());
-        }
-
-        long conStock = stocks.stream().filter(s -> s.getCantidad() != null && s.getCantidad() > 0).count();
-        long sinStock = stocks.stream().filter(s -> s.getCantidad() == null || s.getCantidad() == 0).count();
-        long stockBajo = stocks.stream()
-                .filter(s -> s.getCantidad() != null && s.getStockMinimo() != null
-                        && s.getCantidad() <= s.getStockMinimo() && s.getStockMinimo() > 0 && s.getCantidad() > 0)
-                .count();
-
-        BigDecimal valorizacion = stocks.stream()
-                .map(s -> {
-                    Producto p = productosMap.get(s.getProductoId());
-                    if (p != null && p.getPrecioCosto() != null && s.getCantidad() != null) {
-                        return p.getPrecioCosto().multiply(BigDecimal.valueOf(s.getCantidad()));
-                    }
-                    return BigDecimal.ZERO;
-                })
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        List<InventarioPorAlmacenProjection> resumen =
+                stockAlmacenRepository.resumirPorAlmacen(tenantId, almacenId, categoriaId);
 
-        // Group by almacen
         Map<Long, Almacen> almacenesMap = almacenRepository.findByTenantId(tenantId).stream()
                 .collect(Collectors.toMap(Almacen::getId, a -> a));
 
-        Map<Long, List<StockAlmacen>> porAlmacen = stocks.stream()
-                .collect(Collectors.groupingBy(StockAlmacen::getAlmacenId));
-
-        List<ReporteInventarioResponse.InventarioPorAlmacen> porAlmacenList = porAlmacen.entrySet().stream()
-                .map(e -> {
-                    Almacen alm = almacenesMap.get(e.getKey());
-                    List<StockAlmacen> items = e.getValue();
-                    long sb = items.stream()
-                            .filter(s -> s.getCantidad() != null && s.getStockMinimo() != null
-                                    && s.getCantidad() <= s.getStockMinimo() && s.getStockMinimo() > 0)
-                            .count();
-                    BigDecimal val = items.stream()
-                            .map(s -> {
-                                Producto p = productosMap.get(s.getProductoId());
-                                if (p != null && p.getPrecioCosto() != null && s.getCantidad() != null) {
-                                    return p.getPrecioCosto().multiply(BigDecimal.valueOf(s.getCantidad()));
-                                }
-                                return BigDecimal.ZERO;
-                            })
-                            .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-                    return ReporteInventarioResponse.InventarioPorAlmacen.builder()
-                            .almacenId(e.getKey())
-                            .almacenNombre(alm != null ? alm.getNombre() : "Almacén " + e.getKey())
-                            .totalItems(items.size())
-                            .stockBajo(sb)
-                            .valorizacion(val)
-                            .build();
-                })
-                .collect(Collectors.toList());
+        long totalItems = 0;
+        long conStock = 0;
+        long sinStock = 0;
+        long stockBajo = 0;
+        BigDecimal valorizacion = BigDecimal.ZERO;
+        List<ReporteInventarioResponse.InventarioPorAlmacen> porAlmacenList = new ArrayList<>();
+
+        for (InventarioPorAlmacenProjection r : resumen) {
+            totalItems += r.getTotalItems();
+            conStock += r.getConStock();
+            sinStock += r.getSinStock();
+            stockBajo += r.getStockBajoConStock();
+            valorizacion = valorizacion.add(r.getValorizacion());
+
+            Almacen alm = almacenesMap.get(r.getAlmacenId());
+            porAlmacenList.add(ReporteInventarioResponse.InventarioPorAlmacen.builder()
+                    .almacenId(r.getAlmacenId())
+                    .almacenNombre(alm != null ? alm.getNombre() : "Almacén " + r.getAlmacenId())
+                    .totalItems(r.getTotalItems())
+                    .stockBajo(r.getStockBajo())
+                    .valorizacion(r.getValorizacion())
+                    .build());
+        }
 
         return ReporteInventarioResponse.builder()
-                .totalProductos(stocks.size())
+                .totalProductos(totalItems)
                 .productosConStock(conStock)
                 .productosStockBajo(stockBajo)
                 .productosSinStock(sinStock)
@@ -301,47 +219,41 @@ public class ReportesService {
                 ? LocalDate.parse(fechaDesde).atStartOfDay() : LocalDate.now().withDayOfMonth(1).atStartOfDay();
         LocalDateTime hasta = fechaHasta != null
                 ? LocalDate.parse(fechaHasta).atTime(LocalTime.MAX) : LocalDateTime.now();
+        OrdenCompra.EstadoOrdenCompra estadoEnum = estado != null
+                ? OrdenCompra.EstadoOrdenCompra.valueOf(estado) : null;
+
+        // Una fila por (proveedor, estado); se consolida por proveedor en memoria
+        List<CompraPorProveedorProjection> filas = ordenCompraRepository.totalizarPorProveedor(
+                tenantId, desde, hasta, proveedorId, estadoEnum);
+
+        long totalOrdenes = 0;
+        long pendientes = 0;
+        long completadas = 0;
+        BigDecimal montoTotal = BigDecimal.ZERO;
+        Map<Long, ReporteComprasResponse.CompraPorProveedor> porProveedor = new LinkedHashMap<>();
+
+        for (CompraPorProveedorProjection f : filas) {
+            totalOrdenes += f.getCantidad();
+            montoTotal = montoTotal.add(f.getTotal());
+            if (f.getEstado() == OrdenCompra.EstadoOrdenCompra.PENDIENTE) pendientes += f.getCantidad();
+            if (f.getEstado() == OrdenCompra.EstadoOrdenCompra.COMPLETADA) completadas += f.getCantidad();
+
+            ReporteComprasResponse.CompraPorProveedor item = porProveedor.computeIfAbsent(f.getProveedorId(),
+                    id -> ReporteComprasResponse.CompraPorProveedor.builder()
+                            .proveedorId(id)
+                            .proveedorNombre(f.getProveedorNombre() != null ? f.getProveedorNombre() : "Proveedor " + id)
+                            .montoTotal(BigDecimal.ZERO)
+                            .build());
+            item.setCantidadOrdenes(item.getCantidadOrdenes() + f.getCantidad());
+            item.setMontoTotal(item.getMontoTotal().add(f.getTotal()));
+        }
 
-        List<OrdenCompra> ordenes = ordenCompraRepository.findAll().stream()
-                .filter(o -> o.getTenantId().equals(tenantId)
-                        && o.getCreatedAt() != null
-                        && !o.getCreatedAt().isBefore(desde)
-                        && !o.getCreatedAt().isAfter(hasta))
-                .filter(o -> proveedorId == null || proveedorId.equals(o.getProveedorId()))
-                .filter(o -> estado == null || o.getEstado().name().equals(estado))
-                .collect(Collectors.toList());
-
-        BigDecimal montoTotal = ordenes.stream().map(OrdenCompra::getTotal).reduce(BigDecimal.ZERO, BigDecimal::add);
-        long pendientes = ordenes.stream()
-                .filter(o -> o.getEstado() == OrdenCompra.EstadoOrdenCompra.PENDIENTE).count();
-        long completadas = ordenes.stream()
-                .filter(o -> o.getEstado() == OrdenCompra.EstadoOrdenCompra.COMPLETADA).count();
-
-        // Group by proveedor
-        Map<Long, EntidadComercial> proveedoresMap = entidadComercialRepository.findAll().stream()
-                .filter(e -> e.getTenantId().equals(tenantId))
-                .collect(Collectors.toMap(EntidadComercial::getId, e -> e));
-
-        Map<Long, List<OrdenCompra>> porProveedor = ordenes.stream()
-                .collect(Collectors.groupingBy(OrdenCompra::getProveedorId));
-
-        List<ReporteComprasResponse.CompraPorProveedor> porProveedorList = porProveedor.entrySet().stream()
-                .map(e -> {
-                    EntidadComercial prov = proveedoresMap.get(e.getKey());
-                    List<OrdenCompra> ocs = e.getValue();
-                    BigDecimal monto = ocs.stream().map(OrdenCompra::getTotal).reduce(BigDecimal.ZERO, BigDecimal::add);
-                    return ReporteComprasResponse.CompraPorProveedor.builder()
-                            .proveedorId(e.getKey())
-                            .proveedorNombre(prov != null ? prov.getRazonSocial() : "Proveedor " + e.getKey())
-                            .cantidadOrdenes(ocs.size())
-                            .montoTotal(monto)
-                            .build();
-                })
+        List<ReporteComprasResponse.CompraPorProveedor> porProveedorList = porProveedor.values().stream()
                 .sorted((a, b) -> b.getMontoTotal().compareTo(a.getMontoTotal()))
                 .collect(Collectors.toList());
 
         return ReporteComprasResponse.builder()
-                .totalOrdenes(ordenes.size())
+                .totalOrdenes(totalOrdenes)
                 .montoTotal(montoTotal)
                 .ordenesPendientes(pendientes)
                 .ordenesCompletadas(completadas)
@@ -361,45 +273,30 @@ public class ReportesService {
         LocalDateTime hasta = fechaHasta != null
                 ? LocalDate.parse(fechaHasta).atTime(LocalTime.MAX) : LocalDateTime.now();
 
-        // Ingresos: ventas completadas
-        List<Venta> ventas = ventaRepository.findAll().stream()
-                .filter(v -> v.getTenantId().equals(tenantId)
-                        && v.getEstado() == Venta.EstadoVenta.COMPLETADA
-                        && v.getFechaEmision() != null
-                        && !v.getFechaEmision().isBefore(desde)
-                        && !v.getFechaEmision().isAfter(hasta))
-                .collect(Collectors.toList());
-        BigDecimal totalIngresos = ventas.stream().map(Venta::getTotal).reduce(BigDecimal.ZERO, BigDecimal::add);
+        // Ingresos: ventas completadas (rollup ventas_diarias)
+        TotalesProjection ventas = ventaDiariaRepository.totalizarVentas(
+                tenantId, desde.toLocalDate(), hasta.toLocalDate(), null, null);
+        BigDecimal totalIngresos = ventas.getTotal();
 
         // Egresos: compras completadas
-        List<OrdenCompra> compras = ordenCompraRepository.findAll().stream()
-                .filter(o -> o.getTenantId().equals(tenantId)
-                        && o.getEstado() == OrdenCompra.EstadoOrdenCompra.COMPLETADA
-                        && o.getCreatedAt() != null
-                        && !o.getCreatedAt().isBefore(desde)
-                        && !o.getCreatedAt().isAfter(hasta))
-                .collect(Collectors.toList());
-        BigDecimal totalEgresos = compras.stream().map(OrdenCompra::getTotal).reduce(BigDecimal.ZERO, BigDecimal::add);
+        TotalesProjection compras = ordenCompraRepository.totalizar(
+                tenantId, OrdenCompra.EstadoOrdenCompra.COMPLETADA, desde, hasta);
+        BigDecimal totalEgresos = compras.getTotal();
 
         // Devoluciones
-        List<NotaCredito> ncs = notaCreditoRepository.findAll().stream()
-                .filter(nc -> nc.getTenantId().equals(tenantId)
-                        && nc.getEstado() == NotaCredito.EstadoNotaCredito.APLICADA
-                        && nc.getCreatedAt() != null
-                        && !nc.getCreatedAt().isBefore(desde)
-                        && !nc.getCreatedAt().isAfter(hasta))
-                .collect(Collectors.toList());
-        BigDecimal totalDevoluciones = ncs.stream().map(NotaCredito::getTotal).reduce(BigDecimal.ZERO, BigDecimal::add);
+        TotalesProjection ncs = ventaDiariaRepository.totalizarNotasCredito(
+                tenantId, desde.toLocalDate(), hasta.toLocalDate());
+        BigDecimal totalDevoluciones = ncs.getTotal();
 
         BigDecimal balanceNeto = totalIngresos.subtract(totalEgresos).subtract(totalDevoluciones);
 
         return ReporteFinancieroResponse.builder()
                 .totalIngresos(totalIngresos)
-                .totalVentas(ventas.size())
+                .totalVentas(ventas.getCantidad())
                 .totalEgresos(totalEgresos)
-                .totalCompras(compras.size())
+                .totalCompras(compras.getCantidad())
                 .totalDevoluciones(totalDevoluciones)
-                .totalNotasCredito(ncs.size())
+                .totalNotasCredito(ncs.getCantidad())
                 .balanceNeto(balanceNeto)
                 .margenBruto(totalIngresos.compareTo(BigDecimal.ZERO) > 0
                         ? balanceNeto.divide(totalIngresos, 4, RoundingMode.HALF_UP).multiply(BigDecimal.valueOf(100))
@@ -428,8 +325,7 @@ public class ReportesService {
                 .filter(s -> usuarioId == null || usuarioId.equals(s.getUsuarioId()))
                 .collect(Collectors.toList());
 
-        Map<Long, Usuario> userMap = usuarioRepository.findAll().stream()
-                .filter(u -> u.getTenantId().equals(tenantId))
+        Map<Long, Usuario> userMap = usuarioRepository.findByTenantId(tenantId).stream()
                 .collect(Collectors.toMap(Usuario::getId, u -> u));
 
         Map<Long, CajaRegistradora> cajaMap = cajaRegistradoraRepository.findByTenantId(tenantId).stream()
@@ -486,67 +382,21 @@ public class ReportesService {
         LocalDateTime hasta = fechaHasta != null
                 ? LocalDate.parse(fechaHasta).atTime(LocalTime.MAX) : LocalDateTime.now();
 
-        // Get completed ventas in range
-        List<Long> ventaIds = ventaRepository.findAll().stream()
-                .filter(v -> v.getTenantId().equals(tenantId)
-                        && v.getEstado() == Venta.EstadoVenta.COMPLETADA
-                        && v.getFechaEmision() != null
-                        && !v.getFechaEmision().isBefore(desde)
-                        && !v.getFechaEmision().isAfter(hasta))
-                .map(Venta::getId)
-                .collect(Collectors.toList());
-
-        if (ventaIds.isEmpty()) {
-            return ProductosMasVendidosResponse.builder()
-                    .totalProductosVendidos(0)
-                    .productos(Collections.emptyList())
-                    .build();
-        }
-
-        // Aggregate detalles by productoId
-        List<DetalleVenta> detalles = detalleVentaRepository.findAll().stream()
-                .filter(d -> ventaIds.contains(d.getVentaId()))
-                .collect(Collectors.toList());
-
-        Map<Long, Producto> productoMap = productoRepository.findAll().stream()
-                .filter(p -> p.getTenantId().equals(tenantId))
-                .collect(Collectors.toMap(Producto::getId, p -> p));
-
-        // Filter by categoriaId if provided
-        if (categoriaId != null) {
-            detalles = detalles.stream()
-                    .filter(d -> {
-                        Producto p = productoMap.get(d.getProductoId());
-                        return p != null && categoriaId.equals(p.getCategoriaId());
-                    })
-                    .collect(Collectors.toList());
-        }
-
-        Map<Long, List<DetalleVenta>> porProducto = detalles.stream()
-                .collect(Collectors.groupingBy(DetalleVenta::getProductoId));
-
-        List<ProductosMasVendidosResponse.ProductoVendido> vendidos = porProducto.entrySet().stream()
-                .map(e -> {
-                    Producto p = productoMap.get(e.getKey());
-                    List<DetalleVenta> dets = e.getValue();
-                    long cantidadTotal = dets.stream().mapToLong(d -> d.getCantidad() != null ? d.getCantidad() : 0).sum();
-                    BigDecimal montoTotal = dets.stream()
-                            .map(d -> d.getSubtotal() != null ? d.getSubtotal() : BigDecimal.ZERO)
-                            .reduce(BigDecimal.ZERO, BigDecimal::add);
-                    return ProductosMasVendidosResponse.ProductoVendido.builder()
-                            .productoId(e.getKey())
-                            .sku(p != null ? p.getSku() : null)
-                            .nombre(p != null ? p.getNombre() : dets.get(0).getNombreProducto())
-                            .categoriaNombre(p != null && p.getCategoria() != null ? p.getCategoria().getNombre() : null)
-                            .cantidadVendida(cantidadTotal)
-                            .montoTotal(montoTotal)
-                            .build();
-                })
-                .sorted((a, b) -> Long.compare(b.getCantidadVendida(), a.getCantidadVendida()))
-                .limit(top)
+        List<ProductosMasVendidosResponse.ProductoVendido> vendidos = ventaRepository
+                .productosMasVendidos(tenantId, Venta.EstadoVenta.COMPLETADA, desde, hasta,
+                        categoriaId, PageRequest.of(0, top)).stream()
+                .map(p -> ProductosMasVendidosResponse.ProductoVendido.builder()
+                        .productoId(p.getProductoId())
+                        .sku(p.getSku())
+                        .nombre(p.getNombre())
+                        .categoriaNombre(p.getCategoriaNombre())
+                        .cantidadVendida(p.getCantidadVendida())
+                        .montoTotal(p.getMontoTotal())
+                        .build())
                 .collect(Collectors.toList());
 
-        long totalVendidos = detalles.stream().mapToLong(d -> d.getCantidad() != null ? d.getCantidad() : 0).sum();
+        long totalVendidos = vendidos.isEmpty() ? 0
+                : ventaRepository.sumCantidadVendida(tenantId, Venta.EstadoVenta.COMPLETADA, desde, hasta, categoriaId);
 
         return ProductosMasVendidosResponse.builder()
                 .totalProductosVendidos(totalVendidos)
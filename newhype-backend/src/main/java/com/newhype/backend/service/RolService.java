@@ -17,10 +17,13 @@ public class RolService {
 
     private final RolRepository rolRepository;
     private final UsuarioRepository usuarioRepository;
+    private final PermisosRoles permisosRoles;
 
-    public RolService(RolRepository rolRepository, UsuarioRepository usuarioRepository) {
+    public RolService(RolRepository rolRepository, UsuarioRepository usuarioRepository,
+                      PermisosRoles permisosRoles) {
         this.rolRepository = rolRepository;
         this.usuarioRepository = usuarioRepository;
+        this.permisosRoles = permisosRoles;
     }
 
     @Transactional
@@ -76,6 +79,7 @@ public class RolService {
         rol.setPermisos(request.getPermisos());
 
         rol = rolRepository.save(rol);
+        permisosRoles.invalidarRol(tenantId, rol.getId());
         long count = usuarioRepository.countByTenantIdAndRolId(tenantId, rol.getId());
         return toResponse(rol, count);
     }
@@ -101,6 +105,7 @@ public class RolService {
 
         rol.setEstado(!rol.getEstado());
         rol = rolRepository.save(rol);
+        permisosRoles.invalidarRol(tenantId, rol.getId());
         long count = usuarioRepository.countByTenantIdAndRolId(tenantId, rol.getId());
         return toResponse(rol, count);
     }
@@ -16,9 +16,15 @@ import java.util.stream.Collectors;
 public class SerieComprobanteService {
 
     private final SerieComprobanteRepository serieComprobanteRepository;
+    private final NumeracionService numeracionService;
+    private final ConfiguracionTenantCache configuracionTenantCache;
 
-    public SerieComprobanteService(SerieComprobanteRepository serieComprobanteRepository) {
+    public SerieComprobanteService(SerieComprobanteRepository serieComprobanteRepository,
+                                   NumeracionService numeracionService,
+                                   ConfiguracionTenantCache configuracionTenantCache) {
         this.serieComprobanteRepository = serieComprobanteRepository;
+        this.numeracionService = numeracionService;
+        this.configuracionTenantCache = configuracionTenantCache;
     }
 
     @Transactional(readOnly = true)
@@ -57,6 +63,7 @@ public class SerieComprobanteService {
                 .build();
 
         serie = serieComprobanteRepository.save(serie);
+        configuracionTenantCache.invalidar(tenantId);
         return toResponse(serie);
     }
 
@@ -86,6 +93,8 @@ public class SerieComprobanteService {
         serie.setPuntoEmision(request.getPuntoEmision());
 
         serie = serieComprobanteRepository.save(serie);
+        configuracionTenantCache.invalidar(tenantId);
+        numeracionService.descartarBloquesSerie(serie.getId());
         return toResponse(serie);
     }
 
@@ -98,6 +107,8 @@ public class SerieComprobanteService {
 
         serie.setEstado(!serie.getEstado());
         serie = serieComprobanteRepository.save(serie);
+        configuracionTenantCache.invalidar(tenantId);
+        numeracionService.descartarBloquesSerie(serie.getId());
         return toResponse(serie);
     }
 
@@ -0,0 +1,159 @@
+package com.newhype.backend.service;
+
+import com.newhype.backend.entity.StockAlmacen;
+import com.newhype.backend.repository.StockAlmacenRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Mutaciones de {@code stock_almacen} sin read-modify-write: cada cambio es un único UPDATE
+ * condicional, así dos cajas vendiendo la última unidad no pueden dejar el stock en negativo.
+ * Devuelve el saldo antes/después que necesita el kardex sin un SELECT adicional sobre la fila.
+ * Debe invocarse dentro de la transacción del llamador.
+ *
+ * <p>Los documentos de varias líneas usan los métodos {@code *Lote}: una sola lectura bloqueante
+ * de todas las filas del documento y UPDATEs que Hibernate agrupa en batch al hacer flush.
+ *
+ * <p>Todo cambio se refleja también en {@code producto_disponibilidad} (storefront).
+ */
+@Service
+public class StockMovimientoService {
+
+    public record CambioStock(int antes, int despues) {}
+
+    public record LineaStock(Long productoId, int cantidad) {}
+
+    private final StockAlmacenRepository stockAlmacenRepository;
+    private final ProductoDisponibilidadService productoDisponibilidadService;
+
+    public StockMovimientoService(StockAlmacenRepository stockAlmacenRepository,
+                                  ProductoDisponibilidadService productoDisponibilidadService) {
+        this.stockAlmacenRepository = stockAlmacenRepository;
+        this.productoDisponibilidadService = productoDisponibilidadService;
+    }
+
+    /**
+     * Descuenta {@code cantidad} sólo si hay stock suficiente.
+     *
+     * @param nombreProducto se resuelve sólo si falla, para el mensaje de error
+     * @throws IllegalArgumentException si no hay registro de stock o el disponible no alcanza
+     */
+    @Transactional
+    public CambioStock descontar(Long tenantId, Long productoId, Long almacenId, int cantidad,
+                                 Supplier<String> nombreProducto) {
+        if (stockAlmacenRepository.descontar(tenantId, productoId, almacenId, cantidad) == 0) {
+            // Sólo en el camino de error se lee la fila: distingue el registro inexistente
+            // del stock que no alcanza e informa el disponible
+            String producto = nombreProducto.get();
+            Optional<Integer> disponible = stockAlmacenRepository.findCantidad(tenantId, productoId, almacenId);
+            if (disponible.isEmpty()) {
+                throw new IllegalArgumentException("Sin registro de stock para " + producto + " en el almacén");
+            }
+            throw new IllegalArgumentException(
+                    "Stock insuficiente para " + producto +
+                    ". Disponible: " + disponible.get() + ", Requerido: " + cantidad);
+        }
+        int despues = (int) stockAlmacenRepository.ultimoSaldo();
+        productoDisponibilidadService.aplicar(tenantId, productoId, -cantidad);
+        return new CambioStock(despues + cantidad, despues);
+    }
+
+    /**
+     * Suma {@code cantidad}, creando el registro de stock en cero si aún no existe.
+     */
+    @Transactional
+    public CambioStock incrementar(Long tenantId, Long productoId, Long almacenId, int cantidad) {
+        if (stockAlmacenRepository.incrementar(tenantId, productoId, almacenId, cantidad) == 0) {
+            stockAlmacenRepository.crearSiNoExiste(tenantId, productoId, almacenId);
+            stockAlmacenRepository.incrementar(tenantId, productoId, almacenId, cantidad);
+        }
+        int despues = (int) stockAlmacenRepository.ultimoSaldo();
+        productoDisponibilidadService.aplicar(tenantId, productoId, cantidad);
+        return new CambioStock(despues - cantidad, despues);
+    }
+
+    // ── Documentos de varias líneas ──
+
+    /**
+     * Descuenta todas las líneas de un documento en un almacén. Devuelve un cambio por línea,
+     * en el mismo orden (un producto repetido encadena sus saldos).
+     *
+     * @throws IllegalArgumentException si alguna línea no tiene registro de stock o no alcanza
+     */
+    @Transactional
+    public List<CambioStock> descontarLote(Long tenantId, Long almacenId, List<LineaStock> lineas,
+                                           Function<Long, String> nombreProducto) {
+        Map<Long, StockAlmacen> filas = bloquear(tenantId, almacenId, lineas);
+        List<CambioStock> cambios = new ArrayList<>(lineas.size());
+        for (LineaStock linea : lineas) {
+            StockAlmacen sa = filas.get(linea.productoId());
+            if (sa == null) {
+                throw new IllegalArgumentException(
+                        "Sin registro de stock para " + nombreProducto.apply(linea.productoId()) + " en el almacén");
+            }
+            int antes = sa.getCantidad() != null ? sa.getCantidad() : 0;
+            if (antes < linea.cantidad()) {
+                throw new IllegalArgumentException(
+                        "Stock insuficiente para " + nombreProducto.apply(linea.productoId()) +
+                        ". Disponible: " + antes + ", Requerido: " + linea.cantidad());
+            }
+            sa.setCantidad(antes - linea.cantidad());
+            cambios.add(new CambioStock(antes, sa.getCantidad()));
+        }
+        productoDisponibilidadService.aplicar(tenantId, deltas(lineas, -1));
+        return cambios;
+    }
+
+    /**
+     * Suma todas las líneas de un documento en un almacén, creando en cero los registros que falten.
+     */
+    @Transactional
+    public List<CambioStock> incrementarLote(Long tenantId, Long almacenId, List<LineaStock> lineas) {
+        Map<Long, StockAlmacen> filas = bloquear(tenantId, almacenId, lineas);
+        Set<Long> faltantes = lineas.stream()
+                .map(LineaStock::productoId)
+                .filter(id -> !filas.containsKey(id))
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (!faltantes.isEmpty()) {
+            // Caso raro (primer ingreso del producto al almacén): INSERT IGNORE tolera creaciones concurrentes
+            faltantes.forEach(id -> stockAlmacenRepository.crearSiNoExiste(tenantId, id, almacenId));
+            stockAlmacenRepository.findParaActualizar(tenantId, almacenId, faltantes)
+                    .forEach(sa -> filas.put(sa.getProductoId(), sa));
+        }
+
+        List<CambioStock> cambios = new ArrayList<>(lineas.size());
+        for (LineaStock linea : lineas) {
+            StockAlmacen sa = filas.get(linea.productoId());
+            int antes = sa.getCantidad() != null ? sa.getCantidad() : 0;
+            sa.setCantidad(antes + linea.cantidad());
+            cambios.add(new CambioStock(antes, sa.getCantidad()));
+        }
+        productoDisponibilidadService.aplicar(tenantId, deltas(lineas, 1));
+        return cambios;
+    }
+
+    private static Map<Long, Integer> deltas(List<LineaStock> lineas, int signo) {
+        return lineas.stream().collect(Collectors.toMap(
+                LineaStock::productoId, l -> signo * l.cantidad(), Integer::sum));
+    }
+
+    private Map<Long, StockAlmacen> bloquear(Long tenantId, Long almacenId, List<LineaStock> lineas) {
+        Set<Long> productoIds = lineas.stream().map(LineaStock::productoId).collect(Collectors.toSet());
+        if (productoIds.isEmpty()) {
+            return new HashMap<>();
+        }
+        return stockAlmacenRepository.findParaActualizar(tenantId, almacenId, productoIds).stream()
+                .collect(Collectors.toMap(StockAlmacen::getProductoId, Function.identity(), (a, b) -> a, HashMap::new));
+    }
+}
@@ -1,48 +1,63 @@
 package com.newhype.backend.service;
 
 import com.newhype.backend.dto.inventario.AjusteInventarioRequest;
+import com.newhype.backend.dto.stock.KardexCursorResponse;
 import com.newhype.backend.dto.stock.KardexResponse;
 import com.newhype.backend.dto.stock.StockResponse;
 import com.newhype.backend.entity.MovimientoInventario;
 import com.newhype.backend.entity.MovimientoInventario.TipoMovimiento;
-import com.newhype.backend.entity.StockAlmacen;
+import com.newhype.backend.entity.Producto;
+import com.newhype.backend.exception.ResourceNotFoundException;
 import com.newhype.backend.repository.MovimientoInventarioRepository;
+import com.newhype.backend.repository.ProductoRepository;
 import com.newhype.backend.repository.StockAlmacenRepository;
+import com.newhype.backend.repository.projection.StockListadoProjection;
 import com.newhype.backend.security.TenantContext;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
 public class StockService {
 
+    private static final int KARDEX_MAX_SIZE = 200;
+    // Límites del kardex sin fechaDesde / fechaHasta (mantienen la consulta sin parámetros opcionales)
+    private static final LocalDateTime KARDEX_SIN_DESDE = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime KARDEX_SIN_HASTA = LocalDateTime.of(9999, 12, 31, 0, 0);
+
     private final StockAlmacenRepository stockAlmacenRepository;
     private final MovimientoInventarioRepository movimientoInventarioRepository;
+    private final StockMovimientoService stockMovimientoService;
+    private final ProductoRepository productoRepository;
 
     public StockService(StockAlmacenRepository stockAlmacenRepository,
-                        MovimientoInventarioRepository movimientoInventarioRepository) {
+                        MovimientoInventarioRepository movimientoInventarioRepository,
+                        StockMovimientoService stockMovimientoService,
+                        ProductoRepository productoRepository) {
         this.stockAlmacenRepository = stockAlmacenRepository;
         this.movimientoInventarioRepository = movimientoInventarioRepository;
+        this.stockMovimientoService = stockMovimientoService;
+        this.productoRepository = productoRepository;
     }
 
     @Transactional(readOnly = true)
     public List<StockResponse> consultarStock(Long almacenId) {
         Long tenantId = TenantContext.getCurrentTenantId();
 
-        List<StockAlmacen> stocks;
-        if (almacenId != null) {
-            stocks = stockAlmacenRepository.findByTenantIdAndAlmacenId(tenantId, almacenId);
-        } else {
-            stocks = stockAlmacenRepository.findByTenantId(tenantId);
-        }
-
-        return stocks.stream()
+        return stockAlmacenRepository.listarStock(tenantId, almacenId, false).stream()
                 .map(this::toResponse)
                 .collect(Collectors.toList());
     }
@@ -64,14 +79,83 @@ public class StockService {
         return movimientos.map(this::toKardexResponse);
     }
 
+    /**
+     * Kardex por cursor (keyset sobre {@code (created_at, id)}), del más reciente al más antiguo.
+     * No hay COUNT ni OFFSET: la página 500 cuesta lo mismo que la primera. Cada fila trae el
+     * saldo acumulado del alcance consultado (un almacén o todos) valorizado a costo actual;
+     * el cursor arrastra ese saldo junto con los filtros que lo produjeron y se rechaza con otros.
+     */
     @Transactional(readOnly = true)
-    public List<StockResponse> getAlertas() {
+    public KardexCursorResponse getKardexCursor(Long productoId, Long almacenId, String fechaDesde,
+                                                String fechaHasta, String cursor, int size) {
         Long tenantId = TenantContext.getCurrentTenantId();
-        List<StockAlmacen> stocks = stockAlmacenRepository.findByTenantId(tenantId);
+        Producto producto = productoRepository.findByIdAndTenantId(productoId, tenantId)
+                .orElseThrow(() -> new ResourceNotFoundException("Producto", productoId));
 
-        return stocks.stream()
-                .filter(s -> s.getCantidad() != null && s.getStockMinimo() != null
-                        && s.getCantidad() <= s.getStockMinimo())
+        int limite = Math.max(1, Math.min(size, KARDEX_MAX_SIZE));
+        LocalDateTime desde = parseFecha(fechaDesde, "fechaDesde");
+        LocalDateTime hasta = parseFecha(fechaHasta, "fechaHasta");
+        if (hasta != null) {
+            hasta = hasta.plusDays(1);
+        }
+
+        String filtros = tenantId + ":" + productoId + ":" + almacenId + ":" + desde + ":" + hasta;
+        CursorKardex posicion;
+        if (cursor != null && !cursor.isBlank()) {
+            posicion = CursorKardex.decodificar(cursor);
+            if (!filtros.equals(posicion.filtros())) {
+                throw new IllegalArgumentException("El cursor de kardex no corresponde a los filtros de la consulta");
+            }
+        } else {
+            // Saldo tras el movimiento más reciente del rango = stock actual - lo movido después del rango
+            long saldo = stockAlmacenRepository.sumarCantidad(tenantId, productoId, almacenId);
+            if (hasta != null) {
+                saldo -= movimientoInventarioRepository.sumarVariacionDesde(tenantId, productoId, almacenId, hasta);
+            }
+            // Sin cursor, "hasta" es la posición inicial: (created_at, id) < (hasta, 0) ≡ created_at < hasta
+            posicion = new CursorKardex(hasta != null ? hasta : KARDEX_SIN_HASTA, 0L, saldo, filtros);
+        }
+
+        LocalDateTime inicio = desde != null ? desde : KARDEX_SIN_DESDE;
+        List<MovimientoInventario> filas = almacenId != null
+                ? movimientoInventarioRepository.buscarKardexAlmacen(tenantId, productoId, almacenId, inicio,
+                        posicion.fecha(), posicion.id(), Limit.of(limite + 1))
+                : movimientoInventarioRepository.buscarKardex(tenantId, productoId, inicio,
+                        posicion.fecha(), posicion.id(), Limit.of(limite + 1));
+        boolean hayMas = filas.size() > limite;
+        if (hayMas) {
+            filas = filas.subList(0, limite);
+        }
+
+        BigDecimal costo = producto.getPrecioCosto();
+        long saldo = posicion.saldo();
+        List<KardexResponse> movimientos = new ArrayList<>(filas.size());
+        for (MovimientoInventario m : filas) {
+            KardexResponse r = toKardexResponse(m);
+            r.setSaldo(saldo);
+            r.setValorSaldo(costo != null ? costo.multiply(BigDecimal.valueOf(saldo)) : null);
+            movimientos.add(r);
+            saldo -= variacion(m);
+        }
+
+        String siguiente = null;
+        if (hayMas) {
+            MovimientoInventario ultimo = filas.get(filas.size() - 1);
+            siguiente = new CursorKardex(ultimo.getCreatedAt(), ultimo.getId(), saldo, filtros).codificar();
+        }
+
+        return KardexCursorResponse.builder()
+                .movimientos(movimientos)
+                .siguienteCursor(siguiente)
+                .hayMas(hayMas)
+                .costoUnitario(costo)
+                .build();
+    }
+
+    @Transactional(readOnly = true)
+    public List<StockResponse> getAlertas() {
+        Long tenantId = TenantContext.getCurrentTenantId();
+        return stockAlmacenRepository.listarStock(tenantId, null, true).stream()
                 .map(this::toResponse)
                 .collect(Collectors.toList());
     }
@@ -92,36 +176,12 @@ public class StockService {
             throw new IllegalArgumentException("Tipo debe ser AJUSTE_INGRESO o AJUSTE_EGRESO");
         }
 
-        StockAlmacen sa = stockAlmacenRepository
-                .findByTenantIdAndProductoIdAndAlmacenId(tenantId, request.getProductoId(), request.getAlmacenId())
-                .orElse(null);
-
-        if (sa == null && tipo == TipoMovimiento.AJUSTE_INGRESO) {
-            sa = StockAlmacen.builder()
-                    .tenantId(tenantId)
-                    .productoId(request.getProductoId())
-                    .almacenId(request.getAlmacenId())
-                    .cantidad(0)
-                    .stockMinimo(0)
-                    .build();
-            sa = stockAlmacenRepository.save(sa);
-        } else if (sa == null) {
-            throw new IllegalArgumentException("No existe stock para este producto en el almacén indicado");
-        }
-
-        int stockAntes = sa.getCantidad();
-
-        if (tipo == TipoMovimiento.AJUSTE_INGRESO) {
-            sa.setCantidad(sa.getCantidad() + request.getCantidad());
-        } else {
-            if (sa.getCantidad() < request.getCantidad()) {
-                throw new IllegalArgumentException(
-                        "Stock insuficiente. Disponible: " + sa.getCantidad() + ", Ajuste: " + request.getCantidad());
-            }
-            sa.setCantidad(sa.getCantidad() - request.getCantidad());
-        }
-
-        stockAlmacenRepository.save(sa);
+        StockMovimientoService.CambioStock cambio = tipo == TipoMovimiento.AJUSTE_INGRESO
+                ? stockMovimientoService.incrementar(
+                        tenantId, request.getProductoId(), request.getAlmacenId(), request.getCantidad())
+                : stockMovimientoService.descontar(
+                        tenantId, request.getProductoId(), request.getAlmacenId(), request.getCantidad(),
+                        () -> "este producto");
 
         MovimientoInventario mov = MovimientoInventario.builder()
                 .tenantId(tenantId)
@@ -129,8 +189,8 @@ public class StockService {
                 .almacenId(request.getAlmacenId())
                 .tipo(tipo)
                 .cantidad(request.getCantidad())
-                .stockAntes(stockAntes)
-                .stockDespues(sa.getCantidad())
+                .stockAntes(cambio.antes())
+                .stockDespues(cambio.despues())
                 .documentoReferencia(request.getDocumentoReferencia())
                 .usuarioId(usuarioId)
                 .build();
@@ -139,34 +199,14 @@ public class StockService {
         return toKardexResponse(mov);
     }
 
-    @Transactional(readOnly = true)
-    public List<List<String>> exportarStockCsv(Long almacenId) {
-        List<StockResponse> stocks = consultarStock(almacenId);
-        List<List<String>> rows = new ArrayList<>();
-        rows.add(List.of("Producto ID", "SKU", "Producto", "Almacén ID", "Almacén", "Cantidad", "Stock Mínimo", "Stock Bajo"));
-        for (StockResponse s : stocks) {
-            rows.add(List.of(
-                    String.valueOf(s.getProductoId()),
-                    s.getProductoSku() != null ? s.getProductoSku() : "",
-                    s.getProductoNombre() != null ? s.getProductoNombre() : "",
-                    String.valueOf(s.getAlmacenId()),
-                    s.getAlmacenNombre() != null ? s.getAlmacenNombre() : "",
-                    String.valueOf(s.getCantidad()),
-                    String.valueOf(s.getStockMinimo()),
-                    s.getStockBajo() != null && s.getStockBajo() ? "SI" : "NO"
-            ));
-        }
-        return rows;
-    }
-
-    private StockResponse toResponse(StockAlmacen s) {
+    private StockResponse toResponse(StockListadoProjection s) {
         return StockResponse.builder()
                 .id(s.getId())
                 .productoId(s.getProductoId())
-                .productoNombre(s.getProducto() != null ? s.getProducto().getNombre() : null)
-                .productoSku(s.getProducto() != null ? s.getProducto().getSku() : null)
+                .productoNombre(s.getProductoNombre())
+                .productoSku(s.getProductoSku())
                 .almacenId(s.getAlmacenId())
-                .almacenNombre(s.getAlmacen() != null ? s.getAlmacen().getNombre() : null)
+                .almacenNombre(s.getAlmacenNombre())
                 .cantidad(s.getCantidad())
                 .stockMinimo(s.getStockMinimo())
                 .stockBajo(s.getCantidad() != null && s.getStockMinimo() != null
@@ -174,6 +214,44 @@ public class StockService {
                 .build();
     }
 
+    // ── Kardex por cursor ──
+
+    private record CursorKardex(LocalDateTime fecha, Long id, long saldo, String filtros) {
+
+        String codificar() {
+            String raw = fecha + "|" + id + "|" + saldo + "|" + filtros;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static CursorKardex decodificar(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                String[] partes = raw.split("\\|", 4);
+                return new CursorKardex(LocalDateTime.parse(partes[0]), Long.parseLong(partes[1]),
+                        Long.parseLong(partes[2]), partes[3]);
+            } catch (IllegalArgumentException | DateTimeParseException | ArrayIndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Cursor de kardex inválido");
+            }
+        }
+    }
+
+    private static long variacion(MovimientoInventario m) {
+        int antes = m.getStockAntes() != null ? m.getStockAntes() : 0;
+        int despues = m.getStockDespues() != null ? m.getStockDespues() : 0;
+        return despues - antes;
+    }
+
+    private static LocalDateTime parseFecha(String fecha, String parametro) {
+        if (fecha == null || fecha.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(fecha).atStartOfDay();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(parametro + " debe tener formato yyyy-MM-dd");
+        }
+    }
+
     private KardexResponse toKardexResponse(MovimientoInventario m) {
         return KardexResponse.builder()
                 .id(m.getId())
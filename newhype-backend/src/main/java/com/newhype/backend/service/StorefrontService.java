@@ -2,16 +2,18 @@ package com.newhype.backend.service;
 
 import com.newhype.backend.dto.auth.AuthResponse;
 import com.newhype.backend.dto.auth.UserInfoResponse;
+import com.newhype.backend.dto.catalog.CatalogResponse;
 import com.newhype.backend.dto.storefront.*;
 import com.newhype.backend.entity.*;
 import com.newhype.backend.exception.ResourceNotFoundException;
 import com.newhype.backend.repository.*;
 import com.newhype.backend.security.JwtUtil;
+import com.newhype.backend.security.LoginRateLimiter;
+import com.newhype.backend.security.PasswordHashExecutor;
 import com.newhype.backend.security.TenantContext;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -28,52 +30,65 @@ public class StorefrontService {
 
     private final ClienteTiendaRepository clienteTiendaRepository;
     private final ProductoRepository productoRepository;
-    private final StockAlmacenRepository stockAlmacenRepository;
-    private final CategoriaRepository categoriaRepository;
+    private final ProductoDisponibilidadRepository productoDisponibilidadRepository;
+    private final CategoriaService categoriaService;
     private final AlmacenRepository almacenRepository;
     private final PedidoTiendaRepository pedidoTiendaRepository;
     private final DetallePedidoTiendaRepository detallePedidoTiendaRepository;
     private final ImagenProductoRepository imagenProductoRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashExecutor passwordHasher;
+    private final LoginRateLimiter loginRateLimiter;
     private final JwtUtil jwtUtil;
+    private final NumeracionService numeracionService;
+    private final ConfiguracionTenantCache configuracionTenantCache;
 
     public StorefrontService(ClienteTiendaRepository clienteTiendaRepository,
                              ProductoRepository productoRepository,
-                             StockAlmacenRepository stockAlmacenRepository,
-                             CategoriaRepository categoriaRepository,
+                             ProductoDisponibilidadRepository productoDisponibilidadRepository,
+                             CategoriaService categoriaService,
                              AlmacenRepository almacenRepository,
                              PedidoTiendaRepository pedidoTiendaRepository,
                              DetallePedidoTiendaRepository detallePedidoTiendaRepository,
                              ImagenProductoRepository imagenProductoRepository,
-                             PasswordEncoder passwordEncoder,
-                             JwtUtil jwtUtil) {
+                             PasswordHashExecutor passwordHasher,
+                             LoginRateLimiter loginRateLimiter,
+                             JwtUtil jwtUtil,
+                             NumeracionService numeracionService,
+                             ConfiguracionTenantCache configuracionTenantCache) {
         this.clienteTiendaRepository = clienteTiendaRepository;
         this.productoRepository = productoRepository;
-        this.stockAlmacenRepository = stockAlmacenRepository;
-        this.categoriaRepository = categoriaRepository;
+        this.productoDisponibilidadRepository = productoDisponibilidadRepository;
+        this.categoriaService = categoriaService;
         this.almacenRepository = almacenRepository;
         this.pedidoTiendaRepository = pedidoTiendaRepository;
         this.detallePedidoTiendaRepository = detallePedidoTiendaRepository;
         this.imagenProductoRepository = imagenProductoRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHasher = passwordHasher;
+        this.loginRateLimiter = loginRateLimiter;
         this.jwtUtil = jwtUtil;
+        this.numeracionService = numeracionService;
+        this.configuracionTenantCache = configuracionTenantCache;
     }
 
     // ═══════════════════════════════════════════════════════════════
     //  1. POST /storefront/auth/register — Registro cliente B2C
     // ═══════════════════════════════════════════════════════════════
-    @Transactional
+    // Sin transacción envolvente: el hash se calcula sin retener una conexión y el INSERT
+    // va en la transacción propia de save()
     public AuthResponse register(StorefrontRegisterRequest request) {
         Long tenantId = request.getTenantId();
+        loginRateLimiter.admitirIp();
+        loginRateLimiter.admitirTienda(tenantId);
 
         if (clienteTiendaRepository.existsByTenantIdAndEmail(tenantId, request.getEmail())) {
             throw new IllegalArgumentException("El email ya está registrado");
         }
+        String passwordHash = passwordHasher.encode(request.getPassword());
 
         ClienteTienda cliente = ClienteTienda.builder()
                 .tenantId(tenantId)
                 .email(request.getEmail())
-                .passwordHash(passwordEncoder.encode(request.getPassword()))
+                .passwordHash(passwordHash)
                 .nombre(request.getNombre())
                 .apellido(request.getApellido())
                 .telefono(request.getTelefono())
@@ -159,51 +174,34 @@ public class StorefrontService {
                                                              String q,
                                                              int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
+        String filtro = (q != null && !q.isBlank()) ? q.trim() : null;
+
+        // Una consulta para la página (categoría y disponibilidad incluidas) y otra para el total
+        return productoRepository.buscarCatalogo(tenantId, categoriaId, marcaId, filtro, pageable)
+                .map(p -> ProductoStorefrontResponse.builder()
+                        .id(p.getId())
+                        .sku(p.getSku())
+                        .nombre(p.getNombre())
+                        .slug(p.getSlug())
+                        .descripcion(p.getDescripcion())
+                        .categoriaNombre(p.getCategoriaNombre())
+                        .categoriaSlug(p.getCategoriaSlug())
+                        .imagenUrl(p.getImagenUrl())
+                        .precioVenta(p.getPrecioVenta())
+                        .enLiquidacion(p.getEnLiquidacion())
+                        .porcentajeLiquidacion(p.getPorcentajeLiquidacion())
+                        .precioLiquidacion(precioLiquidacion(
+                                p.getPrecioVenta(), p.getEnLiquidacion(), p.getPorcentajeLiquidacion()))
+                        .disponible(Boolean.TRUE.equals(p.getDisponible()))
+                        .build());
+    }
 
-        Page<Producto> productos;
-        if (q != null && !q.isBlank()) {
-            productos = productoRepository.buscar(tenantId, q, pageable);
-        } else {
-            productos = productoRepository.findByTenantIdAndEstadoTrue(tenantId, pageable);
+    private static BigDecimal precioLiquidacion(BigDecimal precioVenta, Boolean enLiquidacion, BigDecimal porcentaje) {
+        if (!Boolean.TRUE.equals(enLiquidacion) || porcentaje == null) {
+            return null;
         }
-
-        // Build catalog lookups
-        Map<Long, Categoria> catMap = categoriaRepository.findByTenantIdAndEstadoTrue(tenantId).stream()
-                .collect(Collectors.toMap(Categoria::getId, c -> c));
-
-        return productos.map(p -> {
-            // Filter by categoriaId / marcaId in-memory if needed
-            if (categoriaId != null && !categoriaId.equals(p.getCategoriaId())) return null;
-            if (marcaId != null && !marcaId.equals(p.getMarcaId())) return null;
-
-            Categoria cat = catMap.get(p.getCategoriaId());
-            BigDecimal precioLiq = null;
-            if (Boolean.TRUE.equals(p.getEnLiquidacion()) && p.getPorcentajeLiquidacion() != null) {
-                precioLiq = p.getPrecioVenta().subtract(
-                        p.getPrecioVenta().multiply(p.getPorcentajeLiquidacion()).divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP));
-            }
-
-            // Check stock availability
-            List<StockAlmacen> stockList = stockAlmacenRepository.findByTenantId(tenantId).stream()
-                    .filter(s -> s.getProductoId().equals(p.getId()) && s.getCantidad() != null && s.getCantidad() > 0)
-                    .collect(Collectors.toList());
-
-            return ProductoStorefrontResponse.builder()
-                    .id(p.getId())
-                    .sku(p.getSku())
-                    .nombre(p.getNombre())
-                    .slug(p.getSlug())
-                    .descripcion(p.getDescripcion())
-                    .categoriaNombre(cat != null ? cat.getNombre() : null)
-                    .categoriaSlug(cat != null ? cat.getSlug() : null)
-                    .imagenUrl(p.getImagenUrl())
-                    .precioVenta(p.getPrecioVenta())
-                    .enLiquidacion(p.getEnLiquidacion())
-                    .porcentajeLiquidacion(p.getPorcentajeLiquidacion())
-                    .precioLiquidacion(precioLiq)
-                    .disponible(!stockList.isEmpty())
-                    .build();
-        });
+        return precioVenta.subtract(
+                precioVenta.multiply(porcentaje).divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP));
     }
 
     // ═══════════════════════════════════════════════════════════════
@@ -211,26 +209,20 @@ public class StorefrontService {
     // ═══════════════════════════════════════════════════════════════
     @Transactional(readOnly = true)
     public ProductoStorefrontResponse obtenerProductoPorSlug(Long tenantId, String slug) {
-        Producto p = productoRepository.findAll().stream()
-                .filter(prod -> prod.getTenantId().equals(tenantId)
-                        && Boolean.TRUE.equals(prod.getEstado())
-                        && slug.equals(prod.getSlug()))
-                .findFirst()
+        Producto p = productoRepository.findByTenantIdAndSlugAndEstadoTrue(tenantId, slug)
                 .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado"));
 
-        Map<Long, Categoria> catMap = categoriaRepository.findByTenantIdAndEstadoTrue(tenantId).stream()
-                .collect(Collectors.toMap(Categoria::getId, c -> c));
-        Categoria cat = catMap.get(p.getCategoriaId());
+        // Categorías activas desde la caché de catálogos
+        CatalogResponse cat = p.getCategoriaId() != null
+                ? categoriaService.listarPorTenant(tenantId).stream()
+                        .filter(c -> c.getId().equals(p.getCategoriaId()))
+                        .findFirst()
+                        .orElse(null)
+                : null;
 
-        BigDecimal precioLiq = null;
-        if (Boolean.TRUE.equals(p.getEnLiquidacion()) && p.getPorcentajeLiquidacion() != null) {
-            precioLiq = p.getPrecioVenta().subtract(
-                    p.getPrecioVenta().multiply(p.getPorcentajeLiquidacion()).divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP));
-        }
-
-        List<StockAlmacen> stockList = stockAlmacenRepository.findByTenantId(tenantId).stream()
-                .filter(s -> s.getProductoId().equals(p.getId()) && s.getCantidad() != null && s.getCantidad() > 0)
-                .collect(Collectors.toList());
+        boolean disponible = productoDisponibilidadRepository.findByTenantIdAndProductoId(tenantId, p.getId())
+                .map(d -> Boolean.TRUE.equals(d.getDisponible()))
+                .orElse(false);
 
         // Get product images
         List<String> imagenes = Collections.emptyList();
@@ -252,8 +244,9 @@ public class StorefrontService {
                 .precioVenta(p.getPrecioVenta())
                 .enLiquidacion(p.getEnLiquidacion())
                 .porcentajeLiquidacion(p.getPorcentajeLiquidacion())
-                .precioLiquidacion(precioLiq)
-                .disponible(!stockList.isEmpty())
+                .precioLiquidacion(precioLiquidacion(
+                        p.getPrecioVenta(), p.getEnLiquidacion(), p.getPorcentajeLiquidacion()))
+                .disponible(disponible)
                 .imagenes(imagenes)
                 .build();
     }
@@ -263,7 +256,7 @@ public class StorefrontService {
     // ═══════════════════════════════════════════════════════════════
     @Transactional(readOnly = true)
     public List<CategoriaStorefrontResponse> listarCategorias(Long tenantId) {
-        return categoriaRepository.findByTenantIdAndEstadoTrue(tenantId).stream()
+        return categoriaService.listarPorTenant(tenantId).stream()
                 .map(c -> CategoriaStorefrontResponse.builder()
                         .id(c.getId())
                         .nombre(c.getNombre())
@@ -288,8 +281,7 @@ public class StorefrontService {
                 .orElseThrow(() -> new IllegalStateException("No hay almacén activo en la tienda"));
 
         // Generate codigo
-        long count = pedidoTiendaRepository.countByTenantId(tenantId);
-        String codigo = "PED-" + String.format("%06d", count + 1);
+        String codigo = numeracionService.siguienteCodigo(tenantId, CorrelativoDocumento.Documento.PEDIDO);
 
         PedidoTienda pedido = PedidoTienda.builder()
                 .tenantId(tenantId)
@@ -332,8 +324,8 @@ public class StorefrontService {
             subtotal = subtotal.add(lineSubtotal);
         }
 
-        // Calculate IGV (18%)
-        BigDecimal igv = subtotal.multiply(BigDecimal.valueOf(0.18)).setScale(2, RoundingMode.HALF_UP);
+        // Calculate IGV (tasa configurada del tenant)
+        BigDecimal igv = configuracionTenantCache.obtener(tenantId).calcularIgv(subtotal);
         BigDecimal total = subtotal.add(igv);
 
         pedido.setSubtotal(subtotal);
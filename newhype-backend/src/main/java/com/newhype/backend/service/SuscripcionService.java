@@ -17,15 +17,21 @@ public class SuscripcionService {
     private final TenantRepository tenantRepository;
     private final PlanSuscripcionRepository planRepository;
     private final AuditoriaPlataformaService auditoriaService;
+    private final CuotaService cuotaService;
+    private final HabilitacionModulos habilitacionModulos;
 
     public SuscripcionService(SuscripcionRepository suscripcionRepository,
                                TenantRepository tenantRepository,
                                PlanSuscripcionRepository planRepository,
-                               AuditoriaPlataformaService auditoriaService) {
+                               AuditoriaPlataformaService auditoriaService,
+                               CuotaService cuotaService,
+                               HabilitacionModulos habilitacionModulos) {
         this.suscripcionRepository = suscripcionRepository;
         this.tenantRepository = tenantRepository;
         this.planRepository = planRepository;
         this.auditoriaService = auditoriaService;
+        this.cuotaService = cuotaService;
+        this.habilitacionModulos = habilitacionModulos;
     }
 
     // ── POST /platform/tenants/{id}/suscripcion ──
@@ -55,6 +61,8 @@ public class SuscripcionService {
                 .autoRenovar(request.getAutoRenovar() != null ? request.getAutoRenovar() : true)
                 .build();
         suscripcion = suscripcionRepository.save(suscripcion);
+        cuotaService.invalidarLimites(tenantId);
+        habilitacionModulos.invalidarTenant(tenantId);
 
         auditoriaService.registrar("ASIGNAR_PLAN",
                 "Plan '" + plan.getNombre() + "' asignado a tenant '" + tenant.getNombre() + "'",
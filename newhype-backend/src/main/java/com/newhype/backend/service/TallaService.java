@@ -9,8 +9,8 @@ import org.springframework.stereotype.Service;
 @Service
 public class TallaService extends AbstractCatalogService<Talla> {
 
-    public TallaService(TallaRepository tallaRepository) {
-        super(tallaRepository);
+    public TallaService(TallaRepository tallaRepository, CatalogCache catalogCache) {
+        super(tallaRepository, catalogCache);
     }
 
     @Override
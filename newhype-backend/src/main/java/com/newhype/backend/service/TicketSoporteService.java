@@ -17,17 +17,14 @@ import java.time.LocalDateTime;
 public class TicketSoporteService {
 
     private final TicketSoporteRepository ticketRepository;
-    private final TenantRepository tenantRepository;
-    private final UsuarioPlataformaRepository usuarioPlataformaRepository;
+    private final DirectorioPlataforma directorio;
     private final AuditoriaPlataformaService auditoriaService;
 
     public TicketSoporteService(TicketSoporteRepository ticketRepository,
-                                 TenantRepository tenantRepository,
-                                 UsuarioPlataformaRepository usuarioPlataformaRepository,
+                                 DirectorioPlataforma directorio,
                                  AuditoriaPlataformaService auditoriaService) {
         this.ticketRepository = ticketRepository;
-        this.tenantRepository = tenantRepository;
-        this.usuarioPlataformaRepository = usuarioPlataformaRepository;
+        this.directorio = directorio;
         this.auditoriaService = auditoriaService;
     }
 
@@ -88,24 +85,12 @@ public class TicketSoporteService {
     }
 
     private TicketResponse toResponse(TicketSoporte ticket) {
-        String tenantNombre = null;
-        if (ticket.getTenantId() != null) {
-            tenantNombre = tenantRepository.findById(ticket.getTenantId())
-                    .map(Tenant::getNombre).orElse(null);
-        }
-
-        String atendidoPor = null;
-        if (ticket.getUsuarioPlataformaId() != null) {
-            atendidoPor = usuarioPlataformaRepository.findById(ticket.getUsuarioPlataformaId())
-                    .map(UsuarioPlataforma::getNombreCompleto).orElse(null);
-        }
-
         return TicketResponse.builder()
                 .id(ticket.getId())
                 .tenantId(ticket.getTenantId())
-                .tenantNombre(tenantNombre)
+                .tenantNombre(directorio.nombreTenant(ticket.getTenantId()))
                 .usuarioPlataformaId(ticket.getUsuarioPlataformaId())
-                .atendidoPor(atendidoPor)
+                .atendidoPor(directorio.nombreUsuario(ticket.getUsuarioPlataformaId()))
                 .asunto(ticket.getAsunto())
                 .descripcion(ticket.getDescripcion())
                 .prioridad(ticket.getPrioridad() != null ? ticket.getPrioridad().name() : null)
@@ -15,7 +15,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,20 +25,26 @@ public class TransferenciaService {
 
     private final TransferenciaRepository transferenciaRepository;
     private final DetalleTransferenciaRepository detalleTransferenciaRepository;
-    private final StockAlmacenRepository stockAlmacenRepository;
+    private final StockMovimientoService stockMovimientoService;
     private final MovimientoInventarioRepository movimientoInventarioRepository;
     private final ProductoRepository productoRepository;
+    private final NumeracionService numeracionService;
+    private final ProductoResolver productoResolver;
 
     public TransferenciaService(TransferenciaRepository transferenciaRepository,
                                 DetalleTransferenciaRepository detalleTransferenciaRepository,
-                                StockAlmacenRepository stockAlmacenRepository,
+                                StockMovimientoService stockMovimientoService,
                                 MovimientoInventarioRepository movimientoInventarioRepository,
-                                ProductoRepository productoRepository) {
+                                ProductoRepository productoRepository,
+                                NumeracionService numeracionService,
+                                ProductoResolver productoResolver) {
         this.transferenciaRepository = transferenciaRepository;
         this.detalleTransferenciaRepository = detalleTransferenciaRepository;
-        this.stockAlmacenRepository = stockAlmacenRepository;
+        this.stockMovimientoService = stockMovimientoService;
         this.movimientoInventarioRepository = movimientoInventarioRepository;
         this.productoRepository = productoRepository;
+        this.numeracionService = numeracionService;
+        this.productoResolver = productoResolver;
     }
 
     @Transactional
@@ -49,8 +57,7 @@ public class TransferenciaService {
         }
 
         // Generate code
-        long count = transferenciaRepository.countByTenantId(tenantId);
-        String codigo = String.format("TRF-%05d", count + 1);
+        String codigo = numeracionService.siguienteCodigo(tenantId, CorrelativoDocumento.Documento.TRANSFERENCIA);
 
         Transferencia t = Transferencia.builder()
                 .tenantId(tenantId)
@@ -63,14 +70,14 @@ public class TransferenciaService {
                 .build();
         t = transferenciaRepository.save(t);
 
-        for (CrearTransferenciaRequest.ItemTransferencia item : request.getItems()) {
-            DetalleTransferencia dt = DetalleTransferencia.builder()
-                    .transferenciaId(t.getId())
-                    .productoId(item.getProductoId())
-                    .cantidad(item.getCantidad())
-                    .build();
-            detalleTransferenciaRepository.save(dt);
-        }
+        Long transferenciaId = t.getId();
+        detalleTransferenciaRepository.saveAll(request.getItems().stream()
+                .map(item -> DetalleTransferencia.builder()
+                        .transferenciaId(transferenciaId)
+                        .productoId(item.getProductoId())
+                        .cantidad(item.getCantidad())
+                        .build())
+                .toList());
 
         return toResponseCompleto(t);
     }
@@ -108,71 +115,52 @@ public class TransferenciaService {
 
         List<DetalleTransferencia> detalles = detalleTransferenciaRepository.findByTransferenciaId(t.getId());
 
-        for (DetalleTransferencia dt : detalles) {
-            // 1. Deduct from origin
-            StockAlmacen saOrigen = stockAlmacenRepository
-                    .findByTenantIdAndProductoIdAndAlmacenId(tenantId, dt.getProductoId(), t.getAlmacenOrigenId())
-                    .orElseThrow(() -> new IllegalArgumentException(
-                            "Sin stock para producto " + dt.getProductoId() + " en almacén origen"));
-
-            if (saOrigen.getCantidad() < dt.getCantidad()) {
-                Producto prod = productoRepository.findById(dt.getProductoId()).orElse(null);
-                String nombre = prod != null ? prod.getNombre() : "ID " + dt.getProductoId();
-                throw new IllegalArgumentException(
-                        "Stock insuficiente para " + nombre +
-                        ". Disponible: " + saOrigen.getCantidad() + ", Requerido: " + dt.getCantidad());
-            }
-
-            int stockAntesOrigen = saOrigen.getCantidad();
-            saOrigen.setCantidad(saOrigen.getCantidad() - dt.getCantidad());
-            stockAlmacenRepository.save(saOrigen);
+        List<StockMovimientoService.LineaStock> lineas = detalles.stream()
+                .map(dt -> new StockMovimientoService.LineaStock(dt.getProductoId(), dt.getCantidad()))
+                .toList();
+
+        // Los almacenes se bloquean siempre en orden de id: dos transferencias cruzadas no se bloquean mutuamente
+        List<StockMovimientoService.CambioStock> origen;
+        List<StockMovimientoService.CambioStock> destino;
+        if (t.getAlmacenOrigenId() < t.getAlmacenDestinoId()) {
+            origen = descontarOrigen(tenantId, t, lineas);
+            destino = stockMovimientoService.incrementarLote(tenantId, t.getAlmacenDestinoId(), lineas);
+        } else {
+            destino = stockMovimientoService.incrementarLote(tenantId, t.getAlmacenDestinoId(), lineas);
+            origen = descontarOrigen(tenantId, t, lineas);
+        }
+
+        List<MovimientoInventario> movimientos = new ArrayList<>(detalles.size() * 2);
+        for (int i = 0; i < detalles.size(); i++) {
+            DetalleTransferencia dt = detalles.get(i);
 
             // Kardex SALIDA in origin
-            movimientoInventarioRepository.save(MovimientoInventario.builder()
+            movimientos.add(MovimientoInventario.builder()
                     .tenantId(tenantId)
                     .productoId(dt.getProductoId())
                     .almacenId(t.getAlmacenOrigenId())
                     .tipo(TipoMovimiento.SALIDA)
                     .cantidad(dt.getCantidad())
-                    .stockAntes(stockAntesOrigen)
-                    .stockDespues(saOrigen.getCantidad())
+                    .stockAntes(origen.get(i).antes())
+                    .stockDespues(origen.get(i).despues())
                     .documentoReferencia(t.getCodigo())
                     .usuarioId(usuarioId)
                     .build());
 
-            // 2. Add to destination
-            StockAlmacen saDestino = stockAlmacenRepository
-                    .findByTenantIdAndProductoIdAndAlmacenId(tenantId, dt.getProductoId(), t.getAlmacenDestinoId())
-                    .orElse(null);
-
-            if (saDestino == null) {
-                saDestino = StockAlmacen.builder()
-                        .tenantId(tenantId)
-                        .productoId(dt.getProductoId())
-                        .almacenId(t.getAlmacenDestinoId())
-                        .cantidad(0)
-                        .stockMinimo(0)
-                        .build();
-                saDestino = stockAlmacenRepository.save(saDestino);
-            }
-
-            int stockAntesDestino = saDestino.getCantidad();
-            saDestino.setCantidad(saDestino.getCantidad() + dt.getCantidad());
-            stockAlmacenRepository.save(saDestino);
-
             // Kardex ENTRADA in destination
-            movimientoInventarioRepository.save(MovimientoInventario.builder()
+            movimientos.add(MovimientoInventario.builder()
                     .tenantId(tenantId)
                     .productoId(dt.getProductoId())
                     .almacenId(t.getAlmacenDestinoId())
                     .tipo(TipoMovimiento.ENTRADA)
                     .cantidad(dt.getCantidad())
-                    .stockAntes(stockAntesDestino)
-                    .stockDespues(saDestino.getCantidad())
+                    .stockAntes(destino.get(i).antes())
+                    .stockDespues(destino.get(i).despues())
                     .documentoReferencia(t.getCodigo())
                     .usuarioId(usuarioId)
                     .build());
         }
+        movimientoInventarioRepository.saveAll(movimientos);
 
         t.setEstado(EstadoTransferencia.APROBADA);
         t.setAprobadoPorId(usuarioId);
@@ -199,6 +187,14 @@ public class TransferenciaService {
         return toResponseBasico(t);
     }
 
+    private List<StockMovimientoService.CambioStock> descontarOrigen(Long tenantId, Transferencia t,
+                                                                    List<StockMovimientoService.LineaStock> lineas) {
+        return stockMovimientoService.descontarLote(tenantId, t.getAlmacenOrigenId(), lineas,
+                productoId -> productoRepository.findById(productoId)
+                        .map(Producto::getNombre)
+                        .orElse("ID " + productoId));
+    }
+
     private TransferenciaResponse toResponseBasico(Transferencia t) {
         return TransferenciaResponse.builder()
                 .id(t.getId())
@@ -220,15 +216,14 @@ public class TransferenciaService {
     private TransferenciaResponse toResponseCompleto(Transferencia t) {
         TransferenciaResponse response = toResponseBasico(t);
         List<DetalleTransferencia> detalles = detalleTransferenciaRepository.findByTransferenciaId(t.getId());
-        response.setDetalles(detalles.stream().map(dt -> {
-            Producto prod = productoRepository.findById(dt.getProductoId()).orElse(null);
-            return DetalleTransferenciaResponse.builder()
-                    .id(dt.getId())
-                    .productoId(dt.getProductoId())
-                    .productoNombre(prod != null ? prod.getNombre() : null)
-                    .cantidad(dt.getCantidad())
-                    .build();
-        }).collect(Collectors.toList()));
+        Map<Long, String> nombres = productoResolver.nombres(
+                detalles.stream().map(DetalleTransferencia::getProductoId).toList());
+        response.setDetalles(detalles.stream().map(dt -> DetalleTransferenciaResponse.builder()
+                .id(dt.getId())
+                .productoId(dt.getProductoId())
+                .productoNombre(nombres.get(dt.getProductoId()))
+                .cantidad(dt.getCantidad())
+                .build()).collect(Collectors.toList()));
         return response;
     }
 }
@@ -0,0 +1,207 @@
+package com.newhype.backend.service;
+
+import com.newhype.backend.dto.ApiResponse;
+import com.newhype.backend.dto.configuracion.UbigeoResponse;
+import com.newhype.backend.repository.DepartamentoRepository;
+import com.newhype.backend.repository.DistritoRepository;
+import com.newhype.backend.repository.ProvinciaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.ObjectMapper;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Ubigeo del Perú (departamentos → provincias → distritos) cargado una sola vez en memoria.
+ * Los datos son estáticos: se indexan por id y por código, y cada respuesta JSON se
+ * serializa de antemano junto con su ETag fuerte (SHA-256 del cuerpo).
+ */
+@Service
+public class UbigeoService {
+
+    private static final Logger log = LoggerFactory.getLogger(UbigeoService.class);
+
+    /** Cuerpo JSON pre-serializado ({@code ApiResponse}) y su ETag. */
+    public record Respuesta(byte[] cuerpo, String etag) {}
+
+    public record Nodo(Long id, String codigo, String nombre, Long parentId) {}
+
+    private record Snapshot(Map<Long, Nodo> departamentos,
+                            Map<Long, Nodo> provincias,
+                            Map<Long, Nodo> distritos,
+                            Map<String, Nodo> porCodigo,
+                            Respuesta departamentosJson,
+                            Map<Long, Respuesta> provinciasJson,
+                            Map<Long, Respuesta> distritosJson,
+                            Respuesta arbolJson,
+                            Respuesta vacio) {}
+
+    private final DepartamentoRepository departamentoRepository;
+    private final ProvinciaRepository provinciaRepository;
+    private final DistritoRepository distritoRepository;
+    private final ObjectMapper objectMapper;
+
+    private volatile Snapshot snapshot;
+
+    public UbigeoService(DepartamentoRepository departamentoRepository,
+                         ProvinciaRepository provinciaRepository,
+                         DistritoRepository distritoRepository,
+                         ObjectMapper objectMapper) {
+        this.departamentoRepository = departamentoRepository;
+        this.provinciaRepository = provinciaRepository;
+        this.distritoRepository = distritoRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarAlIniciar() {
+        snapshot();
+    }
+
+    // ── Respuestas HTTP ──
+
+    public Respuesta departamentos() {
+        return snapshot().departamentosJson();
+    }
+
+    public Respuesta provincias(Long departamentoId) {
+        Snapshot s = snapshot();
+        return s.provinciasJson().getOrDefault(departamentoId, s.vacio());
+    }
+
+    public Respuesta distritos(Long provinciaId) {
+        Snapshot s = snapshot();
+        return s.distritosJson().getOrDefault(provinciaId, s.vacio());
+    }
+
+    public Respuesta arbol() {
+        return snapshot().arbolJson();
+    }
+
+    // ── Búsquedas ──
+
+    public Optional<Nodo> departamento(Long id) {
+        return Optional.ofNullable(snapshot().departamentos().get(id));
+    }
+
+    public Optional<Nodo> provincia(Long id) {
+        return Optional.ofNullable(snapshot().provincias().get(id));
+    }
+
+    public Optional<Nodo> distrito(Long id) {
+        return Optional.ofNullable(snapshot().distritos().get(id));
+    }
+
+    /** Departamento (2 dígitos), provincia (4) o distrito (6) por su código de ubigeo. */
+    public Optional<Nodo> porCodigo(String codigo) {
+        return Optional.ofNullable(snapshot().porCodigo().get(codigo));
+    }
+
+    // ── Carga ──
+
+    private Snapshot snapshot() {
+        Snapshot s = snapshot;
+        if (s == null) {
+            synchronized (this) {
+                s = snapshot;
+                if (s == null) {
+                    s = cargar();
+                    snapshot = s;
+                }
+            }
+        }
+        return s;
+    }
+
+    private Snapshot cargar() {
+        Sort porNombre = Sort.by("nombre");
+        List<Nodo> deps = departamentoRepository.findAllByOrderByNombreAsc().stream()
+                .map(d -> new Nodo(d.getId(), d.getCodigo(), d.getNombre(), null))
+                .toList();
+        List<Nodo> provs = provinciaRepository.findAll(porNombre).stream()
+                .map(p -> new Nodo(p.getId(), p.getCodigo(), p.getNombre(), p.getDepartamentoId()))
+                .toList();
+        List<Nodo> dists = distritoRepository.findAll(porNombre).stream()
+                .map(d -> new Nodo(d.getId(), d.getCodigo(), d.getNombre(), d.getProvinciaId()))
+                .toList();
+
+        Map<Long, List<Nodo>> provsPorDep = provs.stream()
+                .collect(Collectors.groupingBy(Nodo::parentId, LinkedHashMap::new, Collectors.toList()));
+        Map<Long, List<Nodo>> distsPorProv = dists.stream()
+                .collect(Collectors.groupingBy(Nodo::parentId, LinkedHashMap::new, Collectors.toList()));
+
+        Map<String, Nodo> porCodigo = new HashMap<>();
+        deps.forEach(n -> porCodigo.put(n.codigo(), n));
+        provs.forEach(n -> porCodigo.put(n.codigo(), n));
+        dists.forEach(n -> porCodigo.put(n.codigo(), n));
+
+        List<UbigeoResponse> arbol = deps.stream()
+                .map(d -> {
+                    UbigeoResponse dep = toResponse(d);
+                    dep.setHijos(provsPorDep.getOrDefault(d.id(), List.of()).stream()
+                            .map(p -> {
+                                UbigeoResponse prov = toResponse(p);
+                                prov.setHijos(distsPorProv.getOrDefault(p.id(), List.of()).stream()
+                                        .map(this::toResponse)
+                                        .toList());
+                                return prov;
+                            })
+                            .toList());
+                    return dep;
+                })
+                .toList();
+
+        Snapshot s = new Snapshot(
+                indexar(deps), indexar(provs), indexar(dists), Map.copyOf(porCodigo),
+                serializar(deps.stream().map(this::toResponse).toList()),
+                serializarGrupos(provsPorDep),
+                serializarGrupos(distsPorProv),
+                serializar(arbol),
+                serializar(List.of()));
+        log.info("Ubigeo cargado en memoria: {} departamentos, {} provincias, {} distritos",
+                deps.size(), provs.size(), dists.size());
+        return s;
+    }
+
+    private static Map<Long, Nodo> indexar(List<Nodo> nodos) {
+        return nodos.stream().collect(Collectors.toUnmodifiableMap(Nodo::id, Function.identity()));
+    }
+
+    private Map<Long, Respuesta> serializarGrupos(Map<Long, List<Nodo>> grupos) {
+        Map<Long, Respuesta> out = new HashMap<>();
+        grupos.forEach((parentId, nodos) -> out.put(parentId,
+                serializar(nodos.stream().map(this::toResponse).toList())));
+        return Map.copyOf(out);
+    }
+
+    private Respuesta serializar(List<UbigeoResponse> data) {
+        byte[] cuerpo = objectMapper.writeValueAsBytes(ApiResponse.ok(data));
+        return new Respuesta(cuerpo, etag(cuerpo));
+    }
+
+    private static String etag(byte[] cuerpo) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(cuerpo);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest).substring(0, 22) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    private UbigeoResponse toResponse(Nodo n) {
+        return UbigeoResponse.builder()
+                .id(n.id())
+                .codigo(n.codigo())
+                .nombre(n.nombre())
+                .parentId(n.parentId())
+                .build();
+    }
+}
@@ -9,8 +9,8 @@ import org.springframework.stereotype.Service;
 @Service
 public class UnidadMedidaService extends AbstractCatalogService<UnidadMedida> {
 
-    public UnidadMedidaService(UnidadMedidaRepository unidadMedidaRepository) {
-        super(unidadMedidaRepository);
+    public UnidadMedidaService(UnidadMedidaRepository unidadMedidaRepository, CatalogCache catalogCache) {
+        super(unidadMedidaRepository, catalogCache);
     }
 
     @Override
@@ -6,10 +6,10 @@ import com.newhype.backend.entity.Usuario;
 import com.newhype.backend.exception.ResourceNotFoundException;
 import com.newhype.backend.repository.RolRepository;
 import com.newhype.backend.repository.UsuarioRepository;
+import com.newhype.backend.security.PasswordHashExecutor;
 import com.newhype.backend.security.TenantContext;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,14 +18,17 @@ public class UsuarioService {
 
     private final UsuarioRepository usuarioRepository;
     private final RolRepository rolRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashExecutor passwordHasher;
+    private final CuotaService cuotaService;
 
     public UsuarioService(UsuarioRepository usuarioRepository,
                           RolRepository rolRepository,
-                          PasswordEncoder passwordEncoder) {
+                          PasswordHashExecutor passwordHasher,
+                          CuotaService cuotaService) {
         this.usuarioRepository = usuarioRepository;
         this.rolRepository = rolRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHasher = passwordHasher;
+        this.cuotaService = cuotaService;
     }
 
     @Transactional
@@ -41,12 +44,13 @@ public class UsuarioService {
 
         Rol rol = rolRepository.findByIdAndTenantId(request.getRolId(), tenantId)
                 .orElseThrow(() -> new ResourceNotFoundException("Rol", request.getRolId()));
+        cuotaService.reservar(tenantId, CuotaService.Recurso.USUARIOS);
 
         Usuario usuario = Usuario.builder()
                 .tenantId(tenantId)
                 .email(request.getEmail())
                 .username(request.getUsername())
-                .passwordHash(passwordEncoder.encode(request.getPassword()))
+                .passwordHash(passwordHasher.encode(request.getPassword()))
                 .nombre(request.getNombre())
                 .apellido(request.getApellido())
                 .rolId(request.getRolId())
@@ -107,7 +111,7 @@ public class UsuarioService {
         Usuario usuario = usuarioRepository.findByIdAndTenantId(id, tenantId)
                 .orElseThrow(() -> new ResourceNotFoundException("Usuario", id));
 
-        usuario.setPasswordHash(passwordEncoder.encode(request.getNuevaPassword()));
+        usuario.setPasswordHash(passwordHasher.encode(request.getNuevaPassword()));
         usuarioRepository.save(usuario);
     }
 
@@ -123,6 +127,8 @@ public class UsuarioService {
             throw new IllegalArgumentException("No puedes desactivarte a ti mismo");
         }
 
+        cuotaService.cambiarEstado(tenantId, CuotaService.Recurso.USUARIOS,
+                usuario.getEstado(), !usuario.getEstado());
         usuario.setEstado(!usuario.getEstado());
         usuario = usuarioRepository.save(usuario);
         Rol rol = usuario.getRol();
@@ -0,0 +1,168 @@
+package com.newhype.backend.service;
+
+import com.newhype.backend.entity.NotaCredito;
+import com.newhype.backend.entity.Venta;
+import com.newhype.backend.repository.VentaDiariaRepository;
+import com.newhype.backend.repository.VentaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Mantiene el rollup {@code ventas_diarias} que leen el dashboard y el reporte de ventas.
+ * Los acumulados se aplican dentro de la transacción del llamador; la reconstrucción
+ * re-deriva un rango de días desde {@code ventas} y {@code notas_credito}, un tenant y un día
+ * por transacción, para no bloquear los upserts de {@code confirmarPago} de todo el sistema.
+ * El backfill inicial y la reconciliación nocturna corren en un solo nodo a la vez ({@code GET_LOCK}).
+ */
+@Service
+public class VentaDiariaService {
+
+    private static final Logger log = LoggerFactory.getLogger(VentaDiariaService.class);
+    private static final LocalDate INICIO_HISTORIAL = LocalDate.of(2000, 1, 1);
+    private static final String CANDADO = "newhype.ventas-diarias";
+
+    private final VentaDiariaRepository ventaDiariaRepository;
+    private final VentaRepository ventaRepository;
+    private final TransactionTemplate transaccion;
+    private final CandadoDistribuido candado;
+
+    @Value("${app.reportes.ventas-diarias.dias-reconciliacion:2}")
+    private int diasReconciliacion;
+
+    public VentaDiariaService(VentaDiariaRepository ventaDiariaRepository,
+                              VentaRepository ventaRepository,
+                              PlatformTransactionManager transactionManager,
+                              CandadoDistribuido candado) {
+        this.ventaDiariaRepository = ventaDiariaRepository;
+        this.ventaRepository = ventaRepository;
+        this.transaccion = new TransactionTemplate(transactionManager);
+        this.candado = candado;
+    }
+
+    @Transactional
+    public void registrarVenta(Venta venta) {
+        ventaDiariaRepository.acumularVenta(
+                venta.getTenantId(),
+                venta.getFechaEmision().toLocalDate(),
+                venta.getTipoComprobante().name(),
+                venta.getAlmacenId(),
+                venta.getUsuarioId(),
+                venta.getSubtotal(),
+                venta.getIgv(),
+                venta.getDescuento(),
+                venta.getTotal());
+    }
+
+    @Transactional
+    public void registrarNotaCredito(NotaCredito nc, Venta ventaOrigen) {
+        LocalDate fecha = nc.getCreatedAt() != null ? nc.getCreatedAt().toLocalDate() : LocalDate.now();
+        ventaDiariaRepository.acumularNotaCredito(
+                nc.getTenantId(),
+                fecha,
+                ventaOrigen.getTipoComprobante().name(),
+                ventaOrigen.getAlmacenId(),
+                nc.getUsuarioId(),
+                nc.getTotal());
+    }
+
+    /**
+     * Re-deriva el rollup de un rango de días. {@code tenantId} null reconstruye los tenants con
+     * actividad en el rango; {@code desde} null empieza en el primer día con ventas del tenant.
+     * Un día que falla se registra y se sigue con los demás; al final se informa cuántos fallaron.
+     */
+    public int reconstruir(Long tenantId, LocalDate desde, LocalDate hasta) {
+        LocalDate fin = hasta != null ? hasta : LocalDate.now();
+        if (desde != null && fin.isBefore(desde)) {
+            throw new IllegalArgumentException("La fecha hasta no puede ser anterior a la fecha desde");
+        }
+
+        List<Long> tenants = tenantId != null ? List.of(tenantId)
+                : ventaDiariaRepository.findTenantsConActividad(
+                        (desde != null ? desde : INICIO_HISTORIAL).atStartOfDay(), fin.plusDays(1).atStartOfDay());
+        int filas = 0;
+        int fallidos = 0;
+        for (Long t : tenants) {
+            LocalDate inicio = desde != null ? desde : primerDia(t);
+            if (inicio == null) {
+                continue;
+            }
+            for (LocalDate dia = inicio; !dia.isAfter(fin); dia = dia.plusDays(1)) {
+                try {
+                    filas += reconstruirDia(t, dia);
+                } catch (DataAccessException e) {
+                    fallidos++;
+                    log.warn("ventas_diarias: no se pudo reconstruir tenant {} día {}: {}", t, dia, e.getMessage());
+                }
+            }
+        }
+        if (fallidos > 0) {
+            throw new IllegalStateException("ventas_diarias: " + fallidos + " días no se pudieron reconstruir");
+        }
+        return filas;
+    }
+
+    private int reconstruirDia(Long tenantId, LocalDate dia) {
+        LocalDateTime desde = dia.atStartOfDay();
+        LocalDateTime hastaExclusivo = dia.plusDays(1).atStartOfDay();
+        Integer filas = transaccion.execute(status -> {
+            ventaDiariaRepository.eliminarRango(tenantId, dia, dia);
+            return ventaDiariaRepository.reconstruirVentas(tenantId, desde, hastaExclusivo)
+                    + ventaDiariaRepository.reconstruirNotasCredito(tenantId, desde, hastaExclusivo);
+        });
+        return filas != null ? filas : 0;
+    }
+
+    // Primer día con ventas o con filas del rollup (para limpiar días sin ventas)
+    private LocalDate primerDia(Long tenantId) {
+        LocalDateTime venta = ventaRepository.findPrimeraFechaEmision(tenantId);
+        LocalDate rollup = ventaDiariaRepository.findPrimeraFecha(tenantId);
+        if (venta == null) {
+            return rollup;
+        }
+        return rollup != null && rollup.isBefore(venta.toLocalDate()) ? rollup : venta.toLocalDate();
+    }
+
+    // Backfill inicial: si el rollup está vacío pero ya hay ventas, se deriva todo el historial.
+    // Corre en su propio hilo (un día por transacción puede tardar) para no demorar el arranque.
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillInicial() {
+        Thread t = new Thread(() -> conCandado("backfill", () -> {
+            if (ventaDiariaRepository.count() == 0 && ventaRepository.count() > 0) {
+                int filas = reconstruir(null, null, null);
+                log.info("ventas_diarias reconstruida desde el historial: {} filas", filas);
+            }
+        }), "ventas-diarias-backfill");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    // Reconciliación nocturna de los últimos días (corrige cualquier deriva del acumulado)
+    @Scheduled(cron = "${app.reportes.ventas-diarias.cron:0 30 3 * * *}")
+    public void reconciliar() {
+        LocalDate hoy = LocalDate.now();
+        conCandado("reconciliación", () -> reconstruir(null, hoy.minusDays(diasReconciliacion), hoy));
+    }
+
+    private void conCandado(String tarea, Runnable trabajo) {
+        try {
+            if (!candado.ejecutar(CANDADO, trabajo)) {
+                log.info("ventas_diarias ({}): otro nodo tiene el candado, se omite", tarea);
+            }
+        } catch (DataAccessException | IllegalStateException e) {
+            log.error("ventas_diarias ({}) interrumpida: {}", tarea, e.getMessage());
+        }
+    }
+}
@@ -14,9 +14,11 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,40 +28,72 @@ public class VentaService {
     private final DetalleVentaRepository detalleVentaRepository;
     private final PagoVentaRepository pagoVentaRepository;
     private final ProductoRepository productoRepository;
-    private final StockAlmacenRepository stockAlmacenRepository;
+    private final StockMovimientoService stockMovimientoService;
     private final MovimientoInventarioRepository movimientoInventarioRepository;
     private final SesionCajaRepository sesionCajaRepository;
+    private final VentaDiariaService ventaDiariaService;
+    private final NumeracionService numeracionService;
+    private final CuotaService cuotaService;
+    private final ConfiguracionTenantCache configuracionTenantCache;
 
     public VentaService(VentaRepository ventaRepository,
                         DetalleVentaRepository detalleVentaRepository,
                         PagoVentaRepository pagoVentaRepository,
                         ProductoRepository productoRepository,
-                        StockAlmacenRepository stockAlmacenRepository,
+                        StockMovimientoService stockMovimientoService,
                         MovimientoInventarioRepository movimientoInventarioRepository,
-                        SesionCajaRepository sesionCajaRepository) {
+                        SesionCajaRepository sesionCajaRepository,
+                        VentaDiariaService ventaDiariaService,
+                        NumeracionService numeracionService,
+                        CuotaService cuotaService,
+                        ConfiguracionTenantCache configuracionTenantCache) {
         this.ventaRepository = ventaRepository;
         this.detalleVentaRepository = detalleVentaRepository;
         this.pagoVentaRepository = pagoVentaRepository;
         this.productoRepository = productoRepository;
-        this.stockAlmacenRepository = stockAlmacenRepository;
+        this.stockMovimientoService = stockMovimientoService;
         this.movimientoInventarioRepository = movimientoInventarioRepository;
         this.sesionCajaRepository = sesionCajaRepository;
+        this.ventaDiariaService = ventaDiariaService;
+        this.numeracionService = numeracionService;
+        this.cuotaService = cuotaService;
+        this.configuracionTenantCache = configuracionTenantCache;
     }
 
     @Transactional
     public VentaResponse crear(CrearVentaRequest request) {
         Long tenantId = TenantContext.getCurrentTenantId();
         Long usuarioId = TenantContext.getCurrentUserId();
-
-        // Generar código de venta
-        long count = ventaRepository.countByTenantId(tenantId) + 1;
-        String codigoVenta = String.format("VEN-%05d", count);
+        cuotaService.reservar(tenantId, CuotaService.Recurso.VENTAS_MES);
+        ConfiguracionTenant config = configuracionTenantCache.obtener(tenantId);
 
         TipoComprobante tipoComprobante = TipoComprobante.BOLETA;
         if (request.getTipoComprobante() != null) {
             tipoComprobante = TipoComprobante.valueOf(request.getTipoComprobante());
         }
 
+        // Boleta/factura con serie y sin número: se valida la serie antes de consumir correlativos
+        String numero = request.getNumero();
+        boolean numerarSerie = (numero == null || numero.isBlank()) && request.getSerie() != null
+                && !request.getSerie().isBlank() && tipoComprobante != TipoComprobante.NOTA_VENTA;
+        SerieComprobante.TipoComprobante tipoSerie = numerarSerie
+                ? SerieComprobante.TipoComprobante.valueOf(tipoComprobante.name()) : null;
+        if (numerarSerie) {
+            config = configuracionTenantCache.obtener(tenantId, c -> c.serieActiva(tipoSerie, request.getSerie()));
+            if (!config.serieActiva(tipoSerie, request.getSerie())) {
+                throw new IllegalArgumentException(
+                        "La serie " + request.getSerie() + " no existe o está inactiva para " + tipoComprobante);
+            }
+        }
+
+        // Generar código de venta
+        String codigoVenta = numeracionService.siguienteCodigo(tenantId, CorrelativoDocumento.Documento.VENTA);
+
+        // Correlativo de la serie SUNAT
+        if (numerarSerie) {
+            numero = numeracionService.siguienteNumeroSerie(tenantId, tipoSerie, request.getSerie());
+        }
+
         Venta venta = Venta.builder()
                 .tenantId(tenantId)
                 .codigoVenta(codigoVenta)
@@ -70,7 +104,7 @@ public class VentaService {
                 .fechaEmision(LocalDateTime.now())
                 .tipoComprobante(tipoComprobante)
                 .serie(request.getSerie())
-                .numero(request.getNumero())
+                .numero(numero)
                 .observaciones(request.getObservaciones())
                 .build();
 
@@ -80,16 +114,25 @@ public class VentaService {
         BigDecimal subtotalNeto = BigDecimal.ZERO;
         BigDecimal totalDescuento = BigDecimal.ZERO;
 
+        // Una sola lectura de productos para todas las líneas
+        Map<Long, Producto> productos = productoRepository.findByTenantIdAndIdIn(tenantId,
+                        request.getItems().stream().map(CrearVentaRequest.ItemVenta::getProductoId).toList())
+                .stream()
+                .collect(Collectors.toMap(Producto::getId, Function.identity()));
+
+        List<DetalleVenta> detalles = new ArrayList<>(request.getItems().size());
         for (CrearVentaRequest.ItemVenta item : request.getItems()) {
-            Producto producto = productoRepository.findByIdAndTenantId(item.getProductoId(), tenantId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Producto", item.getProductoId()));
+            Producto producto = productos.get(item.getProductoId());
+            if (producto == null) {
+                throw new ResourceNotFoundException("Producto", item.getProductoId());
+            }
 
             BigDecimal descuentoItem = item.getDescuento() != null ? item.getDescuento() : BigDecimal.ZERO;
             BigDecimal subtotalItem = item.getPrecioUnitario()
                     .multiply(BigDecimal.valueOf(item.getCantidad()))
                     .subtract(descuentoItem);
 
-            DetalleVenta detalle = DetalleVenta.builder()
+            detalles.add(DetalleVenta.builder()
                     .ventaId(venta.getId())
                     .productoId(item.getProductoId())
                     .nombreProducto(producto.getNombre())
@@ -97,16 +140,15 @@ public class VentaService {
                     .precioUnitario(item.getPrecioUnitario())
                     .descuento(descuentoItem)
                     .subtotal(subtotalItem)
-                    .build();
-
-            detalleVentaRepository.save(detalle);
+                    .build());
 
             subtotalNeto = subtotalNeto.add(subtotalItem);
             totalDescuento = totalDescuento.add(descuentoItem);
         }
+        detalleVentaRepository.saveAll(detalles);
 
-        // IGV 18%
-        BigDecimal igv = subtotalNeto.multiply(new BigDecimal("0.18")).setScale(2, RoundingMode.HALF_UP);
+        // IGV con la tasa configurada del tenant
+        BigDecimal igv = config.calcularIgv(subtotalNeto);
         BigDecimal total = subtotalNeto.add(igv);
 
         venta.setSubtotal(subtotalNeto);
@@ -181,51 +223,57 @@ public class VentaService {
         }
 
         // 1. Guardar pagos
+        ConfiguracionTenant config = configuracionTenantCache.obtener(tenantId, c -> request.getPagos().stream()
+                .allMatch(p -> c.metodoPagoActivo(p.getMetodoPagoId())));
+        for (ConfirmarPagoRequest.PagoItem pagoItem : request.getPagos()) {
+            if (!config.metodoPagoActivo(pagoItem.getMetodoPagoId())) {
+                throw new IllegalArgumentException("Método de pago no válido o inactivo: " + pagoItem.getMetodoPagoId());
+            }
+        }
         int orden = 1;
+        List<PagoVenta> pagos = new ArrayList<>(request.getPagos().size());
         for (ConfirmarPagoRequest.PagoItem pagoItem : request.getPagos()) {
-            PagoVenta pago = PagoVenta.builder()
+            pagos.add(PagoVenta.builder()
                     .ventaId(venta.getId())
                     .metodoPagoId(pagoItem.getMetodoPagoId())
                     .monto(pagoItem.getMonto())
                     .referencia(pagoItem.getReferencia())
                     .orden(orden++)
-                    .build();
-            pagoVentaRepository.save(pago);
+                    .build());
         }
+        pagoVentaRepository.saveAll(pagos);
 
         // 2. Descontar stock y registrar kardex por cada detalle
         List<DetalleVenta> detalles = detalleVentaRepository.findByVentaId(venta.getId());
 
-        for (DetalleVenta dv : detalles) {
-            StockAlmacen sa = stockAlmacenRepository
-                    .findByTenantIdAndProductoIdAndAlmacenId(tenantId, dv.getProductoId(), venta.getAlmacenId())
-                    .orElseThrow(() -> new IllegalArgumentException(
-                            "Sin registro de stock para producto " + dv.getNombreProducto() + " en el almacén"));
+        Map<Long, String> nombres = detalles.stream()
+                .collect(Collectors.toMap(DetalleVenta::getProductoId, DetalleVenta::getNombreProducto, (a, b) -> a));
+        List<StockMovimientoService.CambioStock> cambios = stockMovimientoService.descontarLote(
+                tenantId, venta.getAlmacenId(),
+                detalles.stream()
+                        .map(dv -> new StockMovimientoService.LineaStock(dv.getProductoId(), dv.getCantidad()))
+                        .toList(),
+                productoId -> "producto " + nombres.get(productoId));
 
-            if (sa.getCantidad() < dv.getCantidad()) {
-                throw new IllegalArgumentException(
-                        "Stock insuficiente para " + dv.getNombreProducto() +
-                        ". Disponible: " + sa.getCantidad() + ", Requerido: " + dv.getCantidad());
-            }
-
-            int stockAntes = sa.getCantidad();
-            sa.setCantidad(sa.getCantidad() - dv.getCantidad());
-            stockAlmacenRepository.save(sa);
+        List<MovimientoInventario> movimientos = new ArrayList<>(detalles.size());
+        for (int i = 0; i < detalles.size(); i++) {
+            DetalleVenta dv = detalles.get(i);
+            StockMovimientoService.CambioStock cambio = cambios.get(i);
 
             // Registrar movimiento de inventario (kardex)
-            MovimientoInventario mov = MovimientoInventario.builder()
+            movimientos.add(MovimientoInventario.builder()
                     .tenantId(tenantId)
                     .productoId(dv.getProductoId())
                     .almacenId(venta.getAlmacenId())
                     .tipo(TipoMovimiento.SALIDA)
                     .cantidad(dv.getCantidad())
-                    .stockAntes(stockAntes)
-                    .stockDespues(sa.getCantidad())
+                    .stockAntes(cambio.antes())
+                    .stockDespues(cambio.despues())
                     .documentoReferencia(venta.getCodigoVenta())
                     .usuarioId(usuarioId)
-                    .build();
-            movimientoInventarioRepository.save(mov);
+                    .build());
         }
+        movimientoInventarioRepository.saveAll(movimientos);
 
         // 3. Actualizar venta
         venta.setEstado(EstadoVenta.COMPLETADA);
@@ -246,6 +294,10 @@ public class VentaService {
         }
 
         venta = ventaRepository.save(venta);
+
+        // 5. Acumular en el rollup diario (dashboard / reporte de ventas)
+        ventaDiariaService.registrarVenta(venta);
+
         return toResponseCompleto(venta);
     }
 
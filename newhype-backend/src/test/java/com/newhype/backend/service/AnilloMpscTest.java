@@ -0,0 +1,96 @@
+package com.newhype.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class AnilloMpscTest {
+
+    @Test
+    void redondeaLaCapacidadYRechazaConElAnilloLleno() {
+        AnilloMpsc<Integer> anillo = new AnilloMpsc<>(5);
+        assertThat(anillo.getCapacidad()).isEqualTo(8);
+        for (int i = 0; i < 8; i++) {
+            assertThat(anillo.ofrecer(i)).isTrue();
+        }
+        assertThat(anillo.ofrecer(8)).isFalse();
+        assertThat(anillo.tamanio()).isEqualTo(8);
+
+        List<Integer> salida = new ArrayList<>();
+        assertThat(anillo.drenar(salida, 3)).isEqualTo(3);
+        assertThat(salida).containsExactly(0, 1, 2);
+        assertThat(anillo.ofrecer(8)).isTrue();
+        assertThat(anillo.drenar(salida, 100)).isEqualTo(6);
+        assertThat(salida).containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8);
+        assertThat(anillo.sacar()).isNull();
+    }
+
+    /**
+     * Varios productores contra un consumidor con un anillo chico (da muchas vueltas y se llena):
+     * cada elemento llega exactamente una vez y en el orden en que lo publicó su productor.
+     */
+    @Test
+    void variosProductoresNoPierdenNiDuplicanNiReordenan() {
+        int productores = 4;
+        int porProductor = 20_000;
+        AnilloMpsc<Long> anillo = new AnilloMpsc<>(64);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(60), () -> {
+            ExecutorService pool = Executors.newFixedThreadPool(productores);
+            CountDownLatch salida = new CountDownLatch(1);
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int p = 0; p < productores; p++) {
+                long base = (long) p << 32;
+                tareas.add(pool.submit(() -> {
+                    salida.await();
+                    for (long i = 0; i < porProductor; i++) {
+                        while (!anillo.ofrecer(base | i)) {
+                            Thread.yield();
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            long[] siguiente = new long[productores];
+            long recibidos = 0;
+            long fueraDeOrden = 0;
+            List<Long> lote = new ArrayList<>(256);
+            salida.countDown();
+            while (recibidos < (long) productores * porProductor) {
+                lote.clear();
+                if (anillo.drenar(lote, 256) == 0) {
+                    Thread.yield();
+                    continue;
+                }
+                for (long v : lote) {
+                    int p = (int) (v >>> 32);
+                    if ((v & 0xFFFF_FFFFL) != siguiente[p]) {
+                        fueraDeOrden++;
+                    }
+                    siguiente[p]++;
+                }
+                recibidos += lote.size();
+            }
+
+            for (Future<?> t : tareas) {
+                t.get(10, TimeUnit.SECONDS);
+            }
+            pool.shutdown();
+            assertThat(fueraDeOrden).isZero();
+            assertThat(siguiente).containsOnly(porProductor);
+            assertThat(anillo.sacar()).isNull();
+            assertThat(anillo.tamanio()).isZero();
+        });
+    }
+}
@@ -0,0 +1,110 @@
+package com.newhype.backend.service;
+
+import com.newhype.backend.repository.ProductoRepository;
+import com.newhype.backend.repository.projection.ProductoIndiceProjection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class IndiceProductosTest {
+
+    private static final Long TENANT = 1L;
+
+    private record Fila(Long getId, Long getTenantId, String getSku, String getNombre, String getCodigoBarras,
+                        Long getCategoriaId, String getCategoriaNombre, String getMarcaNombre)
+            implements ProductoIndiceProjection {}
+
+    private ProductoRepository repository;
+    private IndiceProductos indice;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ProductoRepository.class);
+        when(repository.findParaIndice(TENANT)).thenReturn(List.of(
+                fila(1L, "POL-001", "Polo Niño Azul", "775-0001", 10L, "Polos", "Hype"),
+                fila(2L, "PLR-002", "Polera Adulto", "775-0002", 11L, "Poleras", "Urbano"),
+                fila(3L, "CAS-003", "Casaca Niña", null, 12L, "Casacas", "Hype")));
+        indice = new IndiceProductos(repository);
+    }
+
+    private static Fila fila(Long id, String sku, String nombre, String barras, Long categoriaId,
+                             String categoria, String marca) {
+        return new Fila(id, TENANT, sku, nombre, barras, categoriaId, categoria, marca);
+    }
+
+    @Test
+    void buscaPorPrefijosSinTildesYExigeTodasLasPalabras() {
+        assertThat(indice.buscar(TENANT, "nino", null, 0, 10).ids()).containsExactly(1L);
+        assertThat(indice.buscar(TENANT, "NIÑ", null, 0, 10).ids()).containsExactlyInAnyOrder(1L, 3L);
+        assertThat(indice.buscar(TENANT, "pol azul", null, 0, 10).ids()).containsExactly(1L);
+        assertThat(indice.buscar(TENANT, "pol rojo", null, 0, 10).total()).isZero();
+        assertThat(indice.buscar(TENANT, "  -- ", null, 0, 10).total()).isZero();
+    }
+
+    @Test
+    void codigosSeCompactanYSeEncuentranPorFragmento() {
+        assertThat(indice.buscar(TENANT, "pol001", null, 0, 10).ids()).containsExactly(1L);
+        assertThat(indice.buscar(TENANT, "POL-001", null, 0, 10).ids()).containsExactly(1L);
+        assertThat(indice.buscar(TENANT, "7750002", null, 0, 10).ids()).containsExactly(2L);
+        assertThat(indice.buscar(TENANT, "r002", null, 0, 10).ids()).containsExactly(2L);
+    }
+
+    @Test
+    void ordenaPorRelevanciaYPagina() {
+        // SKU exacto ("pol" de POL-001) por encima de un prefijo de nombre ("polera")
+        assertThat(indice.buscar(TENANT, "pol", null, 0, 10).ids()).containsExactly(1L, 2L);
+        // Mismo puntaje (marca): desempata el nombre
+        assertThat(indice.buscar(TENANT, "hype", null, 0, 10).ids()).containsExactly(3L, 1L);
+
+        IndiceProductos.Resultado pagina = indice.buscar(TENANT, "pol", null, 1, 1);
+        assertThat(pagina.total()).isEqualTo(2);
+        assertThat(pagina.ids()).containsExactly(2L);
+        assertThat(indice.buscar(TENANT, "pol", 11L, 0, 10).ids()).containsExactly(2L);
+    }
+
+    @Test
+    void aplicaCambiosYBajasSobreElSegmento() {
+        indice.buscar(TENANT, "pol", null, 0, 10);
+        when(repository.findParaIndiceById(TENANT, 2L))
+                .thenReturn(Optional.of(fila(2L, "PLR-002", "Chompa Adulto", null, 11L, "Chompas", "Urbano")));
+        when(repository.findParaIndiceById(TENANT, 1L)).thenReturn(Optional.empty());
+
+        indice.reindexar(TENANT, 2L);
+        indice.reindexar(TENANT, 1L);
+
+        assertThat(indice.buscar(TENANT, "pol", null, 0, 10).total()).isZero();
+        assertThat(indice.buscar(TENANT, "chompa", null, 0, 10).ids()).containsExactly(2L);
+        assertThat(indice.buscar(TENANT, "casaca", null, 0, 10).ids()).containsExactly(3L);
+    }
+
+    @Test
+    void compactaLosCambiosEnUnSegmentoNuevo() {
+        indice.buscar(TENANT, "pol", null, 0, 10);
+        when(repository.findParaIndiceById(TENANT, 3L)).thenReturn(Optional.empty());
+        indice.reindexar(TENANT, 3L);
+
+        // Más cambios que el máximo del delta: se fusionan con el segmento
+        List<Long> nuevos = new ArrayList<>();
+        for (long id = 100; id < 400; id++) {
+            when(repository.findParaIndiceById(TENANT, id))
+                    .thenReturn(Optional.of(fila(id, "GOR-" + id, "Gorra Modelo " + id, null, 13L, "Gorras", "Hype")));
+            indice.reindexar(TENANT, id);
+            nuevos.add(id);
+        }
+
+        IndiceProductos.Resultado gorras = indice.buscar(TENANT, "gorra", null, 0, 1000);
+        assertThat(gorras.total()).isEqualTo(nuevos.size());
+        assertThat(gorras.ids()).containsExactlyInAnyOrderElementsOf(nuevos);
+        assertThat(indice.buscar(TENANT, "gor-250", null, 0, 10).ids()).containsExactly(250L);
+        assertThat(indice.buscar(TENANT, "casaca", null, 0, 10).total()).isZero();
+        assertThat(indice.buscar(TENANT, "polo", null, 0, 10).ids()).containsExactly(1L);
+        assertThat(indice.buscar(TENANT, "hype", null, 0, 1000).total()).isEqualTo(nuevos.size() + 1);
+    }
+}